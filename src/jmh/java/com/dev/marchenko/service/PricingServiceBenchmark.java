@@ -0,0 +1,64 @@
+package com.dev.marchenko.service;
+
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.strategy.RateCard;
+import com.dev.marchenko.strategy.RateCardStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fee calculation per check-out. With the GC profiler the {@code calculateCents} path should report
+ * {@code gc.alloc.rate.norm} of about 0 B/op; {@code calculate} pays for the {@link BigDecimal} only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PricingServiceBenchmark {
+
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    private PricingService pricingService;
+    private LocalDateTime entry;
+    private LocalDateTime[] exits;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RateCard dayAndNight = new RateCard(15, 15, new BigDecimal("30.00"), List.of(
+                new RateCard.Band(LocalTime.of(7, 0), LocalTime.of(10, 0), new BigDecimal("4.00"), null),
+                new RateCard.Band(LocalTime.of(10, 0), LocalTime.of(16, 0), new BigDecimal("2.50"), new BigDecimal("12.00")),
+                new RateCard.Band(LocalTime.of(16, 0), LocalTime.of(19, 0), new BigDecimal("4.00"), null),
+                new RateCard.Band(LocalTime.of(19, 0), LocalTime.of(7, 0), new BigDecimal("1.00"), new BigDecimal("5.00"))));
+        RateCard flat = new RateCard(0, 60, null, List.of(
+                new RateCard.Band(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, new BigDecimal("1.00"), null)));
+        pricingService = new PricingService(List.of(
+                new RateCardStrategy(flat, List.of(VehicleType.MOTORCYCLE)),
+                new RateCardStrategy(dayAndNight, List.of(VehicleType.CAR, VehicleType.TRUCK))));
+        entry = LocalDateTime.of(2024, 1, 1, 8, 0);
+        // stays from a few minutes to about a month
+        exits = new LocalDateTime[256];
+        for (int i = 0; i < exits.length; i++) {
+            exits[i] = entry.plusMinutes(7L + (long) i * i * 11L).plusSeconds(i % 60);
+        }
+    }
+
+    @Benchmark
+    public long calculateCents() {
+        int i = next++;
+        return pricingService.calculateCents(TYPES[i % TYPES.length], entry, exits[i & 255]);
+    }
+
+    @Benchmark
+    public BigDecimal calculate() {
+        int i = next++;
+        return pricingService.calculate(TYPES[i % TYPES.length], entry, exits[i & 255]);
+    }
+}
@@ -0,0 +1,83 @@
+package com.dev.marchenko.service;
+
+import com.dev.marchenko.SmartParkingApplication;
+import com.dev.marchenko.domain.lot.Level;
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.dto.LevelRequest;
+import com.dev.marchenko.dto.ParkingLotRequest;
+import com.dev.marchenko.dto.SlotRequest;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk slot creation through {@link AdminService#addSlots} on the in-memory H2 database, one insert per slot
+ * ({@code batchSize = 1}) against the configured JDBC batches. Each invocation fills a fresh level.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SlotBatchInsertBenchmark {
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    @Param({"1000"})
+    public int slots;
+
+    private ConfigurableApplicationContext context;
+    private AdminService adminService;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private List<SlotRequest> requests;
+    private Long lotId;
+    private int floor;
+    private Level level;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(SmartParkingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:slot-batch-benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        adminService = context.getBean(AdminService.class);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        requests = IntStream.rangeClosed(1, slots)
+                .mapToObj(i -> new SlotRequest("S-" + i, SlotType.COMPACT))
+                .toList();
+        lotId = adminService.createLot(new ParkingLotRequest("Benchmark Lot")).getId();
+    }
+
+    @Setup(org.openjdk.jmh.annotations.Level.Invocation)
+    public void addLevel() {
+        level = adminService.addLevel(lotId, new LevelRequest(++floor));
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ParkingSlot> addSlots() {
+        return transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            return adminService.addSlots(level.getId(), requests);
+        });
+    }
+}
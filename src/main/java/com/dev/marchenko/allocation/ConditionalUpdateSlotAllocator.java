@@ -0,0 +1,88 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.exception.NoAvailableSlotException;
+import com.dev.marchenko.repository.SlotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+
+/**
+ * Claims a slot with a compare-and-set UPDATE instead of holding a row lock while the candidate is chosen.
+ * A lost race simply moves on to the next candidate. On PostgreSQL the candidate query uses
+ * SKIP LOCKED, so concurrent gates never wait on each other's rows.
+ */
+@Component
+@ConditionalOnProperty(prefix = "parking.allocation", name = "mode", havingValue = "conditional")
+public class ConditionalUpdateSlotAllocator implements SlotAllocator {
+
+    private static final int CANDIDATE_BATCH_SIZE = 5;
+
+    private final SlotRepository slotRepository;
+    private final boolean skipLocked;
+    private final int maxAttempts;
+
+    @Autowired
+    public ConditionalUpdateSlotAllocator(SlotRepository slotRepository,
+                                          DataSource dataSource,
+                                          @Value("${parking.allocation.max-claim-attempts:5}") int maxAttempts) {
+        this(slotRepository, isPostgres(dataSource), maxAttempts);
+    }
+
+    ConditionalUpdateSlotAllocator(SlotRepository slotRepository, boolean skipLocked, int maxAttempts) {
+        this.slotRepository = slotRepository;
+        this.skipLocked = skipLocked;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public ParkingSlot allocate(Long lotId, VehicleType vehicleType, boolean isHandicapped) {
+        for (SlotType type : SlotCompatibility.candidateTypes(vehicleType, isHandicapped)) {
+            for (int attempt = 0; attempt < maxAttempts; attempt++) {
+                List<Long> candidates = findCandidates(lotId, type);
+                if (candidates.isEmpty()) {
+                    break;
+                }
+                for (Long slotId : candidates) {
+                    if (slotRepository.claim(slotId) == 1) {
+                        ParkingSlot slot = slotRepository.findById(slotId).orElseThrow();
+                        slot.setAvailable(false);
+                        return slot;
+                    }
+                }
+            }
+        }
+        throw new NoAvailableSlotException(vehicleType.name());
+    }
+
+    private List<Long> findCandidates(Long lotId, SlotType type) {
+        if (skipLocked) {
+            return lotId == null
+                    ? slotRepository.findCandidateIdSkipLocked(type.name())
+                    : slotRepository.findCandidateIdSkipLockedInLot(lotId, type.name());
+        }
+        PageRequest batch = PageRequest.of(0, CANDIDATE_BATCH_SIZE);
+        return lotId == null
+                ? slotRepository.findCandidateIds(type, batch)
+                : slotRepository.findCandidateIdsInLot(lotId, type, batch);
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (MetaDataAccessException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.event.SlotAvailabilityChangedEvent;
+import com.dev.marchenko.event.SlotRemovedEvent;
+import com.dev.marchenko.repository.SlotRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Free slot counts per slot type, fleet-wide and per parking lot and level, kept up to date from slot
+ * availability events. Lets check-in reject a full lot without touching the database. Rebuilt from the
+ * database on startup and reconciled every {@code parking.capacity.reconcile-interval}, see
+ * {@link ReconciledLayout}. The version is bumped
+ * on every change so readers can tell whether the counts moved since they last looked.
+ */
+@Component
+@RequiredArgsConstructor
+public class FreeSlotCounters {
+
+    private final SlotRepository slotRepository;
+
+    private final ReconciledLayout<Counts> counts = new ReconciledLayout<>(new Counts());
+    private final AtomicLong version = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${parking.capacity.reconcile-interval:60s}",
+            initialDelayString = "${parking.capacity.reconcile-interval:60s}")
+    public void rebuild() {
+        counts.rebuild(() -> {
+            Counts rebuilt = new Counts();
+            slotRepository.findAllSnapshots().forEach(rebuilt::register);
+            slotRepository.findAllAvailableSnapshots().forEach(rebuilt::markFree);
+            return rebuilt;
+        });
+        version.incrementAndGet();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public int freeSlots(SlotType type) {
+        return counts.current().byType.get(type).get();
+    }
+
+    public int freeSlotsInLot(Long lotId, SlotType type) {
+        return valueOf(counts.current().byLot.get(new Key(lotId, type)));
+    }
+
+    // Free slots of every type in the lot.
+    public int freeSlotsInLot(Long lotId) {
+        int free = 0;
+        for (SlotType type : SlotType.values()) {
+            free += freeSlotsInLot(lotId, type);
+        }
+        return free;
+    }
+
+    public int freeSlotsOnLevel(Long levelId, SlotType type) {
+        return valueOf(counts.current().byLevel.get(new Key(levelId, type)));
+    }
+
+    // Every known level with its free slots per type, including types that are currently full.
+    public List<LevelCapacity> levels() {
+        Counts current = counts.current();
+        return current.levels.values().stream()
+                .sorted(Comparator.comparing(LevelRef::lotId).thenComparing(LevelRef::floorNumber)
+                        .thenComparing(LevelRef::levelId))
+                .map(level -> new LevelCapacity(level.lotId(), level.levelId(), level.floorNumber(),
+                        current.freeSlotsOnLevel(level.levelId())))
+                .toList();
+    }
+
+    // Without a lot, any lot with a free slot of one of the types counts.
+    public boolean hasCapacity(Long lotId, Collection<SlotType> types) {
+        for (SlotType type : types) {
+            int free = lotId == null ? freeSlots(type) : freeSlotsInLot(lotId, type);
+            if (free > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void markFree(SlotSnapshot slot) {
+        apply(current -> current.markFree(slot));
+    }
+
+    public void markTaken(Long slotId) {
+        apply(current -> current.markTaken(slotId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(SlotAvailabilityChangedEvent event) {
+        if (event.available()) {
+            markFree(event.slot());
+        } else {
+            markTaken(event.slot().id());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotRemoved(SlotRemovedEvent event) {
+        markTaken(event.slotId());
+    }
+
+    private void apply(Consumer<Counts> change) {
+        counts.apply(change);
+        version.incrementAndGet();
+    }
+
+    private static int valueOf(AtomicInteger counter) {
+        return counter != null ? counter.get() : 0;
+    }
+
+    private record Key(Long scopeId, SlotType type) {
+    }
+
+    private record LevelRef(Long lotId, Long levelId, Integer floorNumber) {
+    }
+
+    private static final class Counts {
+        private final Map<Long, SlotSnapshot> free = new ConcurrentHashMap<>();
+        private final Map<SlotType, AtomicInteger> byType = new EnumMap<>(SlotType.class);
+        private final Map<Key, AtomicInteger> byLot = new ConcurrentHashMap<>();
+        private final Map<Key, AtomicInteger> byLevel = new ConcurrentHashMap<>();
+        private final Map<Long, LevelRef> levels = new ConcurrentHashMap<>();
+
+        private Counts() {
+            for (SlotType type : SlotType.values()) {
+                byType.put(type, new AtomicInteger());
+            }
+        }
+
+        // Makes the slot's lot and level known with a zero count, so full levels still show up.
+        private void register(SlotSnapshot slot) {
+            levels.putIfAbsent(slot.levelId(), new LevelRef(slot.lotId(), slot.levelId(), slot.floorNumber()));
+            counter(byLot, slot.lotId(), slot.type());
+            counter(byLevel, slot.levelId(), slot.type());
+        }
+
+        private void markFree(SlotSnapshot slot) {
+            register(slot);
+            SlotSnapshot previous = free.put(slot.id(), slot);
+            if (previous != null) {
+                add(previous, -1);
+            }
+            add(slot, 1);
+        }
+
+        private void markTaken(Long slotId) {
+            SlotSnapshot previous = free.remove(slotId);
+            if (previous != null) {
+                add(previous, -1);
+            }
+        }
+
+        private void add(SlotSnapshot slot, int delta) {
+            byType.get(slot.type()).addAndGet(delta);
+            counter(byLot, slot.lotId(), slot.type()).addAndGet(delta);
+            counter(byLevel, slot.levelId(), slot.type()).addAndGet(delta);
+        }
+
+        private Map<SlotType, Integer> freeSlotsOnLevel(Long levelId) {
+            Map<SlotType, Integer> free = new EnumMap<>(SlotType.class);
+            for (SlotType type : SlotType.values()) {
+                AtomicInteger counter = byLevel.get(new Key(levelId, type));
+                if (counter != null) {
+                    free.put(type, counter.get());
+                }
+            }
+            return free;
+        }
+
+        private static AtomicInteger counter(Map<Key, AtomicInteger> counters, Long scopeId, SlotType type) {
+            return counters.computeIfAbsent(new Key(scopeId, type), key -> new AtomicInteger());
+        }
+    }
+}
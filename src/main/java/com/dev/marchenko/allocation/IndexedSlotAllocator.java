@@ -0,0 +1,63 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.exception.NoAvailableSlotException;
+import com.dev.marchenko.repository.SlotRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Picks the slot from {@link SlotAvailabilityIndex} and only touches the database to confirm
+ * that the chosen row is still free. Stale index entries are dropped and the next candidate is tried.
+ */
+@Component
+@ConditionalOnProperty(prefix = "parking.allocation", name = "mode", havingValue = "index")
+@RequiredArgsConstructor
+public class IndexedSlotAllocator implements SlotAllocator {
+
+    private final SlotAvailabilityIndex index;
+    private final SlotRepository slotRepository;
+
+    @Override
+    public boolean allocatesFromLocalState() {
+        return true;
+    }
+
+    @Override
+    public ParkingSlot allocate(Long lotId, VehicleType vehicleType, boolean isHandicapped) {
+        for (SlotType type : SlotCompatibility.candidateTypes(vehicleType, isHandicapped)) {
+            Optional<SlotSnapshot> candidate;
+            while ((candidate = index.poll(lotId, type)).isPresent()) {
+                Optional<ParkingSlot> confirmed = confirm(candidate.get());
+                if (confirmed.isPresent()) {
+                    return confirmed.get();
+                }
+            }
+        }
+        throw new NoAvailableSlotException(vehicleType.name());
+    }
+
+    private Optional<ParkingSlot> confirm(SlotSnapshot candidate) {
+        Optional<ParkingSlot> slotOpt;
+        try {
+            slotOpt = slotRepository.findByIdForUpdate(candidate.id());
+        } catch (RuntimeException e) {
+            index.add(candidate);
+            throw e;
+        }
+        if (slotOpt.isEmpty() || !slotOpt.get().isAvailable()) {
+            return Optional.empty();
+        }
+
+        ParkingSlot slot = slotOpt.get();
+        slot.setAvailable(false);
+        TransactionCallbacks.afterRollback(() -> index.add(candidate));
+        return Optional.of(slotRepository.saveAndFlush(slot));
+    }
+}
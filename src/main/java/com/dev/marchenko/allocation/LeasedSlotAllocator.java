@@ -0,0 +1,74 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.exception.NoAvailableSlotException;
+import com.dev.marchenko.repository.SlotRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Hands out slots from this node's {@link SlotLeasePool}. The claim only touches a row leased to this
+ * node, so it never waits on another gate; the database is searched only when the local pool of a
+ * type has run dry.
+ */
+@Component
+@ConditionalOnProperty(prefix = "parking.allocation", name = "mode", havingValue = "leased")
+@RequiredArgsConstructor
+public class LeasedSlotAllocator implements SlotAllocator {
+
+    private final SlotLeasePool pool;
+    private final SlotRepository slotRepository;
+
+    @Override
+    public ParkingSlot allocate(Long lotId, VehicleType vehicleType, boolean isHandicapped) {
+        for (SlotType type : SlotCompatibility.candidateTypes(vehicleType, isHandicapped)) {
+            Optional<ParkingSlot> slot = allocateFromPool(lotId, type);
+            if (slot.isEmpty()) {
+                // a refill that was already running may have topped the pool up even if this one leased nothing
+                pool.refill(lotId, type);
+                slot = allocateFromPool(lotId, type);
+            }
+            if (slot.isPresent()) {
+                return slot.get();
+            }
+        }
+        throw new NoAvailableSlotException(vehicleType.name());
+    }
+
+    private Optional<ParkingSlot> allocateFromPool(Long lotId, SlotType type) {
+        Optional<SlotSnapshot> candidate;
+        while ((candidate = pool.poll(lotId, type)).isPresent()) {
+            Optional<ParkingSlot> claimed = claim(candidate.get());
+            if (claimed.isPresent()) {
+                return claimed;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<ParkingSlot> claim(SlotSnapshot candidate) {
+        int updated;
+        try {
+            updated = slotRepository.claimLeased(candidate.id(), pool.getNodeId());
+        } catch (RuntimeException e) {
+            pool.add(candidate);
+            throw e;
+        }
+        if (updated == 0) {
+            return Optional.empty();
+        }
+
+        TransactionCallbacks.afterRollback(() -> pool.add(candidate));
+        ParkingSlot slot = slotRepository.findById(candidate.id()).orElseThrow();
+        slot.setAvailable(false);
+        slot.setLeasedBy(null);
+        slot.setLeaseExpiresAt(null);
+        return Optional.of(slot);
+    }
+}
@@ -0,0 +1,8 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.SlotType;
+
+import java.util.Map;
+
+public record LevelCapacity(Long lotId, Long levelId, Integer floorNumber, Map<SlotType, Integer> freeSlots) {
+}
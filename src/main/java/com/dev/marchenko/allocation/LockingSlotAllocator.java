@@ -0,0 +1,29 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.exception.NoAvailableSlotException;
+import com.dev.marchenko.repository.SlotRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(prefix = "parking.allocation", name = "mode", havingValue = "locking", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LockingSlotAllocator implements SlotAllocator {
+
+    private final SlotRepository slotRepository;
+
+    @Override
+    public ParkingSlot allocate(Long lotId, VehicleType vehicleType, boolean isHandicapped) {
+        List<SlotType> preference = SlotCompatibility.candidateTypes(vehicleType, isHandicapped);
+        ParkingSlot slot = slotRepository.findFirstAvailable(lotId, preference)
+                .orElseThrow(() -> new NoAvailableSlotException(vehicleType.name()));
+        slot.setAvailable(false);
+        return slotRepository.saveAndFlush(slot);
+    }
+}
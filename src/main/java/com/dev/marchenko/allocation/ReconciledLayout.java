@@ -0,0 +1,90 @@
+package com.dev.marchenko.allocation;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holds an in-memory layout that is kept up to date change by change and rebuilt from the database from time
+ * to time. Changes that arrive while the database is being read are recorded and replayed onto the rebuilt
+ * layout before it replaces the current one, so a rebuild never hands out a slot that was claimed or loses one
+ * released in the meantime. Changes only take the read lock and run concurrently; the layout itself has to be
+ * safe for that. The write lock is held just long enough to replay and swap.
+ */
+final class ReconciledLayout<L> {
+
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile L current;
+    private Queue<Consumer<L>> changesDuringRebuild;
+
+    ReconciledLayout(L initial) {
+        this.current = initial;
+    }
+
+    // For lock-free reads, which may see a layout that is being replaced.
+    L current() {
+        return current;
+    }
+
+    synchronized void rebuild(Supplier<L> load) {
+        Queue<Consumer<L>> changes = new ConcurrentLinkedQueue<>();
+        recordChanges(changes);
+
+        L rebuilt;
+        try {
+            rebuilt = load.get();
+        } catch (RuntimeException e) {
+            recordChanges(null);
+            throw e;
+        }
+
+        rebuildLock.writeLock().lock();
+        try {
+            changesDuringRebuild = null;
+            changes.forEach(change -> change.accept(rebuilt));
+            current = rebuilt;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    void apply(Consumer<L> change) {
+        update(layout -> {
+            change.accept(layout);
+            record(change);
+            return null;
+        });
+    }
+
+    // Runs an update whose replay depends on its outcome, e.g. which slot a poll took; it records that with
+    // record(...) before returning.
+    <R> R update(Function<L, R> action) {
+        rebuildLock.readLock().lock();
+        try {
+            return action.apply(current);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // Only from inside update(...), which holds the read lock.
+    void record(Consumer<L> change) {
+        Queue<Consumer<L>> changes = changesDuringRebuild;
+        if (changes != null) {
+            changes.add(change);
+        }
+    }
+
+    private void recordChanges(Queue<Consumer<L>> changes) {
+        rebuildLock.writeLock().lock();
+        try {
+            changesDuringRebuild = changes;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+
+public interface SlotAllocator {
+    // A null lot id lets the allocator pick from any lot.
+    ParkingSlot allocate(Long lotId, VehicleType vehicleType, boolean isHandicapped);
+
+    // Whether the allocator only ever hands out slots this instance already knows to be free. Only then can
+    // the instance's free slot counters rule out a check-in; a slot freed through another instance reaches
+    // them no sooner than the next reconcile.
+    default boolean allocatesFromLocalState() {
+        return false;
+    }
+}
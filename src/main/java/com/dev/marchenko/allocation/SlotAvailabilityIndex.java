@@ -0,0 +1,162 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.event.SlotAvailabilityChangedEvent;
+import com.dev.marchenko.event.SlotRemovedEvent;
+import com.dev.marchenko.repository.SlotRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory set of free slots per parking lot and {@link SlotType}, ordered bottom-up by floor and then
+ * by slot id. Rebuilt from the database on startup, kept in sync through slot availability events and
+ * reconciled every {@code parking.allocation.index.reconcile-interval}, which drops slots taken through
+ * other instances; see {@link ReconciledLayout}. Only present with {@code parking.allocation.mode=index}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "parking.allocation", name = "mode", havingValue = "index")
+public class SlotAvailabilityIndex {
+
+    static final Comparator<SlotSnapshot> FLOOR_ORDER = Comparator
+            .comparing(SlotSnapshot::floorNumber, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(SlotSnapshot::id);
+
+    private final SlotRepository slotRepository;
+    private final boolean journaled;
+
+    private final ReconciledLayout<Partitions> partitions = new ReconciledLayout<>(new Partitions());
+
+    public SlotAvailabilityIndex(SlotRepository slotRepository,
+                                 @Value("${parking.durability.mode:sync}") String durabilityMode) {
+        this.slotRepository = slotRepository;
+        this.journaled = "journal".equals(durabilityMode);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        partitions.rebuild(() -> {
+            Partitions rebuilt = new Partitions();
+            slotRepository.findAllAvailableSnapshots().forEach(rebuilt::add);
+            return rebuilt;
+        });
+    }
+
+    // In journal mode the index is the only record of the slots taken by entries not yet applied,
+    // so it is never reread from the database after startup.
+    @Scheduled(fixedDelayString = "${parking.allocation.index.reconcile-interval:60s}",
+            initialDelayString = "${parking.allocation.index.reconcile-interval:60s}")
+    public void reconcile() {
+        if (!journaled) {
+            rebuild();
+        }
+    }
+
+    // Without a lot, lots are searched in id order.
+    public Optional<SlotSnapshot> poll(Long lotId, SlotType type) {
+        return partitions.update(current -> {
+            SlotSnapshot slot = current.poll(lotId, type);
+            if (slot != null) {
+                current.byId.remove(slot.id(), slot);
+                partitions.record(rebuilt -> rebuilt.remove(slot.id()));
+            }
+            return Optional.ofNullable(slot);
+        });
+    }
+
+    public void add(SlotSnapshot slot) {
+        partitions.apply(current -> current.add(slot));
+    }
+
+    public void remove(Long slotId) {
+        partitions.apply(current -> current.remove(slotId));
+    }
+
+    public boolean contains(Long slotId) {
+        return partitions.current().byId.containsKey(slotId);
+    }
+
+    public List<SlotSnapshot> freeSlots(Long lotId, SlotType type) {
+        Partitions current = partitions.current();
+        if (lotId != null) {
+            Map<SlotType, ConcurrentSkipListSet<SlotSnapshot>> lot = current.byLot.get(lotId);
+            return lot != null ? List.copyOf(lot.get(type)) : List.of();
+        }
+        return current.byLot.values().stream()
+                .flatMap(lot -> lot.get(type).stream())
+                .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(SlotAvailabilityChangedEvent event) {
+        if (event.available()) {
+            add(event.slot());
+        } else {
+            remove(event.slot().id());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotRemoved(SlotRemovedEvent event) {
+        remove(event.slotId());
+    }
+
+    private static final class Partitions {
+        private final ConcurrentSkipListMap<Long, Map<SlotType, ConcurrentSkipListSet<SlotSnapshot>>> byLot =
+                new ConcurrentSkipListMap<>();
+        private final Map<Long, SlotSnapshot> byId = new ConcurrentHashMap<>();
+
+        private SlotSnapshot poll(Long lotId, SlotType type) {
+            if (lotId != null) {
+                Map<SlotType, ConcurrentSkipListSet<SlotSnapshot>> lot = byLot.get(lotId);
+                return lot != null ? lot.get(type).pollFirst() : null;
+            }
+            for (Map<SlotType, ConcurrentSkipListSet<SlotSnapshot>> lot : byLot.values()) {
+                SlotSnapshot slot = lot.get(type).pollFirst();
+                if (slot != null) {
+                    return slot;
+                }
+            }
+            return null;
+        }
+
+        private void add(SlotSnapshot slot) {
+            SlotSnapshot previous = byId.put(slot.id(), slot);
+            if (previous != null) {
+                slotsOf(previous).remove(previous);
+            }
+            slotsOf(slot).add(slot);
+        }
+
+        private void remove(Long slotId) {
+            SlotSnapshot previous = byId.remove(slotId);
+            if (previous != null) {
+                slotsOf(previous).remove(previous);
+            }
+        }
+
+        private ConcurrentSkipListSet<SlotSnapshot> slotsOf(SlotSnapshot slot) {
+            return byLot.computeIfAbsent(slot.lotId(), lotId -> {
+                Map<SlotType, ConcurrentSkipListSet<SlotSnapshot>> byType = new EnumMap<>(SlotType.class);
+                for (SlotType type : SlotType.values()) {
+                    byType.put(type, new ConcurrentSkipListSet<>(FLOOR_ORDER));
+                }
+                return byType;
+            }).get(slot.type());
+        }
+    }
+}
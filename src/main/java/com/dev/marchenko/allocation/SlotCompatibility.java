@@ -0,0 +1,32 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public final class SlotCompatibility {
+
+    public static final Map<VehicleType, List<SlotType>> COMPATIBILITY_MAP = Map.of(
+            VehicleType.MOTORCYCLE, List.of(SlotType.MOTORCYCLE, SlotType.COMPACT, SlotType.LARGE),
+            VehicleType.CAR, List.of(SlotType.COMPACT, SlotType.LARGE),
+            VehicleType.TRUCK, List.of(SlotType.LARGE)
+    );
+
+    private SlotCompatibility() {
+    }
+
+    // Slot types in the order they should be tried; handicapped drivers get HANDICAPPED slots first.
+    public static List<SlotType> candidateTypes(VehicleType vehicleType, boolean isHandicapped) {
+        List<SlotType> allowedTypes = COMPATIBILITY_MAP.get(vehicleType);
+        if (!isHandicapped) {
+            return allowedTypes;
+        }
+        List<SlotType> types = new ArrayList<>(allowedTypes.size() + 1);
+        types.add(SlotType.HANDICAPPED);
+        types.addAll(allowedTypes);
+        return types;
+    }
+}
@@ -0,0 +1,269 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.event.SlotAvailabilityChangedEvent;
+import com.dev.marchenko.event.SlotRemovedEvent;
+import com.dev.marchenko.repository.SlotRepository;
+import com.dev.marchenko.topology.TopologySnapshot;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Block of free slots per parking lot and {@link SlotType} leased by this node from the shared
+ * {@code slots} table. A pool is topped up in the background once it drops to the low watermark, and
+ * every lot in the {@link TopologySnapshot} is topped up periodically, so the first check-in at a lot
+ * rarely has to lease. Leases of pooled slots are renewed at the same time, and everything still pooled
+ * is handed back on shutdown. Leases of a node that stops renewing them expire after
+ * {@code parking.allocation.lease.ttl} and can be leased again.
+ * <p>
+ * At most one refill of a pool runs at a time, whoever starts it. Each leases in its own transaction
+ * and pools exactly the rows its lease changed, so a slot is never pooled twice.
+ */
+@Component
+@ConditionalOnProperty(prefix = "parking.allocation", name = "mode", havingValue = "leased")
+public class SlotLeasePool {
+
+    private final SlotRepository slotRepository;
+    private final TopologySnapshot topology;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+    private final int blockSize;
+    private final int lowWatermark;
+    private final Duration ttl;
+
+    private final ConcurrentSkipListMap<Long, Map<SlotType, ConcurrentSkipListSet<SlotSnapshot>>> pools =
+            new ConcurrentSkipListMap<>();
+    private final Map<PoolKey, Semaphore> refillsInFlight = new ConcurrentHashMap<>();
+    private final ExecutorService refiller = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "slot-lease-refill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SlotLeasePool(SlotRepository slotRepository,
+                         TopologySnapshot topology,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${parking.allocation.lease.node-id:}") String nodeId,
+                         @Value("${parking.allocation.lease.block-size:8}") int blockSize,
+                         @Value("${parking.allocation.lease.low-watermark:2}") int lowWatermark,
+                         @Value("${parking.allocation.lease.ttl:30s}") Duration ttl) {
+        this.slotRepository = slotRepository;
+        this.topology = topology;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.blockSize = blockSize;
+        this.lowWatermark = lowWatermark;
+        this.ttl = ttl;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // Without a lot, the pools of all lots are searched in lot id order.
+    public Optional<SlotSnapshot> poll(Long lotId, SlotType type) {
+        Collection<Long> lotIds = lotId == null ? pools.keySet() : List.of(lotId);
+        for (Long candidateLot : lotIds) {
+            Map<SlotType, ConcurrentSkipListSet<SlotSnapshot>> lot = pools.get(candidateLot);
+            if (lot == null) {
+                continue;
+            }
+            ConcurrentSkipListSet<SlotSnapshot> pool = lot.get(type);
+            SlotSnapshot slot = pool.pollFirst();
+            if (pool.size() <= lowWatermark) {
+                refillInBackground(candidateLot, type);
+            }
+            if (slot != null) {
+                return Optional.of(slot);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void add(SlotSnapshot slot) {
+        pool(slot.lotId(), slot.type()).add(slot);
+    }
+
+    public void remove(Long slotId) {
+        pools.values().forEach(lot -> lot.values()
+                .forEach(pool -> pool.removeIf(slot -> slot.id().equals(slotId))));
+    }
+
+    public List<SlotSnapshot> leasedSlots(Long lotId, SlotType type) {
+        if (lotId == null) {
+            return pools.values().stream()
+                    .flatMap(lot -> lot.get(type).stream())
+                    .toList();
+        }
+        Map<SlotType, ConcurrentSkipListSet<SlotSnapshot>> lot = pools.get(lotId);
+        return lot != null ? List.copyOf(lot.get(type)) : List.of();
+    }
+
+    // Leases up to a block of slots of the type, from the given lot or, without a lot, from any lot. Waits for
+    // a refill of the same pool that is already running, and then only leases what that one left missing.
+    public int refill(Long lotId, SlotType type) {
+        Semaphore inFlight = inFlight(lotId, type);
+        inFlight.acquireUninterruptibly();
+        try {
+            return lease(lotId, type);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${parking.allocation.lease.refresh-interval:5s}",
+            initialDelayString = "${parking.allocation.lease.refresh-interval:5s}")
+    public void refresh() {
+        List<Long> pooled = pools.values().stream()
+                .flatMap(lot -> lot.values().stream())
+                .flatMap(pool -> pool.stream().map(SlotSnapshot::id))
+                .toList();
+        if (!pooled.isEmpty()) {
+            slotRepository.renewLeases(pooled, nodeId, LocalDateTime.now().plus(ttl));
+        }
+        Set<Long> lotIds = new TreeSet<>(topology.lotIds());
+        lotIds.addAll(pools.keySet());
+        for (SlotType type : SlotType.values()) {
+            if (lotIds.isEmpty()) {
+                tryRefill(null, type);
+            }
+            for (Long lotId : lotIds) {
+                if (pooled(lotId, type) <= lowWatermark) {
+                    tryRefill(lotId, type);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        refiller.shutdownNow();
+        pools.clear();
+        slotRepository.releaseLeases(nodeId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(SlotAvailabilityChangedEvent event) {
+        if (!event.available()) {
+            remove(event.slot().id());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotRemoved(SlotRemovedEvent event) {
+        remove(event.slotId());
+    }
+
+    private ConcurrentSkipListSet<SlotSnapshot> pool(Long lotId, SlotType type) {
+        return pools.computeIfAbsent(lotId, key -> {
+            Map<SlotType, ConcurrentSkipListSet<SlotSnapshot>> byType = new EnumMap<>(SlotType.class);
+            for (SlotType slotType : SlotType.values()) {
+                byType.put(slotType, new ConcurrentSkipListSet<>(SlotAvailabilityIndex.FLOOR_ORDER));
+            }
+            return byType;
+        }).get(type);
+    }
+
+    private void refillInBackground(Long lotId, SlotType type) {
+        Semaphore inFlight = inFlight(lotId, type);
+        if (!refiller.isShutdown() && inFlight.tryAcquire()) {
+            try {
+                refiller.execute(() -> {
+                    try {
+                        lease(lotId, type);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+            }
+        }
+    }
+
+    // Skipped while the pool is being refilled anyway.
+    private void tryRefill(Long lotId, SlotType type) {
+        Semaphore inFlight = inFlight(lotId, type);
+        if (inFlight.tryAcquire()) {
+            try {
+                lease(lotId, type);
+            } finally {
+                inFlight.release();
+            }
+        }
+    }
+
+    private Semaphore inFlight(Long lotId, SlotType type) {
+        return refillsInFlight.computeIfAbsent(new PoolKey(lotId, type), key -> new Semaphore(1));
+    }
+
+    // The candidates are locked before they are leased, so every row the lease changes is one this refill
+    // read, and none leased by a concurrent refill is pooled a second time.
+    private int lease(Long lotId, SlotType type) {
+        int wanted = blockSize - pooled(lotId, type);
+        if (wanted <= 0) {
+            return 0;
+        }
+        List<SlotSnapshot> leased = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            PageRequest block = PageRequest.of(0, wanted);
+            List<Long> candidates = lotId == null
+                    ? slotRepository.findLeasableIds(type, now, block)
+                    : slotRepository.findLeasableIdsInLot(lotId, type, now, block);
+            if (candidates.isEmpty()) {
+                return List.<SlotSnapshot>of();
+            }
+            List<ParkingSlot> leasable = slotRepository.findLeasableForUpdate(candidates, now);
+            if (leasable.isEmpty()) {
+                return List.<SlotSnapshot>of();
+            }
+            slotRepository.lease(leasable.stream().map(ParkingSlot::getId).toList(), nodeId, now.plus(ttl), now);
+            return leasable.stream().map(SlotSnapshot::of).toList();
+        });
+        leased.forEach(this::add);
+        return leased.size();
+    }
+
+    private int pooled(Long lotId, SlotType type) {
+        if (lotId == null) {
+            return pools.values().stream().mapToInt(lot -> lot.get(type).size()).sum();
+        }
+        Map<SlotType, ConcurrentSkipListSet<SlotSnapshot>> lot = pools.get(lotId);
+        return lot != null ? lot.get(type).size() : 0;
+    }
+
+    private record PoolKey(Long lotId, SlotType type) {
+    }
+}
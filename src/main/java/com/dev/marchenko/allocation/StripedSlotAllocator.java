@@ -0,0 +1,83 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.exception.NoAvailableSlotException;
+import com.dev.marchenko.repository.SlotRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Spreads concurrent check-ins over the stripes of {@link StripedSlotIndex} and claims the chosen
+ * slot with a conditional UPDATE, so parallel gates neither share a candidate row nor hold row locks.
+ * When the stripes have run dry the database is asked once more, since a slot freed through another
+ * instance only reaches the index with its next reconcile.
+ */
+@Component
+@ConditionalOnProperty(prefix = "parking.allocation", name = "mode", havingValue = "striped")
+@RequiredArgsConstructor
+public class StripedSlotAllocator implements SlotAllocator {
+
+    private static final int CANDIDATE_BATCH_SIZE = 5;
+
+    private final StripedSlotIndex index;
+    private final SlotRepository slotRepository;
+
+    @Override
+    public ParkingSlot allocate(Long lotId, VehicleType vehicleType, boolean isHandicapped) {
+        int homeStripe = ThreadLocalRandom.current().nextInt(index.getStripes());
+        for (SlotType type : SlotCompatibility.candidateTypes(vehicleType, isHandicapped)) {
+            Optional<SlotSnapshot> candidate;
+            while ((candidate = index.poll(lotId, type, homeStripe)).isPresent()) {
+                Optional<ParkingSlot> claimed = claim(candidate.get());
+                if (claimed.isPresent()) {
+                    return claimed.get();
+                }
+            }
+        }
+        for (SlotType type : SlotCompatibility.candidateTypes(vehicleType, isHandicapped)) {
+            for (Long slotId : findCandidates(lotId, type)) {
+                if (slotRepository.claim(slotId) == 1) {
+                    index.remove(slotId);
+                    ParkingSlot slot = slotRepository.findById(slotId).orElseThrow();
+                    slot.setAvailable(false);
+                    return slot;
+                }
+            }
+        }
+        throw new NoAvailableSlotException(vehicleType.name());
+    }
+
+    private List<Long> findCandidates(Long lotId, SlotType type) {
+        PageRequest batch = PageRequest.of(0, CANDIDATE_BATCH_SIZE);
+        return lotId == null
+                ? slotRepository.findCandidateIds(type, batch)
+                : slotRepository.findCandidateIdsInLot(lotId, type, batch);
+    }
+
+    private Optional<ParkingSlot> claim(SlotSnapshot candidate) {
+        int updated;
+        try {
+            updated = slotRepository.claim(candidate.id());
+        } catch (RuntimeException e) {
+            index.add(candidate);
+            throw e;
+        }
+        if (updated == 0) {
+            return Optional.empty();
+        }
+
+        TransactionCallbacks.afterRollback(() -> index.add(candidate));
+        ParkingSlot slot = slotRepository.findById(candidate.id()).orElseThrow();
+        slot.setAvailable(false);
+        return Optional.of(slot);
+    }
+}
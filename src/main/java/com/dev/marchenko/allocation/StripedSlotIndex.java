@@ -0,0 +1,197 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.event.SlotAvailabilityChangedEvent;
+import com.dev.marchenko.event.SlotRemovedEvent;
+import com.dev.marchenko.repository.SlotRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Free slots partitioned by parking lot, type, floor and slot-id bucket. Each floor of a type is split into
+ * {@code stripes} independent sets so concurrent check-ins start from different stripes, while the
+ * lowest floor with free capacity is still always served first. Like {@link SlotAvailabilityIndex} it is
+ * reconciled with the database every {@code parking.allocation.index.reconcile-interval}, which brings back
+ * slots freed through other instances and drops slots taken there; see {@link ReconciledLayout}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "parking.allocation", name = "mode", havingValue = "striped")
+public class StripedSlotIndex {
+
+    private static final Comparator<SlotSnapshot> SLOT_ORDER = Comparator.comparing(SlotSnapshot::id);
+    private static final int UNKNOWN_FLOOR = Integer.MAX_VALUE;
+
+    private final SlotRepository slotRepository;
+    private final int stripes;
+
+    private final ReconciledLayout<Layout> layout;
+
+    public StripedSlotIndex(SlotRepository slotRepository,
+                            @Value("${parking.allocation.stripes:0}") int stripes) {
+        this.slotRepository = slotRepository;
+        this.stripes = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        this.layout = new ReconciledLayout<>(new Layout(this.stripes));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        layout.rebuild(() -> {
+            Layout rebuilt = new Layout(stripes);
+            slotRepository.findAllAvailableSnapshots().forEach(rebuilt::add);
+            return rebuilt;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${parking.allocation.index.reconcile-interval:60s}",
+            initialDelayString = "${parking.allocation.index.reconcile-interval:60s}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    // Polls the lowest floor that has a free slot of this type, starting at the given stripe
+    // and falling back to its neighbours when that stripe has run dry. Without a lot, lots are
+    // searched in id order.
+    public Optional<SlotSnapshot> poll(Long lotId, SlotType type, int homeStripe) {
+        return layout.update(current -> {
+            Collection<Map<SlotType, ConcurrentSkipListMap<Integer, FloorStripes>>> lots = lotId == null
+                    ? current.byLot.values()
+                    : Optional.ofNullable(current.byLot.get(lotId)).map(List::of).orElse(List.of());
+            for (Map<SlotType, ConcurrentSkipListMap<Integer, FloorStripes>> lot : lots) {
+                for (FloorStripes floor : lot.get(type).values()) {
+                    SlotSnapshot slot = floor.poll(homeStripe);
+                    if (slot != null) {
+                        current.byId.remove(slot.id(), slot);
+                        layout.record(rebuilt -> rebuilt.remove(slot.id()));
+                        return Optional.of(slot);
+                    }
+                }
+            }
+            return Optional.<SlotSnapshot>empty();
+        });
+    }
+
+    public void add(SlotSnapshot slot) {
+        layout.apply(current -> current.add(slot));
+    }
+
+    public void remove(Long slotId) {
+        layout.apply(current -> current.remove(slotId));
+    }
+
+    public boolean contains(Long slotId) {
+        return layout.current().byId.containsKey(slotId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(SlotAvailabilityChangedEvent event) {
+        if (event.available()) {
+            add(event.slot());
+        } else {
+            remove(event.slot().id());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotRemoved(SlotRemovedEvent event) {
+        remove(event.slotId());
+    }
+
+    private static int floorOf(SlotSnapshot slot) {
+        return slot.floorNumber() != null ? slot.floorNumber() : UNKNOWN_FLOOR;
+    }
+
+    private static final class Layout {
+        private final int stripes;
+        private final ConcurrentSkipListMap<Long, Map<SlotType, ConcurrentSkipListMap<Integer, FloorStripes>>> byLot =
+                new ConcurrentSkipListMap<>();
+        private final Map<Long, SlotSnapshot> byId = new ConcurrentHashMap<>();
+
+        private Layout(int stripes) {
+            this.stripes = stripes;
+        }
+
+        private void add(SlotSnapshot slot) {
+            SlotSnapshot previous = byId.put(slot.id(), slot);
+            if (previous != null) {
+                floor(previous).remove(previous);
+            }
+            floor(slot).add(slot);
+        }
+
+        private void remove(Long slotId) {
+            SlotSnapshot previous = byId.remove(slotId);
+            if (previous != null) {
+                floor(previous).remove(previous);
+            }
+        }
+
+        private FloorStripes floor(SlotSnapshot slot) {
+            return byLot.computeIfAbsent(slot.lotId(), lotId -> {
+                        Map<SlotType, ConcurrentSkipListMap<Integer, FloorStripes>> byType = new EnumMap<>(SlotType.class);
+                        for (SlotType type : SlotType.values()) {
+                            byType.put(type, new ConcurrentSkipListMap<>());
+                        }
+                        return byType;
+                    })
+                    .get(slot.type())
+                    .computeIfAbsent(floorOf(slot), key -> new FloorStripes(stripes));
+        }
+    }
+
+    private static final class FloorStripes {
+        private final ConcurrentSkipListSet<SlotSnapshot>[] stripes;
+
+        @SuppressWarnings("unchecked")
+        private FloorStripes(int count) {
+            stripes = new ConcurrentSkipListSet[count];
+            for (int i = 0; i < count; i++) {
+                stripes[i] = new ConcurrentSkipListSet<>(SLOT_ORDER);
+            }
+        }
+
+        private void add(SlotSnapshot slot) {
+            stripeOf(slot).add(slot);
+        }
+
+        private void remove(SlotSnapshot slot) {
+            stripeOf(slot).remove(slot);
+        }
+
+        // Probes home, home+1, home-1, home+2, ... so a dry stripe spills over to its nearest neighbours.
+        private SlotSnapshot poll(int homeStripe) {
+            int count = stripes.length;
+            for (int step = 0; step < count; step++) {
+                int offset = (step & 1) == 1 ? (step + 1) / 2 : -(step / 2);
+                SlotSnapshot slot = stripes[Math.floorMod(homeStripe + offset, count)].pollFirst();
+                if (slot != null) {
+                    return slot;
+                }
+            }
+            return null;
+        }
+
+        private ConcurrentSkipListSet<SlotSnapshot> stripeOf(SlotSnapshot slot) {
+            return stripes[(int) Math.floorMod(slot.id(), (long) stripes.length)];
+        }
+    }
+}
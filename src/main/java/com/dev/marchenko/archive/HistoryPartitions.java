@@ -0,0 +1,64 @@
+package com.dev.marchenko.archive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Monthly partitions of {@code parking_ticket_history} on PostgreSQL, where the table is range-partitioned by
+ * exit time. Partitions are created before tickets of their month are archived; rows outside every partition
+ * would land in the default partition. Other databases keep a plain table and this is a no-op.
+ */
+@Component
+public class HistoryPartitions {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean partitioned;
+    private final Set<YearMonth> created = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public HistoryPartitions(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this(jdbcTemplate, isPostgres(dataSource));
+    }
+
+    HistoryPartitions(JdbcTemplate jdbcTemplate, boolean partitioned) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitioned = partitioned;
+    }
+
+    public void ensureCovered(LocalDateTime from, LocalDateTime to) {
+        if (!partitioned || from == null || from.isAfter(to)) {
+            return;
+        }
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            if (!created.contains(month)) {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) +
+                        " PARTITION OF parking_ticket_history FOR VALUES FROM ('" + month.atDay(1) +
+                        "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+                created.add(month);
+            }
+        }
+    }
+
+    static String partitionName(YearMonth month) {
+        return String.format("parking_ticket_history_%d_%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (MetaDataAccessException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.dev.marchenko.archive;
+
+import com.dev.marchenko.repository.ArchivedTicketRepository;
+import com.dev.marchenko.repository.TicketRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves tickets closed more than {@code parking.archive.retention} ago from {@code parking_tickets} to
+ * {@code parking_ticket_history}, so the hot table holds little more than the open sessions and its indexes
+ * stay small. Each batch is copied and deleted in its own transaction. If two instances pick the same batch,
+ * the second copy violates the history primary key and that batch is simply retried on the next run.
+ */
+@Component
+public class TicketArchiver {
+
+    private final TicketRepository ticketRepository;
+    private final ArchivedTicketRepository archivedTicketRepository;
+    private final HistoryPartitions historyPartitions;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int batchSize;
+
+    public TicketArchiver(TicketRepository ticketRepository,
+                          ArchivedTicketRepository archivedTicketRepository,
+                          HistoryPartitions historyPartitions,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${parking.archive.retention:1d}") Duration retention,
+                          @Value("${parking.archive.batch-size:1000}") int batchSize) {
+        this.ticketRepository = ticketRepository;
+        this.archivedTicketRepository = archivedTicketRepository;
+        this.historyPartitions = historyPartitions;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${parking.archive.interval:5m}", fixedDelayString = "${parking.archive.interval:5m}")
+    public void scheduledArchive() {
+        archive(LocalDateTime.now().minus(retention));
+    }
+
+    // Returns the number of tickets moved.
+    public int archive(LocalDateTime closedBefore) {
+        historyPartitions.ensureCovered(ticketRepository.findOldestExitTime().orElse(null), closedBefore);
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> moveBatch(closedBefore));
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+
+    private int moveBatch(LocalDateTime closedBefore) {
+        List<Long> ids = ticketRepository.findIdsClosedBefore(closedBefore, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedTicketRepository.copyFromTickets(ids);
+        ticketRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
+}
@@ -1,18 +1,21 @@
 package com.dev.marchenko.config;
 
+import com.dev.marchenko.demand.DemandTracker;
 import com.dev.marchenko.domain.vehicle.VehicleType;
 import com.dev.marchenko.strategy.PricingStrategy;
-import com.dev.marchenko.strategy.UniversalHourlyStrategy;
+import com.dev.marchenko.strategy.RateCardStrategy;
+import com.dev.marchenko.strategy.SurgePricingStrategy;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.util.List;
 import java.util.Locale;
 
 @Configuration
+@EnableConfigurationProperties(PricingProperties.class)
 public class PricingConfig {
 
     @Bean
@@ -21,17 +24,22 @@ public class PricingConfig {
     }
 
     @Bean
-    public PricingStrategy motorcycleStrategy() {
-        return new UniversalHourlyStrategy(BigDecimal.valueOf(1), List.of(VehicleType.MOTORCYCLE));
+    public PricingStrategy motorcycleStrategy(PricingProperties pricing, DemandTracker demandTracker) {
+        return rateCardStrategy(pricing, demandTracker, VehicleType.MOTORCYCLE);
     }
 
     @Bean
-    public PricingStrategy carStrategy() {
-        return new UniversalHourlyStrategy(BigDecimal.valueOf(2), List.of(VehicleType.CAR));
+    public PricingStrategy carStrategy(PricingProperties pricing, DemandTracker demandTracker) {
+        return rateCardStrategy(pricing, demandTracker, VehicleType.CAR);
     }
 
     @Bean
-    public PricingStrategy truckStrategy() {
-        return new UniversalHourlyStrategy(BigDecimal.valueOf(3), List.of(VehicleType.TRUCK));
+    public PricingStrategy truckStrategy(PricingProperties pricing, DemandTracker demandTracker) {
+        return rateCardStrategy(pricing, demandTracker, VehicleType.TRUCK);
+    }
+
+    private static PricingStrategy rateCardStrategy(PricingProperties pricing, DemandTracker demandTracker, VehicleType type) {
+        PricingStrategy rateCard = new RateCardStrategy(pricing.rateCard(type), List.of(type));
+        return pricing.surge().enabled() ? new SurgePricingStrategy(rateCard, demandTracker) : rateCard;
     }
 }
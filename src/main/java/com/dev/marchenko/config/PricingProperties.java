@@ -0,0 +1,51 @@
+package com.dev.marchenko.config;
+
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.strategy.RateCard;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "parking.pricing")
+public record PricingProperties(Map<VehicleType, RateCard> rateCards, @DefaultValue Surge surge) {
+
+    public PricingProperties {
+        rateCards = rateCards != null ? Map.copyOf(rateCards) : Map.of();
+    }
+
+    public RateCard rateCard(VehicleType type) {
+        RateCard card = rateCards.get(type);
+        if (card == null) {
+            throw new IllegalStateException("No rate card for " + type + " under parking.pricing.rate-cards");
+        }
+        return card;
+    }
+
+    /**
+     * Pricing by demand, see {@link com.dev.marchenko.demand.DemandTracker}. Demand is tracked over {@code window}
+     * in {@code buckets} of at least a second each. Fees are not scaled while the lot is at most
+     * {@code occupancyThreshold} full and scale linearly up to {@code maxMultiplier} as it fills up.
+     */
+    public record Surge(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("15m") Duration window,
+            @DefaultValue("15") int buckets,
+            @DefaultValue("30s") Duration recomputeInterval,
+            @DefaultValue("0.8") double occupancyThreshold,
+            @DefaultValue("2.0") double maxMultiplier
+    ) {
+        public Surge {
+            if (buckets < 1 || window.dividedBy(buckets).compareTo(Duration.ofSeconds(1)) < 0) {
+                throw new IllegalArgumentException("parking.pricing.surge.window must span at least a second per bucket");
+            }
+            if (occupancyThreshold < 0 || occupancyThreshold >= 1) {
+                throw new IllegalArgumentException("parking.pricing.surge.occupancy-threshold must be in [0, 1)");
+            }
+            if (maxMultiplier < 1) {
+                throw new IllegalArgumentException("parking.pricing.surge.max-multiplier must be at least 1");
+            }
+        }
+    }
+}
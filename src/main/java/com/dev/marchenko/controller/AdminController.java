@@ -1,14 +1,27 @@
 package com.dev.marchenko.controller;
 
+import com.dev.marchenko.domain.vehicle.VehicleType;
 import com.dev.marchenko.dto.*;
 import com.dev.marchenko.mapper.ParkingMapper;
+import com.dev.marchenko.revenue.RevenueProjector;
 import com.dev.marchenko.service.AdminService;
+import com.dev.marchenko.service.RateCardService;
+import com.dev.marchenko.strategy.RateCard;
+import com.dev.marchenko.strategy.RateTable;
+import com.dev.marchenko.vehicle.VehicleRegistry;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/v1/admin")
 @RequiredArgsConstructor
@@ -16,6 +29,9 @@ public class AdminController {
 
     private final AdminService adminService;
     private final ParkingMapper mapper;
+    private final VehicleRegistry vehicleRegistry;
+    private final RevenueProjector revenueProjector;
+    private final RateCardService rateCardService;
 
     @PostMapping("/lots")
     @ResponseStatus(HttpStatus.CREATED)
@@ -43,11 +59,20 @@ public class AdminController {
     }
 
     @PostMapping("/levels/{levelId}/slots")
-    public ResponseEntity<SlotResponse> addSlot(@PathVariable Long levelId, @RequestBody SlotRequest request) {
+    public ResponseEntity<SlotResponse> addSlot(@PathVariable Long levelId, @Valid @RequestBody SlotRequest request) {
         var slot = adminService.addSlot(levelId, request);
         return ResponseEntity.status(HttpStatus.CREATED).body(mapper.toSlotResponse(slot));
     }
 
+    @PostMapping("/levels/{levelId}/slots/batch")
+    public ResponseEntity<List<SlotResponse>> addSlots(@PathVariable Long levelId,
+                                                       @RequestBody @NotEmpty List<@Valid SlotRequest> requests) {
+        var slots = adminService.addSlots(levelId, requests);
+        return ResponseEntity.status(HttpStatus.CREATED).body(slots.stream()
+                .map(mapper::toSlotResponse)
+                .toList());
+    }
+
     @DeleteMapping("/slots/{slotId}")
     public ResponseEntity<Void> removeSlot(@PathVariable Long slotId) {
         adminService.removeSlot(slotId);
@@ -59,4 +84,40 @@ public class AdminController {
         var updatedSlot = adminService.updateSlotAvailability(slotId, available);
         return ResponseEntity.ok(mapper.toSlotResponse(updatedSlot));
     }
+
+    @GetMapping("/vehicle-cache")
+    public ResponseEntity<VehicleCacheStatsResponse> getVehicleCacheStats() {
+        return ResponseEntity.ok(vehicleRegistry.stats());
+    }
+
+    // Open sessions priced as if they all checked out at asOf, now by default.
+    @GetMapping("/revenue/open")
+    public ResponseEntity<RevenueReportResponse> projectOpenRevenue(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        return ResponseEntity.ok(revenueProjector.projectOpen(
+                asOf != null ? asOf : LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)));
+    }
+
+    // Tickets closed in [exitedFrom, exitedTo) priced with the current rate cards, next to the fees they were charged.
+    @GetMapping("/revenue/closed")
+    public ResponseEntity<RevenueReportResponse> reconcileClosedRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime exitedFrom,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime exitedTo) {
+        return ResponseEntity.ok(revenueProjector.projectClosed(exitedFrom, exitedTo));
+    }
+
+    @GetMapping("/rate-cards")
+    public ResponseEntity<RateCardsResponse> getRateCards() {
+        return ResponseEntity.ok(toRateCardsResponse(rateCardService.current()));
+    }
+
+    // Types left out keep their current card. Check-outs already being priced finish with the previous version.
+    @PutMapping("/rate-cards")
+    public ResponseEntity<RateCardsResponse> reloadRateCards(@RequestBody Map<VehicleType, RateCard> rateCards) {
+        return ResponseEntity.ok(toRateCardsResponse(rateCardService.reload(rateCards)));
+    }
+
+    private static RateCardsResponse toRateCardsResponse(RateTable rates) {
+        return new RateCardsResponse(rates.version(), rates.rateCards());
+    }
 }
@@ -0,0 +1,30 @@
+package com.dev.marchenko.controller;
+
+import com.dev.marchenko.service.AvailabilityFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/v1/parking/availability")
+@RequiredArgsConstructor
+public class AvailabilityController {
+
+    private final AvailabilityFeedService availabilityFeedService;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<String> getAvailability(@RequestParam(required = false) Long lotId,
+                                                  @RequestParam(required = false) Long since) {
+        return availabilityFeedService.poll(lotId, since);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@RequestParam(required = false) Long lotId) {
+        return availabilityFeedService.subscribe(lotId);
+    }
+}
@@ -0,0 +1,24 @@
+package com.dev.marchenko.controller;
+
+import com.dev.marchenko.dto.JournalStatsResponse;
+import com.dev.marchenko.journal.SessionJournal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/journal")
+@ConditionalOnProperty(prefix = "parking.durability", name = "mode", havingValue = "journal")
+@RequiredArgsConstructor
+public class JournalController {
+
+    private final SessionJournal journal;
+
+    @GetMapping
+    public ResponseEntity<JournalStatsResponse> getJournalStats() {
+        return ResponseEntity.ok(journal.stats());
+    }
+}
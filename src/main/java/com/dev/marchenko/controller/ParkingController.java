@@ -1,43 +1,149 @@
 package com.dev.marchenko.controller;
 
+import com.dev.marchenko.dto.BatchItemResponse;
 import com.dev.marchenko.dto.CheckInRequest;
 import com.dev.marchenko.dto.CheckOutResponse;
+import com.dev.marchenko.dto.SessionFilter;
+import com.dev.marchenko.dto.TicketHistoryResponse;
 import com.dev.marchenko.dto.TicketResponse;
+import com.dev.marchenko.dto.VehicleLocationResponse;
 import com.dev.marchenko.mapper.ParkingMapper;
+import com.dev.marchenko.service.ParkingGate;
 import com.dev.marchenko.service.ParkingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/parking")
-@RequiredArgsConstructor
 public class ParkingController {
 
+    private static final int MAX_SESSIONS_PAGE_SIZE = 1000;
+
+    private final ParkingGate parkingGate;
     private final ParkingService parkingService;
     private final ParkingMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
+
+    public ParkingController(ParkingGate parkingGate,
+                             ParkingService parkingService,
+                             ParkingMapper mapper,
+                             ObjectMapper objectMapper,
+                             @Value("${parking.batch.max-size:500}") int maxBatchSize) {
+        this.parkingGate = parkingGate;
+        this.parkingService = parkingService;
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
+    }
 
     @PostMapping("/check-in")
     public ResponseEntity<TicketResponse> checkIn(@Valid @RequestBody CheckInRequest request) {
-        var ticket = parkingService.checkIn(request.licensePlate(), request.vehicleType(), request.isHandicapped());
+        var ticket = parkingGate.checkIn(request.lotId(), request.licensePlate(), request.vehicleType(), request.isHandicapped());
         return ResponseEntity.ok(mapper.toTicketResponse(ticket));
     }
 
+    // Only the list itself is constrained here; the fields of each item are validated by the gate, so a bad
+    // item is reported in its own result instead of failing the whole batch.
+    @PostMapping("/check-in/batch")
+    public ResponseEntity<List<BatchItemResponse<TicketResponse>>> checkInBatch(
+            @RequestBody @NotEmpty List<@NotNull CheckInRequest> requests) {
+        checkBatchSize(requests);
+        return ResponseEntity.ok(parkingGate.checkInBatch(requests));
+    }
+
     @PostMapping("/check-out/{ticketId}")
     public ResponseEntity<CheckOutResponse> checkOut(@PathVariable Long ticketId) {
-        var ticket = parkingService.checkOut(ticketId);
+        var ticket = parkingGate.checkOut(ticketId);
         return ResponseEntity.ok(mapper.toCheckOutResponse(ticket));
     }
 
+    @PostMapping("/check-out/plate/{licensePlate}")
+    public ResponseEntity<CheckOutResponse> checkOutByPlate(@PathVariable String licensePlate) {
+        var ticket = parkingGate.checkOutByPlate(licensePlate);
+        return ResponseEntity.ok(mapper.toCheckOutResponse(ticket));
+    }
+
+    @PostMapping("/check-out/batch")
+    public ResponseEntity<List<BatchItemResponse<CheckOutResponse>>> checkOutBatch(
+            @RequestBody @NotEmpty List<@NotNull Long> ticketIds) {
+        checkBatchSize(ticketIds);
+        Set<Long> distinct = new HashSet<>(ticketIds.size());
+        for (Long ticketId : ticketIds) {
+            if (!distinct.add(ticketId)) {
+                throw new IllegalStateException("Ticket " + ticketId + " appears more than once in the batch");
+            }
+        }
+        return ResponseEntity.ok(parkingGate.checkOutBatch(ticketIds));
+    }
+
+    // Keyset pagination on ticket id; the next page is linked from the Link header while the page is full.
     @GetMapping("/sessions")
-    public ResponseEntity<List<TicketResponse>> getActiveSessions() {
-        var tickets = parkingService.getActiveSessions();
-        return ResponseEntity.ok(tickets.stream()
+    public ResponseEntity<List<TicketResponse>> getActiveSessions(SessionFilter filter,
+                                                                  @RequestParam(required = false) Long afterId,
+                                                                  @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_SESSIONS_PAGE_SIZE));
+        var tickets = parkingService.getActiveSessions(filter, afterId, pageSize);
+        var response = ResponseEntity.ok();
+        if (tickets.size() == pageSize) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("afterId", tickets.get(tickets.size() - 1).ticketId())
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(tickets.stream()
                 .map(mapper::toTicketResponse)
                 .toList());
     }
 
+    @GetMapping(value = "/sessions/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamActiveSessions(SessionFilter filter) {
+        StreamingResponseBody body = output -> parkingService.streamActiveSessions(filter, ticket -> {
+            try {
+                output.write(objectMapper.writeValueAsBytes(mapper.toTicketResponse(ticket)));
+                output.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/vehicles/{licensePlate}/tickets")
+    public ResponseEntity<List<TicketHistoryResponse>> getTicketHistory(
+            @PathVariable String licensePlate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime exitedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime exitedTo) {
+        return ResponseEntity.ok(parkingService.getTicketHistory(licensePlate, exitedFrom, exitedTo).stream()
+                .map(mapper::toTicketHistoryResponse)
+                .toList());
+    }
+
+    @GetMapping("/vehicles/{licensePlate}/location")
+    public ResponseEntity<VehicleLocationResponse> locateVehicle(@PathVariable String licensePlate) {
+        return ResponseEntity.ok(mapper.toVehicleLocationResponse(licensePlate, parkingService.locate(licensePlate)));
+    }
+
+    private void checkBatchSize(List<?> items) {
+        if (items.size() > maxBatchSize) {
+            throw new IllegalStateException("A batch may hold at most " + maxBatchSize + " items");
+        }
+    }
 }
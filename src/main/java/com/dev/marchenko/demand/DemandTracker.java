@@ -0,0 +1,119 @@
+package com.dev.marchenko.demand;
+
+import com.dev.marchenko.allocation.FreeSlotCounters;
+import com.dev.marchenko.config.PricingProperties;
+import com.dev.marchenko.topology.TopologySnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Recent demand per parking lot, fed by the gates on every check-in and check-out: arrivals, departures and the
+ * highest occupancy seen over the last {@code parking.pricing.surge.window}, from the free slot counters and the
+ * topology rather than the database. Each lot's surge multiplier is cached and recomputed at most once every
+ * {@code parking.pricing.surge.recompute-interval}, by whichever check-out first finds it due; the others keep
+ * pricing with the cached one. Demand is counted per instance, and not at all while surge pricing is off.
+ */
+@Component
+public class DemandTracker {
+
+    // Multipliers are in thousandths.
+    public static final long NO_SURGE = 1000;
+
+    private final FreeSlotCounters freeSlotCounters;
+    private final TopologySnapshot topology;
+    private final PricingProperties.Surge surge;
+    private final LongSupplier clock;
+    private final long recomputeMillis;
+    private final long threshold;
+    private final long maxMultiplier;
+    private final Map<Long, LotDemand> lots = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DemandTracker(FreeSlotCounters freeSlotCounters, TopologySnapshot topology, PricingProperties pricing) {
+        this(freeSlotCounters, topology, pricing.surge(), System::currentTimeMillis);
+    }
+
+    DemandTracker(FreeSlotCounters freeSlotCounters, TopologySnapshot topology, PricingProperties.Surge surge,
+                  LongSupplier clock) {
+        this.freeSlotCounters = freeSlotCounters;
+        this.topology = topology;
+        this.surge = surge;
+        this.clock = clock;
+        this.recomputeMillis = surge.recomputeInterval().toMillis();
+        this.threshold = Math.round(surge.occupancyThreshold() * 1000);
+        this.maxMultiplier = Math.round(surge.maxMultiplier() * 1000);
+    }
+
+    public void arrived(Long lotId) {
+        if (lotId != null && surge.enabled()) {
+            lot(lotId).window.arrived(clock.getAsLong(), occupancy(lotId));
+        }
+    }
+
+    public void departed(Long lotId) {
+        if (lotId != null && surge.enabled()) {
+            lot(lotId).window.departed(clock.getAsLong(), occupancy(lotId));
+        }
+    }
+
+    // In thousandths, e.g. 1250 for a quarter more than the base fee.
+    public long surgeMultiplier(Long lotId) {
+        LotDemand lot = lot(lotId);
+        long now = clock.getAsLong();
+        long due = lot.recomputeAt.get();
+        if (now >= due && lot.recomputeAt.compareAndSet(due, now + recomputeMillis)) {
+            lot.multiplier = multiplier(lotId, lot.window, now);
+        }
+        return lot.multiplier;
+    }
+
+    // The higher of the peak occupancy in the window and where the lot is heading if arrivals keep outpacing
+    // departures for another window. Past the threshold the multiplier rises linearly, reaching the maximum
+    // when the lot is full.
+    private long multiplier(Long lotId, DemandWindow window, long now) {
+        int slots = topology.slotCountInLot(lotId);
+        if (slots == 0) {
+            return NO_SURGE;
+        }
+        long inflow = Math.max(0, window.arrivals(now) - window.departures(now));
+        long heading = occupancy(lotId, slots) + inflow * 1000 / slots;
+        long load = Math.min(1000, Math.max(window.peakOccupancy(now), heading));
+        if (load <= threshold) {
+            return NO_SURGE;
+        }
+        return NO_SURGE + (maxMultiplier - NO_SURGE) * (load - threshold) / (1000 - threshold);
+    }
+
+    private int occupancy(Long lotId) {
+        return occupancy(lotId, topology.slotCountInLot(lotId));
+    }
+
+    // In thousandths of the lot's slots.
+    private int occupancy(Long lotId, int slots) {
+        if (slots == 0) {
+            return 0;
+        }
+        int taken = Math.max(0, slots - freeSlotCounters.freeSlotsInLot(lotId));
+        return (int) Math.min(1000, taken * 1000L / slots);
+    }
+
+    private LotDemand lot(Long lotId) {
+        LotDemand lot = lots.get(lotId);
+        return lot != null ? lot : lots.computeIfAbsent(lotId, id -> new LotDemand(surge));
+    }
+
+    private static final class LotDemand {
+        private final DemandWindow window;
+        private final AtomicLong recomputeAt = new AtomicLong(Long.MIN_VALUE);
+        private volatile long multiplier = NO_SURGE;
+
+        private LotDemand(PricingProperties.Surge surge) {
+            this.window = new DemandWindow(surge.buckets(), surge.window().toMillis() / surge.buckets());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.dev.marchenko.demand;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Arrivals, departures and the peak occupancy of one lot over a sliding window of time buckets, kept in rings
+ * updated by compare-and-set only. A cell packs the bucket it counts for into its high bits and the value into its
+ * low 24, so a writer that finds a cell still holding a bucket that has left the window starts it over in the same
+ * CAS, and readers skip cells outside the window without anyone clearing them.
+ */
+final class DemandWindow {
+
+    private static final int VALUE_BITS = 24;
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+
+    private final int buckets;
+    private final long bucketMillis;
+    private final AtomicLongArray arrivals;
+    private final AtomicLongArray departures;
+    // in thousandths of the lot's slots
+    private final AtomicLongArray peakOccupancy;
+
+    DemandWindow(int buckets, long bucketMillis) {
+        this.buckets = buckets;
+        this.bucketMillis = bucketMillis;
+        this.arrivals = new AtomicLongArray(buckets);
+        this.departures = new AtomicLongArray(buckets);
+        this.peakOccupancy = new AtomicLongArray(buckets);
+    }
+
+    void arrived(long nowMillis, int occupancy) {
+        long bucket = nowMillis / bucketMillis;
+        update(arrivals, bucket, 1, false);
+        update(peakOccupancy, bucket, occupancy, true);
+    }
+
+    void departed(long nowMillis, int occupancy) {
+        long bucket = nowMillis / bucketMillis;
+        update(departures, bucket, 1, false);
+        update(peakOccupancy, bucket, occupancy, true);
+    }
+
+    long arrivals(long nowMillis) {
+        return sum(arrivals, nowMillis / bucketMillis);
+    }
+
+    long departures(long nowMillis) {
+        return sum(departures, nowMillis / bucketMillis);
+    }
+
+    int peakOccupancy(long nowMillis) {
+        long bucket = nowMillis / bucketMillis;
+        long peak = 0;
+        for (int i = 0; i < buckets; i++) {
+            long cell = peakOccupancy.get(i);
+            if (inWindow(cell, bucket)) {
+                peak = Math.max(peak, cell & VALUE_MASK);
+            }
+        }
+        return (int) peak;
+    }
+
+    // Adds to or raises the bucket's value. A writer that lags so far behind that its bucket has already been
+    // reused for a later one drops its update: the bucket is out of the window anyway.
+    private void update(AtomicLongArray cells, long bucket, long value, boolean max) {
+        int index = (int) (bucket % buckets);
+        while (true) {
+            long cell = cells.get(index);
+            long cellBucket = cell >>> VALUE_BITS;
+            if (cellBucket > bucket) {
+                return;
+            }
+            long current = cellBucket == bucket ? cell & VALUE_MASK : 0;
+            long updated = Math.min(VALUE_MASK, max ? Math.max(current, value) : current + value);
+            if (updated == current && cellBucket == bucket) {
+                return;
+            }
+            if (cells.compareAndSet(index, cell, bucket << VALUE_BITS | updated)) {
+                return;
+            }
+        }
+    }
+
+    private long sum(AtomicLongArray cells, long bucket) {
+        long sum = 0;
+        for (int i = 0; i < buckets; i++) {
+            long cell = cells.get(i);
+            if (inWindow(cell, bucket)) {
+                sum += cell & VALUE_MASK;
+            }
+        }
+        return sum;
+    }
+
+    private boolean inWindow(long cell, long bucket) {
+        long cellBucket = cell >>> VALUE_BITS;
+        return cellBucket <= bucket && cellBucket > bucket - buckets;
+    }
+}
@@ -15,7 +15,8 @@ import java.util.List;
 @Table(name = "levels")
 public class Level {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "levels_seq")
+    @SequenceGenerator(name = "levels_seq", sequenceName = "levels_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -0,0 +1,42 @@
+package com.dev.marchenko.domain.pricing;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * A set of rate cards, one per vehicle type, as JSON. The id is the version recorded with every fee priced by them;
+ * each version is numbered one past the latest one when it is stored.
+ */
+@Entity
+@Table(name = "rate_card_versions")
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class RateCardVersion {
+    @Id
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Source source;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    @Column(name = "rate_cards", nullable = false)
+    private String rateCards;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum Source {
+        // parking.pricing.rate-cards as deployed
+        CONFIG,
+        // reloaded through the admin API
+        ADMIN
+    }
+}
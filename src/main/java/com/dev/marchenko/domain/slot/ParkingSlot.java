@@ -6,6 +6,8 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Getter
 @Setter
@@ -14,7 +16,8 @@ import lombok.*;
 @Table(name = "slots")
 public class ParkingSlot {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "slots_seq")
+    @SequenceGenerator(name = "slots_seq", sequenceName = "slots_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -27,6 +30,10 @@ public class ParkingSlot {
 
     private boolean available = true;
 
+    private String leasedBy;
+
+    private LocalDateTime leaseExpiresAt;
+
     @NotNull
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "level_id")
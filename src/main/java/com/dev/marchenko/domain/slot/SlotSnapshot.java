@@ -0,0 +1,24 @@
+package com.dev.marchenko.domain.slot;
+
+import com.dev.marchenko.domain.lot.Level;
+import com.dev.marchenko.domain.lot.ParkingLot;
+
+public record SlotSnapshot(
+        Long id,
+        Long lotId,
+        Long levelId,
+        Integer floorNumber,
+        SlotType type
+) {
+    public static SlotSnapshot of(ParkingSlot slot) {
+        Level level = slot.getLevel();
+        ParkingLot lot = level != null ? level.getParkingLot() : null;
+        return new SlotSnapshot(
+                slot.getId(),
+                lot != null ? lot.getId() : null,
+                level != null ? level.getId() : null,
+                level != null ? level.getFloorNumber() : null,
+                slot.getType()
+        );
+    }
+}
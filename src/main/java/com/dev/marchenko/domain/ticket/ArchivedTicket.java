@@ -0,0 +1,41 @@
+package com.dev.marchenko.domain.ticket;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Closed ticket moved out of {@code parking_tickets} by the archiver. Keeps the plate and slot id rather than
+ * associations, so history outlives removed slots.
+ */
+@Entity
+@Immutable
+@Table(name = "parking_ticket_history")
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class ArchivedTicket {
+    @Id
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "vehicle_plate", nullable = false)
+    private String licensePlate;
+
+    @Column(name = "slot_id", nullable = false)
+    private Long slotId;
+
+    private LocalDateTime entryTime;
+
+    @Column(nullable = false)
+    private LocalDateTime exitTime;
+
+    private BigDecimal fee;
+
+    private Long rateCardVersion;
+
+    private Long surgeMultiplier;
+}
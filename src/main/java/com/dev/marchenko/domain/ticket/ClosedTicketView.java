@@ -0,0 +1,17 @@
+package com.dev.marchenko.domain.ticket;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Closed ticket as read from either {@code parking_tickets} or {@code parking_ticket_history}.
+ */
+public record ClosedTicketView(
+        Long ticketId,
+        String licensePlate,
+        LocalDateTime entryTime,
+        LocalDateTime exitTime,
+        BigDecimal fee,
+        Long rateCardVersion
+) {
+}
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class ParkingTicket {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parking_tickets_seq")
+    @SequenceGenerator(name = "parking_tickets_seq", sequenceName = "parking_tickets_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -37,6 +38,12 @@ public class ParkingTicket {
 
     private BigDecimal fee;
 
+    // rate-card version the fee was priced with
+    private Long rateCardVersion;
+
+    // surge multiplier in thousandths the fee was priced with; null for fees priced before it was recorded
+    private Long surgeMultiplier;
+
     public Integer getLevelNumber() {
         return slot != null && slot.getLevel() != null ? slot.getLevel().getFloorNumber() : null;
     }
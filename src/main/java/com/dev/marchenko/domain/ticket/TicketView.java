@@ -0,0 +1,26 @@
+package com.dev.marchenko.domain.ticket;
+
+import com.dev.marchenko.domain.vehicle.Vehicle;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.factory.VehicleFactory;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model of a ticket with exactly the columns a {@code TicketResponse} shows, selected with the vehicle,
+ * slot and level in one query instead of loading the entity graph.
+ */
+public record TicketView(
+        Long ticketId,
+        String licensePlate,
+        VehicleType vehicleType,
+        LocalDateTime entryTime,
+        String slotNumber,
+        Integer levelFloor
+) {
+    // Used by JPQL constructor expressions, which can only select the vehicle's entity class.
+    public TicketView(Long ticketId, String licensePlate, Class<? extends Vehicle> vehicleClass,
+                      LocalDateTime entryTime, String slotNumber, Integer levelFloor) {
+        this(ticketId, licensePlate, VehicleFactory.typeOf(vehicleClass), entryTime, slotNumber, levelFloor);
+    }
+}
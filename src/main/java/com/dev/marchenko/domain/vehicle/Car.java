@@ -14,7 +14,7 @@ public class Car extends Vehicle {
     }
 
     @Override
-    public VehicleType getType() {
+    public final VehicleType getType() {
         return VehicleType.CAR;
     }
 }
@@ -14,7 +14,7 @@ public class Motorcycle extends Vehicle {
     }
 
     @Override
-    public VehicleType getType() {
+    public final VehicleType getType() {
         return VehicleType.MOTORCYCLE;
     }
 }
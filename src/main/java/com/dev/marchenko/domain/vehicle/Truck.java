@@ -14,7 +14,7 @@ public class Truck extends Vehicle {
     }
 
     @Override
-    public VehicleType getType() {
+    public final VehicleType getType() {
         return VehicleType.TRUCK;
     }
 }
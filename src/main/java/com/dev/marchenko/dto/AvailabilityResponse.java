@@ -0,0 +1,8 @@
+package com.dev.marchenko.dto;
+
+import java.util.List;
+
+public record AvailabilityResponse(
+        long version,
+        List<LotAvailabilityResponse> lots
+) {}
@@ -0,0 +1,18 @@
+package com.dev.marchenko.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResponse<T>(
+        int index,
+        T result,
+        String error
+) {
+    public static <T> BatchItemResponse<T> success(int index, T result) {
+        return new BatchItemResponse<>(index, result, null);
+    }
+
+    public static <T> BatchItemResponse<T> failure(int index, String error) {
+        return new BatchItemResponse<>(index, null, error);
+    }
+}
@@ -13,5 +13,7 @@ public record CheckInRequest(
         @NotNull(message = "Vehicle type is required")
         VehicleType vehicleType,
 
-        boolean isHandicapped
+        boolean isHandicapped,
+
+        Long lotId
 ) {}
@@ -14,5 +14,6 @@ public record CheckOutResponse(
         @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
         LocalDateTime exitTime,
         long durationMinutes,
-        String totalFee
+        String totalFee,
+        Long rateCardVersion
 ) {}
@@ -0,0 +1,9 @@
+package com.dev.marchenko.dto;
+
+public record JournalStatsResponse(
+        long writeOffset,
+        long appliedOffset,
+        long pendingBytes,
+        long rejectedEntries,
+        String rejectedFile
+) {}
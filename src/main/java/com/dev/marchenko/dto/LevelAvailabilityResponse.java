@@ -0,0 +1,11 @@
+package com.dev.marchenko.dto;
+
+import com.dev.marchenko.domain.slot.SlotType;
+
+import java.util.Map;
+
+public record LevelAvailabilityResponse(
+        Long levelId,
+        Integer floorNumber,
+        Map<SlotType, Integer> freeSlots
+) {}
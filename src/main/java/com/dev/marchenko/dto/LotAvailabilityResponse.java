@@ -0,0 +1,12 @@
+package com.dev.marchenko.dto;
+
+import com.dev.marchenko.domain.slot.SlotType;
+
+import java.util.List;
+import java.util.Map;
+
+public record LotAvailabilityResponse(
+        Long lotId,
+        Map<SlotType, Integer> freeSlots,
+        List<LevelAvailabilityResponse> levels
+) {}
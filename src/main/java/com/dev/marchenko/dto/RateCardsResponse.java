@@ -0,0 +1,11 @@
+package com.dev.marchenko.dto;
+
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.strategy.RateCard;
+
+import java.util.Map;
+
+public record RateCardsResponse(
+        long version,
+        Map<VehicleType, RateCard> rateCards
+) {}
@@ -0,0 +1,27 @@
+package com.dev.marchenko.dto;
+
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Tickets priced in bulk by rate-card version {@code rateCardVersion}: open sessions as if they checked out at
+ * {@code to}, or tickets closed in {@code [from, to)} next to the fees they were charged. Lots and levels are
+ * keyed by id.
+ */
+public record RevenueReportResponse(
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        LocalDateTime from,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        LocalDateTime to,
+        long rateCardVersion,
+        long tickets,
+        BigDecimal priced,
+        BigDecimal recorded,
+        Map<VehicleType, RevenueTotalResponse> byVehicleType,
+        Map<Long, RevenueTotalResponse> byLot,
+        Map<Long, RevenueTotalResponse> byLevel
+) {}
@@ -0,0 +1,9 @@
+package com.dev.marchenko.dto;
+
+import java.math.BigDecimal;
+
+public record RevenueTotalResponse(
+        long tickets,
+        BigDecimal priced,
+        BigDecimal recorded
+) {}
@@ -0,0 +1,20 @@
+package com.dev.marchenko.dto;
+
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+public record SessionFilter(
+        Long lotId,
+        Long levelId,
+        VehicleType vehicleType,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        LocalDateTime enteredFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        LocalDateTime enteredTo
+) {
+    public static SessionFilter none() {
+        return new SessionFilter(null, null, null, null, null);
+    }
+}
@@ -1,5 +1,15 @@
 package com.dev.marchenko.dto;
 
 import com.dev.marchenko.domain.slot.SlotType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
-public record SlotRequest(String slotNumber, SlotType type) {}
+public record SlotRequest(
+        @NotBlank(message = "Slot number is required")
+        @Size(max = 10, message = "Slot number must not exceed 10 characters")
+        String slotNumber,
+
+        @NotNull(message = "Slot type is required")
+        SlotType type
+) {}
@@ -0,0 +1,18 @@
+package com.dev.marchenko.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+public record TicketHistoryResponse(
+        Long ticketId,
+        String licensePlate,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        LocalDateTime entryTime,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        LocalDateTime exitTime,
+        long durationMinutes,
+        String totalFee,
+        Long rateCardVersion
+) {
+}
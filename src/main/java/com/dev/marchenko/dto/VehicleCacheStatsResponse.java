@@ -0,0 +1,13 @@
+package com.dev.marchenko.dto;
+
+public record VehicleCacheStatsResponse(
+        int size,
+        int capacity,
+        long hits,
+        long misses,
+        long filtered,
+        long falsePositives,
+        long registrations,
+        long evictions,
+        double hitRate
+) {}
@@ -0,0 +1,16 @@
+package com.dev.marchenko.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+public record VehicleLocationResponse(
+        String licensePlate,
+        Long ticketId,
+        Long parkingLotId,
+        Integer levelFloor,
+        String slotNumber,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        LocalDateTime entryTime
+) {
+}
@@ -0,0 +1,5 @@
+package com.dev.marchenko.event;
+
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+
+public record SlotAvailabilityChangedEvent(SlotSnapshot slot, boolean available) {}
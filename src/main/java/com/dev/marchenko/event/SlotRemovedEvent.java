@@ -0,0 +1,3 @@
+package com.dev.marchenko.event;
+
+public record SlotRemovedEvent(Long slotId) {}
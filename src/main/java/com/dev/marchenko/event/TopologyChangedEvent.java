@@ -0,0 +1,4 @@
+package com.dev.marchenko.event;
+
+// lotId is the parking lot whose levels or slots changed, or null when the whole structure should be reread.
+public record TopologyChangedEvent(Long lotId) {}
@@ -0,0 +1,11 @@
+package com.dev.marchenko.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ActiveSessionNotFoundException extends RuntimeException {
+    public ActiveSessionNotFoundException(String licensePlate) {
+        super("Vehicle " + licensePlate + " is not parked");
+    }
+}
@@ -4,9 +4,11 @@ package com.dev.marchenko.exception;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.method.ParameterErrors;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.time.LocalDateTime;
 import java.util.LinkedHashMap;
@@ -31,6 +33,11 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
+    @ExceptionHandler(ActiveSessionNotFoundException.class)
+    public ResponseEntity<Object> handleActiveSessionNotFound(ActiveSessionNotFoundException ex) {
+        return buildResponse(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
     private ResponseEntity<Object> buildResponse(HttpStatus status, String message) {
         Map<String, Object> body = new LinkedHashMap<>();
         body.put("timestamp", LocalDateTime.now());
@@ -55,6 +62,8 @@ public class GlobalExceptionHandler {
                 message = "This parking lot already has a level with this floor number";
             } else if (upper.contains("UK_SLOT_LEVEL_NUMBER")) {
                 message = "This level already has a slot with this number";
+            } else if (upper.contains("UK_TICKETS_OPEN_VEHICLE")) {
+                message = "One of the vehicles is already parked";
             }
         }
 
@@ -126,4 +135,21 @@ public class GlobalExceptionHandler {
 
         return buildResponse(HttpStatus.BAD_REQUEST, errorMessage);
     }
+
+    // Constraints on a list body, e.g. one invalid element of a batch request; elements are named by index.
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<Object> handleMethodValidationExceptions(HandlerMethodValidationException ex) {
+        String errorMessage = ex.getParameterValidationResults()
+                .stream()
+                .flatMap(result -> result instanceof ParameterErrors errors
+                        ? errors.getFieldErrors().stream().map(error ->
+                                "[" + result.getContainerIndex() + "]." + error.getField() + ": " + error.getDefaultMessage())
+                        : result.getResolvableErrors().stream().map(error ->
+                                result.getMethodParameter().getParameterName()
+                                        + (result.getContainerIndex() != null ? "[" + result.getContainerIndex() + "]" : "")
+                                        + ": " + error.getDefaultMessage()))
+                .collect(Collectors.joining("; "));
+
+        return buildResponse(HttpStatus.BAD_REQUEST, errorMessage);
+    }
 }
@@ -2,6 +2,8 @@ package com.dev.marchenko.factory;
 
 import com.dev.marchenko.domain.vehicle.*;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -13,6 +15,12 @@ public class VehicleFactory {
             VehicleType.MOTORCYCLE, Motorcycle::new
     );
 
+    private static final Map<VehicleType, Class<? extends Vehicle>> classes = Map.of(
+            VehicleType.CAR, Car.class,
+            VehicleType.TRUCK, Truck.class,
+            VehicleType.MOTORCYCLE, Motorcycle.class
+    );
+
     public static Vehicle createVehicle(String licensePlate, VehicleType type) {
         var constructor = registry.get(type);
         if (constructor == null) {
@@ -20,4 +28,25 @@ public class VehicleFactory {
         }
         return constructor.apply(licensePlate);
     }
+
+    public static Class<? extends Vehicle> vehicleClass(VehicleType type) {
+        var vehicleClass = classes.get(type);
+        if (vehicleClass == null) {
+            throw new IllegalArgumentException("Unknown vehicle type: " + type);
+        }
+        return vehicleClass;
+    }
+
+    // Entity classes to match with TYPE() in queries; all vehicle classes when no type is given.
+    public static Collection<Class<? extends Vehicle>> vehicleClasses(VehicleType type) {
+        return type == null ? classes.values() : List.of(classes.get(type));
+    }
+
+    public static VehicleType typeOf(Class<? extends Vehicle> vehicleClass) {
+        return classes.entrySet().stream()
+                .filter(entry -> entry.getValue() == vehicleClass)
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown vehicle class: " + vehicleClass));
+    }
 }
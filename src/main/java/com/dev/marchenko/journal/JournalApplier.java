@@ -0,0 +1,93 @@
+package com.dev.marchenko.journal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes journal entries to the database as JDBC batches in one transaction. Applying the same entries twice
+ * leaves the same rows, which is what happens to the entries between the last checkpoint and a crash: tickets
+ * and vehicles that already exist are not inserted again, closed tickets are not closed again and every slot
+ * ends up in the state of its last entry.
+ */
+@Component
+@ConditionalOnProperty(prefix = "parking.durability", name = "mode", havingValue = "journal")
+@RequiredArgsConstructor
+public class JournalApplier {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public void apply(List<JournalEntry> entries) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<JournalEntry> checkIns = entries.stream()
+                    .filter(entry -> entry.type() == JournalEntry.Type.CHECK_IN)
+                    .toList();
+            List<JournalEntry> checkOuts = entries.stream()
+                    .filter(entry -> entry.type() == JournalEntry.Type.CHECK_OUT)
+                    .toList();
+            insertTickets(checkIns);
+            jdbcTemplate.batchUpdate("UPDATE parking_tickets SET exit_time = :time, fee = :fee, rate_card_version = :rateCardVersion, " +
+                            "surge_multiplier = :surgeMultiplier WHERE id = :ticketId AND exit_time IS NULL",
+                    checkOuts.stream().map(JournalApplier::parameters).toArray(SqlParameterSource[]::new));
+            updateSlots(entries);
+        });
+    }
+
+    private void insertTickets(List<JournalEntry> checkIns) {
+        if (checkIns.isEmpty()) {
+            return;
+        }
+        Set<Long> existing = new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM parking_tickets WHERE id IN (:ids)",
+                Map.of("ids", checkIns.stream().map(JournalEntry::ticketId).toList()), Long.class));
+        List<JournalEntry> newTickets = checkIns.stream()
+                .filter(entry -> !existing.contains(entry.ticketId()))
+                .toList();
+        if (newTickets.isEmpty()) {
+            return;
+        }
+
+        Map<String, JournalEntry> vehicles = new LinkedHashMap<>();
+        newTickets.forEach(entry -> vehicles.putIfAbsent(entry.licensePlate(), entry));
+        jdbcTemplate.queryForList("SELECT license_plate FROM vehicles WHERE license_plate IN (:plates)",
+                Map.of("plates", vehicles.keySet()), String.class).forEach(vehicles::remove);
+
+        jdbcTemplate.batchUpdate("INSERT INTO vehicles (license_plate, vehicle_type_id) VALUES (:licensePlate, :vehicleType)",
+                vehicles.values().stream().map(JournalApplier::parameters).toArray(SqlParameterSource[]::new));
+        jdbcTemplate.batchUpdate("INSERT INTO parking_tickets (id, vehicle_plate, slot_id, entry_time) VALUES (:ticketId, :licensePlate, :slotId, :time)",
+                newTickets.stream().map(JournalApplier::parameters).toArray(SqlParameterSource[]::new));
+    }
+
+    private void updateSlots(List<JournalEntry> entries) {
+        Map<Long, Boolean> available = new LinkedHashMap<>();
+        entries.forEach(entry -> available.put(entry.slotId(), entry.type() == JournalEntry.Type.CHECK_OUT));
+        jdbcTemplate.batchUpdate("UPDATE slots SET available = :available WHERE id = :slotId",
+                available.entrySet().stream()
+                        .map(slot -> new MapSqlParameterSource()
+                                .addValue("slotId", slot.getKey())
+                                .addValue("available", slot.getValue()))
+                        .toArray(SqlParameterSource[]::new));
+    }
+
+    private static SqlParameterSource parameters(JournalEntry entry) {
+        return new MapSqlParameterSource()
+                .addValue("ticketId", entry.ticketId())
+                .addValue("licensePlate", entry.licensePlate())
+                .addValue("vehicleType", entry.vehicleType().name())
+                .addValue("slotId", entry.slotId())
+                .addValue("time", entry.time())
+                .addValue("fee", entry.fee())
+                .addValue("rateCardVersion", entry.rateCardVersion())
+                .addValue("surgeMultiplier", entry.surgeMultiplier());
+    }
+}
@@ -0,0 +1,93 @@
+package com.dev.marchenko.journal;
+
+import com.dev.marchenko.domain.vehicle.VehicleType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * One gate event as written to the {@link SessionJournal}. Check-outs carry the fee, the rate-card version and
+ * the surge multiplier it was priced with, so applying them to the database needs no pricing. Every record starts
+ * with the {@link #FORMAT_VERSION} it was written in.
+ */
+public record JournalEntry(
+        Type type,
+        long ticketId,
+        String licensePlate,
+        VehicleType vehicleType,
+        long slotId,
+        LocalDateTime time,
+        BigDecimal fee,
+        Long rateCardVersion,
+        Long surgeMultiplier
+) {
+    static final byte FORMAT_VERSION = 1;
+
+    public enum Type {
+        CHECK_IN, CHECK_OUT
+    }
+
+    public static JournalEntry checkIn(long ticketId, String licensePlate, VehicleType vehicleType, long slotId,
+                                       LocalDateTime entryTime) {
+        return new JournalEntry(Type.CHECK_IN, ticketId, licensePlate, vehicleType, slotId, entryTime, null, null, null);
+    }
+
+    public static JournalEntry checkOut(long ticketId, String licensePlate, VehicleType vehicleType, long slotId,
+                                        LocalDateTime exitTime, BigDecimal fee, long rateCardVersion,
+                                        long surgeMultiplier) {
+        return new JournalEntry(Type.CHECK_OUT, ticketId, licensePlate, vehicleType, slotId, exitTime, fee, rateCardVersion,
+                surgeMultiplier);
+    }
+
+    // format version, type, vehicle type, ticket id, slot id, epoch second, nanos, fee scale, fee, plate length, plate,
+    // rate-card version, surge multiplier
+    int size() {
+        return 1 + 1 + 1 + 8 + 8 + 8 + 4 + 1 + 8 + 2 + plateBytes().length + 8 + 8;
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        byte[] plate = plateBytes();
+        buffer.put(FORMAT_VERSION);
+        buffer.put((byte) type.ordinal());
+        buffer.put((byte) vehicleType.ordinal());
+        buffer.putLong(ticketId);
+        buffer.putLong(slotId);
+        buffer.putLong(time.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(time.getNano());
+        buffer.put(fee != null ? (byte) fee.scale() : -1);
+        buffer.putLong(fee != null ? fee.unscaledValue().longValueExact() : 0L);
+        buffer.putShort((short) plate.length);
+        buffer.put(plate);
+        buffer.putLong(rateCardVersion != null ? rateCardVersion : -1L);
+        buffer.putLong(surgeMultiplier != null ? surgeMultiplier : -1L);
+    }
+
+    static JournalEntry readFrom(ByteBuffer buffer) {
+        byte format = buffer.get();
+        if (format != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported journal entry format " + format);
+        }
+        Type type = Type.values()[buffer.get()];
+        VehicleType vehicleType = VehicleType.values()[buffer.get()];
+        long ticketId = buffer.getLong();
+        long slotId = buffer.getLong();
+        LocalDateTime time = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        byte scale = buffer.get();
+        long unscaledFee = buffer.getLong();
+        byte[] plate = new byte[buffer.getShort()];
+        buffer.get(plate);
+        long version = buffer.getLong();
+        long surgeMultiplier = buffer.getLong();
+        BigDecimal fee = scale >= 0 ? new BigDecimal(BigInteger.valueOf(unscaledFee), scale) : null;
+        return new JournalEntry(type, ticketId, new String(plate, StandardCharsets.UTF_8), vehicleType, slotId, time, fee,
+                version >= 0 ? version : null, surgeMultiplier >= 0 ? surgeMultiplier : null);
+    }
+
+    private byte[] plateBytes() {
+        return licensePlate.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,394 @@
+package com.dev.marchenko.journal;
+
+import com.dev.marchenko.allocation.FreeSlotCounters;
+import com.dev.marchenko.allocation.SlotAvailabilityIndex;
+import com.dev.marchenko.allocation.SlotCompatibility;
+import com.dev.marchenko.demand.DemandTracker;
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.ticket.ParkingTicket;
+import com.dev.marchenko.domain.vehicle.Vehicle;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.dto.BatchItemResponse;
+import com.dev.marchenko.dto.CheckInRequest;
+import com.dev.marchenko.dto.CheckOutResponse;
+import com.dev.marchenko.dto.TicketResponse;
+import com.dev.marchenko.event.SlotAvailabilityChangedEvent;
+import com.dev.marchenko.exception.*;
+import com.dev.marchenko.factory.VehicleFactory;
+import com.dev.marchenko.mapper.ParkingMapper;
+import com.dev.marchenko.repository.ArchivedTicketRepository;
+import com.dev.marchenko.repository.ParkingLotRepository;
+import com.dev.marchenko.repository.SlotRepository;
+import com.dev.marchenko.repository.TicketRepository;
+import com.dev.marchenko.service.ParkingGate;
+import com.dev.marchenko.service.PricingService;
+import com.dev.marchenko.session.ActiveSession;
+import com.dev.marchenko.session.ActiveSessionRegistry;
+import com.dev.marchenko.strategy.RateTable;
+import com.dev.marchenko.topology.SlotNode;
+import com.dev.marchenko.topology.TopologySnapshot;
+import com.dev.marchenko.vehicle.VehicleRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind gate: a check-in or check-out is decided in memory, appended to the {@link SessionJournal} and
+ * answered without a database transaction. Slots come straight from {@link SlotAvailabilityIndex}, ticket ids
+ * from {@link TicketIds} and open sessions from {@link ActiveSessionRegistry}, so this mode assumes a single
+ * instance and requires {@code parking.allocation.mode=index}. Slot, level and lot details come from the
+ * {@link TopologySnapshot}. Batches go through the journal item by item like single events. Every
+ * {@code parking.journal.apply-interval} the entries are applied in batches of {@code parking.journal.batch-size},
+ * and on startup whatever was journaled but not yet applied is replayed before the in-memory state is rebuilt
+ * from the database. Until then tickets answered by the gate are kept here, so check-out finds them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "parking.durability", name = "mode", havingValue = "journal")
+public class JournaledParkingGate implements ParkingGate {
+
+    private final SessionJournal journal;
+    private final JournalApplier applier;
+    private final TicketIds ticketIds;
+    private final SlotAvailabilityIndex slotIndex;
+    private final FreeSlotCounters freeSlotCounters;
+    private final ActiveSessionRegistry activeSessions;
+    private final TopologySnapshot topology;
+    private final PricingService pricingService;
+    private final DemandTracker demandTracker;
+    private final VehicleRegistry vehicleRegistry;
+    private final SlotRepository slotRepository;
+    private final TicketRepository ticketRepository;
+    private final ArchivedTicketRepository archivedTicketRepository;
+    private final ParkingLotRepository parkingLotRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ParkingMapper parkingMapper;
+    private final Validator validator;
+    private final int batchSize;
+
+    // journaled but not yet applied
+    private final Map<Long, ParkingTicket> pendingTickets = new ConcurrentHashMap<>();
+    private final Map<String, VehicleType> pendingVehicles = new ConcurrentHashMap<>();
+    private final Set<Long> closing = ConcurrentHashMap.newKeySet();
+
+    public JournaledParkingGate(SessionJournal journal,
+                                JournalApplier applier,
+                                TicketIds ticketIds,
+                                @Nullable SlotAvailabilityIndex slotIndex,
+                                FreeSlotCounters freeSlotCounters,
+                                ActiveSessionRegistry activeSessions,
+                                TopologySnapshot topology,
+                                PricingService pricingService,
+                                DemandTracker demandTracker,
+                                VehicleRegistry vehicleRegistry,
+                                SlotRepository slotRepository,
+                                TicketRepository ticketRepository,
+                                ArchivedTicketRepository archivedTicketRepository,
+                                ParkingLotRepository parkingLotRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                ParkingMapper parkingMapper,
+                                Validator validator,
+                                @Value("${parking.journal.batch-size:500}") int batchSize) {
+        if (slotIndex == null) {
+            throw new IllegalStateException("parking.durability.mode=journal requires parking.allocation.mode=index");
+        }
+        this.journal = journal;
+        this.applier = applier;
+        this.ticketIds = ticketIds;
+        this.slotIndex = slotIndex;
+        this.freeSlotCounters = freeSlotCounters;
+        this.activeSessions = activeSessions;
+        this.topology = topology;
+        this.pricingService = pricingService;
+        this.demandTracker = demandTracker;
+        this.vehicleRegistry = vehicleRegistry;
+        this.slotRepository = slotRepository;
+        this.ticketRepository = ticketRepository;
+        this.archivedTicketRepository = archivedTicketRepository;
+        this.parkingLotRepository = parkingLotRepository;
+        this.eventPublisher = eventPublisher;
+        this.parkingMapper = parkingMapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public ParkingTicket checkIn(Long lotId, String licensePlate, VehicleType type, boolean isHandicapped) {
+        VehicleType registered = registeredType(licensePlate);
+        if (registered != null && registered != type) {
+            throw new LicensePlateAlreadyRegisteredException(licensePlate);
+        }
+        if (!activeSessions.reserve(licensePlate)) {
+            throw new VehicleAlreadyParkedException(licensePlate);
+        }
+
+        ParkingSlot slot = null;
+        ParkingTicket ticket;
+        try {
+            slot = claimSlot(lotId, type, isHandicapped);
+            ticket = newTicket(ticketIds.next(), VehicleFactory.createVehicle(licensePlate, type), slot, now());
+            journal.append(JournalEntry.checkIn(ticket.getId(), licensePlate, type, slot.getId(), ticket.getEntryTime()));
+        } catch (RuntimeException e) {
+            activeSessions.cancel(licensePlate);
+            if (slot != null) {
+                slotIndex.add(SlotSnapshot.of(slot));
+            }
+            throw e;
+        }
+
+        pendingTickets.put(ticket.getId(), ticket);
+        if (registered == null) {
+            pendingVehicles.put(licensePlate, type);
+        }
+        activeSessions.open(ticket);
+        SlotSnapshot taken = SlotSnapshot.of(slot);
+        eventPublisher.publishEvent(new SlotAvailabilityChangedEvent(taken, false));
+        demandTracker.arrived(taken.lotId());
+        return ticket;
+    }
+
+    @Override
+    public ParkingTicket checkOut(Long ticketId) {
+        ParkingTicket ticket = pendingTickets.get(ticketId);
+        if (ticket == null) {
+            ticket = ticketRepository.findById(ticketId)
+                    .orElseThrow(() -> archivedTicketRepository.existsById(ticketId)
+                            ? new TicketAlreadyClosedException(ticketId)
+                            : new TicketNotFoundException(ticketId));
+        }
+        String licensePlate = ticket.getVehicle().getLicensePlate();
+        if (ticket.getExitTime() != null || !closing.add(ticketId)) {
+            throw new TicketAlreadyClosedException(ticketId);
+        }
+
+        ParkingTicket closed;
+        try {
+            boolean open = activeSessions.find(licensePlate)
+                    .filter(session -> ticketId.equals(session.ticketId()))
+                    .isPresent();
+            if (!open) {
+                throw new TicketAlreadyClosedException(ticketId);
+            }
+            LocalDateTime exitTime = now();
+            RateTable rates = pricingService.rates();
+            VehicleType type = ticket.getVehicle().getType();
+            long surgeMultiplier = rates.surgeMultiplier(type, SlotSnapshot.of(ticket.getSlot()).lotId());
+            BigDecimal fee = rates.calculate(type, ticket.getEntryTime(), exitTime, surgeMultiplier);
+            closed = newTicket(ticketId, ticket.getVehicle(), ticket.getSlot(), ticket.getEntryTime());
+            closed.setExitTime(exitTime);
+            closed.setFee(fee);
+            closed.setRateCardVersion(rates.version());
+            closed.setSurgeMultiplier(surgeMultiplier);
+            journal.append(JournalEntry.checkOut(ticketId, licensePlate, type, ticket.getSlot().getId(), exitTime, fee,
+                    rates.version(), surgeMultiplier));
+        } catch (RuntimeException e) {
+            closing.remove(ticketId);
+            throw e;
+        }
+
+        activeSessions.close(licensePlate);
+        SlotSnapshot released = SlotSnapshot.of(closed.getSlot());
+        eventPublisher.publishEvent(new SlotAvailabilityChangedEvent(released, true));
+        demandTracker.departed(released.lotId());
+        return closed;
+    }
+
+    @Override
+    public ParkingTicket checkOutByPlate(String licensePlate) {
+        ActiveSession session = activeSessions.find(licensePlate)
+                .orElseThrow(() -> new ActiveSessionNotFoundException(licensePlate));
+        return checkOut(session.ticketId());
+    }
+
+    @Override
+    public List<BatchItemResponse<TicketResponse>> checkInBatch(List<CheckInRequest> requests) {
+        List<BatchItemResponse<TicketResponse>> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            CheckInRequest request = requests.get(i);
+            try {
+                validate(request);
+                ParkingTicket ticket = checkIn(request.lotId(), request.licensePlate(), request.vehicleType(),
+                        request.isHandicapped());
+                results.add(BatchItemResponse.success(i, parkingMapper.toTicketResponse(ticket)));
+            } catch (IllegalArgumentException | LicensePlateAlreadyRegisteredException
+                     | VehicleAlreadyParkedException | NoAvailableSlotException | ResourceNotFoundException e) {
+                results.add(BatchItemResponse.failure(i, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<BatchItemResponse<CheckOutResponse>> checkOutBatch(List<Long> ticketIds) {
+        List<BatchItemResponse<CheckOutResponse>> results = new ArrayList<>(ticketIds.size());
+        for (int i = 0; i < ticketIds.size(); i++) {
+            Long ticketId = ticketIds.get(i);
+            try {
+                if (ticketId == null) {
+                    throw new TicketNotFoundException(null);
+                }
+                results.add(BatchItemResponse.success(i, parkingMapper.toCheckOutResponse(checkOut(ticketId))));
+            } catch (IllegalArgumentException | TicketNotFoundException | TicketAlreadyClosedException e) {
+                results.add(BatchItemResponse.failure(i, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    // Runs ahead of the listeners that rebuild sessions, free slots and counters from the database.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void replay() {
+        flush();
+    }
+
+    @Scheduled(fixedDelayString = "${parking.journal.apply-interval:100ms}")
+    public synchronized void flush() {
+        ticketIds.prefetch();
+        journal.force();
+        List<SessionJournal.Record> records;
+        while (!(records = journal.read(journal.appliedOffset(), batchSize)).isEmpty()) {
+            List<JournalEntry> entries = records.stream().map(SessionJournal.Record::entry).toList();
+            Set<JournalEntry> rejected = apply(entries);
+            journal.markApplied(records.get(records.size() - 1).endOffset());
+            entries.forEach(entry -> settle(entry, rejected.contains(entry)));
+        }
+    }
+
+    // An entry the database rejects on its own, e.g. for a slot deleted in the meantime, is moved to the journal's
+    // dead-letter file so it cannot hold back the rest of the journal; any other failure leaves the entries for
+    // the next run. Returns the entries that were moved.
+    private Set<JournalEntry> apply(List<JournalEntry> entries) {
+        try {
+            applier.apply(entries);
+            return Set.of();
+        } catch (DataIntegrityViolationException e) {
+            Set<JournalEntry> rejected = new HashSet<>();
+            for (JournalEntry entry : entries) {
+                try {
+                    applier.apply(List.of(entry));
+                } catch (DataIntegrityViolationException failure) {
+                    log.error("Journal entry {} rejected by the database, moved to {}", entry, journal.rejectedFile(), failure);
+                    journal.reject(entry);
+                    rejected.add(entry);
+                }
+            }
+            return rejected;
+        }
+    }
+
+    private void settle(JournalEntry entry, boolean rejected) {
+        if (entry.type() != JournalEntry.Type.CHECK_IN) {
+            closing.remove(entry.ticketId());
+            return;
+        }
+        ParkingTicket ticket = pendingTickets.remove(entry.ticketId());
+        if (pendingVehicles.remove(entry.licensePlate(), entry.vehicleType()) && !rejected) {
+            vehicleRegistry.registered(entry.licensePlate(), entry.vehicleType());
+        }
+        if (rejected && ticket != null) {
+            abandon(ticket);
+        }
+    }
+
+    // The ticket of a rejected check-in never reached the database, so its session is closed and its slot freed
+    // again unless the vehicle has already checked out. A slot that no longer exists is not handed out again.
+    private void abandon(ParkingTicket ticket) {
+        String licensePlate = ticket.getVehicle().getLicensePlate();
+        boolean open = activeSessions.find(licensePlate)
+                .filter(session -> ticket.getId().equals(session.ticketId()))
+                .isPresent();
+        if (!open) {
+            return;
+        }
+        activeSessions.close(licensePlate);
+        if (topology.slot(ticket.getSlot().getId()).isPresent()) {
+            SlotSnapshot released = SlotSnapshot.of(ticket.getSlot());
+            eventPublisher.publishEvent(new SlotAvailabilityChangedEvent(released, true));
+            demandTracker.departed(released.lotId());
+        }
+    }
+
+    private void validate(CheckInRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("request: must not be null");
+        }
+        Set<ConstraintViolation<CheckInRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private VehicleType registeredType(String licensePlate) {
+        VehicleType pending = pendingVehicles.get(licensePlate);
+        return pending != null ? pending : vehicleRegistry.find(licensePlate).orElse(null);
+    }
+
+    // The index is the only record of which slots are taken until the journal is applied.
+    private ParkingSlot claimSlot(Long lotId, VehicleType type, boolean isHandicapped) {
+        List<SlotType> candidates = SlotCompatibility.candidateTypes(type, isHandicapped);
+        if (freeSlotCounters.hasCapacity(lotId, candidates)) {
+            for (SlotType slotType : candidates) {
+                Optional<SlotSnapshot> candidate;
+                while ((candidate = slotIndex.poll(lotId, slotType)).isPresent()) {
+                    Optional<ParkingSlot> slot = slotDetails(candidate.get().id());
+                    if (slot.isPresent()) {
+                        return slot.get();
+                    }
+                }
+            }
+        }
+        if (lotId != null && topology.lot(lotId).isEmpty() && !parkingLotRepository.existsById(lotId)) {
+            throw new ResourceNotFoundException("Parking Lot", lotId);
+        }
+        throw new NoAvailableSlotException(type.name());
+    }
+
+    // A detached copy built from the topology; only a slot the topology has not seen yet is read from the database.
+    private Optional<ParkingSlot> slotDetails(Long slotId) {
+        Optional<SlotNode> known = topology.slot(slotId);
+        return known.isPresent() ? known.map(node -> node.toDetachedSlot(false)) : slotRepository.findById(slotId);
+    }
+
+    // Whole seconds like the timestamp columns, so a ticket reads back from the database exactly as journaled.
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private static ParkingTicket newTicket(Long id, Vehicle vehicle, ParkingSlot slot, LocalDateTime entryTime) {
+        ParkingTicket ticket = new ParkingTicket();
+        ticket.setId(id);
+        ticket.setVehicle(vehicle);
+        ticket.setSlot(slot);
+        ticket.setEntryTime(entryTime);
+        return ticket;
+    }
+}
@@ -0,0 +1,274 @@
+package com.dev.marchenko.journal;
+
+import com.dev.marchenko.dto.JournalStatsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of gate events in memory-mapped segment files under {@code parking.journal.dir}. An append
+ * is a copy into the mapped page cache, so it survives a crash of the application without waiting for the
+ * disk; {@link #force()} flushes the pages for the case where the machine goes down.
+ * <p>
+ * Positions are offsets into one logical log. Each segment file is named after the offset of its first entry
+ * and a new one is started when the current one is full. The offset up to which entries have been applied
+ * to the database is kept in a checkpoint file, and segments that lie entirely below it are deleted.
+ * Every entry is framed as length, CRC32 and payload, so an entry torn by a crash is recognised on startup
+ * and writing resumes in front of it.
+ * <p>
+ * Entries the database will not take are set aside in a plain-text dead-letter file next to the segments,
+ * one line per entry, for an operator to correct and re-enter.
+ */
+@Component
+@ConditionalOnProperty(prefix = "parking.durability", name = "mode", havingValue = "journal")
+public class SessionJournal implements Closeable {
+
+    private static final int FRAME_HEADER = 8;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT = "applied.offset";
+    private static final String REJECTED = "rejected.entries";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    private volatile long writeOffset;
+    private volatile long appliedOffset;
+    private volatile long rejectedEntries;
+
+    public SessionJournal(@Value("${parking.journal.dir:${java.io.tmpdir}/smart-parking/journal}") Path directory,
+                          @Value("${parking.journal.segment-size:16MB}") DataSize segmentSize) {
+        this.directory = directory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        try {
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal in " + directory, e);
+        }
+    }
+
+    // Returns the offset right after the entry.
+    public synchronized long append(JournalEntry entry) {
+        int length = entry.size();
+        if (FRAME_HEADER + length > segmentSize) {
+            throw new IllegalArgumentException("Journal entry of " + length + " bytes exceeds the segment size");
+        }
+        Segment segment = segments.get(segments.size() - 1);
+        int position = (int) (writeOffset - segment.base());
+        if (position + FRAME_HEADER + length > segment.capacity()) {
+            segment = roll();
+            position = 0;
+        }
+
+        ByteBuffer buffer = segment.view();
+        buffer.position(position + FRAME_HEADER);
+        entry.writeTo(buffer);
+        buffer.position(position);
+        buffer.putInt(length);
+        buffer.putInt(checksum(segment.view(), position + FRAME_HEADER, length));
+
+        writeOffset += FRAME_HEADER + length;
+        return writeOffset;
+    }
+
+    // Entries from the given offset on, at most max of them; each with the offset right after it.
+    public List<Record> read(long fromOffset, int max) {
+        long end = writeOffset;
+        List<Record> records = new ArrayList<>();
+        long offset = fromOffset;
+        while (offset < end && records.size() < max) {
+            Segment segment = segmentAt(offset);
+            ByteBuffer buffer = segment.view();
+            int position = (int) (offset - segment.base());
+            int length = position + FRAME_HEADER <= segment.capacity() ? buffer.getInt(position) : 0;
+            if (length == 0) {
+                // rest of the segment was left empty when the next one was started
+                offset = nextBase(segment);
+                continue;
+            }
+            JournalEntry entry = JournalEntry.readFrom(buffer.slice(position + FRAME_HEADER, length));
+            offset += FRAME_HEADER + length;
+            records.add(new Record(entry, offset));
+        }
+        return records;
+    }
+
+    public long appliedOffset() {
+        return appliedOffset;
+    }
+
+    public long writeOffset() {
+        return writeOffset;
+    }
+
+    public synchronized void markApplied(long offset) {
+        try {
+            Path temp = directory.resolve(CHECKPOINT + ".tmp");
+            Files.writeString(temp, Long.toString(offset));
+            Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            appliedOffset = offset;
+            while (segments.size() > 1 && segments.get(1).base() <= offset) {
+                Segment applied = segments.remove(0);
+                Files.deleteIfExists(applied.file());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Written through to the disk, since the entry is gone from the journal once it has been marked applied.
+    public synchronized void reject(JournalEntry entry) {
+        try {
+            Files.writeString(directory.resolve(REJECTED), entry + System.lineSeparator(),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+            rejectedEntries++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Path rejectedFile() {
+        return directory.resolve(REJECTED);
+    }
+
+    // Rejected entries include those set aside before the last restart.
+    public JournalStatsResponse stats() {
+        long written = writeOffset;
+        long applied = appliedOffset;
+        return new JournalStatsResponse(written, applied, written - applied, rejectedEntries, rejectedFile().toString());
+    }
+
+    public void force() {
+        segments.get(segments.size() - 1).buffer().force();
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        Path checkpoint = directory.resolve(CHECKPOINT);
+        appliedOffset = Files.exists(checkpoint) ? Long.parseLong(Files.readString(checkpoint).trim()) : 0L;
+        Path rejected = directory.resolve(REJECTED);
+        if (Files.exists(rejected)) {
+            try (Stream<String> lines = Files.lines(rejected)) {
+                rejectedEntries = lines.count();
+            }
+        }
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            segments.add(map(file, baseOf(file), 0));
+        }
+        if (segments.isEmpty()) {
+            segments.add(map(segmentFile(appliedOffset), appliedOffset, segmentSize));
+        }
+        Segment last = segments.get(segments.size() - 1);
+        writeOffset = last.base() + recover(last);
+    }
+
+    // Length of the intact entries at the start of the segment; anything after them is cleared.
+    private static int recover(Segment segment) {
+        ByteBuffer buffer = segment.view();
+        int position = 0;
+        while (position + FRAME_HEADER <= segment.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + FRAME_HEADER + length > segment.capacity()
+                    || buffer.getInt(position + 4) != checksum(buffer, position + FRAME_HEADER, length)) {
+                break;
+            }
+            position += FRAME_HEADER + length;
+        }
+        if (position + FRAME_HEADER <= segment.capacity() && buffer.getInt(position) != 0) {
+            for (int i = position; i < segment.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        return position;
+    }
+
+    private Segment roll() {
+        Segment next = map(segmentFile(writeOffset), writeOffset, segmentSize);
+        segments.get(segments.size() - 1).buffer().force();
+        segments.add(next);
+        return next;
+    }
+
+    private Segment segmentAt(long offset) {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Segment segment = segments.get(i);
+            if (segment.base() <= offset) {
+                return segment;
+            }
+        }
+        throw new IllegalStateException("Journal offset " + offset + " has already been deleted");
+    }
+
+    private long nextBase(Segment segment) {
+        int index = segments.indexOf(segment);
+        if (index < 0 || index == segments.size() - 1) {
+            throw new IllegalStateException("Journal is missing the segment after " + segment.file());
+        }
+        return segments.get(index + 1).base();
+    }
+
+    private Segment map(Path file, long base, int size) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int capacity = size > 0 ? size : Math.toIntExact(channel.size());
+            return new Segment(file, base, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map journal segment " + file, e);
+        }
+    }
+
+    private Path segmentFile(long base) {
+        return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    private static long baseOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static int checksum(ByteBuffer buffer, int position, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position, length));
+        return (int) crc.getValue();
+    }
+
+    public record Record(JournalEntry entry, long endOffset) {
+    }
+
+    // The buffer is shared; readers and the writer each work on their own view of it.
+    private record Segment(Path file, long base, MappedByteBuffer buffer) {
+        ByteBuffer view() {
+            return buffer.duplicate();
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.dev.marchenko.journal;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Ticket ids for journaled check-ins, handed out before the ticket row exists. Ids come in blocks from
+ * {@code parking_tickets_seq} the same way Hibernate's pooled-lo optimizer takes them, so they never collide
+ * with tickets inserted through JPA. The next block is fetched ahead of time by {@link #prefetch()}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "parking.durability", name = "mode", havingValue = "journal")
+public class TicketIds {
+
+    // allocation size of parking_tickets_seq on ParkingTicket
+    static final int BLOCK_SIZE = 50;
+
+    private final LongSupplier sequence;
+
+    private long next;
+    private long limit;
+    private Long spare;
+
+    @Autowired
+    public TicketIds(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this(nextValue(jdbcTemplate, entityManagerFactory));
+    }
+
+    TicketIds(LongSupplier sequence) {
+        this.sequence = sequence;
+    }
+
+    public synchronized long next() {
+        if (next == limit) {
+            long start = spare != null ? spare : sequence.getAsLong();
+            spare = null;
+            next = start;
+            limit = start + BLOCK_SIZE;
+        }
+        return next++;
+    }
+
+    public void prefetch() {
+        synchronized (this) {
+            if (spare != null) {
+                return;
+            }
+        }
+        long start = sequence.getAsLong();
+        synchronized (this) {
+            if (spare == null) {
+                spare = start;
+            }
+        }
+    }
+
+    private static LongSupplier nextValue(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        String sql = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+                .getSequenceSupport().getSequenceNextValString("parking_tickets_seq");
+        return () -> jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
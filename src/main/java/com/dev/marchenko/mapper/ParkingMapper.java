@@ -3,9 +3,13 @@ package com.dev.marchenko.mapper;
 import com.dev.marchenko.domain.lot.Level;
 import com.dev.marchenko.domain.lot.ParkingLot;
 import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.ticket.ClosedTicketView;
 import com.dev.marchenko.domain.ticket.ParkingTicket;
+import com.dev.marchenko.domain.ticket.TicketView;
 import com.dev.marchenko.dto.*;
 import com.dev.marchenko.formatter.MoneyFormatter;
+import com.dev.marchenko.session.ActiveSession;
+import com.dev.marchenko.topology.SlotLocationResolver;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.ReportingPolicy;
@@ -13,22 +17,37 @@ import org.mapstruct.ReportingPolicy;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Duration;
+import java.time.LocalDateTime;
 
-@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE, uses = MoneyFormatter.class)
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE, uses = {MoneyFormatter.class, SlotLocationResolver.class})
 public interface ParkingMapper {
 
     @Mapping(target = "ticketId", source = "id")
     @Mapping(target = "licensePlate", source = "vehicle.licensePlate")
     @Mapping(target = "vehicleType", source = "vehicle.type")
-    @Mapping(target = "slotNumber", source = "slot.slotNumber")
-    @Mapping(target = "levelFloor", source = "slot.level.floorNumber")
+    @Mapping(target = "slotNumber", source = "slot", qualifiedByName = "slotNumber")
+    @Mapping(target = "levelFloor", source = "slot", qualifiedByName = "floorNumber")
     TicketResponse toTicketResponse(ParkingTicket ticket);
 
+    TicketResponse toTicketResponse(TicketView view);
+
     @Mapping(target = "licensePlate", source = "vehicle.licensePlate")
     @Mapping(target = "durationMinutes", expression = "java(calculateDuration(ticket))")
     @Mapping(target = "totalFee", source = "fee")
     CheckOutResponse toCheckOutResponse(ParkingTicket ticket);
 
+    @Mapping(target = "durationMinutes", expression = "java(calculateDuration(view.entryTime(), view.exitTime()))")
+    @Mapping(target = "totalFee", source = "fee")
+    TicketHistoryResponse toTicketHistoryResponse(ClosedTicketView view);
+
+    @Mapping(target = "licensePlate", source = "licensePlate")
+    @Mapping(target = "ticketId", source = "session.ticketId")
+    @Mapping(target = "parkingLotId", source = "session.slotId", qualifiedByName = "lotIdOf")
+    @Mapping(target = "levelFloor", source = "session.slotId", qualifiedByName = "floorNumberOf")
+    @Mapping(target = "slotNumber", source = "session.slotId", qualifiedByName = "slotNumberOf")
+    @Mapping(target = "entryTime", expression = "java(session.entryTime())")
+    VehicleLocationResponse toVehicleLocationResponse(String licensePlate, ActiveSession session);
+
     default BigDecimal mapBigDecimal(BigDecimal value) {
         return value == null ? null : value.setScale(2, RoundingMode.HALF_UP);
     }
@@ -42,9 +61,13 @@ public interface ParkingMapper {
     SlotResponse toSlotResponse(ParkingSlot slot);
 
     default Long calculateDuration(ParkingTicket ticket) {
-        if (ticket.getEntryTime() == null || ticket.getExitTime() == null) {
+        return calculateDuration(ticket.getEntryTime(), ticket.getExitTime());
+    }
+
+    default Long calculateDuration(LocalDateTime entryTime, LocalDateTime exitTime) {
+        if (entryTime == null || exitTime == null) {
             return 0L;
         }
-        return Duration.between(ticket.getEntryTime(), ticket.getExitTime()).toMinutes();
+        return Duration.between(entryTime, exitTime).toMinutes();
     }
 }
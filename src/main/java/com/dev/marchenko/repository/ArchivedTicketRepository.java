@@ -0,0 +1,34 @@
+package com.dev.marchenko.repository;
+
+import com.dev.marchenko.domain.ticket.ArchivedTicket;
+import com.dev.marchenko.domain.ticket.ClosedTicketView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedTicketRepository extends JpaRepository<ArchivedTicket, Long> {
+
+    @Query("SELECT new com.dev.marchenko.domain.ticket.ClosedTicketView(a.id, a.licensePlate, a.entryTime, a.exitTime, a.fee, a.rateCardVersion) " +
+            "FROM ArchivedTicket a WHERE a.licensePlate = :plate " +
+            "AND (CAST(:exitedFrom AS LocalDateTime) IS NULL OR a.exitTime >= :exitedFrom) " +
+            "AND (CAST(:exitedTo AS LocalDateTime) IS NULL OR a.exitTime < :exitedTo)")
+    List<ClosedTicketView> findHistory(@Param("plate") String licensePlate,
+                                       @Param("exitedFrom") LocalDateTime exitedFrom,
+                                       @Param("exitedTo") LocalDateTime exitedTo);
+
+    @Query("SELECT a.id FROM ArchivedTicket a WHERE a.id IN :ids")
+    List<Long> findArchivedIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO parking_ticket_history (id, entry_time, exit_time, fee, rate_card_version, surge_multiplier, vehicle_plate, slot_id) " +
+            "SELECT id, entry_time, exit_time, fee, rate_card_version, surge_multiplier, vehicle_plate, slot_id FROM parking_tickets " +
+            "WHERE id IN :ids AND exit_time IS NOT NULL", nativeQuery = true)
+    int copyFromTickets(@Param("ids") Collection<Long> ids);
+}
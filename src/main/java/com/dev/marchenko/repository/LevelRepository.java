@@ -1,10 +1,21 @@
 package com.dev.marchenko.repository;
 
 import com.dev.marchenko.domain.lot.Level;
+import com.dev.marchenko.topology.LevelNode;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface LevelRepository extends JpaRepository<Level, Long> {
 
+    @Query("SELECT new com.dev.marchenko.topology.LevelNode(l.id, l.parkingLot.id, l.floorNumber) FROM Level l")
+    List<LevelNode> findAllNodes();
+
+    @Query("SELECT new com.dev.marchenko.topology.LevelNode(l.id, l.parkingLot.id, l.floorNumber) FROM Level l " +
+            "WHERE l.parkingLot.id = :lotId")
+    List<LevelNode> findNodesByLotId(@Param("lotId") Long lotId);
 }
@@ -2,9 +2,21 @@ package com.dev.marchenko.repository;
 
 
 import com.dev.marchenko.domain.lot.ParkingLot;
+import com.dev.marchenko.topology.LotNode;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ParkingLotRepository extends JpaRepository<ParkingLot, Long> {
+
+    @Query("SELECT new com.dev.marchenko.topology.LotNode(p.id, p.name) FROM ParkingLot p")
+    List<LotNode> findAllNodes();
+
+    @Query("SELECT new com.dev.marchenko.topology.LotNode(p.id, p.name) FROM ParkingLot p WHERE p.id = :lotId")
+    Optional<LotNode> findNodeById(@Param("lotId") Long lotId);
 }
@@ -0,0 +1,26 @@
+package com.dev.marchenko.repository;
+
+import com.dev.marchenko.domain.pricing.RateCardVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RateCardVersionRepository extends JpaRepository<RateCardVersion, Long> {
+
+    Optional<RateCardVersion> findFirstByOrderByIdDesc();
+
+    Optional<RateCardVersion> findFirstBySourceOrderByIdDesc(RateCardVersion.Source source);
+
+    // A plain insert, so a version another instance stored under the same id fails on the primary key.
+    @Modifying
+    @Query(value = "INSERT INTO rate_card_versions (id, source, rate_cards, created_at) " +
+            "VALUES (:id, :source, :rateCards, :createdAt)", nativeQuery = true)
+    void insert(@Param("id") long id, @Param("source") String source, @Param("rateCards") String rateCards,
+                @Param("createdAt") LocalDateTime createdAt);
+}
@@ -1,23 +1,157 @@
 package com.dev.marchenko.repository;
 
 import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
 import com.dev.marchenko.domain.slot.SlotType;
-import jakarta.persistence.LockModeType;
+import com.dev.marchenko.topology.SlotNode;
 import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SlotRepository extends JpaRepository<ParkingSlot, Long> {
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @QueryHints({@QueryHint(name = "javax.persistence.lock.timeout", value = "3000")})
-    @Query("SELECT s FROM ParkingSlot s WHERE s.available = true AND s.type = :type ORDER BY s.level.floorNumber ASC")
-    Optional<ParkingSlot> findFirstByAvailableTrueAndTypeOrderByLevelFloorNumberAsc(@Param("type") SlotType type);
-}
\ No newline at end of file
+    // Locks only the slot row: a query-wide lock would also lock the joined level, which every concurrent
+    // allocation shares, and deadlock them against each other.
+    @QueryHints({@QueryHint(name = "org.hibernate.lockMode.s", value = "pessimistic_write"),
+            @QueryHint(name = "javax.persistence.lock.timeout", value = "3000")})
+    @Query("SELECT s FROM ParkingSlot s JOIN FETCH s.level l WHERE s.available = true AND s.type IN :types " +
+            "ORDER BY CASE WHEN s.type = :rank0 THEN 0 WHEN s.type = :rank1 THEN 1 " +
+            "WHEN s.type = :rank2 THEN 2 ELSE 3 END, l.parkingLot.id ASC, l.floorNumber ASC, s.id ASC LIMIT 1")
+    Optional<ParkingSlot> findFirstAvailableRanked(@Param("types") List<SlotType> types,
+                                                   @Param("rank0") SlotType rank0,
+                                                   @Param("rank1") SlotType rank1,
+                                                   @Param("rank2") SlotType rank2);
+
+    @QueryHints({@QueryHint(name = "org.hibernate.lockMode.s", value = "pessimistic_write"),
+            @QueryHint(name = "javax.persistence.lock.timeout", value = "3000")})
+    @Query("SELECT s FROM ParkingSlot s JOIN FETCH s.level l " +
+            "WHERE l.parkingLot.id = :lotId AND s.available = true AND s.type IN :types " +
+            "ORDER BY CASE WHEN s.type = :rank0 THEN 0 WHEN s.type = :rank1 THEN 1 " +
+            "WHEN s.type = :rank2 THEN 2 ELSE 3 END, l.floorNumber ASC, s.id ASC LIMIT 1")
+    Optional<ParkingSlot> findFirstAvailableRankedInLot(@Param("lotId") Long lotId,
+                                                        @Param("types") List<SlotType> types,
+                                                        @Param("rank0") SlotType rank0,
+                                                        @Param("rank1") SlotType rank1,
+                                                        @Param("rank2") SlotType rank2);
+
+    // Single locking round trip over all compatible types, ranked by the given preference order.
+    // Without a lot, lots are filled in id order.
+    default Optional<ParkingSlot> findFirstAvailable(Long lotId, List<SlotType> preference) {
+        if (preference.isEmpty() || preference.size() > SlotType.values().length) {
+            throw new IllegalArgumentException("Unsupported slot type preference: " + preference);
+        }
+        SlotType rank0 = preference.get(0);
+        SlotType rank1 = preference.get(Math.min(1, preference.size() - 1));
+        SlotType rank2 = preference.get(Math.min(2, preference.size() - 1));
+        return lotId == null
+                ? findFirstAvailableRanked(preference, rank0, rank1, rank2)
+                : findFirstAvailableRankedInLot(lotId, preference, rank0, rank1, rank2);
+    }
+
+    @EntityGraph(attributePaths = "level")
+    @Override
+    Optional<ParkingSlot> findById(Long id);
+
+    @QueryHints({@QueryHint(name = "org.hibernate.lockMode.s", value = "pessimistic_write"),
+            @QueryHint(name = "javax.persistence.lock.timeout", value = "3000")})
+    @Query("SELECT s FROM ParkingSlot s JOIN FETCH s.level WHERE s.id = :id")
+    Optional<ParkingSlot> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT s.id FROM ParkingSlot s JOIN s.level l WHERE s.available = true AND s.type = :type " +
+            "ORDER BY l.parkingLot.id ASC, l.floorNumber ASC, s.id ASC")
+    List<Long> findCandidateIds(@Param("type") SlotType type, Pageable pageable);
+
+    @Query("SELECT s.id FROM ParkingSlot s JOIN s.level l " +
+            "WHERE l.parkingLot.id = :lotId AND s.available = true AND s.type = :type " +
+            "ORDER BY l.floorNumber ASC, s.id ASC")
+    List<Long> findCandidateIdsInLot(@Param("lotId") Long lotId, @Param("type") SlotType type, Pageable pageable);
+
+    @Query(value = "SELECT s.id FROM slots s JOIN levels l ON l.id = s.level_id " +
+            "WHERE s.available = true AND s.type = :type " +
+            "ORDER BY l.parking_lot_id ASC, l.floor_number ASC, s.id ASC LIMIT 1 FOR UPDATE OF s SKIP LOCKED", nativeQuery = true)
+    List<Long> findCandidateIdSkipLocked(@Param("type") String type);
+
+    @Query(value = "SELECT s.id FROM slots s JOIN levels l ON l.id = s.level_id " +
+            "WHERE l.parking_lot_id = :lotId AND s.available = true AND s.type = :type " +
+            "ORDER BY l.floor_number ASC, s.id ASC LIMIT 1 FOR UPDATE OF s SKIP LOCKED", nativeQuery = true)
+    List<Long> findCandidateIdSkipLockedInLot(@Param("lotId") Long lotId, @Param("type") String type);
+
+    @Modifying
+    @Query("UPDATE ParkingSlot s SET s.available = false WHERE s.id = :id AND s.available = true")
+    int claim(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ParkingSlot s SET s.available = true WHERE s.id IN :ids")
+    int releaseAll(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s.id FROM ParkingSlot s JOIN s.level l " +
+            "WHERE s.available = true AND s.type = :type AND (s.leasedBy IS NULL OR s.leaseExpiresAt < :now) " +
+            "ORDER BY l.parkingLot.id ASC, l.floorNumber ASC, s.id ASC")
+    List<Long> findLeasableIds(@Param("type") SlotType type, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT s.id FROM ParkingSlot s JOIN s.level l " +
+            "WHERE l.parkingLot.id = :lotId AND s.available = true AND s.type = :type " +
+            "AND (s.leasedBy IS NULL OR s.leaseExpiresAt < :now) " +
+            "ORDER BY l.floorNumber ASC, s.id ASC")
+    List<Long> findLeasableIdsInLot(@Param("lotId") Long lotId, @Param("type") SlotType type,
+                                    @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ParkingSlot s SET s.leasedBy = :node, s.leaseExpiresAt = :expiresAt " +
+            "WHERE s.id IN :ids AND s.available = true AND (s.leasedBy IS NULL OR s.leaseExpiresAt < :now)")
+    int lease(@Param("ids") Collection<Long> ids, @Param("node") String node,
+              @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ParkingSlot s SET s.leaseExpiresAt = :expiresAt WHERE s.id IN :ids AND s.leasedBy = :node")
+    int renewLeases(@Param("ids") Collection<Long> ids, @Param("node") String node,
+                    @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ParkingSlot s SET s.leasedBy = NULL, s.leaseExpiresAt = NULL WHERE s.leasedBy = :node")
+    int releaseLeases(@Param("node") String node);
+
+    @Modifying
+    @Query("UPDATE ParkingSlot s SET s.available = false, s.leasedBy = NULL, s.leaseExpiresAt = NULL " +
+            "WHERE s.id = :id AND s.available = true AND s.leasedBy = :node")
+    int claimLeased(@Param("id") Long id, @Param("node") String node);
+
+    // Locks only the slot rows, see findFirstAvailableRanked.
+    @QueryHints({@QueryHint(name = "org.hibernate.lockMode.s", value = "pessimistic_write"),
+            @QueryHint(name = "javax.persistence.lock.timeout", value = "3000")})
+    @Query("SELECT s FROM ParkingSlot s JOIN FETCH s.level l WHERE s.id IN :ids AND s.available = true " +
+            "AND (s.leasedBy IS NULL OR s.leaseExpiresAt < :now)")
+    List<ParkingSlot> findLeasableForUpdate(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query("SELECT new com.dev.marchenko.domain.slot.SlotSnapshot(s.id, l.parkingLot.id, l.id, l.floorNumber, s.type) " +
+            "FROM ParkingSlot s JOIN s.level l WHERE s.available = true")
+    List<SlotSnapshot> findAllAvailableSnapshots();
+
+    @Query("SELECT new com.dev.marchenko.domain.slot.SlotSnapshot(s.id, l.parkingLot.id, l.id, l.floorNumber, s.type) " +
+            "FROM ParkingSlot s JOIN s.level l")
+    List<SlotSnapshot> findAllSnapshots();
+
+    @Query("SELECT new com.dev.marchenko.topology.SlotNode(s.id, s.slotNumber, s.type, l.id, l.parkingLot.id, l.floorNumber) " +
+            "FROM ParkingSlot s JOIN s.level l")
+    List<SlotNode> findAllNodes();
+
+    @Query("SELECT new com.dev.marchenko.topology.SlotNode(s.id, s.slotNumber, s.type, l.id, l.parkingLot.id, l.floorNumber) " +
+            "FROM ParkingSlot s JOIN s.level l WHERE l.parkingLot.id = :lotId")
+    List<SlotNode> findNodesByLotId(@Param("lotId") Long lotId);
+}
@@ -1,19 +1,109 @@
 package com.dev.marchenko.repository;
 
+import com.dev.marchenko.domain.ticket.ClosedTicketView;
 import com.dev.marchenko.domain.ticket.ParkingTicket;
+import com.dev.marchenko.domain.ticket.TicketView;
 import com.dev.marchenko.domain.vehicle.Vehicle;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TicketRepository extends JpaRepository<ParkingTicket, Long> {
 
-    boolean existsByVehicleAndExitTimeIsNull(Vehicle vehicle);
+    String OPEN_SESSIONS = "SELECT new com.dev.marchenko.domain.ticket.TicketView(" +
+            "t.id, v.licensePlate, TYPE(v), t.entryTime, s.slotNumber, l.floorNumber) " +
+            "FROM ParkingTicket t JOIN t.vehicle v JOIN t.slot s JOIN s.level l " +
+            "WHERE t.exitTime IS NULL AND t.id > :afterId " +
+            "AND (:lotId IS NULL OR l.parkingLot.id = :lotId) " +
+            "AND (:levelId IS NULL OR l.id = :levelId) " +
+            "AND TYPE(v) IN :vehicleClasses " +
+            "AND (CAST(:enteredFrom AS LocalDateTime) IS NULL OR t.entryTime >= :enteredFrom) " +
+            "AND (CAST(:enteredTo AS LocalDateTime) IS NULL OR t.entryTime < :enteredTo) " +
+            "ORDER BY t.id ASC";
 
+    @EntityGraph(attributePaths = {"vehicle", "slot.level"})
+    @Override
+    Optional<ParkingTicket> findById(Long id);
+
+    @EntityGraph(attributePaths = {"vehicle", "slot.level"})
     List<ParkingTicket> findAllByExitTimeIsNull();
 
+    @Query(OPEN_SESSIONS)
+    List<TicketView> findOpenSessions(@Param("afterId") Long afterId,
+                                      @Param("lotId") Long lotId,
+                                      @Param("levelId") Long levelId,
+                                      @Param("vehicleClasses") Collection<Class<? extends Vehicle>> vehicleClasses,
+                                      @Param("enteredFrom") LocalDateTime enteredFrom,
+                                      @Param("enteredTo") LocalDateTime enteredTo,
+                                      Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query(OPEN_SESSIONS)
+    Stream<TicketView> streamOpenSessions(@Param("afterId") Long afterId,
+                                          @Param("lotId") Long lotId,
+                                          @Param("levelId") Long levelId,
+                                          @Param("vehicleClasses") Collection<Class<? extends Vehicle>> vehicleClasses,
+                                          @Param("enteredFrom") LocalDateTime enteredFrom,
+                                          @Param("enteredTo") LocalDateTime enteredTo);
+
     boolean existsBySlotIdAndExitTimeIsNull(Long slotId);
+
+    boolean existsByIdAndExitTimeIsNull(Long id);
+
+    @Query("SELECT t.vehicle.licensePlate FROM ParkingTicket t WHERE t.exitTime IS NULL AND t.vehicle.licensePlate IN :plates")
+    List<String> findOpenPlates(@Param("plates") Collection<String> plates);
+
+    @Query("SELECT new com.dev.marchenko.domain.ticket.ClosedTicketView(t.id, t.vehicle.licensePlate, t.entryTime, t.exitTime, t.fee, t.rateCardVersion) " +
+            "FROM ParkingTicket t WHERE t.vehicle.licensePlate = :plate AND t.exitTime IS NOT NULL " +
+            "AND (CAST(:exitedFrom AS LocalDateTime) IS NULL OR t.exitTime >= :exitedFrom) " +
+            "AND (CAST(:exitedTo AS LocalDateTime) IS NULL OR t.exitTime < :exitedTo)")
+    List<ClosedTicketView> findClosedTickets(@Param("plate") String licensePlate,
+                                             @Param("exitedFrom") LocalDateTime exitedFrom,
+                                             @Param("exitedTo") LocalDateTime exitedTo);
+
+    @Query("SELECT t.id FROM ParkingTicket t WHERE t.exitTime < :cutoff ORDER BY t.exitTime ASC")
+    List<Long> findIdsClosedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Query("SELECT MIN(t.exitTime) FROM ParkingTicket t WHERE t.exitTime IS NOT NULL")
+    Optional<LocalDateTime> findOldestExitTime();
+
+    // Locks only the ticket rows: a query-wide lock would also lock the fetched vehicles, slots and levels,
+    // which concurrent check-ins and check-outs share.
+    @QueryHints(@QueryHint(name = "org.hibernate.lockMode.t", value = "pessimistic_write"))
+    @Query("SELECT t FROM ParkingTicket t JOIN FETCH t.vehicle JOIN FETCH t.slot s JOIN FETCH s.level WHERE t.id IN :ids")
+    List<ParkingTicket> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ParkingTicket t SET t.exitTime = :exitTime, t.fee = :fee, t.rateCardVersion = :rateCardVersion, " +
+            "t.surgeMultiplier = :surgeMultiplier WHERE t.id IN :ids AND t.exitTime IS NULL")
+    int closeAll(@Param("ids") Collection<Long> ids,
+                 @Param("exitTime") LocalDateTime exitTime,
+                 @Param("fee") BigDecimal fee,
+                 @Param("rateCardVersion") long rateCardVersion,
+                 @Param("surgeMultiplier") long surgeMultiplier);
+
+    // Only one of several concurrent check-outs of a ticket updates a row; the entry time guards the fee.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ParkingTicket t SET t.exitTime = :exitTime, t.fee = :fee, t.rateCardVersion = :rateCardVersion, " +
+            "t.surgeMultiplier = :surgeMultiplier WHERE t.id = :id AND t.exitTime IS NULL AND t.entryTime = :entryTime")
+    int close(@Param("id") Long id,
+              @Param("entryTime") LocalDateTime entryTime,
+              @Param("exitTime") LocalDateTime exitTime,
+              @Param("fee") BigDecimal fee,
+              @Param("rateCardVersion") long rateCardVersion,
+              @Param("surgeMultiplier") long surgeMultiplier);
 }
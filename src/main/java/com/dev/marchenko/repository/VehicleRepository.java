@@ -2,8 +2,24 @@ package com.dev.marchenko.repository;
 
 import com.dev.marchenko.domain.vehicle.Vehicle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface VehicleRepository extends JpaRepository<Vehicle, String> {
+
+    // Both return 1 when the plate was inserted and 0 when it was already registered.
+    @Modifying
+    @Query(value = "INSERT INTO vehicles (license_plate, vehicle_type_id) VALUES (:plate, :type) " +
+            "ON CONFLICT (license_plate) DO NOTHING", nativeQuery = true)
+    int insertIfAbsentOnConflict(@Param("plate") String plate, @Param("type") String type);
+
+    @Modifying
+    @Query(value = "MERGE INTO vehicles v USING (VALUES (CAST(:plate AS VARCHAR(20)), CAST(:type AS VARCHAR(31)))) " +
+            "AS n (license_plate, vehicle_type_id) ON v.license_plate = n.license_plate " +
+            "WHEN NOT MATCHED THEN INSERT (license_plate, vehicle_type_id) VALUES (n.license_plate, n.vehicle_type_id)",
+            nativeQuery = true)
+    int insertIfAbsentMerge(@Param("plate") String plate, @Param("type") String type);
 }
@@ -0,0 +1,55 @@
+package com.dev.marchenko.revenue;
+
+import com.dev.marchenko.strategy.RateTable;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Prices a range of a {@link TicketChunk}, splitting it in halves until a range is at most {@code leafSize}
+ * tickets long. Each leaf adds into its own {@link RevenueTotals}; halves are merged as they are joined.
+ */
+final class PriceChunkTask extends RecursiveTask<RevenueTotals> {
+
+    private final RateTable rates;
+    private final TicketChunk chunk;
+    private final int from;
+    private final int to;
+    private final int leafSize;
+
+    PriceChunkTask(RateTable rates, TicketChunk chunk, int leafSize) {
+        this(rates, chunk, 0, chunk.size(), leafSize);
+    }
+
+    private PriceChunkTask(RateTable rates, TicketChunk chunk, int from, int to, int leafSize) {
+        this.rates = rates;
+        this.chunk = chunk;
+        this.from = from;
+        this.to = to;
+        this.leafSize = leafSize;
+    }
+
+    TicketChunk chunk() {
+        return chunk;
+    }
+
+    @Override
+    protected RevenueTotals compute() {
+        if (to - from <= leafSize) {
+            return price();
+        }
+        int middle = (from + to) >>> 1;
+        PriceChunkTask left = new PriceChunkTask(rates, chunk, from, middle, leafSize);
+        left.fork();
+        RevenueTotals right = new PriceChunkTask(rates, chunk, middle, to, leafSize).compute();
+        return right.merge(left.join());
+    }
+
+    private RevenueTotals price() {
+        RevenueTotals totals = new RevenueTotals();
+        for (int i = from; i < to; i++) {
+            long fee = rates.calculateCents(chunk.types[i], chunk.entries[i], chunk.exits[i], chunk.surgeMultipliers[i]);
+            totals.add(chunk.types[i], chunk.lotIds[i], chunk.levelIds[i], fee, chunk.recordedCents[i]);
+        }
+        return totals;
+    }
+}
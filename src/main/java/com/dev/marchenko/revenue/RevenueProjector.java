@@ -0,0 +1,178 @@
+package com.dev.marchenko.revenue;
+
+import com.dev.marchenko.demand.DemandTracker;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.dto.RevenueReportResponse;
+import com.dev.marchenko.service.PricingService;
+import com.dev.marchenko.strategy.Cents;
+import com.dev.marchenko.strategy.RateTable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Prices tickets in bulk with the current rate cards: what the open sessions would owe at a given time, or what
+ * the tickets closed in a range, archived ones included, would have cost next to what they were charged.
+ * Tickets are read through a cursor into chunks of {@code parking.revenue.chunk-size} rows, and each full chunk
+ * is priced on a fork/join pool of {@code parking.revenue.parallelism} threads while the next one is read. At most
+ * {@code parking.revenue.chunks-in-flight} chunks exist per projection and they are reused, so memory does not
+ * grow with the number of tickets. Lots and levels come from the slot a ticket was parked in. Closed tickets are
+ * priced with the surge multiplier recorded when they were charged, so a ticket that paid a surge is not reported
+ * as a discrepancy; open sessions and tickets closed before multipliers were recorded are priced without surge.
+ */
+@Component
+public class RevenueProjector {
+
+    private static final int LEAF_SIZE = 1024;
+
+    private static final String OPEN_TICKETS = "SELECT v.vehicle_type_id, t.entry_time, l.parking_lot_id, s.level_id " +
+            "FROM parking_tickets t JOIN vehicles v ON v.license_plate = t.vehicle_plate " +
+            "LEFT JOIN slots s ON s.id = t.slot_id LEFT JOIN levels l ON l.id = s.level_id " +
+            "WHERE t.exit_time IS NULL AND t.entry_time <= ?";
+
+    // One statement, so a ticket archived while it runs is read from exactly one of the tables.
+    private static final String CLOSED_TICKETS = "SELECT v.vehicle_type_id, t.entry_time, l.parking_lot_id, s.level_id, " +
+            "t.exit_time, t.fee, t.surge_multiplier FROM (" +
+            "SELECT vehicle_plate, slot_id, entry_time, exit_time, fee, surge_multiplier FROM parking_tickets " +
+            "WHERE exit_time >= ? AND exit_time < ? " +
+            "UNION ALL " +
+            "SELECT vehicle_plate, slot_id, entry_time, exit_time, fee, surge_multiplier FROM parking_ticket_history " +
+            "WHERE exit_time >= ? AND exit_time < ?) t " +
+            "JOIN vehicles v ON v.license_plate = t.vehicle_plate " +
+            "LEFT JOIN slots s ON s.id = t.slot_id LEFT JOIN levels l ON l.id = s.level_id " +
+            "WHERE t.entry_time IS NOT NULL";
+
+    private final PricingService pricingService;
+    private final JdbcTemplate cursor;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int chunksInFlight;
+
+    public RevenueProjector(PricingService pricingService,
+                            DataSource dataSource,
+                            @Value("${parking.revenue.chunk-size:10000}") int chunkSize,
+                            @Value("${parking.revenue.chunks-in-flight:4}") int chunksInFlight,
+                            @Value("${parking.revenue.parallelism:0}") int parallelism) {
+        this.pricingService = pricingService;
+        this.cursor = new JdbcTemplate(dataSource);
+        this.cursor.setFetchSize(Math.min(chunkSize, 1000));
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.chunkSize = chunkSize;
+        this.chunksInFlight = Math.max(1, chunksInFlight);
+    }
+
+    // PostgreSQL only streams rows through a cursor inside a transaction.
+    @Transactional(readOnly = true)
+    public RevenueReportResponse projectOpen(LocalDateTime asOf) {
+        Projection projection = new Projection(pricingService.rates(), asOf);
+        cursor.query(OPEN_TICKETS, projection, asOf);
+        return projection.finish().toResponse(null, asOf, projection.rates.version());
+    }
+
+    @Transactional(readOnly = true)
+    public RevenueReportResponse projectClosed(LocalDateTime exitedFrom, LocalDateTime exitedTo) {
+        Projection projection = new Projection(pricingService.rates(), null);
+        cursor.query(CLOSED_TICKETS, projection, exitedFrom, exitedTo, exitedFrom, exitedTo);
+        return projection.finish().toResponse(exitedFrom, exitedTo, projection.rates.version());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Reads rows into the current chunk and hands it to the pool once it is full, waiting for the oldest chunk
+     * in flight to be priced before a new one is needed. Open tickets are all priced as leaving at {@code exit}.
+     * The whole projection is priced by one rate table, even if the rate cards are reloaded while it runs.
+     */
+    private final class Projection implements RowCallbackHandler {
+
+        private final RateTable rates;
+        private final LocalDateTime exit;
+        private final Deque<PriceChunkTask> inFlight = new ArrayDeque<>();
+        private final Deque<TicketChunk> spare = new ArrayDeque<>();
+        private final RevenueTotals totals = new RevenueTotals();
+        private int allocated;
+        private TicketChunk chunk;
+
+        Projection(RateTable rates, LocalDateTime exit) {
+            this.rates = rates;
+            this.exit = exit;
+            this.chunk = nextChunk();
+        }
+
+        @Override
+        public void processRow(ResultSet row) throws SQLException {
+            VehicleType type = VehicleType.valueOf(row.getString(1));
+            LocalDateTime entry = row.getObject(2, LocalDateTime.class);
+            long lotId = row.getLong(3);
+            long levelId = row.getLong(4);
+            if (row.wasNull()) {
+                lotId = TicketChunk.NONE;
+                levelId = TicketChunk.NONE;
+            }
+            if (exit != null) {
+                chunk.add(type, entry, exit, TicketChunk.UNRECORDED, lotId, levelId, DemandTracker.NO_SURGE);
+            } else {
+                BigDecimal fee = row.getBigDecimal(6);
+                long surgeMultiplier = row.getLong(7);
+                if (row.wasNull()) {
+                    surgeMultiplier = DemandTracker.NO_SURGE;
+                }
+                chunk.add(type, entry, row.getObject(5, LocalDateTime.class),
+                        fee != null ? Cents.of(fee) : TicketChunk.UNRECORDED, lotId, levelId, surgeMultiplier);
+            }
+            if (chunk.isFull()) {
+                submit();
+                chunk = nextChunk();
+            }
+        }
+
+        RevenueTotals finish() {
+            if (chunk.size() > 0) {
+                submit();
+            }
+            while (!inFlight.isEmpty()) {
+                joinOldest();
+            }
+            return totals;
+        }
+
+        private void submit() {
+            PriceChunkTask task = new PriceChunkTask(rates, chunk, LEAF_SIZE);
+            pool.execute(task);
+            inFlight.add(task);
+        }
+
+        private TicketChunk nextChunk() {
+            if (spare.isEmpty() && allocated == chunksInFlight) {
+                joinOldest();
+            }
+            if (!spare.isEmpty()) {
+                return spare.poll();
+            }
+            allocated++;
+            return new TicketChunk(chunkSize);
+        }
+
+        private void joinOldest() {
+            PriceChunkTask task = inFlight.poll();
+            totals.merge(task.join());
+            task.chunk().clear();
+            spare.add(task.chunk());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.dev.marchenko.revenue;
+
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.dto.RevenueReportResponse;
+import com.dev.marchenko.dto.RevenueTotalResponse;
+import com.dev.marchenko.strategy.Cents;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Ticket counts, priced and recorded fees in cents, per vehicle type, lot and level. Not thread-safe: every
+ * pricing task fills its own totals, which are merged once the task is joined.
+ */
+final class RevenueTotals {
+
+    private static final VehicleType[] TYPES = VehicleType.values();
+    private static final int TICKETS = 0;
+    private static final int PRICED = 1;
+    private static final int RECORDED = 2;
+
+    private final long[][] byType = new long[TYPES.length][3];
+    private final Map<Long, long[]> byLot = new HashMap<>();
+    private final Map<Long, long[]> byLevel = new HashMap<>();
+
+    void add(VehicleType type, long lotId, long levelId, long pricedCents, long recordedCents) {
+        long recorded = recordedCents == TicketChunk.UNRECORDED ? 0 : recordedCents;
+        add(byType[type.ordinal()], 1, pricedCents, recorded);
+        // tickets of removed slots only count towards their vehicle type
+        if (levelId != TicketChunk.NONE) {
+            add(byLot.computeIfAbsent(lotId, id -> new long[3]), 1, pricedCents, recorded);
+            add(byLevel.computeIfAbsent(levelId, id -> new long[3]), 1, pricedCents, recorded);
+        }
+    }
+
+    RevenueTotals merge(RevenueTotals other) {
+        for (int i = 0; i < TYPES.length; i++) {
+            add(byType[i], other.byType[i]);
+        }
+        other.byLot.forEach((id, totals) -> add(byLot.computeIfAbsent(id, key -> new long[3]), totals));
+        other.byLevel.forEach((id, totals) -> add(byLevel.computeIfAbsent(id, key -> new long[3]), totals));
+        return this;
+    }
+
+    RevenueReportResponse toResponse(LocalDateTime from, LocalDateTime to, long rateCardVersion) {
+        long[] total = new long[3];
+        Map<VehicleType, RevenueTotalResponse> types = new EnumMap<>(VehicleType.class);
+        for (VehicleType type : TYPES) {
+            long[] totals = byType[type.ordinal()];
+            add(total, totals);
+            if (totals[TICKETS] > 0) {
+                types.put(type, toResponse(totals));
+            }
+        }
+        return new RevenueReportResponse(from, to, rateCardVersion, total[TICKETS], Cents.toAmount(total[PRICED]),
+                Cents.toAmount(total[RECORDED]), types, toResponses(byLot), toResponses(byLevel));
+    }
+
+    private static Map<Long, RevenueTotalResponse> toResponses(Map<Long, long[]> totalsById) {
+        Map<Long, RevenueTotalResponse> responses = new TreeMap<>();
+        totalsById.forEach((id, totals) -> responses.put(id, toResponse(totals)));
+        return responses;
+    }
+
+    private static RevenueTotalResponse toResponse(long[] totals) {
+        return new RevenueTotalResponse(totals[TICKETS], Cents.toAmount(totals[PRICED]), Cents.toAmount(totals[RECORDED]));
+    }
+
+    private static void add(long[] totals, long tickets, long priced, long recorded) {
+        totals[TICKETS] += tickets;
+        totals[PRICED] += priced;
+        totals[RECORDED] += recorded;
+    }
+
+    private static void add(long[] totals, long[] other) {
+        add(totals, other[TICKETS], other[PRICED], other[RECORDED]);
+    }
+}
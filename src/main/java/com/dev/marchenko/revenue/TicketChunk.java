@@ -0,0 +1,65 @@
+package com.dev.marchenko.revenue;
+
+import com.dev.marchenko.domain.vehicle.VehicleType;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * A block of tickets as read for bulk pricing, kept column by column so a chunk is allocated once and reused
+ * for every block a projection reads.
+ */
+final class TicketChunk {
+
+    // Lot and level of a ticket whose slot has been removed since.
+    static final long NONE = Long.MIN_VALUE;
+    // Recorded fee of an open ticket.
+    static final long UNRECORDED = -1L;
+
+    final VehicleType[] types;
+    final LocalDateTime[] entries;
+    final LocalDateTime[] exits;
+    final long[] recordedCents;
+    final long[] lotIds;
+    final long[] levelIds;
+    final long[] surgeMultipliers;
+    private int size;
+
+    TicketChunk(int capacity) {
+        types = new VehicleType[capacity];
+        entries = new LocalDateTime[capacity];
+        exits = new LocalDateTime[capacity];
+        recordedCents = new long[capacity];
+        lotIds = new long[capacity];
+        levelIds = new long[capacity];
+        surgeMultipliers = new long[capacity];
+    }
+
+    void add(VehicleType type, LocalDateTime entry, LocalDateTime exit, long recorded, long lotId, long levelId,
+             long surgeMultiplier) {
+        types[size] = type;
+        entries[size] = entry;
+        exits[size] = exit;
+        recordedCents[size] = recorded;
+        lotIds[size] = lotId;
+        levelIds[size] = levelId;
+        surgeMultipliers[size] = surgeMultiplier;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == types.length;
+    }
+
+    // Drops the references of the previous block, so a chunk waiting to be reused holds no tickets.
+    void clear() {
+        Arrays.fill(types, 0, size, null);
+        Arrays.fill(entries, 0, size, null);
+        Arrays.fill(exits, 0, size, null);
+        size = 0;
+    }
+}
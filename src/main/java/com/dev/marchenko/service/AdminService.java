@@ -3,19 +3,30 @@ package com.dev.marchenko.service;
 import com.dev.marchenko.domain.lot.Level;
 import com.dev.marchenko.domain.lot.ParkingLot;
 import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
 import com.dev.marchenko.dto.LevelRequest;
 import com.dev.marchenko.dto.ParkingLotRequest;
 import com.dev.marchenko.dto.SlotRequest;
+import com.dev.marchenko.event.SlotAvailabilityChangedEvent;
+import com.dev.marchenko.event.SlotRemovedEvent;
+import com.dev.marchenko.event.TopologyChangedEvent;
 import com.dev.marchenko.exception.ResourceNotFoundException;
 import com.dev.marchenko.factory.SlotFactory;
 import com.dev.marchenko.repository.LevelRepository;
 import com.dev.marchenko.repository.ParkingLotRepository;
 import com.dev.marchenko.repository.SlotRepository;
 import com.dev.marchenko.repository.TicketRepository;
+import com.dev.marchenko.topology.LevelNode;
+import com.dev.marchenko.topology.SlotNode;
+import com.dev.marchenko.topology.TopologySnapshot;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Optional;
+
 @Service
 @RequiredArgsConstructor
 public class AdminService {
@@ -24,12 +35,16 @@ public class AdminService {
     private final SlotRepository slotRepository;
     private final SlotFactory slotFactory;
     private final TicketRepository ticketRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TopologySnapshot topology;
 
     @Transactional
     public ParkingLot createLot(ParkingLotRequest request) {
         ParkingLot parkingLot = new ParkingLot();
         parkingLot.setName(request.name());
-        return lotRepository.save(parkingLot);
+        ParkingLot saved = lotRepository.save(parkingLot);
+        eventPublisher.publishEvent(new TopologyChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -46,21 +61,29 @@ public class AdminService {
                     "Cannot delete parking lot: it contains slots with vehicles assigned."
             );
         }
+        lot.getLevels().stream()
+                .flatMap(level -> level.getSlots().stream())
+                .forEach(slot -> eventPublisher.publishEvent(new SlotRemovedEvent(slot.getId())));
         lotRepository.deleteById(lotId);
+        eventPublisher.publishEvent(new TopologyChangedEvent(lotId));
     }
 
+    // The topology may be behind another instance's deletes, so the lot is checked in the database; a primary key
+    // probe is enough, the lot itself is only referenced.
     @Transactional
     public Level addLevel(Long lotId, LevelRequest request) {
-        ParkingLot parkingLot = lotRepository.findById(lotId)
-                .orElseThrow(() -> new ResourceNotFoundException("Parking Lot", lotId));
+        if (!lotRepository.existsById(lotId)) {
+            throw new ResourceNotFoundException("Parking Lot", lotId);
+        }
+        ParkingLot parkingLot = lotRepository.getReferenceById(lotId);
 
         Level level = new Level();
         level.setFloorNumber(request.floorNumber());
         level.setParkingLot(parkingLot);
 
-        parkingLot.addLevel(level);
-
-        return levelRepository.save(level);
+        Level saved = levelRepository.save(level);
+        eventPublisher.publishEvent(new TopologyChangedEvent(lotId));
+        return saved;
     }
 
     @Transactional
@@ -75,20 +98,36 @@ public class AdminService {
             throw new IllegalStateException("Cannot delete level: it contains slots with vehicles assigned.");
         }
 
+        level.getSlots().forEach(slot -> eventPublisher.publishEvent(new SlotRemovedEvent(slot.getId())));
         levelRepository.deleteById(levelId);
+        eventPublisher.publishEvent(new TopologyChangedEvent(level.getParkingLot() != null ? level.getParkingLot().getId() : null));
     }
 
     @Transactional
     public ParkingSlot addSlot(Long levelId, SlotRequest request) {
+        Optional<LevelNode> known = topology.level(levelId);
+        Level level = levelFor(levelId, known);
 
-        Level level = levelRepository.findById(levelId)
-                .orElseThrow(() -> new ResourceNotFoundException("Level", levelId));
-
-        ParkingSlot parkingSlot = slotFactory.createSlot(request.slotNumber(), request.type(), level);
-
-        level.addSlot(parkingSlot);
+        ParkingSlot saved = slotRepository.save(slotFactory.createSlot(request.slotNumber(), request.type(), level));
+        eventPublisher.publishEvent(new SlotAvailabilityChangedEvent(snapshotOf(saved, known), saved.isAvailable()));
+        eventPublisher.publishEvent(new TopologyChangedEvent(lotIdOf(level, known)));
+        return saved;
+    }
 
-        return slotRepository.save(parkingSlot);
+    // All slots are inserted in JDBC batches when the transaction commits.
+    @Transactional
+    public List<ParkingSlot> addSlots(Long levelId, List<SlotRequest> requests) {
+        Optional<LevelNode> known = topology.level(levelId);
+        Level level = levelFor(levelId, known);
+
+        List<ParkingSlot> slots = requests.stream()
+                .map(request -> slotFactory.createSlot(request.slotNumber(), request.type(), level))
+                .toList();
+
+        List<ParkingSlot> saved = slotRepository.saveAll(slots);
+        saved.forEach(slot -> eventPublisher.publishEvent(new SlotAvailabilityChangedEvent(snapshotOf(slot, known), slot.isAvailable())));
+        eventPublisher.publishEvent(new TopologyChangedEvent(lotIdOf(level, known)));
+        return saved;
     }
 
     @Transactional
@@ -101,6 +140,8 @@ public class AdminService {
         }
 
         slotRepository.deleteById(slotId);
+        eventPublisher.publishEvent(new SlotRemovedEvent(slotId));
+        eventPublisher.publishEvent(new TopologyChangedEvent(topology.slot(slotId).map(SlotNode::lotId).orElse(null)));
     }
 
     @Transactional
@@ -113,8 +154,28 @@ public class AdminService {
         }
 
         slot.setAvailable(isAvailable);
+        ParkingSlot saved = slotRepository.save(slot);
+        eventPublisher.publishEvent(new SlotAvailabilityChangedEvent(SlotSnapshot.of(saved), isAvailable));
+
+        return saved;
+    }
 
-        return slotRepository.save(slot);
+    // A level known to the topology is checked with a primary key probe and only referenced, so adding slots reads
+    // neither it nor its slots; the probe catches a level another instance deleted since the topology was loaded.
+    private Level levelFor(Long levelId, Optional<LevelNode> known) {
+        if (known.isPresent() && levelRepository.existsById(levelId)) {
+            return levelRepository.getReferenceById(levelId);
+        }
+        return levelRepository.findById(levelId).orElseThrow(() -> new ResourceNotFoundException("Level", levelId));
+    }
+
+    private static SlotSnapshot snapshotOf(ParkingSlot slot, Optional<LevelNode> level) {
+        return level.map(node -> new SlotSnapshot(slot.getId(), node.lotId(), node.id(), node.floorNumber(), slot.getType()))
+                .orElseGet(() -> SlotSnapshot.of(slot));
+    }
 
+    private static Long lotIdOf(Level level, Optional<LevelNode> known) {
+        return known.map(LevelNode::lotId)
+                .orElseGet(() -> level.getParkingLot() != null ? level.getParkingLot().getId() : null);
     }
 }
@@ -0,0 +1,196 @@
+package com.dev.marchenko.service;
+
+import com.dev.marchenko.allocation.FreeSlotCounters;
+import com.dev.marchenko.allocation.LevelCapacity;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.dto.AvailabilityResponse;
+import com.dev.marchenko.dto.LevelAvailabilityResponse;
+import com.dev.marchenko.dto.LotAvailabilityResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Free slot counts for display boards. Changes to {@link FreeSlotCounters} are coalesced into at most one
+ * snapshot every {@code parking.availability.publish-interval}; the snapshot is serialized once and the same
+ * JSON is pushed to every SSE subscriber and handed to every waiting long-poll request, so the number of
+ * boards never adds database or serialization work.
+ */
+@Service
+public class AvailabilityFeedService {
+
+    private final FreeSlotCounters freeSlotCounters;
+    private final ObjectMapper objectMapper;
+    private final Duration streamTimeout;
+    private final Duration pollTimeout;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private volatile Frame frame;
+
+    public AvailabilityFeedService(FreeSlotCounters freeSlotCounters,
+                                   ObjectMapper objectMapper,
+                                   @Value("${parking.availability.stream-timeout:30m}") Duration streamTimeout,
+                                   @Value("${parking.availability.poll-timeout:30s}") Duration pollTimeout) {
+        this.freeSlotCounters = freeSlotCounters;
+        this.objectMapper = objectMapper;
+        this.streamTimeout = streamTimeout;
+        this.pollTimeout = pollTimeout;
+    }
+
+    @Scheduled(fixedRateString = "${parking.availability.publish-interval:1s}")
+    public void publish() {
+        Frame previous = frame;
+        Frame current = refresh();
+        if (current == previous) {
+            return;
+        }
+        subscribers.forEach(subscriber -> send(subscriber, current));
+        Waiter waiter;
+        while ((waiter = waiters.poll()) != null) {
+            waiter.result().setResult(current.json(waiter.lotId()));
+        }
+    }
+
+    public String current(Long lotId) {
+        return currentFrame().json(lotId);
+    }
+
+    public SseEmitter subscribe(Long lotId) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, lotId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        send(subscriber, currentFrame());
+        return emitter;
+    }
+
+    // Answers right away when the caller has not seen the current version yet, otherwise waits for the next
+    // published snapshot and falls back to the unchanged one when the poll times out.
+    public DeferredResult<String> poll(Long lotId, Long sinceVersion) {
+        Frame current = currentFrame();
+        if (sinceVersion == null || sinceVersion != current.version()) {
+            DeferredResult<String> result = new DeferredResult<>();
+            result.setResult(current.json(lotId));
+            return result;
+        }
+
+        DeferredResult<String> result = new DeferredResult<>(pollTimeout.toMillis(), () -> current(lotId));
+        Waiter waiter = new Waiter(result, lotId);
+        result.onCompletion(() -> waiters.remove(waiter));
+        waiters.add(waiter);
+        Frame latest = frame;
+        if (latest != current) {
+            result.setResult(latest.json(lotId));
+        }
+        return result;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private Frame currentFrame() {
+        Frame current = frame;
+        return current != null ? current : refresh();
+    }
+
+    private synchronized Frame refresh() {
+        long version = freeSlotCounters.getVersion();
+        Frame current = frame;
+        if (current != null && current.version() == version) {
+            return current;
+        }
+        Frame next = new Frame(version, toLots(freeSlotCounters.levels()));
+        frame = next;
+        return next;
+    }
+
+    private void send(Subscriber subscriber, Frame frame) {
+        try {
+            subscriber.emitter().send(SseEmitter.event()
+                    .id(String.valueOf(frame.version()))
+                    .name("availability")
+                    .data(frame.json(subscriber.lotId()), MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    private static Map<Long, LotAvailabilityResponse> toLots(List<LevelCapacity> levels) {
+        Map<Long, List<LevelCapacity>> byLot = new LinkedHashMap<>();
+        levels.forEach(level -> byLot.computeIfAbsent(level.lotId(), id -> new ArrayList<>()).add(level));
+
+        Map<Long, LotAvailabilityResponse> lots = new LinkedHashMap<>();
+        byLot.forEach((lotId, lotLevels) -> {
+            Map<SlotType, Integer> free = new EnumMap<>(SlotType.class);
+            lotLevels.forEach(level -> level.freeSlots().forEach((type, count) -> free.merge(type, count, Integer::sum)));
+            lots.put(lotId, new LotAvailabilityResponse(lotId, free, lotLevels.stream()
+                    .map(level -> new LevelAvailabilityResponse(level.levelId(), level.floorNumber(), level.freeSlots()))
+                    .toList()));
+        });
+        return lots;
+    }
+
+    private record Subscriber(SseEmitter emitter, Long lotId) {
+    }
+
+    private record Waiter(DeferredResult<String> result, Long lotId) {
+    }
+
+    // One immutable snapshot; the JSON of the whole fleet and of each requested lot is rendered once per version.
+    private final class Frame {
+        private final long version;
+        private final Map<Long, LotAvailabilityResponse> lots;
+        private final Map<Long, String> jsonByLot = new ConcurrentHashMap<>();
+        private final String json;
+
+        private Frame(long version, Map<Long, LotAvailabilityResponse> lots) {
+            this.version = version;
+            this.lots = lots;
+            this.json = write(new AvailabilityResponse(version, List.copyOf(lots.values())));
+        }
+
+        private long version() {
+            return version;
+        }
+
+        private String json(Long lotId) {
+            if (lotId == null) {
+                return json;
+            }
+            return jsonByLot.computeIfAbsent(lotId, id -> {
+                LotAvailabilityResponse lot = lots.get(id);
+                return write(new AvailabilityResponse(version, lot != null ? List.of(lot) : List.of()));
+            });
+        }
+
+        private String write(AvailabilityResponse response) {
+            try {
+                return objectMapper.writeValueAsString(response);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
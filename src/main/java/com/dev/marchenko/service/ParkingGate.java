@@ -0,0 +1,28 @@
+package com.dev.marchenko.service;
+
+import com.dev.marchenko.domain.ticket.ParkingTicket;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.dto.BatchItemResponse;
+import com.dev.marchenko.dto.CheckInRequest;
+import com.dev.marchenko.dto.CheckOutResponse;
+import com.dev.marchenko.dto.TicketResponse;
+
+import java.util.List;
+
+/**
+ * Entry and exit as seen by the gates, one vehicle at a time or in batches. Selected by {@code parking.durability.mode}: {@code sync}
+ * commits each event before answering, {@code journal} answers once the event is in the journal.
+ */
+public interface ParkingGate {
+    // A null lot id lets the gate pick from any lot.
+    ParkingTicket checkIn(Long lotId, String licensePlate, VehicleType type, boolean isHandicapped);
+
+    ParkingTicket checkOut(Long ticketId);
+
+    ParkingTicket checkOutByPlate(String licensePlate);
+
+    // One result per item, in order; a failed item does not affect the others.
+    List<BatchItemResponse<TicketResponse>> checkInBatch(List<CheckInRequest> requests);
+
+    List<BatchItemResponse<CheckOutResponse>> checkOutBatch(List<Long> ticketIds);
+}
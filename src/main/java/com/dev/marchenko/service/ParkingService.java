@@ -1,114 +1,407 @@
 package com.dev.marchenko.service;
 
+import com.dev.marchenko.allocation.FreeSlotCounters;
+import com.dev.marchenko.allocation.SlotAllocator;
+import com.dev.marchenko.allocation.SlotCompatibility;
+import com.dev.marchenko.allocation.TransactionCallbacks;
+import com.dev.marchenko.demand.DemandTracker;
 import com.dev.marchenko.domain.slot.ParkingSlot;
-import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.ticket.ClosedTicketView;
 import com.dev.marchenko.domain.ticket.ParkingTicket;
+import com.dev.marchenko.domain.ticket.TicketView;
 import com.dev.marchenko.domain.vehicle.*;
+import com.dev.marchenko.dto.BatchItemResponse;
+import com.dev.marchenko.dto.CheckInRequest;
+import com.dev.marchenko.dto.CheckOutResponse;
+import com.dev.marchenko.dto.SessionFilter;
+import com.dev.marchenko.dto.TicketResponse;
+import com.dev.marchenko.event.SlotAvailabilityChangedEvent;
 import com.dev.marchenko.exception.*;
 import com.dev.marchenko.factory.VehicleFactory;
 import com.dev.marchenko.mapper.ParkingMapper;
+import com.dev.marchenko.repository.ArchivedTicketRepository;
+import com.dev.marchenko.repository.ParkingLotRepository;
 import com.dev.marchenko.repository.SlotRepository;
 import com.dev.marchenko.repository.TicketRepository;
-import com.dev.marchenko.repository.VehicleRepository;
+import com.dev.marchenko.session.ActiveSession;
+import com.dev.marchenko.session.ActiveSessionRegistry;
+import com.dev.marchenko.strategy.RateTable;
+import com.dev.marchenko.topology.SlotNode;
+import com.dev.marchenko.topology.TopologySnapshot;
+import com.dev.marchenko.vehicle.VehicleRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ParkingService {
 
-    private final VehicleRepository vehicleRepository;
+    // PostgreSQL only: at most one ticket without an exit time per vehicle.
+    private static final String OPEN_TICKET_CONSTRAINT = "uk_tickets_open_vehicle";
+
+    private final VehicleRegistry vehicleRegistry;
+    private final ParkingLotRepository parkingLotRepository;
     private final SlotRepository slotRepository;
     private final TicketRepository ticketRepository;
+    private final ArchivedTicketRepository archivedTicketRepository;
     private final PricingService pricingService;
     private final ParkingMapper parkingMapper;
-
-    private static final Map<VehicleType, List<SlotType>> COMPATIBILITY_MAP = Map.of(
-            VehicleType.MOTORCYCLE, List.of(SlotType.MOTORCYCLE, SlotType.COMPACT, SlotType.LARGE),
-            VehicleType.CAR, List.of(SlotType.COMPACT, SlotType.LARGE),
-            VehicleType.TRUCK, List.of(SlotType.LARGE)
-    );
+    private final SlotAllocator slotAllocator;
+    private final FreeSlotCounters freeSlotCounters;
+    private final DemandTracker demandTracker;
+    private final ActiveSessionRegistry activeSessions;
+    private final TopologySnapshot topology;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
 
     @Transactional
-    public ParkingTicket checkIn(String licensePlate, VehicleType type, boolean isHandicapped) {
-        Vehicle vehicle = vehicleRepository.findById(licensePlate)
-                .orElseGet(() -> vehicleRepository.save(VehicleFactory.createVehicle(licensePlate, type)));
-
-        if (vehicle.getType() != type) {
+    public ParkingTicket checkIn(Long lotId, String licensePlate, VehicleType type, boolean isHandicapped) {
+        if (vehicleRegistry.register(licensePlate, type) != type) {
             throw new LicensePlateAlreadyRegisteredException(licensePlate);
         }
 
-        if (ticketRepository.existsByVehicleAndExitTimeIsNull(vehicle)) {
+        if (!reserve(licensePlate)) {
             throw new VehicleAlreadyParkedException(licensePlate);
         }
 
-        ParkingSlot slot = findAvailableSlot(type, isHandicapped);
+        ParkingSlot slot = allocateSlot(lotId, type, isHandicapped);
 
-        ParkingTicket ticket = new ParkingTicket();
-        ticket.setVehicle(vehicle);
-        ticket.setSlot(slot);
-        ticket.setEntryTime(LocalDateTime.now());
+        Vehicle vehicle = vehicleRegistry.reference(licensePlate, type);
+        ParkingTicket ticket;
+        try {
+            ticket = ticketRepository.saveAndFlush(newTicket(vehicle, slot, now()));
+        } catch (DataIntegrityViolationException e) {
+            if (isOpenTicketConflict(e)) {
+                throw new VehicleAlreadyParkedException(licensePlate);
+            }
+            throw e;
+        }
+        activeSessions.open(ticket);
+        recordArrival(ticket);
+        return ticket;
+    }
 
-        return ticketRepository.save(ticket);
+    /**
+     * Checks in every valid item in one transaction. Plates are registered with the same insert-if-absent as a
+     * single check-in, so a plate registered concurrently elsewhere does not fail the batch, and vehicles that
+     * already have an open ticket in the database, e.g. one taken through another instance, are reported per
+     * item before any ticket is written.
+     */
+    @Transactional
+    public List<BatchItemResponse<TicketResponse>> checkInBatch(List<CheckInRequest> requests) {
+        Set<String> plates = requests.stream()
+                .filter(Objects::nonNull)
+                .map(CheckInRequest::licensePlate)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> parkedPlates = plates.isEmpty() ? Set.of() : new HashSet<>(ticketRepository.findOpenPlates(plates));
+
+        LocalDateTime entryTime = now();
+        Map<Integer, ParkingTicket> ticketsByIndex = new LinkedHashMap<>();
+        Map<Integer, String> errorsByIndex = new HashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            CheckInRequest request = requests.get(i);
+            try {
+                validate(request);
+                String plate = request.licensePlate();
+                VehicleType type = request.vehicleType();
+                if (vehicleRegistry.register(plate, type) != type) {
+                    throw new LicensePlateAlreadyRegisteredException(plate);
+                }
+                if (parkedPlates.contains(plate) || !reserve(plate)) {
+                    throw new VehicleAlreadyParkedException(plate);
+                }
+
+                ParkingSlot slot;
+                try {
+                    slot = allocateSlot(request.lotId(), type, request.isHandicapped());
+                } catch (RuntimeException e) {
+                    activeSessions.cancel(plate);
+                    throw e;
+                }
+                ticketsByIndex.put(i, newTicket(vehicleRegistry.reference(plate, type), slot, entryTime));
+            } catch (IllegalArgumentException | LicensePlateAlreadyRegisteredException
+                     | VehicleAlreadyParkedException | NoAvailableSlotException | ResourceNotFoundException e) {
+                errorsByIndex.put(i, e.getMessage());
+            }
+        }
+
+        ticketRepository.saveAll(ticketsByIndex.values());
+        ticketsByIndex.values().forEach(activeSessions::open);
+        ticketsByIndex.values().forEach(this::recordArrival);
+
+        List<BatchItemResponse<TicketResponse>> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            ParkingTicket ticket = ticketsByIndex.get(i);
+            results.add(ticket != null
+                    ? BatchItemResponse.success(i, parkingMapper.toTicketResponse(ticket))
+                    : BatchItemResponse.failure(i, errorsByIndex.get(i)));
+        }
+        return results;
     }
 
+    /**
+     * Closes the ticket with one conditional update and releases its slot with another. The fee is priced from
+     * the session this instance opened, and the update only applies while the ticket is still open with that
+     * entry time, so of concurrent check-outs exactly one wins and none waits for a lock. A ticket without such
+     * a session, or whose session is out of date, is read and priced from the database first.
+     */
     @Transactional
     public ParkingTicket checkOut(Long ticketId) {
-        ParkingTicket ticket = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new TicketNotFoundException(ticketId));
+        Optional<ActiveSession> session = activeSessions.findByTicket(ticketId);
+        Optional<String> plate = session.flatMap(open -> activeSessions.plateOf(ticketId));
+        Optional<VehicleType> type = plate.flatMap(vehicleRegistry::find);
+        Optional<SlotNode> slotNode = session.flatMap(open -> topology.slot(open.slotId()));
+        if (type.isPresent() && slotNode.isPresent()) {
+            ParkingTicket ticket = newTicket(VehicleFactory.createVehicle(plate.get(), type.get()),
+                    slotNode.get().toDetachedSlot(false), session.get().entryTime());
+            ticket.setId(ticketId);
+            if (close(ticket)) {
+                return ticket;
+            }
+        }
 
-        if (ticket.getExitTime() != null) {
+        ParkingTicket ticket = ticketRepository.findById(ticketId)
+                .orElseThrow(() -> archivedTicketRepository.existsById(ticketId)
+                        ? new TicketAlreadyClosedException(ticketId)
+                        : new TicketNotFoundException(ticketId));
+        if (ticket.getExitTime() != null || !close(ticket)) {
             throw new TicketAlreadyClosedException(ticketId);
         }
+        return ticket;
+    }
 
-        ParkingSlot slot = ticket.getSlot();
-        slot.setAvailable(true);
-        slotRepository.save(slot);
+    @Transactional
+    public ParkingTicket checkOutByPlate(String licensePlate) {
+        ActiveSession session = activeSessions.find(licensePlate)
+                .orElseThrow(() -> new ActiveSessionNotFoundException(licensePlate));
+        return checkOut(session.ticketId());
+    }
+
+    public ActiveSession locate(String licensePlate) {
+        return activeSessions.find(licensePlate)
+                .orElseThrow(() -> new ActiveSessionNotFoundException(licensePlate));
+    }
+
+    @Transactional
+    public List<BatchItemResponse<CheckOutResponse>> checkOutBatch(List<Long> ticketIds) {
+        Set<Long> ids = ticketIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ParkingTicket> tickets = ticketRepository.findAllByIdForUpdate(ids).stream()
+                .collect(Collectors.toMap(ParkingTicket::getId, Function.identity()));
+        Set<Long> archived = tickets.size() < ids.size()
+                ? new HashSet<>(archivedTicketRepository.findArchivedIds(ids))
+                : Set.of();
 
-        ticket.setExitTime(LocalDateTime.now());
-        BigDecimal fee = pricingService.calculate(
-                ticket.getVehicle().getType(),
-                ticket.getEntryTime(),
-                ticket.getExitTime()
-        );
-        ticket.setFee(fee);
+        LocalDateTime exitTime = now();
+        RateTable rates = pricingService.rates();
+        Map<Integer, ParkingTicket> closedByIndex = new LinkedHashMap<>();
+        Map<Integer, Charge> chargesByIndex = new HashMap<>();
+        Map<Integer, String> errorsByIndex = new HashMap<>();
+        Map<Charge, List<Long>> ticketIdsByCharge = new HashMap<>();
+        Set<Long> closing = new HashSet<>();
 
-        return ticketRepository.save(ticket);
+        for (int i = 0; i < ticketIds.size(); i++) {
+            Long ticketId = ticketIds.get(i);
+            try {
+                ParkingTicket ticket = tickets.get(ticketId);
+                if (ticket == null) {
+                    throw archived.contains(ticketId)
+                            ? new TicketAlreadyClosedException(ticketId)
+                            : new TicketNotFoundException(ticketId);
+                }
+                if (ticket.getExitTime() != null || closing.contains(ticketId)) {
+                    throw new TicketAlreadyClosedException(ticketId);
+                }
+                Charge charge = charge(rates, ticket, exitTime);
+                closing.add(ticketId);
+                ticketIdsByCharge.computeIfAbsent(charge, c -> new ArrayList<>()).add(ticketId);
+                closedByIndex.put(i, ticket);
+                chargesByIndex.put(i, charge);
+            } catch (IllegalArgumentException | TicketNotFoundException | TicketAlreadyClosedException e) {
+                errorsByIndex.put(i, e.getMessage());
+            }
+        }
+
+        if (!closing.isEmpty()) {
+            ticketIdsByCharge.forEach((charge, chargeTicketIds) -> ticketRepository.closeAll(chargeTicketIds, exitTime,
+                    charge.fee(), rates.version(), charge.surgeMultiplier()));
+            slotRepository.releaseAll(closedByIndex.values().stream().map(ticket -> ticket.getSlot().getId()).toList());
+        }
+
+        List<BatchItemResponse<CheckOutResponse>> results = new ArrayList<>(ticketIds.size());
+        for (int i = 0; i < ticketIds.size(); i++) {
+            ParkingTicket ticket = closedByIndex.get(i);
+            if (ticket == null) {
+                results.add(BatchItemResponse.failure(i, errorsByIndex.get(i)));
+                continue;
+            }
+            Charge charge = chargesByIndex.get(i);
+            ticket.setExitTime(exitTime);
+            ticket.setFee(charge.fee());
+            ticket.setRateCardVersion(rates.version());
+            ticket.setSurgeMultiplier(charge.surgeMultiplier());
+            ticket.getSlot().setAvailable(true);
+            activeSessions.close(ticket.getVehicle().getLicensePlate());
+            eventPublisher.publishEvent(new SlotAvailabilityChangedEvent(SlotSnapshot.of(ticket.getSlot()), true));
+            recordDeparture(ticket);
+            results.add(BatchItemResponse.success(i, parkingMapper.toCheckOutResponse(ticket)));
+        }
+        return results;
     }
 
-    public List<ParkingTicket> getActiveSessions() {
-        return ticketRepository.findAllByExitTimeIsNull();
+    @Transactional(readOnly = true)
+    public List<TicketView> getActiveSessions(SessionFilter filter, Long afterId, int limit) {
+        return ticketRepository.findOpenSessions(afterId != null ? afterId : 0L, filter.lotId(), filter.levelId(),
+                VehicleFactory.vehicleClasses(filter.vehicleType()), filter.enteredFrom(), filter.enteredTo(),
+                PageRequest.of(0, limit));
     }
 
-    private ParkingSlot findAvailableSlot(VehicleType vehicleType, boolean isHandicapped) {
-        if (isHandicapped) {
-            Optional<ParkingSlot> handicappedSlot = slotRepository
-                    .findFirstByAvailableTrueAndTypeOrderByLevelFloorNumberAsc(SlotType.HANDICAPPED);
+    // Rows are projections rather than managed entities, so memory use stays flat however many sessions are open.
+    @Transactional(readOnly = true)
+    public void streamActiveSessions(SessionFilter filter, Consumer<TicketView> action) {
+        try (Stream<TicketView> tickets = ticketRepository.streamOpenSessions(0L, filter.lotId(), filter.levelId(),
+                VehicleFactory.vehicleClasses(filter.vehicleType()), filter.enteredFrom(), filter.enteredTo())) {
+            tickets.forEach(action);
+        }
+    }
 
-            if (handicappedSlot.isPresent()) {
-                ParkingSlot slot = handicappedSlot.get();
-                slot.setAvailable(false);
-                return slotRepository.saveAndFlush(slot);
-            }
+    // Closed tickets of a vehicle, most recent first, whether or not they have been archived yet.
+    @Transactional(readOnly = true)
+    public List<ClosedTicketView> getTicketHistory(String licensePlate, LocalDateTime exitedFrom, LocalDateTime exitedTo) {
+        List<ClosedTicketView> history = new ArrayList<>(ticketRepository.findClosedTickets(licensePlate, exitedFrom, exitedTo));
+        history.addAll(archivedTicketRepository.findHistory(licensePlate, exitedFrom, exitedTo));
+        history.sort(Comparator.comparing(ClosedTicketView::exitTime).thenComparing(ClosedTicketView::ticketId).reversed());
+        return history;
+    }
+
+    // The registry only knows the sessions of this instance, so a session it holds may have been closed through
+    // another instance since; it is dropped once the database confirms that. A vehicle parked through another
+    // instance is caught by the unique index on open tickets when the new ticket is flushed.
+    private boolean reserve(String licensePlate) {
+        if (activeSessions.reserve(licensePlate)) {
+            return true;
+        }
+        Optional<ActiveSession> session = activeSessions.find(licensePlate);
+        if (session.isEmpty() || ticketRepository.existsByIdAndExitTimeIsNull(session.get().ticketId())) {
+            return false;
         }
+        activeSessions.evict(licensePlate, session.get());
+        return activeSessions.reserve(licensePlate);
+    }
+
+    private static boolean isOpenTicketConflict(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && OPEN_TICKET_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName());
+    }
 
-        List<SlotType> allowedTypes = COMPATIBILITY_MAP.get(vehicleType);
-        for (SlotType type : allowedTypes) {
-            Optional<ParkingSlot> slotOpt = slotRepository.findFirstByAvailableTrueAndTypeOrderByLevelFloorNumberAsc(type);
-            if (slotOpt.isPresent()) {
-                ParkingSlot slot = slotOpt.get();
-                slot.setAvailable(false);
-                return slotRepository.saveAndFlush(slot);
+    private ParkingSlot allocateSlot(Long lotId, VehicleType type, boolean isHandicapped) {
+        ParkingSlot slot;
+        try {
+            if (slotAllocator.allocatesFromLocalState()
+                    && !freeSlotCounters.hasCapacity(lotId, SlotCompatibility.candidateTypes(type, isHandicapped))) {
+                throw new NoAvailableSlotException(type.name());
+            }
+            slot = slotAllocator.allocate(lotId, type, isHandicapped);
+        } catch (NoAvailableSlotException e) {
+            if (lotId != null && !parkingLotRepository.existsById(lotId)) {
+                throw new ResourceNotFoundException("Parking Lot", lotId);
             }
+            throw e;
+        }
+        eventPublisher.publishEvent(new SlotAvailabilityChangedEvent(SlotSnapshot.of(slot), false));
+        return slot;
+    }
+
+    // The update clears the persistence context, so the ticket and its slot are detached when they are filled in.
+    private boolean close(ParkingTicket ticket) {
+        LocalDateTime exitTime = now();
+        RateTable rates = pricingService.rates();
+        Charge charge = charge(rates, ticket, exitTime);
+        if (ticketRepository.close(ticket.getId(), ticket.getEntryTime(), exitTime, charge.fee(), rates.version(),
+                charge.surgeMultiplier()) == 0) {
+            return false;
         }
-        throw new NoAvailableSlotException(vehicleType.name());
+        ParkingSlot slot = ticket.getSlot();
+        slotRepository.releaseAll(List.of(slot.getId()));
+        slot.setAvailable(true);
+        eventPublisher.publishEvent(new SlotAvailabilityChangedEvent(SlotSnapshot.of(slot), true));
+        ticket.setExitTime(exitTime);
+        ticket.setFee(charge.fee());
+        ticket.setRateCardVersion(rates.version());
+        ticket.setSurgeMultiplier(charge.surgeMultiplier());
+        activeSessions.close(ticket.getVehicle().getLicensePlate());
+        recordDeparture(ticket);
+        return true;
+    }
+
+    // Counted once committed, so a check-in or check-out that rolls back does not move prices.
+    private void recordArrival(ParkingTicket ticket) {
+        Long lotId = lotId(ticket);
+        TransactionCallbacks.afterCommit(() -> demandTracker.arrived(lotId));
     }
 
+    private void recordDeparture(ParkingTicket ticket) {
+        Long lotId = lotId(ticket);
+        TransactionCallbacks.afterCommit(() -> demandTracker.departed(lotId));
+    }
+
+    // The surge multiplier is read once and recorded with the fee it priced.
+    private static Charge charge(RateTable rates, ParkingTicket ticket, LocalDateTime exitTime) {
+        VehicleType type = ticket.getVehicle().getType();
+        long surgeMultiplier = rates.surgeMultiplier(type, lotId(ticket));
+        return new Charge(rates.calculate(type, ticket.getEntryTime(), exitTime, surgeMultiplier), surgeMultiplier);
+    }
+
+    private record Charge(BigDecimal fee, long surgeMultiplier) {
+    }
+
+    private static Long lotId(ParkingTicket ticket) {
+        return SlotSnapshot.of(ticket.getSlot()).lotId();
+    }
+
+    private ParkingTicket newTicket(Vehicle vehicle, ParkingSlot slot, LocalDateTime entryTime) {
+        ParkingTicket ticket = new ParkingTicket();
+        ticket.setVehicle(vehicle);
+        ticket.setSlot(slot);
+        ticket.setEntryTime(entryTime);
+        return ticket;
+    }
+
+    // Whole seconds like the timestamp columns, so an open session holds the entry time exactly as stored.
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private void validate(CheckInRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("request: must not be null");
+        }
+        Set<ConstraintViolation<CheckInRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
 }
@@ -2,41 +2,52 @@ package com.dev.marchenko.service;
 
 import com.dev.marchenko.domain.vehicle.VehicleType;
 import com.dev.marchenko.strategy.PricingStrategy;
+import com.dev.marchenko.strategy.RateCard;
+import com.dev.marchenko.strategy.RateTable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Prices stays against the current {@link RateTable}. Reloaded rate cards are compiled into a new table that
+ * replaces the current one in a single volatile write, so pricing never waits on a reload and never sees a
+ * table that is half updated. Callers that store a fee take the table once with {@link #rates()} and record
+ * its version next to the fee.
+ */
 @Service
 public class PricingService {
 
-    private final Map<VehicleType, PricingStrategy> strategies;
+    private volatile RateTable rates;
 
     public PricingService(List<PricingStrategy> strategyList) {
-        this.strategies = new HashMap<>();
-        for (PricingStrategy strategy : strategyList) {
-            for (VehicleType type : strategy.getSupportedVehicleTypes()) {
-                strategies.put(type, strategy);
-            }
-        }
+        this.rates = RateTable.of(0L, strategyList);
+    }
+
+    public RateTable rates() {
+        return rates;
     }
 
     public BigDecimal calculate(VehicleType type, LocalDateTime entry, LocalDateTime exit) {
-        if (exit.isBefore(entry)) {
-            throw new IllegalArgumentException("Exit time must be after entry time");
-        }
+        return rates.calculate(type, entry, exit);
+    }
 
-        long minutes = Duration.between(entry, exit).toMinutes();
+    // The fee in cents, without allocating.
+    public long calculateCents(VehicleType type, LocalDateTime entry, LocalDateTime exit) {
+        return rates.calculateCents(type, entry, exit);
+    }
 
-        PricingStrategy strategy = strategies.get(type);
-        if (strategy == null) {
-            throw new IllegalArgumentException("No pricing strategy found for " + type);
+    /**
+     * Makes the given cards current as {@code version}, keeping the strategies of types without a card. A version
+     * that is not newer than the current one is ignored, and an invalid card leaves the current table in place.
+     */
+    public synchronized RateTable publish(long version, Map<VehicleType, RateCard> cards) {
+        if (version <= rates.version()) {
+            return rates;
         }
-
-        return strategy.calculateFee(minutes);
+        rates = rates.withRateCards(version, cards);
+        return rates;
     }
 }
@@ -0,0 +1,140 @@
+package com.dev.marchenko.service;
+
+import com.dev.marchenko.config.PricingProperties;
+import com.dev.marchenko.domain.pricing.RateCardVersion;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.repository.RateCardVersionRepository;
+import com.dev.marchenko.strategy.RateCard;
+import com.dev.marchenko.strategy.RateTable;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Versions of the rate cards, kept in {@code rate_card_versions} so the version recorded with a fee names the same
+ * cards on every instance and after a restart. On startup the cards under {@code parking.pricing.rate-cards} are
+ * stored as a new version when they differ from the last deployed ones, and the newest version, deployed or
+ * reloaded, is published to {@link PricingService}. Versions reloaded through another instance are picked up
+ * every {@code parking.pricing.refresh-interval}.
+ * <p>
+ * A version is stored in one transaction with the read of the latest version it builds on, under that version's
+ * id plus one. When another instance stores a version in between, the insert fails on the primary key and the
+ * whole step is repeated on top of the other version, so neither reload is lost.
+ */
+@Service
+@RequiredArgsConstructor
+public class RateCardService {
+
+    private static final TypeReference<Map<VehicleType, RateCard>> RATE_CARDS = new TypeReference<>() {
+    };
+    private static final int STORE_ATTEMPTS = 3;
+
+    private final RateCardVersionRepository rateCardVersionRepository;
+    private final PricingService pricingService;
+    private final PricingProperties pricingProperties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void registerConfigured() {
+        String configured = write(pricingProperties.rateCards());
+        store(() -> {
+            boolean changed = rateCardVersionRepository.findFirstBySourceOrderByIdDesc(RateCardVersion.Source.CONFIG)
+                    .map(deployed -> !deployed.getRateCards().equals(configured))
+                    .orElse(true);
+            return changed
+                    ? insert(rateCardVersionRepository.findFirstByOrderByIdDesc(), RateCardVersion.Source.CONFIG, configured)
+                    : null;
+        });
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${parking.pricing.refresh-interval:30s}",
+            initialDelayString = "${parking.pricing.refresh-interval:30s}")
+    public void refresh() {
+        rateCardVersionRepository.findFirstByOrderByIdDesc()
+                .filter(latest -> latest.getId() > pricingService.rates().version())
+                .ifPresent(latest -> pricingService.publish(latest.getId(), read(latest.getRateCards())));
+    }
+
+    public RateTable current() {
+        return pricingService.rates();
+    }
+
+    // Replaces the cards of the given types as a new version on top of the latest stored one, which may have been
+    // reloaded through another instance; the other types keep theirs. Invalid cards are rejected before anything
+    // is stored.
+    public synchronized RateTable reload(Map<VehicleType, RateCard> cards) {
+        RateTable current = pricingService.rates();
+        try {
+            current.withRateCards(current.version(), cards);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid rate card: " + e.getMessage(), e);
+        }
+
+        Map<VehicleType, RateCard> merged = new EnumMap<>(VehicleType.class);
+        RateCardVersion saved = store(() -> {
+            Optional<RateCardVersion> latest = rateCardVersionRepository.findFirstByOrderByIdDesc();
+            merged.clear();
+            merged.putAll(latest.map(stored -> read(stored.getRateCards())).orElseGet(current::rateCards));
+            merged.putAll(cards);
+            return insert(latest, RateCardVersion.Source.ADMIN, write(merged));
+        });
+        return pricingService.publish(saved.getId(), merged);
+    }
+
+    private RateCardVersion store(Supplier<RateCardVersion> step) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> step.get());
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == STORE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private RateCardVersion insert(Optional<RateCardVersion> latest, RateCardVersion.Source source, String rateCards) {
+        RateCardVersion version = new RateCardVersion();
+        version.setId(latest.map(stored -> stored.getId() + 1).orElse(1L));
+        version.setSource(source);
+        version.setRateCards(rateCards);
+        version.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        rateCardVersionRepository.insert(version.getId(), source.name(), rateCards, version.getCreatedAt());
+        return version;
+    }
+
+    // Keyed in vehicle type order, so the same cards are always written the same way.
+    private String write(Map<VehicleType, RateCard> cards) {
+        Map<VehicleType, RateCard> ordered = new EnumMap<>(VehicleType.class);
+        ordered.putAll(cards);
+        try {
+            return objectMapper.writeValueAsString(ordered);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot write rate cards", e);
+        }
+    }
+
+    private Map<VehicleType, RateCard> read(String rateCards) {
+        try {
+            return objectMapper.readValue(rateCards, RATE_CARDS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read rate cards", e);
+        }
+    }
+}
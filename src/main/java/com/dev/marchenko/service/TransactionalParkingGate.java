@@ -0,0 +1,46 @@
+package com.dev.marchenko.service;
+
+import com.dev.marchenko.domain.ticket.ParkingTicket;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.dto.BatchItemResponse;
+import com.dev.marchenko.dto.CheckInRequest;
+import com.dev.marchenko.dto.CheckOutResponse;
+import com.dev.marchenko.dto.TicketResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(prefix = "parking.durability", name = "mode", havingValue = "sync", matchIfMissing = true)
+@RequiredArgsConstructor
+public class TransactionalParkingGate implements ParkingGate {
+
+    private final ParkingService parkingService;
+
+    @Override
+    public ParkingTicket checkIn(Long lotId, String licensePlate, VehicleType type, boolean isHandicapped) {
+        return parkingService.checkIn(lotId, licensePlate, type, isHandicapped);
+    }
+
+    @Override
+    public ParkingTicket checkOut(Long ticketId) {
+        return parkingService.checkOut(ticketId);
+    }
+
+    @Override
+    public ParkingTicket checkOutByPlate(String licensePlate) {
+        return parkingService.checkOutByPlate(licensePlate);
+    }
+
+    @Override
+    public List<BatchItemResponse<TicketResponse>> checkInBatch(List<CheckInRequest> requests) {
+        return parkingService.checkInBatch(requests);
+    }
+
+    @Override
+    public List<BatchItemResponse<CheckOutResponse>> checkOutBatch(List<Long> ticketIds) {
+        return parkingService.checkOutBatch(ticketIds);
+    }
+}
@@ -0,0 +1,23 @@
+package com.dev.marchenko.session;
+
+import com.dev.marchenko.domain.ticket.ParkingTicket;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * An open session as held in memory: the ticket, its slot and the entry time in epoch seconds, which is exact
+ * because entry times are stored in whole seconds. The plate is the key the session is held under, and where the
+ * slot is comes from {@link com.dev.marchenko.topology.TopologySnapshot}.
+ */
+public record ActiveSession(long ticketId, long slotId, long entryEpochSecond) {
+
+    public static ActiveSession of(ParkingTicket ticket) {
+        return new ActiveSession(ticket.getId(), ticket.getSlot().getId(),
+                ticket.getEntryTime().toEpochSecond(ZoneOffset.UTC));
+    }
+
+    public LocalDateTime entryTime() {
+        return LocalDateTime.ofEpochSecond(entryEpochSecond, 0, ZoneOffset.UTC);
+    }
+}
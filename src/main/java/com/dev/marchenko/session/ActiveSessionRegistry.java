@@ -0,0 +1,112 @@
+package com.dev.marchenko.session;
+
+import com.dev.marchenko.allocation.TransactionCallbacks;
+import com.dev.marchenko.domain.ticket.ParkingTicket;
+import com.dev.marchenko.repository.TicketRepository;
+import com.dev.marchenko.vehicle.PlateKeys;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open parking sessions keyed by license plate, so duplicate check-ins, check-out by plate and vehicle
+ * lookups never query the tickets table. Plates are keyed by {@link PlateKeys} and sessions only hold
+ * primitives; for check-out by ticket, ticket ids map back to the plate key rather than to a second copy of
+ * the session. A plate is reserved before a check-in allocates a slot, which makes concurrent check-ins of the
+ * same vehicle on this instance mutually exclusive. Changes made inside a transaction are undone if it rolls
+ * back. Rebuilt from the open tickets on startup.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActiveSessionRegistry {
+
+    private static final ActiveSession PENDING = new ActiveSession(0, 0, 0);
+
+    private final TicketRepository ticketRepository;
+
+    private final Map<Object, ActiveSession> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, Object> plateKeysByTicket = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        sessions.clear();
+        plateKeysByTicket.clear();
+        ticketRepository.findAllByExitTimeIsNull().forEach(ticket -> {
+            Object key = PlateKeys.of(ticket.getVehicle().getLicensePlate());
+            sessions.put(key, ActiveSession.of(ticket));
+            plateKeysByTicket.put(ticket.getId(), key);
+        });
+    }
+
+    // Returns false if the vehicle already has an open or pending session.
+    public boolean reserve(String licensePlate) {
+        Object key = PlateKeys.of(licensePlate);
+        if (sessions.putIfAbsent(key, PENDING) != null) {
+            return false;
+        }
+        TransactionCallbacks.afterRollback(() -> sessions.remove(key, PENDING));
+        return true;
+    }
+
+    public void cancel(String licensePlate) {
+        sessions.remove(PlateKeys.of(licensePlate), PENDING);
+    }
+
+    public void open(ParkingTicket ticket) {
+        Object key = PlateKeys.of(ticket.getVehicle().getLicensePlate());
+        ActiveSession session = ActiveSession.of(ticket);
+        ActiveSession replaced = sessions.put(key, session);
+        if (replaced != null && replaced != PENDING) {
+            plateKeysByTicket.remove(replaced.ticketId(), key);
+        }
+        plateKeysByTicket.put(session.ticketId(), key);
+        TransactionCallbacks.afterRollback(() -> {
+            sessions.remove(key, session);
+            plateKeysByTicket.remove(session.ticketId(), key);
+        });
+    }
+
+    public void close(String licensePlate) {
+        Object key = PlateKeys.of(licensePlate);
+        ActiveSession session = sessions.get(key);
+        if (session == null || session == PENDING || !sessions.remove(key, session)) {
+            return;
+        }
+        plateKeysByTicket.remove(session.ticketId(), key);
+        TransactionCallbacks.afterRollback(() -> {
+            if (sessions.putIfAbsent(key, session) == null) {
+                plateKeysByTicket.putIfAbsent(session.ticketId(), key);
+            }
+        });
+    }
+
+    // Drops a session that was closed through another instance, which this registry is never told about.
+    public void evict(String licensePlate, ActiveSession session) {
+        Object key = PlateKeys.of(licensePlate);
+        if (sessions.remove(key, session)) {
+            plateKeysByTicket.remove(session.ticketId(), key);
+        }
+    }
+
+    public Optional<ActiveSession> find(String licensePlate) {
+        ActiveSession session = sessions.get(PlateKeys.of(licensePlate));
+        return session == PENDING ? Optional.empty() : Optional.ofNullable(session);
+    }
+
+    public Optional<ActiveSession> findByTicket(Long ticketId) {
+        Object key = plateKeysByTicket.get(ticketId);
+        ActiveSession session = key != null ? sessions.get(key) : null;
+        return session != null && session.ticketId() == ticketId ? Optional.of(session) : Optional.empty();
+    }
+
+    public Optional<String> plateOf(Long ticketId) {
+        return Optional.ofNullable(plateKeysByTicket.get(ticketId)).map(PlateKeys::plate);
+    }
+}
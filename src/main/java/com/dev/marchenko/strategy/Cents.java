@@ -0,0 +1,29 @@
+package com.dev.marchenko.strategy;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversions between amounts and the minor currency units fees are calculated in. Amounts only exist at the
+ * boundary: rates as configured and fees as stored or returned.
+ */
+public final class Cents {
+
+    private static final int SCALE = 2;
+
+    private Cents() {
+    }
+
+    // Throws ArithmeticException for an amount with fractions of a cent.
+    public static long of(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    // Multiplies by thousandths, rounding half a cent up.
+    public static long scale(long cents, long thousandths) {
+        return (cents * thousandths + 500) / 1000;
+    }
+}
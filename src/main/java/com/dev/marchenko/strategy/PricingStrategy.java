@@ -3,10 +3,21 @@ package com.dev.marchenko.strategy;
 import com.dev.marchenko.domain.vehicle.VehicleType;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface PricingStrategy {
-    BigDecimal calculateFee(long durationMinutes);
+    // The fee in cents. Called on every check-out, so implementations should not allocate.
+    long calculateFeeCents(long durationMinutes);
+
+    // Strategies that depend on the time of day override this; the rest only look at the whole minutes stayed.
+    default long calculateFeeCents(LocalDateTime entry, LocalDateTime exit) {
+        return calculateFeeCents(Stays.minutesBetween(entry, exit));
+    }
+
+    default BigDecimal calculateFee(long durationMinutes) {
+        return Cents.toAmount(calculateFeeCents(durationMinutes));
+    }
 
     List<VehicleType> getSupportedVehicleTypes();
 }
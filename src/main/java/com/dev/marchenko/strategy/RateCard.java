@@ -0,0 +1,28 @@
+package com.dev.marchenko.strategy;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * A tariff as declared under {@code parking.pricing.rate-cards}. The bands tile the day; a band whose end is not
+ * after its start runs past midnight, and a single band from a time to the same time covers the whole day.
+ * The first {@code freeMinutes} of a stay are not charged, the rest is rounded up to whole billing increments
+ * and split into 24-hour periods, each charged at most {@code dailyMaximum}. Within a period a band's
+ * {@code cap} limits what one occurrence of the band is charged, e.g. a night cap. Left out, {@code freeMinutes}
+ * is 0 and {@code billingIncrementMinutes} 1, whether the card comes from the configuration or from JSON.
+ */
+public record RateCard(
+        Integer freeMinutes,
+        Integer billingIncrementMinutes,
+        BigDecimal dailyMaximum,
+        List<Band> bands
+) {
+    public RateCard {
+        freeMinutes = freeMinutes != null ? freeMinutes : 0;
+        billingIncrementMinutes = billingIncrementMinutes != null ? billingIncrementMinutes : 1;
+    }
+
+    public record Band(LocalTime from, LocalTime to, BigDecimal hourlyRate, BigDecimal cap) {
+    }
+}
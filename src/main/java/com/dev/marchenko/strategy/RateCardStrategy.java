@@ -0,0 +1,161 @@
+package com.dev.marchenko.strategy;
+
+import com.dev.marchenko.domain.vehicle.VehicleType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Prices stays by a {@link RateCard} compiled into a table of band starts with prefix sums of what each band
+ * charges for a full occurrence. A stay of any length costs two binary searches per 24-hour period priced, and
+ * every full period after the first costs the same as the first. Charges are kept in sixtieths of a cent, so
+ * an hourly rate in cents is exactly the charge per minute, and rounded up to whole cents once.
+ */
+public class RateCardStrategy implements PricingStrategy {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final long NO_LIMIT = Long.MAX_VALUE;
+
+    private final RateCard card;
+    private final List<VehicleType> supportedTypes;
+    private final int freeMinutes;
+    private final int billingIncrement;
+    private final long dailyMaximum;
+    // minute of the day the first band starts; band starts below are relative to it
+    private final int origin;
+    private final int[] starts;
+    private final long[] rates;
+    private final long[] caps;
+    // fullCharges[k] is what bands 0..k-1 charge for one full occurrence each
+    private final long[] fullCharges;
+
+    public RateCardStrategy(RateCard card, List<VehicleType> supportedTypes) {
+        if (card.freeMinutes() < 0 || card.billingIncrementMinutes() < 1) {
+            throw new IllegalArgumentException("Free minutes must not be negative and the billing increment must be positive");
+        }
+        if (card.bands() == null || card.bands().isEmpty()) {
+            throw new IllegalArgumentException("A rate card needs at least one band");
+        }
+        this.card = card;
+        this.supportedTypes = supportedTypes;
+        this.freeMinutes = card.freeMinutes();
+        this.billingIncrement = card.billingIncrementMinutes();
+        this.dailyMaximum = card.dailyMaximum() != null ? sixtieths(card.dailyMaximum()) : NO_LIMIT;
+
+        List<RateCard.Band> bands = card.bands().stream()
+                .sorted(Comparator.comparingInt(band -> minuteOfDay(band.from())))
+                .toList();
+        int count = bands.size();
+        this.origin = minuteOfDay(bands.get(0).from());
+        this.starts = new int[count];
+        this.rates = new long[count];
+        this.caps = new long[count];
+        this.fullCharges = new long[count + 1];
+        for (int i = 0; i < count; i++) {
+            RateCard.Band band = bands.get(i);
+            int nextStart = minuteOfDay(bands.get((i + 1) % count).from());
+            if (minuteOfDay(band.to()) != nextStart) {
+                throw new IllegalArgumentException("Rate card bands must cover the day without gaps or overlaps, "
+                        + "but the band from " + band.from() + " ends at " + band.to());
+            }
+            if (band.hourlyRate() == null || band.hourlyRate().signum() < 0 || band.cap() != null && band.cap().signum() < 0) {
+                throw new IllegalArgumentException("The band from " + band.from() + " needs a rate and cap that are not negative");
+            }
+            starts[i] = Math.floorMod(minuteOfDay(band.from()) - origin, MINUTES_PER_DAY);
+            if (i > 0 && starts[i] == starts[i - 1]) {
+                throw new IllegalArgumentException("Two rate card bands start at " + band.from());
+            }
+            rates[i] = Cents.of(band.hourlyRate());
+            caps[i] = band.cap() != null ? sixtieths(band.cap()) : NO_LIMIT;
+        }
+        for (int i = 0; i < count; i++) {
+            fullCharges[i + 1] = fullCharges[i] + Math.min(caps[i], rates[i] * (end(i) - starts[i]));
+        }
+    }
+
+    public RateCard rateCard() {
+        return card;
+    }
+
+    @Override
+    public long calculateFeeCents(LocalDateTime entry, LocalDateTime exit) {
+        return charge(Stays.epochMinute(entry), Stays.minutesBetween(entry, exit));
+    }
+
+    // Without a time of day the stay is priced as if it started at midnight.
+    @Override
+    public long calculateFeeCents(long durationMinutes) {
+        return charge(0, durationMinutes);
+    }
+
+    @Override
+    public List<VehicleType> getSupportedVehicleTypes() {
+        return supportedTypes;
+    }
+
+    private long charge(long entryMinute, long minutes) {
+        if (freeMinutes > 0 && minutes <= freeMinutes) {
+            return 0;
+        }
+        long chargeable = Math.max(0, minutes - freeMinutes);
+        long billed = Math.multiplyExact(Math.max(1, (chargeable + billingIncrement - 1) / billingIncrement), billingIncrement);
+        long from = entryMinute + freeMinutes;
+        long days = billed / MINUTES_PER_DAY;
+        long charge = days == 0 ? 0 : Math.multiplyExact(days, Math.min(dailyMaximum, periodCharge(from, MINUTES_PER_DAY)));
+        charge = Math.addExact(charge, Math.min(dailyMaximum,
+                periodCharge(from + days * MINUTES_PER_DAY, (int) (billed % MINUTES_PER_DAY))));
+        return (charge + 59) / 60;
+    }
+
+    // What [from, from + minutes) charges, for at most a day. Bands are indexed over two consecutive days.
+    private long periodCharge(long from, int minutes) {
+        if (minutes == 0) {
+            return 0;
+        }
+        int offset = (int) Math.floorMod(from - origin, MINUTES_PER_DAY);
+        int until = offset + minutes;
+        int first = bandAt(offset);
+        if (until <= end(first)) {
+            return Math.min(caps[first], rates[first] * minutes);
+        }
+        int last = bandAt((until - 1) % MINUTES_PER_DAY) + (until - 1 >= MINUTES_PER_DAY ? starts.length : 0);
+        int lastBand = last % starts.length;
+        int lastStart = starts[lastBand] + (last >= starts.length ? MINUTES_PER_DAY : 0);
+        return Math.min(caps[first], rates[first] * (end(first) - offset))
+                + fullCharges(first + 1, last)
+                + Math.min(caps[lastBand], rates[lastBand] * (until - lastStart));
+    }
+
+    private long fullCharges(int from, int to) {
+        return cumulativeCharge(to) - cumulativeCharge(from);
+    }
+
+    private long cumulativeCharge(int bands) {
+        int count = starts.length;
+        return bands > count ? fullCharges[count] + fullCharges[bands - count] : fullCharges[bands];
+    }
+
+    private int bandAt(int offset) {
+        int index = Arrays.binarySearch(starts, offset);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private int end(int band) {
+        return band + 1 < starts.length ? starts[band + 1] : MINUTES_PER_DAY;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        if (time == null || time.getSecond() != 0 || time.getNano() != 0) {
+            throw new IllegalArgumentException("Rate card bands start and end on whole minutes, not at " + time);
+        }
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static long sixtieths(BigDecimal amount) {
+        return Math.multiplyExact(Cents.of(amount), 60);
+    }
+}
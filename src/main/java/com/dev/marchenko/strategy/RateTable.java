@@ -0,0 +1,103 @@
+package com.dev.marchenko.strategy;
+
+import com.dev.marchenko.demand.DemandTracker;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The pricing strategy of every vehicle type, stamped with the rate-card version it was built from. A table is
+ * never changed once built; {@link #withRateCards} compiles a new one, so everything priced against a table is
+ * priced by exactly one version. Version 0 means the strategies have not been registered as a version yet.
+ */
+public final class RateTable {
+
+    private final long version;
+    private final Map<VehicleType, PricingStrategy> strategies;
+
+    private RateTable(long version, Map<VehicleType, PricingStrategy> strategies) {
+        this.version = version;
+        this.strategies = strategies;
+    }
+
+    public static RateTable of(long version, Collection<PricingStrategy> strategyList) {
+        Map<VehicleType, PricingStrategy> strategies = new EnumMap<>(VehicleType.class);
+        for (PricingStrategy strategy : strategyList) {
+            for (VehicleType type : strategy.getSupportedVehicleTypes()) {
+                strategies.put(type, strategy);
+            }
+        }
+        return new RateTable(version, strategies);
+    }
+
+    // Types without a card in the map keep their strategy. Throws IllegalArgumentException for an invalid card.
+    public RateTable withRateCards(long version, Map<VehicleType, RateCard> cards) {
+        Map<VehicleType, PricingStrategy> replaced = new EnumMap<>(strategies);
+        cards.forEach((type, card) -> replaced.put(type, rebased(replaced.get(type), new RateCardStrategy(card, List.of(type)))));
+        return new RateTable(version, replaced);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    // The cards of the types priced by one.
+    public Map<VehicleType, RateCard> rateCards() {
+        Map<VehicleType, RateCard> cards = new EnumMap<>(VehicleType.class);
+        strategies.forEach((type, strategy) -> {
+            PricingStrategy base = strategy instanceof SurgePricingStrategy surge ? surge.base() : strategy;
+            if (base instanceof RateCardStrategy rateCardStrategy) {
+                cards.put(type, rateCardStrategy.rateCard());
+            }
+        });
+        return cards;
+    }
+
+    public BigDecimal calculate(VehicleType type, LocalDateTime entry, LocalDateTime exit) {
+        return Cents.toAmount(calculateCents(type, entry, exit));
+    }
+
+    // The fee in cents, without allocating.
+    public long calculateCents(VehicleType type, LocalDateTime entry, LocalDateTime exit) {
+        return strategy(type, entry, exit).calculateFeeCents(entry, exit);
+    }
+
+    // The multiplier, in thousandths, that pricing for the lot applies to the type right now; no surge for types
+    // not priced by demand or when the lot is not known. Read it once and price with it to record what was applied.
+    public long surgeMultiplier(VehicleType type, Long lotId) {
+        return lotId != null && strategies.get(type) instanceof SurgePricingStrategy surge
+                ? surge.surgeMultiplier(lotId)
+                : DemandTracker.NO_SURGE;
+    }
+
+    // The base fee scaled by a surge multiplier in thousandths, e.g. one recorded with a closed ticket.
+    public BigDecimal calculate(VehicleType type, LocalDateTime entry, LocalDateTime exit, long surgeMultiplier) {
+        return Cents.toAmount(calculateCents(type, entry, exit, surgeMultiplier));
+    }
+
+    public long calculateCents(VehicleType type, LocalDateTime entry, LocalDateTime exit, long surgeMultiplier) {
+        return Cents.scale(strategy(type, entry, exit).calculateFeeCents(entry, exit), surgeMultiplier);
+    }
+
+    private PricingStrategy strategy(VehicleType type, LocalDateTime entry, LocalDateTime exit) {
+        if (exit.isBefore(entry)) {
+            throw new IllegalArgumentException("Exit time must be after entry time");
+        }
+
+        PricingStrategy strategy = strategies.get(type);
+        if (strategy == null) {
+            throw new IllegalArgumentException("No pricing strategy found for " + type);
+        }
+        return strategy;
+    }
+
+    // A reloaded card keeps pricing by demand when the strategy it replaces did.
+    private static PricingStrategy rebased(PricingStrategy current, PricingStrategy base) {
+        return current instanceof SurgePricingStrategy surge ? surge.withBase(base) : base;
+    }
+}
@@ -0,0 +1,27 @@
+package com.dev.marchenko.strategy;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Stay arithmetic on the wall-clock times tickets are stamped with, in whole minutes and without allocating.
+ */
+public final class Stays {
+
+    private Stays() {
+    }
+
+    // Whole minutes, as Duration.between(entry, exit).toMinutes() counts them.
+    public static long minutesBetween(LocalDateTime entry, LocalDateTime exit) {
+        long seconds = exit.toEpochSecond(ZoneOffset.UTC) - entry.toEpochSecond(ZoneOffset.UTC);
+        if (exit.getNano() < entry.getNano()) {
+            seconds--;
+        }
+        return seconds / 60;
+    }
+
+    // The minute the time falls in, counted from the epoch, so its remainder by a day is the minute of the day.
+    public static long epochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+}
@@ -0,0 +1,53 @@
+package com.dev.marchenko.strategy;
+
+import com.dev.marchenko.demand.DemandTracker;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Marks another strategy as priced by demand. What it charges is scaled by the surge multiplier of the lot the
+ * vehicle leaves, so every rate, cap and daily maximum of a card rises with demand alike. The multiplier is read
+ * from the {@link DemandTracker}'s cache once per check-out, recorded with the ticket and applied by
+ * {@link RateTable#calculateCents(com.dev.marchenko.domain.vehicle.VehicleType, LocalDateTime, LocalDateTime, long)};
+ * stays priced without a lot are charged the base fee.
+ */
+public final class SurgePricingStrategy implements PricingStrategy {
+
+    private final PricingStrategy base;
+    private final DemandTracker demandTracker;
+
+    public SurgePricingStrategy(PricingStrategy base, DemandTracker demandTracker) {
+        this.base = base;
+        this.demandTracker = demandTracker;
+    }
+
+    public PricingStrategy base() {
+        return base;
+    }
+
+    public SurgePricingStrategy withBase(PricingStrategy base) {
+        return new SurgePricingStrategy(base, demandTracker);
+    }
+
+    @Override
+    public long calculateFeeCents(long durationMinutes) {
+        return base.calculateFeeCents(durationMinutes);
+    }
+
+    @Override
+    public long calculateFeeCents(LocalDateTime entry, LocalDateTime exit) {
+        return base.calculateFeeCents(entry, exit);
+    }
+
+    // In thousandths, see DemandTracker#surgeMultiplier.
+    public long surgeMultiplier(Long lotId) {
+        return lotId != null ? demandTracker.surgeMultiplier(lotId) : DemandTracker.NO_SURGE;
+    }
+
+    @Override
+    public List<VehicleType> getSupportedVehicleTypes() {
+        return base.getSupportedVehicleTypes();
+    }
+}
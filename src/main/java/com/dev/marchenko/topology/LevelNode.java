@@ -0,0 +1,4 @@
+package com.dev.marchenko.topology;
+
+public record LevelNode(Long id, Long lotId, Integer floorNumber) {
+}
@@ -0,0 +1,4 @@
+package com.dev.marchenko.topology;
+
+public record LotNode(Long id, String name) {
+}
@@ -0,0 +1,47 @@
+package com.dev.marchenko.topology;
+
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import lombok.RequiredArgsConstructor;
+import org.mapstruct.Named;
+import org.springframework.stereotype.Component;
+
+// Slot number, floor and lot for the mappers, taken from the topology so a lazy level is never loaded just to print it.
+@Component
+@RequiredArgsConstructor
+public class SlotLocationResolver {
+
+    private final TopologySnapshot topology;
+
+    @Named("slotNumber")
+    public String slotNumber(ParkingSlot slot) {
+        if (slot == null) {
+            return null;
+        }
+        return topology.slot(slot.getId()).map(SlotNode::slotNumber).orElseGet(slot::getSlotNumber);
+    }
+
+    @Named("floorNumber")
+    public Integer floorNumber(ParkingSlot slot) {
+        if (slot == null) {
+            return null;
+        }
+        return topology.slot(slot.getId())
+                .map(SlotNode::floorNumber)
+                .orElseGet(() -> slot.getLevel() != null ? slot.getLevel().getFloorNumber() : null);
+    }
+
+    @Named("slotNumberOf")
+    public String slotNumberOf(long slotId) {
+        return topology.slot(slotId).map(SlotNode::slotNumber).orElse(null);
+    }
+
+    @Named("floorNumberOf")
+    public Integer floorNumberOf(long slotId) {
+        return topology.slot(slotId).map(SlotNode::floorNumber).orElse(null);
+    }
+
+    @Named("lotIdOf")
+    public Long lotIdOf(long slotId) {
+        return topology.slot(slotId).map(SlotNode::lotId).orElse(null);
+    }
+}
@@ -0,0 +1,28 @@
+package com.dev.marchenko.topology;
+
+import com.dev.marchenko.domain.lot.Level;
+import com.dev.marchenko.domain.lot.ParkingLot;
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+
+public record SlotNode(Long id, String slotNumber, SlotType type, Long levelId, Long lotId, Integer floorNumber) {
+
+    public SlotSnapshot toSnapshot() {
+        return new SlotSnapshot(id, lotId, levelId, floorNumber, type);
+    }
+
+    // A detached copy for responses and events, so the slot does not have to be read; never persisted.
+    public ParkingSlot toDetachedSlot(boolean available) {
+        ParkingLot lot = new ParkingLot();
+        lot.setId(lotId);
+        Level level = new Level();
+        level.setId(levelId);
+        level.setFloorNumber(floorNumber);
+        level.setParkingLot(lot);
+        ParkingSlot slot = new ParkingSlot(slotNumber, type, level);
+        slot.setId(id);
+        slot.setAvailable(available);
+        return slot;
+    }
+}
@@ -0,0 +1,88 @@
+package com.dev.marchenko.topology;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable picture of the parking structure: lots, their levels and the slots on them. A change never touches an
+ * existing topology; {@link #withLot} copies it with one lot replaced and a higher version, so a reader holding a
+ * reference always sees a consistent structure.
+ */
+public final class Topology {
+
+    static final Topology EMPTY = new Topology(0L, Map.of(), Map.of(), Map.of());
+
+    private final long version;
+    private final Map<Long, LotNode> lots;
+    private final Map<Long, LevelNode> levels;
+    private final Map<Long, SlotNode> slots;
+    private final Map<Long, Integer> slotCountsByLot;
+
+    private Topology(long version, Map<Long, LotNode> lots, Map<Long, LevelNode> levels, Map<Long, SlotNode> slots) {
+        this.version = version;
+        this.lots = lots;
+        this.levels = levels;
+        this.slots = slots;
+        Map<Long, Integer> slotCounts = new HashMap<>();
+        slots.values().forEach(slot -> slotCounts.merge(slot.lotId(), 1, Integer::sum));
+        this.slotCountsByLot = slotCounts;
+    }
+
+    static Topology of(long version, Collection<LotNode> lots, Collection<LevelNode> levels, Collection<SlotNode> slots) {
+        Map<Long, LotNode> lotsById = new HashMap<>();
+        Map<Long, LevelNode> levelsById = new HashMap<>();
+        Map<Long, SlotNode> slotsById = new HashMap<>();
+        lots.forEach(lot -> lotsById.put(lot.id(), lot));
+        levels.forEach(level -> levelsById.put(level.id(), level));
+        slots.forEach(slot -> slotsById.put(slot.id(), slot));
+        return new Topology(version, Map.copyOf(lotsById), Map.copyOf(levelsById), Map.copyOf(slotsById));
+    }
+
+    // A missing lot drops it together with everything that was on it.
+    Topology withLot(Long lotId, Optional<LotNode> lot, Collection<LevelNode> levels, Collection<SlotNode> slots) {
+        Map<Long, LotNode> lotsById = new HashMap<>(this.lots);
+        Map<Long, LevelNode> levelsById = new HashMap<>(this.levels);
+        Map<Long, SlotNode> slotsById = new HashMap<>(this.slots);
+        lotsById.remove(lotId);
+        levelsById.values().removeIf(level -> lotId.equals(level.lotId()));
+        slotsById.values().removeIf(slot -> lotId.equals(slot.lotId()));
+
+        lot.ifPresent(present -> {
+            lotsById.put(present.id(), present);
+            levels.forEach(level -> levelsById.put(level.id(), level));
+            slots.forEach(slot -> slotsById.put(slot.id(), slot));
+        });
+        return new Topology(version + 1, Map.copyOf(lotsById), Map.copyOf(levelsById), Map.copyOf(slotsById));
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public Optional<LotNode> lot(Long lotId) {
+        return Optional.ofNullable(lotId != null ? lots.get(lotId) : null);
+    }
+
+    public Set<Long> lotIds() {
+        return lots.keySet();
+    }
+
+    public Optional<LevelNode> level(Long levelId) {
+        return Optional.ofNullable(levelId != null ? levels.get(levelId) : null);
+    }
+
+    public Optional<SlotNode> slot(Long slotId) {
+        return Optional.ofNullable(slotId != null ? slots.get(slotId) : null);
+    }
+
+    public int slotCount() {
+        return slots.size();
+    }
+
+    public int slotCountInLot(Long lotId) {
+        return slotCountsByLot.getOrDefault(lotId, 0);
+    }
+}
@@ -0,0 +1,82 @@
+package com.dev.marchenko.topology;
+
+import com.dev.marchenko.event.TopologyChangedEvent;
+import com.dev.marchenko.repository.LevelRepository;
+import com.dev.marchenko.repository.ParkingLotRepository;
+import com.dev.marchenko.repository.SlotRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The current {@link Topology}, read without locks by anything that needs lot, level or slot details. Loaded on
+ * startup, reloaded for a single lot after every committed {@link TopologyChangedEvent} and reread in full every
+ * {@code parking.topology.refresh-interval} to pick up changes made by other instances. A slot that is not here
+ * yet may still exist, so callers fall back to the database when a lookup comes back empty.
+ */
+@Component
+@RequiredArgsConstructor
+public class TopologySnapshot {
+
+    private final ParkingLotRepository lotRepository;
+    private final LevelRepository levelRepository;
+    private final SlotRepository slotRepository;
+
+    private volatile Topology current = Topology.EMPTY;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${parking.topology.refresh-interval:60s}",
+            initialDelayString = "${parking.topology.refresh-interval:60s}")
+    public synchronized void rebuild() {
+        current = Topology.of(current.version() + 1,
+                lotRepository.findAllNodes(), levelRepository.findAllNodes(), slotRepository.findAllNodes());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTopologyChanged(TopologyChangedEvent event) {
+        if (event.lotId() == null) {
+            rebuild();
+        } else {
+            reloadLot(event.lotId());
+        }
+    }
+
+    public synchronized void reloadLot(Long lotId) {
+        current = current.withLot(lotId, lotRepository.findNodeById(lotId),
+                levelRepository.findNodesByLotId(lotId), slotRepository.findNodesByLotId(lotId));
+    }
+
+    public Topology current() {
+        return current;
+    }
+
+    public long version() {
+        return current.version();
+    }
+
+    public Optional<LotNode> lot(Long lotId) {
+        return current.lot(lotId);
+    }
+
+    public Set<Long> lotIds() {
+        return current.lotIds();
+    }
+
+    public Optional<LevelNode> level(Long levelId) {
+        return current.level(levelId);
+    }
+
+    public Optional<SlotNode> slot(Long slotId) {
+        return current.slot(slotId);
+    }
+
+    public int slotCountInLot(Long lotId) {
+        return current.slotCountInLot(lotId);
+    }
+}
@@ -0,0 +1,97 @@
+package com.dev.marchenko.vehicle;
+
+import com.dev.marchenko.domain.vehicle.VehicleType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded least-recently-used map of license plate to vehicle type. Plates are split over independently locked
+ * segments by hash, each evicting its own least recently used plate once it is full, so concurrent check-ins
+ * rarely wait on each other. Keys are packed by {@link PlateKeys}.
+ */
+final class PlateCache {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final int capacity;
+    private final LongAdder evictions = new LongAdder();
+
+    PlateCache(int capacity) {
+        int segmentCount = Math.max(1, Math.min(MAX_SEGMENTS, capacity / MAX_SEGMENTS));
+        this.segments = new Segment[segmentCount];
+        int perSegment = capacity / segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(Math.max(1, i < capacity % segmentCount ? perSegment + 1 : perSegment));
+        }
+        this.capacity = Math.max(segmentCount, capacity);
+    }
+
+    VehicleType get(String plate) {
+        Object key = PlateKeys.of(plate);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    void put(String plate, VehicleType type) {
+        Object key = PlateKeys.of(plate);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, type);
+        }
+    }
+
+    void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    private Segment segmentFor(Object key) {
+        int hash = key.hashCode();
+        return segments[((hash ^ hash >>> 16) & 0x7FFFFFFF) % segments.length];
+    }
+
+    private final class Segment extends LinkedHashMap<Object, VehicleType> {
+
+        private final int limit;
+
+        Segment(int limit) {
+            super(16, 0.75f, true);
+            this.limit = limit;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, VehicleType> eldest) {
+            if (size() > limit) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.dev.marchenko.vehicle;
+
+/**
+ * Map keys for license plates. Plates of up to ten characters from {@code [0-9A-Za-z-]} are packed six bits
+ * per character into a {@link Long}, which takes a third of the heap of the equivalent {@link String}. Any
+ * other plate is used as is; the two kinds of key never equal each other, and {@link #plate(Object)} turns
+ * either back into the plate.
+ */
+public final class PlateKeys {
+
+    private static final int MAX_PACKED_LENGTH = 10;
+
+    private PlateKeys() {
+    }
+
+    public static Object of(String plate) {
+        if (plate.isEmpty() || plate.length() > MAX_PACKED_LENGTH) {
+            return plate;
+        }
+        long packed = 0;
+        for (int i = 0; i < plate.length(); i++) {
+            int code = code(plate.charAt(i));
+            if (code == 0) {
+                return plate;
+            }
+            packed = packed << 6 | code;
+        }
+        return packed;
+    }
+
+    public static String plate(Object key) {
+        if (!(key instanceof Long packed)) {
+            return (String) key;
+        }
+        char[] chars = new char[MAX_PACKED_LENGTH];
+        int start = chars.length;
+        for (long rest = packed; rest != 0; rest >>>= 6) {
+            chars[--start] = character((int) (rest & 63));
+        }
+        return new String(chars, start, chars.length - start);
+    }
+
+    // Codes start at 1, so a leading character never packs to the same bits as a shorter plate.
+    private static int code(char c) {
+        if (c >= '0' && c <= '9') {
+            return 1 + c - '0';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return 11 + c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return 37 + c - 'a';
+        }
+        return c == '-' ? 63 : 0;
+    }
+
+    private static char character(int code) {
+        if (code <= 10) {
+            return (char) ('0' + code - 1);
+        }
+        if (code <= 36) {
+            return (char) ('A' + code - 11);
+        }
+        return code == 63 ? '-' : (char) ('a' + code - 37);
+    }
+}
@@ -0,0 +1,176 @@
+package com.dev.marchenko.vehicle;
+
+import com.dev.marchenko.allocation.TransactionCallbacks;
+import com.dev.marchenko.domain.vehicle.Vehicle;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.dto.VehicleCacheStatsResponse;
+import com.dev.marchenko.factory.VehicleFactory;
+import com.dev.marchenko.repository.VehicleRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registered vehicle types by license plate, in front of {@link VehicleRepository}. Recently seen plates are
+ * answered from a bounded LRU cache of {@code parking.vehicles.cache-size} plates. Plates that are not cached
+ * are checked against a Bloom filter of every registered plate, sized for {@code parking.vehicles.expected-plates}
+ * at a false positive rate of {@code parking.vehicles.filter-fpp}: a plate the filter has never seen is
+ * registered straight away with an insert-if-absent, without a lookup first. The filter is loaded on startup;
+ * a plate registered elsewhere since then is still found, at the cost of one lookup after the insert.
+ * Types are cached only once the transaction that read or registered them commits. Vehicles are never deleted,
+ * so a cached type stays valid; anything that deletes them directly has to {@link #rebuild()} the registry.
+ */
+@Component
+public class VehicleRegistry {
+
+    private final VehicleRepository vehicleRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+    private final long expectedPlates;
+    private final double falsePositiveRate;
+    private final PlateCache cache;
+
+    private volatile PlateFilter filter;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder filtered = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder registrations = new LongAdder();
+
+    @Autowired
+    public VehicleRegistry(VehicleRepository vehicleRepository,
+                           EntityManager entityManager,
+                           JdbcTemplate jdbcTemplate,
+                           DataSource dataSource,
+                           @Value("${parking.vehicles.cache-size:100000}") int cacheSize,
+                           @Value("${parking.vehicles.expected-plates:1000000}") long expectedPlates,
+                           @Value("${parking.vehicles.filter-fpp:0.01}") double falsePositiveRate) {
+        this(vehicleRepository, entityManager, jdbcTemplate, isPostgres(dataSource), cacheSize, expectedPlates,
+                falsePositiveRate);
+    }
+
+    VehicleRegistry(VehicleRepository vehicleRepository, EntityManager entityManager, JdbcTemplate jdbcTemplate,
+                    boolean postgres, int cacheSize, long expectedPlates, double falsePositiveRate) {
+        this.vehicleRepository = vehicleRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.postgres = postgres;
+        this.expectedPlates = expectedPlates;
+        this.falsePositiveRate = falsePositiveRate;
+        this.cache = new PlateCache(cacheSize);
+        this.filter = new PlateFilter(expectedPlates, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        PlateFilter rebuilt = new PlateFilter(expectedPlates, falsePositiveRate);
+        jdbcTemplate.query("SELECT license_plate FROM vehicles", row -> {
+            rebuilt.add(row.getString(1));
+        });
+        cache.clear();
+        filter = rebuilt;
+    }
+
+    /**
+     * Returns the type the plate is registered with, registering it with the given type when it is new.
+     * Must run inside the caller's transaction, which the registration is part of.
+     */
+    public VehicleType register(String licensePlate, VehicleType type) {
+        Optional<VehicleType> known = lookup(licensePlate);
+        if (known.isPresent()) {
+            return known.get();
+        }
+
+        if (insertIfAbsent(licensePlate, type) == 1) {
+            registrations.increment();
+            filter.add(licensePlate);
+            rememberAfterCommit(licensePlate, type);
+            return type;
+        }
+        // registered by another transaction since the filter was loaded
+        VehicleType registered = load(licensePlate)
+                .orElseThrow(() -> new IllegalStateException("Vehicle " + licensePlate + " is neither new nor registered"));
+        filter.add(licensePlate);
+        return registered;
+    }
+
+    public Optional<VehicleType> find(String licensePlate) {
+        return lookup(licensePlate);
+    }
+
+    // A proxy for the ticket's foreign key. getType() is final on every vehicle class, so reading it does not
+    // load the row either.
+    public Vehicle reference(String licensePlate, VehicleType type) {
+        return entityManager.getReference(VehicleFactory.vehicleClass(type), licensePlate);
+    }
+
+    // For vehicles written without going through register, e.g. by batch check-in or the journal.
+    public void registered(String licensePlate, VehicleType type) {
+        filter.add(licensePlate);
+        rememberAfterCommit(licensePlate, type);
+    }
+
+    public VehicleCacheStatsResponse stats() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum() + filtered.sum();
+        return new VehicleCacheStatsResponse(cache.size(), cache.capacity(), hitCount, misses.sum(), filtered.sum(),
+                falsePositives.sum(), registrations.sum(), cache.evictions(),
+                lookups == 0 ? 0.0 : (double) hitCount / lookups);
+    }
+
+    private Optional<VehicleType> lookup(String licensePlate) {
+        VehicleType cached = cache.get(licensePlate);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        if (!filter.mightContain(licensePlate)) {
+            filtered.increment();
+            return Optional.empty();
+        }
+        misses.increment();
+        Optional<VehicleType> stored = load(licensePlate);
+        if (stored.isEmpty()) {
+            falsePositives.increment();
+        }
+        return stored;
+    }
+
+    private Optional<VehicleType> load(String licensePlate) {
+        Optional<VehicleType> stored = vehicleRepository.findById(licensePlate).map(Vehicle::getType);
+        stored.ifPresent(type -> rememberAfterCommit(licensePlate, type));
+        return stored;
+    }
+
+    private int insertIfAbsent(String licensePlate, VehicleType type) {
+        return postgres
+                ? vehicleRepository.insertIfAbsentOnConflict(licensePlate, type.name())
+                : vehicleRepository.insertIfAbsentMerge(licensePlate, type.name());
+    }
+
+    private void rememberAfterCommit(String licensePlate, VehicleType type) {
+        TransactionCallbacks.afterCommit(() -> cache.put(licensePlate, type));
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (MetaDataAccessException e) {
+            return false;
+        }
+    }
+}
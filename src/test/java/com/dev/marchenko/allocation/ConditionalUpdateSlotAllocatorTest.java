@@ -0,0 +1,98 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.exception.NoAvailableSlotException;
+import com.dev.marchenko.repository.SlotRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ConditionalUpdateSlotAllocatorTest {
+
+    @Mock
+    private SlotRepository slotRepository;
+
+    @Test
+    void allocate_ShouldClaimFirstCandidate() {
+        ConditionalUpdateSlotAllocator allocator = new ConditionalUpdateSlotAllocator(slotRepository, false, 3);
+        ParkingSlot slot = slot(1L, SlotType.COMPACT);
+        when(slotRepository.findCandidateIds(eq(SlotType.COMPACT), any())).thenReturn(List.of(1L, 2L));
+        when(slotRepository.claim(1L)).thenReturn(1);
+        when(slotRepository.findById(1L)).thenReturn(Optional.of(slot));
+
+        ParkingSlot result = allocator.allocate(null, VehicleType.CAR, false);
+
+        assertEquals(slot, result);
+        assertFalse(result.isAvailable());
+        verify(slotRepository, never()).claim(2L);
+    }
+
+    @Test
+    void allocate_ShouldRetryWhenClaimIsLost() {
+        ConditionalUpdateSlotAllocator allocator = new ConditionalUpdateSlotAllocator(slotRepository, false, 3);
+        ParkingSlot slot = slot(3L, SlotType.COMPACT);
+        when(slotRepository.findCandidateIds(eq(SlotType.COMPACT), any()))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(slotRepository.claim(anyLong())).thenReturn(0);
+        when(slotRepository.claim(3L)).thenReturn(1);
+        when(slotRepository.findById(3L)).thenReturn(Optional.of(slot));
+
+        assertEquals(slot, allocator.allocate(null, VehicleType.CAR, false));
+        verify(slotRepository, times(2)).findCandidateIds(eq(SlotType.COMPACT), any());
+    }
+
+    @Test
+    void allocate_ShouldGiveUpOnTypeAfterMaxAttempts() {
+        ConditionalUpdateSlotAllocator allocator = new ConditionalUpdateSlotAllocator(slotRepository, false, 2);
+        when(slotRepository.findCandidateIds(eq(SlotType.LARGE), any())).thenReturn(List.of(1L));
+        when(slotRepository.claim(1L)).thenReturn(0);
+
+        assertThrows(NoAvailableSlotException.class, () -> allocator.allocate(null, VehicleType.TRUCK, false));
+        verify(slotRepository, times(2)).claim(1L);
+    }
+
+    @Test
+    void allocate_ShouldUseSkipLockedQueryOnPostgres() {
+        ConditionalUpdateSlotAllocator allocator = new ConditionalUpdateSlotAllocator(slotRepository, true, 3);
+        ParkingSlot slot = slot(7L, SlotType.HANDICAPPED);
+        when(slotRepository.findCandidateIdSkipLocked("HANDICAPPED")).thenReturn(List.of(7L));
+        when(slotRepository.claim(7L)).thenReturn(1);
+        when(slotRepository.findById(7L)).thenReturn(Optional.of(slot));
+
+        assertEquals(slot, allocator.allocate(null, VehicleType.CAR, true));
+        verify(slotRepository, never()).findCandidateIds(any(), any());
+    }
+
+    @Test
+    void allocate_ShouldOnlySearchRequestedLot() {
+        ConditionalUpdateSlotAllocator allocator = new ConditionalUpdateSlotAllocator(slotRepository, false, 3);
+        ParkingSlot slot = slot(5L, SlotType.LARGE);
+        when(slotRepository.findCandidateIdsInLot(eq(2L), eq(SlotType.LARGE), any())).thenReturn(List.of(5L));
+        when(slotRepository.claim(5L)).thenReturn(1);
+        when(slotRepository.findById(5L)).thenReturn(Optional.of(slot));
+
+        assertEquals(slot, allocator.allocate(2L, VehicleType.TRUCK, false));
+        verify(slotRepository, never()).findCandidateIds(any(), any());
+    }
+
+    private ParkingSlot slot(Long id, SlotType type) {
+        ParkingSlot slot = new ParkingSlot();
+        slot.setId(id);
+        slot.setType(type);
+        slot.setAvailable(true);
+        return slot;
+    }
+}
@@ -0,0 +1,106 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.event.SlotAvailabilityChangedEvent;
+import com.dev.marchenko.event.SlotRemovedEvent;
+import com.dev.marchenko.repository.SlotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class FreeSlotCountersTest {
+
+    private static final SlotSnapshot LOT1_COMPACT = new SlotSnapshot(1L, 1L, 10L, 1, SlotType.COMPACT);
+    private static final SlotSnapshot LOT1_LARGE = new SlotSnapshot(2L, 1L, 11L, 2, SlotType.LARGE);
+    private static final SlotSnapshot LOT2_COMPACT = new SlotSnapshot(3L, 2L, 20L, 1, SlotType.COMPACT);
+
+    @Mock
+    private SlotRepository slotRepository;
+
+    @InjectMocks
+    private FreeSlotCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        when(slotRepository.findAllAvailableSnapshots()).thenReturn(List.of(LOT1_COMPACT, LOT1_LARGE, LOT2_COMPACT));
+        counters.rebuild();
+    }
+
+    @Test
+    void rebuild_ShouldCountPerTypeLotAndLevel() {
+        assertEquals(2, counters.freeSlots(SlotType.COMPACT));
+        assertEquals(1, counters.freeSlotsInLot(1L, SlotType.COMPACT));
+        assertEquals(1, counters.freeSlotsOnLevel(11L, SlotType.LARGE));
+        assertEquals(0, counters.freeSlotsInLot(2L, SlotType.LARGE));
+    }
+
+    @Test
+    void levels_ShouldIncludeFullLevels() {
+        SlotSnapshot takenLarge = new SlotSnapshot(4L, 2L, 21L, 2, SlotType.LARGE);
+        when(slotRepository.findAllSnapshots()).thenReturn(List.of(LOT1_COMPACT, LOT1_LARGE, LOT2_COMPACT, takenLarge));
+        counters.rebuild();
+
+        List<LevelCapacity> levels = counters.levels();
+
+        assertEquals(List.of(10L, 11L, 20L, 21L), levels.stream().map(LevelCapacity::levelId).toList());
+        assertEquals(0, levels.get(3).freeSlots().get(SlotType.LARGE));
+        assertEquals(2L, levels.get(3).lotId());
+    }
+
+    @Test
+    void getVersion_ShouldChangeWithEveryUpdate() {
+        long version = counters.getVersion();
+
+        counters.markTaken(LOT1_COMPACT.id());
+
+        assertTrue(counters.getVersion() > version);
+    }
+
+    @Test
+    void onAvailabilityChanged_ShouldIgnoreRepeatedEvents() {
+        counters.onAvailabilityChanged(new SlotAvailabilityChangedEvent(LOT1_COMPACT, false));
+        counters.onAvailabilityChanged(new SlotAvailabilityChangedEvent(LOT1_COMPACT, false));
+
+        assertEquals(0, counters.freeSlotsInLot(1L, SlotType.COMPACT));
+
+        counters.onAvailabilityChanged(new SlotAvailabilityChangedEvent(LOT1_COMPACT, true));
+        counters.onAvailabilityChanged(new SlotAvailabilityChangedEvent(LOT1_COMPACT, true));
+
+        assertEquals(1, counters.freeSlotsInLot(1L, SlotType.COMPACT));
+        assertEquals(2, counters.freeSlots(SlotType.COMPACT));
+    }
+
+    @Test
+    void hasCapacity_ShouldOnlyConsiderRequestedLot() {
+        counters.onSlotRemoved(new SlotRemovedEvent(2L));
+
+        assertFalse(counters.hasCapacity(2L, List.of(SlotType.LARGE)));
+        assertFalse(counters.hasCapacity(1L, List.of(SlotType.LARGE)));
+        assertTrue(counters.hasCapacity(1L, List.of(SlotType.LARGE, SlotType.COMPACT)));
+        assertTrue(counters.hasCapacity(null, List.of(SlotType.COMPACT)));
+        assertFalse(counters.hasCapacity(99L, List.of(SlotType.COMPACT)));
+    }
+
+    @Test
+    void rebuild_ShouldKeepChangesMadeWhileReading() {
+        when(slotRepository.findAllAvailableSnapshots()).thenAnswer(invocation -> {
+            counters.markTaken(LOT2_COMPACT.id());
+            return List.of(LOT1_COMPACT, LOT2_COMPACT);
+        });
+
+        counters.rebuild();
+
+        assertEquals(0, counters.freeSlotsInLot(2L, SlotType.COMPACT));
+        assertEquals(1, counters.freeSlots(SlotType.COMPACT));
+    }
+}
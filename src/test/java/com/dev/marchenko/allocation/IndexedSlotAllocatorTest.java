@@ -0,0 +1,95 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.exception.NoAvailableSlotException;
+import com.dev.marchenko.repository.SlotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IndexedSlotAllocatorTest {
+
+    @Mock
+    private SlotRepository slotRepository;
+
+    private SlotAvailabilityIndex index;
+    private IndexedSlotAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        index = new SlotAvailabilityIndex(slotRepository, "sync");
+        allocator = new IndexedSlotAllocator(index, slotRepository);
+        lenient().when(slotRepository.saveAndFlush(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void allocate_ShouldConfirmIndexedSlotInDatabase() {
+        index.add(new SlotSnapshot(1L, 1L, 10L, 1, SlotType.COMPACT));
+        ParkingSlot slot = availableSlot(1L, SlotType.COMPACT);
+        when(slotRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(slot));
+
+        ParkingSlot result = allocator.allocate(null, VehicleType.CAR, false);
+
+        assertEquals(slot, result);
+        assertFalse(slot.isAvailable());
+        assertFalse(index.contains(1L));
+        verify(slotRepository, never()).findFirstAvailable(any(), any());
+    }
+
+    @Test
+    void allocate_ShouldSkipStaleEntries() {
+        index.add(new SlotSnapshot(1L, 1L, 10L, 1, SlotType.COMPACT));
+        index.add(new SlotSnapshot(2L, 1L, 10L, 2, SlotType.COMPACT));
+        ParkingSlot occupied = availableSlot(1L, SlotType.COMPACT);
+        occupied.setAvailable(false);
+        ParkingSlot free = availableSlot(2L, SlotType.COMPACT);
+        when(slotRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(occupied));
+        when(slotRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(free));
+
+        assertEquals(free, allocator.allocate(null, VehicleType.CAR, false));
+    }
+
+    @Test
+    void allocate_ShouldPreferHandicappedSlotForHandicappedDriver() {
+        index.add(new SlotSnapshot(1L, 1L, 10L, 1, SlotType.COMPACT));
+        index.add(new SlotSnapshot(2L, 1L, 10L, 3, SlotType.HANDICAPPED));
+        ParkingSlot handiSlot = availableSlot(2L, SlotType.HANDICAPPED);
+        when(slotRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(handiSlot));
+
+        assertEquals(handiSlot, allocator.allocate(null, VehicleType.CAR, true));
+        assertTrue(index.contains(1L));
+    }
+
+    @Test
+    void allocate_ShouldRejectWithoutDatabaseAccessWhenIndexIsEmpty() {
+        index.add(new SlotSnapshot(1L, 1L, 10L, 1, SlotType.HANDICAPPED));
+
+        assertThrows(NoAvailableSlotException.class, () -> allocator.allocate(null, VehicleType.TRUCK, false));
+        verify(slotRepository, never()).findByIdForUpdate(anyLong());
+        assertEquals(List.of(1L), index.freeSlots(null, SlotType.HANDICAPPED).stream().map(SlotSnapshot::id).toList());
+    }
+
+    private ParkingSlot availableSlot(Long id, SlotType type) {
+        ParkingSlot slot = new ParkingSlot();
+        slot.setId(id);
+        slot.setType(type);
+        slot.setSlotNumber("S" + id);
+        slot.setAvailable(true);
+        return slot;
+    }
+}
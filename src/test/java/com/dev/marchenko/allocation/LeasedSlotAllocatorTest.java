@@ -0,0 +1,133 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.lot.Level;
+import com.dev.marchenko.domain.lot.ParkingLot;
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.exception.NoAvailableSlotException;
+import com.dev.marchenko.repository.SlotRepository;
+import com.dev.marchenko.topology.TopologySnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LeasedSlotAllocatorTest {
+
+    @Mock
+    private SlotRepository slotRepository;
+    @Mock
+    private TopologySnapshot topology;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SlotLeasePool pool;
+    private LeasedSlotAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        pool = new SlotLeasePool(slotRepository, topology, transactionManager, "gate-1", 4, -1, Duration.ofSeconds(30));
+        allocator = new LeasedSlotAllocator(pool, slotRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.releaseAll();
+    }
+
+    @Test
+    void allocate_ShouldClaimSlotFromLocalPoolWithoutLocking() {
+        pool.add(new SlotSnapshot(4L, 1L, 10L, 1, SlotType.COMPACT));
+        ParkingSlot slot = new ParkingSlot();
+        slot.setId(4L);
+        slot.setLeasedBy("gate-1");
+        when(slotRepository.claimLeased(4L, "gate-1")).thenReturn(1);
+        when(slotRepository.findById(4L)).thenReturn(Optional.of(slot));
+
+        ParkingSlot result = allocator.allocate(null, VehicleType.CAR, false);
+
+        assertEquals(slot, result);
+        assertFalse(result.isAvailable());
+        assertNull(result.getLeasedBy());
+        verify(slotRepository, never()).findByIdForUpdate(anyLong());
+        verify(slotRepository, never()).findLeasableIds(any(), any(), any());
+    }
+
+    @Test
+    void allocate_ShouldLeaseSynchronouslyWhenLocalPoolIsEmpty() {
+        List<Long> candidates = List.of(7L);
+        when(slotRepository.findLeasableIds(eq(SlotType.LARGE), any(), any())).thenReturn(candidates);
+        ParkingSlot leasable = leasableSlot(7L);
+        when(slotRepository.findLeasableForUpdate(eq(candidates), any())).thenReturn(List.of(leasable));
+        when(slotRepository.claimLeased(7L, "gate-1")).thenReturn(1);
+        when(slotRepository.findById(7L)).thenReturn(Optional.of(new ParkingSlot()));
+
+        assertNotNull(allocator.allocate(null, VehicleType.TRUCK, false));
+        verify(slotRepository).lease(eq(candidates), eq("gate-1"), any(), any());
+    }
+
+    @Test
+    void allocate_ShouldTakeSlotsOfARefillThatFinishedFirst() throws Exception {
+        CountDownLatch leasing = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        ParkingSlot leasable = leasableSlot(7L);
+        when(slotRepository.findLeasableIds(eq(SlotType.LARGE), any(), any())).thenAnswer(invocation -> {
+            leasing.countDown();
+            proceed.await();
+            return List.of(7L);
+        }).thenReturn(List.of());
+        when(slotRepository.findLeasableForUpdate(eq(List.of(7L)), any())).thenReturn(List.of(leasable));
+        when(slotRepository.claimLeased(7L, "gate-1")).thenReturn(1);
+        when(slotRepository.findById(7L)).thenReturn(Optional.of(leasable));
+
+        Thread refill = new Thread(() -> pool.refill(null, SlotType.LARGE));
+        refill.start();
+        leasing.await();
+        CompletableFuture<ParkingSlot> allocated = CompletableFuture.supplyAsync(
+                () -> allocator.allocate(null, VehicleType.TRUCK, false));
+        proceed.countDown();
+
+        assertEquals(leasable, allocated.get(5, TimeUnit.SECONDS));
+        refill.join();
+    }
+
+    @Test
+    void allocate_ShouldSkipLeasesLostToAnotherNode() {
+        pool.add(new SlotSnapshot(4L, 1L, 10L, 1, SlotType.LARGE));
+        when(slotRepository.claimLeased(4L, "gate-1")).thenReturn(0);
+
+        assertThrows(NoAvailableSlotException.class, () -> allocator.allocate(null, VehicleType.TRUCK, false));
+        assertTrue(pool.leasedSlots(null, SlotType.LARGE).isEmpty());
+    }
+
+    private static ParkingSlot leasableSlot(Long id) {
+        ParkingLot lot = new ParkingLot();
+        lot.setId(1L);
+        Level level = new Level();
+        level.setId(10L);
+        level.setFloorNumber(1);
+        level.setParkingLot(lot);
+        ParkingSlot slot = new ParkingSlot("L-" + id, SlotType.LARGE, level);
+        slot.setId(id);
+        return slot;
+    }
+}
@@ -0,0 +1,98 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.lot.Level;
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.exception.NoAvailableSlotException;
+import com.dev.marchenko.repository.SlotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LockingSlotAllocatorTest {
+
+    @Mock
+    private SlotRepository slotRepository;
+
+    @InjectMocks
+    private LockingSlotAllocator allocator;
+
+    private Level mockLevel;
+
+    @BeforeEach
+    void setUp() {
+        mockLevel = new Level();
+        mockLevel.setFloorNumber(1);
+        lenient().when(slotRepository.saveAndFlush(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void allocate_PrioritySelection() {
+        ParkingSlot compactSlot = createMockSlot("C1", SlotType.COMPACT);
+        when(slotRepository.findFirstAvailable(null, List.of(SlotType.MOTORCYCLE, SlotType.COMPACT, SlotType.LARGE)))
+                .thenReturn(Optional.of(compactSlot));
+
+        ParkingSlot result = allocator.allocate(null, VehicleType.MOTORCYCLE, false);
+
+        assertEquals(compactSlot, result);
+        assertFalse(compactSlot.isAvailable());
+        verify(slotRepository, times(1)).findFirstAvailable(any(), any());
+        verify(slotRepository).saveAndFlush(compactSlot);
+    }
+
+    @Test
+    void allocate_Handicapped_Priority_Success() {
+        ParkingSlot handiSlot = createMockSlot("H1", SlotType.HANDICAPPED);
+        when(slotRepository.findFirstAvailable(null, List.of(SlotType.HANDICAPPED, SlotType.COMPACT, SlotType.LARGE)))
+                .thenReturn(Optional.of(handiSlot));
+
+        ParkingSlot result = allocator.allocate(null, VehicleType.CAR, true);
+
+        assertEquals("H1", result.getSlotNumber());
+        verify(slotRepository, times(1)).findFirstAvailable(any(), any());
+    }
+
+    @Test
+    void allocate_Handicapped_Fallback_To_RegularSlot() {
+        ParkingSlot regularSlot = createMockSlot("C1", SlotType.COMPACT);
+        when(slotRepository.findFirstAvailable(null, List.of(SlotType.HANDICAPPED, SlotType.COMPACT, SlotType.LARGE)))
+                .thenReturn(Optional.of(regularSlot));
+
+        ParkingSlot result = allocator.allocate(null, VehicleType.CAR, true);
+
+        assertEquals("C1", result.getSlotNumber());
+        assertFalse(regularSlot.isAvailable());
+    }
+
+    @Test
+    void allocate_RegularVehicle_Cannot_Occupy_HandicappedSlot() {
+        when(slotRepository.findFirstAvailable(null, List.of(SlotType.COMPACT, SlotType.LARGE)))
+                .thenReturn(Optional.empty());
+
+        assertThrows(NoAvailableSlotException.class, () -> allocator.allocate(null, VehicleType.CAR, false));
+        verify(slotRepository, times(1)).findFirstAvailable(any(), any());
+        verify(slotRepository, never()).saveAndFlush(any());
+    }
+
+    private ParkingSlot createMockSlot(String number, SlotType type) {
+        ParkingSlot slot = new ParkingSlot();
+        slot.setSlotNumber(number);
+        slot.setType(type);
+        slot.setAvailable(true);
+        slot.setLevel(mockLevel);
+        return slot;
+    }
+}
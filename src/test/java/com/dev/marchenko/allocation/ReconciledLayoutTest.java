@@ -0,0 +1,57 @@
+package com.dev.marchenko.allocation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReconciledLayoutTest {
+
+    @Test
+    void rebuild_ShouldReplayChangesMadeWhileLoading() {
+        ReconciledLayout<List<String>> layout = new ReconciledLayout<>(new ArrayList<>(List.of("old")));
+
+        layout.rebuild(() -> {
+            layout.apply(current -> current.add("during"));
+            return new ArrayList<>(List.of("loaded"));
+        });
+
+        assertEquals(List.of("loaded", "during"), layout.current());
+    }
+
+    @Test
+    void rebuild_ShouldReplayRecordedOutcomeOfUpdate() {
+        ReconciledLayout<List<String>> layout = new ReconciledLayout<>(new ArrayList<>(List.of("a", "b")));
+
+        layout.rebuild(() -> {
+            String taken = layout.update(current -> {
+                String first = current.remove(0);
+                layout.record(rebuilt -> rebuilt.remove(first));
+                return first;
+            });
+            assertEquals("a", taken);
+            return new ArrayList<>(List.of("a", "b", "c"));
+        });
+
+        assertEquals(List.of("b", "c"), layout.current());
+    }
+
+    @Test
+    void rebuild_ShouldKeepCurrentLayoutAndStopRecordingWhenLoadFails() {
+        List<String> initial = new ArrayList<>(List.of("old"));
+        ReconciledLayout<List<String>> layout = new ReconciledLayout<>(initial);
+
+        assertThrows(IllegalStateException.class, () -> layout.rebuild(() -> {
+            throw new IllegalStateException("database down");
+        }));
+        layout.apply(current -> current.add("after"));
+        assertSame(initial, layout.current());
+        assertEquals(List.of("old", "after"), initial);
+
+        // The change made after the failed load must not be replayed onto the next rebuild.
+        layout.rebuild(() -> new ArrayList<>(List.of("loaded")));
+        assertEquals(List.of("loaded"), layout.current());
+    }
+}
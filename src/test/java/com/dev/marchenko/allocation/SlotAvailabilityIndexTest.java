@@ -0,0 +1,126 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.event.SlotAvailabilityChangedEvent;
+import com.dev.marchenko.event.SlotRemovedEvent;
+import com.dev.marchenko.repository.SlotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SlotAvailabilityIndexTest {
+
+    @Mock
+    private SlotRepository slotRepository;
+
+    private SlotAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SlotAvailabilityIndex(slotRepository, "sync");
+        when(slotRepository.findAllAvailableSnapshots()).thenReturn(List.of(
+                new SlotSnapshot(3L, 1L, 20L, 2, SlotType.COMPACT),
+                new SlotSnapshot(2L, 1L, 10L, 1, SlotType.COMPACT),
+                new SlotSnapshot(1L, 1L, 10L, 1, SlotType.LARGE)
+        ));
+        index.rebuild();
+    }
+
+    @Test
+    void poll_ShouldReturnLowestFloorFirst() {
+        assertEquals(2L, index.poll(null, SlotType.COMPACT).orElseThrow().id());
+        assertEquals(3L, index.poll(null, SlotType.COMPACT).orElseThrow().id());
+        assertTrue(index.poll(null, SlotType.COMPACT).isEmpty());
+        assertFalse(index.contains(2L));
+    }
+
+    @Test
+    void onAvailabilityChanged_ShouldTrackOccupiedAndReleasedSlots() {
+        SlotSnapshot slot = new SlotSnapshot(1L, 1L, 10L, 1, SlotType.LARGE);
+
+        index.onAvailabilityChanged(new SlotAvailabilityChangedEvent(slot, false));
+        assertTrue(index.poll(null, SlotType.LARGE).isEmpty());
+
+        index.onAvailabilityChanged(new SlotAvailabilityChangedEvent(slot, true));
+        assertEquals(1L, index.poll(null, SlotType.LARGE).orElseThrow().id());
+    }
+
+    @Test
+    void add_ShouldReplaceEntryWhenSlotTypeChanges() {
+        index.add(new SlotSnapshot(1L, 1L, 10L, 1, SlotType.MOTORCYCLE));
+
+        assertTrue(index.freeSlots(null, SlotType.LARGE).isEmpty());
+        assertEquals(1, index.freeSlots(null, SlotType.MOTORCYCLE).size());
+    }
+
+    @Test
+    void onSlotRemoved_ShouldDropSlot() {
+        index.onSlotRemoved(new SlotRemovedEvent(3L));
+
+        assertEquals(List.of(2L), index.freeSlots(null, SlotType.COMPACT).stream().map(SlotSnapshot::id).toList());
+    }
+
+    @Test
+    void poll_ShouldOnlyServeRequestedLot() {
+        index.add(new SlotSnapshot(9L, 2L, 30L, 1, SlotType.LARGE));
+
+        assertEquals(9L, index.poll(2L, SlotType.LARGE).orElseThrow().id());
+        assertTrue(index.poll(2L, SlotType.LARGE).isEmpty());
+        assertTrue(index.poll(3L, SlotType.LARGE).isEmpty());
+        assertEquals(1L, index.poll(1L, SlotType.LARGE).orElseThrow().id());
+    }
+
+    @Test
+    void poll_WithoutLot_ShouldFillLotsInIdOrder() {
+        index.add(new SlotSnapshot(9L, 0L, 30L, 5, SlotType.LARGE));
+
+        assertEquals(9L, index.poll(null, SlotType.LARGE).orElseThrow().id());
+        assertEquals(1L, index.poll(null, SlotType.LARGE).orElseThrow().id());
+    }
+
+    @Test
+    void rebuild_ShouldKeepChangesMadeWhileReading() {
+        when(slotRepository.findAllAvailableSnapshots()).thenAnswer(invocation -> {
+            index.poll(null, SlotType.COMPACT);
+            index.add(new SlotSnapshot(4L, 1L, 10L, 1, SlotType.LARGE));
+            return List.of(
+                    new SlotSnapshot(2L, 1L, 10L, 1, SlotType.COMPACT),
+                    new SlotSnapshot(1L, 1L, 10L, 1, SlotType.LARGE));
+        });
+
+        index.rebuild();
+
+        assertFalse(index.contains(2L));
+        assertEquals(List.of(1L, 4L), index.freeSlots(null, SlotType.LARGE).stream().map(SlotSnapshot::id).toList());
+    }
+
+    @Test
+    void reconcile_ShouldDropSlotsTakenElsewhere() {
+        when(slotRepository.findAllAvailableSnapshots()).thenReturn(List.of(
+                new SlotSnapshot(3L, 1L, 20L, 2, SlotType.COMPACT)));
+
+        index.reconcile();
+
+        assertEquals(List.of(3L), index.freeSlots(null, SlotType.COMPACT).stream().map(SlotSnapshot::id).toList());
+    }
+
+    @Test
+    void reconcile_ShouldNotRereadDatabaseInJournalMode() {
+        SlotAvailabilityIndex journaled = new SlotAvailabilityIndex(slotRepository, "journal");
+        journaled.rebuild();
+        clearInvocations(slotRepository);
+
+        journaled.reconcile();
+
+        verifyNoMoreInteractions(slotRepository);
+    }
+}
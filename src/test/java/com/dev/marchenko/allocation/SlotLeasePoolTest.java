@@ -0,0 +1,164 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.lot.Level;
+import com.dev.marchenko.domain.lot.ParkingLot;
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.event.SlotAvailabilityChangedEvent;
+import com.dev.marchenko.repository.SlotRepository;
+import com.dev.marchenko.topology.TopologySnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SlotLeasePoolTest {
+
+    @Mock
+    private SlotRepository slotRepository;
+    @Mock
+    private TopologySnapshot topology;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SlotLeasePool pool;
+
+    @AfterEach
+    void tearDown() {
+        pool.releaseAll();
+    }
+
+    @Test
+    void refill_ShouldPoolOnlyTheSlotsItLockedAndLeased() {
+        pool = new SlotLeasePool(slotRepository, topology, transactionManager, "gate-1", 4, -1, Duration.ofSeconds(30));
+        List<Long> candidates = List.of(1L, 2L, 3L, 4L);
+        when(slotRepository.findLeasableIds(eq(SlotType.COMPACT), any(), eq(PageRequest.of(0, 4)))).thenReturn(candidates);
+        when(slotRepository.findLeasableForUpdate(eq(candidates), any())).thenReturn(List.of(slot(3L, 2), slot(1L, 1)));
+
+        assertEquals(2, pool.refill(null, SlotType.COMPACT));
+        verify(slotRepository).lease(eq(List.of(3L, 1L)), eq("gate-1"), any(), any());
+        assertEquals(1L, pool.poll(null, SlotType.COMPACT).orElseThrow().id());
+        assertEquals(3L, pool.poll(null, SlotType.COMPACT).orElseThrow().id());
+        assertTrue(pool.poll(null, SlotType.COMPACT).isEmpty());
+    }
+
+    @Test
+    void refill_ShouldLeaseInItsOwnTransaction() {
+        pool = new SlotLeasePool(slotRepository, topology, transactionManager, "gate-1", 4, -1, Duration.ofSeconds(30));
+        when(slotRepository.findLeasableIdsInLot(eq(1L), eq(SlotType.COMPACT), any(), any())).thenReturn(List.of(1L));
+        when(slotRepository.findLeasableForUpdate(eq(List.of(1L)), any())).thenReturn(List.of(slot(1L, 1)));
+
+        pool.refill(1L, SlotType.COMPACT);
+
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void refill_ShouldNotPoolSlotsAnotherRefillLeasedFirst() {
+        pool = new SlotLeasePool(slotRepository, topology, transactionManager, "gate-1", 4, -1, Duration.ofSeconds(30));
+        when(slotRepository.findLeasableIds(eq(SlotType.COMPACT), any(), any())).thenReturn(List.of(1L, 2L));
+        when(slotRepository.findLeasableForUpdate(eq(List.of(1L, 2L)), any())).thenReturn(List.of());
+
+        assertEquals(0, pool.refill(null, SlotType.COMPACT));
+        verify(slotRepository, never()).lease(any(), any(), any(), any());
+        assertTrue(pool.leasedSlots(null, SlotType.COMPACT).isEmpty());
+    }
+
+    @Test
+    void refill_ShouldNotLeaseBeyondBlockSize() {
+        pool = new SlotLeasePool(slotRepository, topology, transactionManager, "gate-1", 1, -1, Duration.ofSeconds(30));
+        pool.add(new SlotSnapshot(1L, 1L, 10L, 1, SlotType.LARGE));
+
+        assertEquals(0, pool.refill(null, SlotType.LARGE));
+        verifyNoInteractions(slotRepository);
+    }
+
+    @Test
+    void poll_ShouldRefillInBackgroundAtLowWatermark() {
+        pool = new SlotLeasePool(slotRepository, topology, transactionManager, "gate-1", 4, 1, Duration.ofSeconds(30));
+        pool.add(new SlotSnapshot(1L, 1L, 10L, 1, SlotType.COMPACT));
+        pool.add(new SlotSnapshot(2L, 1L, 10L, 1, SlotType.COMPACT));
+
+        pool.poll(1L, SlotType.COMPACT);
+
+        verify(slotRepository, timeout(1000))
+                .findLeasableIdsInLot(eq(1L), eq(SlotType.COMPACT), any(), eq(PageRequest.of(0, 3)));
+    }
+
+    @Test
+    void refresh_ShouldRenewOnlyPooledLeases() {
+        pool = new SlotLeasePool(slotRepository, topology, transactionManager, "gate-1", 1, -1, Duration.ofSeconds(30));
+        pool.add(new SlotSnapshot(5L, 1L, 10L, 1, SlotType.MOTORCYCLE));
+
+        pool.refresh();
+
+        verify(slotRepository).renewLeases(eq(List.of(5L)), eq("gate-1"), any());
+    }
+
+    @Test
+    void refresh_ShouldTopUpEveryLotOfTheTopology() {
+        pool = new SlotLeasePool(slotRepository, topology, transactionManager, "gate-1", 2, 0, Duration.ofSeconds(30));
+        when(topology.lotIds()).thenReturn(Set.of(1L, 2L));
+
+        pool.refresh();
+
+        for (SlotType type : SlotType.values()) {
+            verify(slotRepository).findLeasableIdsInLot(eq(1L), eq(type), any(), eq(PageRequest.of(0, 2)));
+            verify(slotRepository).findLeasableIdsInLot(eq(2L), eq(type), any(), eq(PageRequest.of(0, 2)));
+        }
+        verify(slotRepository, never()).findLeasableIds(any(), any(), any());
+    }
+
+    @Test
+    void onAvailabilityChanged_ShouldDropSlotsTakenOutOfService() {
+        pool = new SlotLeasePool(slotRepository, topology, transactionManager, "gate-1", 4, -1, Duration.ofSeconds(30));
+        SlotSnapshot slot = new SlotSnapshot(1L, 1L, 10L, 1, SlotType.COMPACT);
+        pool.add(slot);
+
+        pool.onAvailabilityChanged(new SlotAvailabilityChangedEvent(slot, false));
+
+        assertTrue(pool.leasedSlots(null, SlotType.COMPACT).isEmpty());
+    }
+
+    @Test
+    void releaseAll_ShouldHandLeasesBackToSharedPool() {
+        pool = new SlotLeasePool(slotRepository, topology, transactionManager, "", 4, -1, Duration.ofSeconds(30));
+        pool.add(new SlotSnapshot(1L, 1L, 10L, 1, SlotType.COMPACT));
+
+        pool.releaseAll();
+
+        assertTrue(pool.leasedSlots(null, SlotType.COMPACT).isEmpty());
+        assertFalse(pool.getNodeId().isBlank());
+        verify(slotRepository).releaseLeases(pool.getNodeId());
+    }
+
+    private static ParkingSlot slot(Long id, int floorNumber) {
+        ParkingLot lot = new ParkingLot();
+        lot.setId(1L);
+        Level level = new Level();
+        level.setId(10L * floorNumber);
+        level.setFloorNumber(floorNumber);
+        level.setParkingLot(lot);
+        ParkingSlot slot = new ParkingSlot("S-" + id, SlotType.COMPACT, level);
+        slot.setId(id);
+        return slot;
+    }
+}
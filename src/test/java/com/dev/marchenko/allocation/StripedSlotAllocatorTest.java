@@ -0,0 +1,78 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.exception.NoAvailableSlotException;
+import com.dev.marchenko.repository.SlotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StripedSlotAllocatorTest {
+
+    @Mock
+    private SlotRepository slotRepository;
+
+    private StripedSlotIndex index;
+    private StripedSlotAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        index = new StripedSlotIndex(slotRepository, 2);
+        allocator = new StripedSlotAllocator(index, slotRepository);
+    }
+
+    @Test
+    void allocate_ShouldClaimSlotWithConditionalUpdate() {
+        index.add(new SlotSnapshot(4L, 1L, 10L, 1, SlotType.COMPACT));
+        ParkingSlot slot = new ParkingSlot();
+        slot.setId(4L);
+        slot.setAvailable(true);
+        when(slotRepository.claim(4L)).thenReturn(1);
+        when(slotRepository.findById(4L)).thenReturn(Optional.of(slot));
+
+        ParkingSlot result = allocator.allocate(null, VehicleType.CAR, false);
+
+        assertEquals(slot, result);
+        assertFalse(result.isAvailable());
+        verify(slotRepository, never()).findByIdForUpdate(anyLong());
+    }
+
+    @Test
+    void allocate_ShouldSkipSlotsClaimedElsewhere() {
+        index.add(new SlotSnapshot(4L, 1L, 10L, 1, SlotType.LARGE));
+        when(slotRepository.claim(4L)).thenReturn(0);
+
+        assertThrows(NoAvailableSlotException.class, () -> allocator.allocate(null, VehicleType.TRUCK, false));
+        assertFalse(index.contains(4L));
+    }
+
+    @Test
+    void allocate_ShouldClaimSlotReleasedOutsideIndex() {
+        ParkingSlot slot = new ParkingSlot();
+        slot.setId(6L);
+        slot.setAvailable(true);
+        when(slotRepository.findCandidateIds(eq(SlotType.COMPACT), any())).thenReturn(List.of(6L));
+        when(slotRepository.claim(6L)).thenReturn(1);
+        when(slotRepository.findById(6L)).thenReturn(Optional.of(slot));
+
+        ParkingSlot result = allocator.allocate(null, VehicleType.CAR, false);
+
+        assertEquals(6L, result.getId());
+        assertFalse(result.isAvailable());
+    }
+}
@@ -0,0 +1,105 @@
+package com.dev.marchenko.allocation;
+
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.repository.SlotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StripedSlotIndexTest {
+
+    @Mock
+    private SlotRepository slotRepository;
+
+    private StripedSlotIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StripedSlotIndex(slotRepository, 4);
+    }
+
+    @Test
+    void poll_ShouldAlwaysServeLowestFloorFirst() {
+        when(slotRepository.findAllAvailableSnapshots()).thenReturn(List.of(
+                new SlotSnapshot(1L, 1L, 20L, 2, SlotType.COMPACT),
+                new SlotSnapshot(2L, 1L, 20L, 2, SlotType.COMPACT),
+                new SlotSnapshot(7L, 1L, 10L, 1, SlotType.COMPACT)
+        ));
+        index.rebuild();
+
+        for (int home = 0; home < 4; home++) {
+            index.add(new SlotSnapshot(7L, 1L, 10L, 1, SlotType.COMPACT));
+            assertEquals(7L, index.poll(null, SlotType.COMPACT, home).orElseThrow().id());
+        }
+    }
+
+    @Test
+    void poll_ShouldStartAtHomeStripe() {
+        for (long id = 0; id < 8; id++) {
+            index.add(new SlotSnapshot(id, 1L, 10L, 1, SlotType.LARGE));
+        }
+
+        assertEquals(2L, index.poll(null, SlotType.LARGE, 2).orElseThrow().id());
+        assertEquals(3L, index.poll(null, SlotType.LARGE, 3).orElseThrow().id());
+        assertEquals(6L, index.poll(null, SlotType.LARGE, 2).orElseThrow().id());
+    }
+
+    @Test
+    void poll_ShouldFallBackToNeighbouringStripes() {
+        index.add(new SlotSnapshot(1L, 1L, 10L, 1, SlotType.LARGE));
+        index.add(new SlotSnapshot(3L, 1L, 10L, 1, SlotType.LARGE));
+
+        assertEquals(3L, index.poll(null, SlotType.LARGE, 2).orElseThrow().id());
+        assertEquals(1L, index.poll(null, SlotType.LARGE, 2).orElseThrow().id());
+        assertTrue(index.poll(null, SlotType.LARGE, 2).isEmpty());
+    }
+
+    @Test
+    void remove_ShouldDropSlotFromItsStripe() {
+        index.add(new SlotSnapshot(5L, 1L, 10L, 1, SlotType.MOTORCYCLE));
+
+        index.remove(5L);
+
+        assertFalse(index.contains(5L));
+        assertTrue(index.poll(null, SlotType.MOTORCYCLE, 1).isEmpty());
+    }
+
+    @Test
+    void reconcile_ShouldPickUpSlotsReleasedOutsideIndex() {
+        index.add(new SlotSnapshot(1L, 1L, 10L, 1, SlotType.COMPACT));
+        when(slotRepository.findAllAvailableSnapshots()).thenReturn(List.of(
+                new SlotSnapshot(5L, 1L, 10L, 1, SlotType.COMPACT)));
+
+        index.reconcile();
+
+        assertFalse(index.contains(1L));
+        assertEquals(5L, index.poll(null, SlotType.COMPACT, 0).orElseThrow().id());
+    }
+
+    @Test
+    void rebuild_ShouldKeepChangesMadeWhileReading() {
+        index.add(new SlotSnapshot(2L, 1L, 10L, 1, SlotType.COMPACT));
+        when(slotRepository.findAllAvailableSnapshots()).thenAnswer(invocation -> {
+            index.poll(null, SlotType.COMPACT, 0);
+            index.add(new SlotSnapshot(4L, 1L, 10L, 1, SlotType.LARGE));
+            return List.of(
+                    new SlotSnapshot(2L, 1L, 10L, 1, SlotType.COMPACT),
+                    new SlotSnapshot(1L, 1L, 10L, 1, SlotType.LARGE));
+        });
+
+        index.rebuild();
+
+        assertFalse(index.contains(2L));
+        assertTrue(index.contains(1L));
+        assertTrue(index.contains(4L));
+    }
+}
@@ -0,0 +1,50 @@
+package com.dev.marchenko.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HistoryPartitionsTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void ensureCovered_ShouldCreateEachMonthOnce() {
+        HistoryPartitions partitions = new HistoryPartitions(jdbcTemplate, true);
+
+        partitions.ensureCovered(LocalDateTime.of(2025, 11, 20, 8, 0), LocalDateTime.of(2026, 1, 2, 8, 0));
+        partitions.ensureCovered(LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 31, 0, 0));
+
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS parking_ticket_history_2025_11 " +
+                "PARTITION OF parking_ticket_history FOR VALUES FROM ('2025-11-01') TO ('2025-12-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS parking_ticket_history_2025_12 " +
+                "PARTITION OF parking_ticket_history FOR VALUES FROM ('2025-12-01') TO ('2026-01-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS parking_ticket_history_2026_01 " +
+                "PARTITION OF parking_ticket_history FOR VALUES FROM ('2026-01-01') TO ('2026-02-01')");
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void ensureCovered_ShouldDoNothingWithoutPartitioningOrTickets() {
+        new HistoryPartitions(jdbcTemplate, false).ensureCovered(LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.now());
+        new HistoryPartitions(jdbcTemplate, true).ensureCovered(null, LocalDateTime.now());
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void partitionName_ShouldPadTheMonth() {
+        assertEquals("parking_ticket_history_2026_03", HistoryPartitions.partitionName(YearMonth.of(2026, 3)));
+    }
+}
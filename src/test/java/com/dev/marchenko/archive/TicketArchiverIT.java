@@ -0,0 +1,74 @@
+package com.dev.marchenko.archive;
+
+import com.dev.marchenko.domain.ticket.ClosedTicketView;
+import com.dev.marchenko.exception.TicketAlreadyClosedException;
+import com.dev.marchenko.service.BaseIntegrationTest;
+import com.dev.marchenko.service.ParkingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TicketArchiverIT extends BaseIntegrationTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 2, 10, 12, 0);
+
+    @Autowired
+    private TicketArchiver ticketArchiver;
+    @Autowired
+    private ParkingService parkingService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE parking_ticket_history, parking_tickets, slots, levels, parking_lot, vehicles CASCADE");
+        jdbcTemplate.update("INSERT INTO parking_lot (id, name) VALUES (2000, 'Archive Lot')");
+        jdbcTemplate.update("INSERT INTO levels (id, floor_number, parking_lot_id) VALUES (2000, 1, 2000)");
+        jdbcTemplate.update("INSERT INTO slots (id, slot_number, type, available, level_id) VALUES " +
+                "(20001, 'A-1', 'COMPACT', false, 2000), (20002, 'A-2', 'COMPACT', true, 2000)");
+        jdbcTemplate.update("INSERT INTO vehicles (license_plate, vehicle_type_id) VALUES ('HIST-1', 'CAR')");
+        insertTicket("2025-12-20 08:00:00", "2025-12-20 10:00:00", 20002);
+        insertTicket("2026-01-15 08:00:00", "2026-01-15 09:30:00", 20002);
+        insertTicket("2026-02-10 11:00:00", "2026-02-10 11:55:00", 20002);
+        insertTicket("2026-02-10 11:58:00", null, 20001);
+    }
+
+    @Test
+    void archive_ShouldMoveOldClosedTicketsIntoMonthlyPartitions() {
+        assertEquals(2, ticketArchiver.archive(NOW.minusMinutes(15)));
+
+        assertEquals(List.of("2026-02-10T11:55", "open"), jdbcTemplate.queryForList(
+                "SELECT COALESCE(to_char(exit_time, 'YYYY-MM-DD\"T\"HH24:MI'), 'open') FROM parking_tickets ORDER BY id",
+                String.class));
+        assertEquals(List.of("parking_ticket_history_2025_12", "parking_ticket_history_2026_01"), jdbcTemplate.queryForList(
+                "SELECT tableoid::regclass::text FROM parking_ticket_history ORDER BY exit_time", String.class));
+        assertEquals(0, ticketArchiver.archive(NOW.minusMinutes(15)));
+    }
+
+    @Test
+    void history_ShouldStillIncludeArchivedTickets() {
+        Long archivedId = jdbcTemplate.queryForObject(
+                "SELECT id FROM parking_tickets WHERE exit_time = TIMESTAMP '2025-12-20 10:00:00'", Long.class);
+        ticketArchiver.archive(NOW.minusMinutes(15));
+
+        List<ClosedTicketView> history = parkingService.getTicketHistory("HIST-1", null, null);
+        assertEquals(List.of(LocalDateTime.of(2026, 2, 10, 11, 55), LocalDateTime.of(2026, 1, 15, 9, 30),
+                LocalDateTime.of(2025, 12, 20, 10, 0)), history.stream().map(ClosedTicketView::exitTime).toList());
+        assertEquals(1, parkingService.getTicketHistory("HIST-1",
+                LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 2, 1, 0, 0)).size());
+
+        assertThrows(TicketAlreadyClosedException.class, () -> parkingService.checkOut(archivedId));
+    }
+
+    private void insertTicket(String entryTime, String exitTime, long slotId) {
+        jdbcTemplate.update("INSERT INTO parking_tickets (entry_time, exit_time, fee, vehicle_plate, slot_id) " +
+                "VALUES (CAST(? AS timestamp), CAST(? AS timestamp), ?, 'HIST-1', ?)",
+                entryTime, exitTime, exitTime != null ? 10 : null, slotId);
+    }
+}
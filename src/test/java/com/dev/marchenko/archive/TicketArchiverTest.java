@@ -0,0 +1,75 @@
+package com.dev.marchenko.archive;
+
+import com.dev.marchenko.repository.ArchivedTicketRepository;
+import com.dev.marchenko.repository.TicketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TicketArchiverTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2026, 3, 10, 12, 0);
+
+    @Mock
+    private TicketRepository ticketRepository;
+    @Mock
+    private ArchivedTicketRepository archivedTicketRepository;
+    @Mock
+    private HistoryPartitions historyPartitions;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TicketArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        archiver = new TicketArchiver(ticketRepository, archivedTicketRepository, historyPartitions,
+                new TransactionTemplate(transactionManager), Duration.ofDays(1), 2);
+    }
+
+    @Test
+    void archive_ShouldCopyThenDeleteInBatchesUntilAShortBatch() {
+        LocalDateTime oldest = LocalDateTime.of(2026, 1, 20, 9, 0);
+        when(ticketRepository.findOldestExitTime()).thenReturn(Optional.of(oldest));
+        when(ticketRepository.findIdsClosedBefore(CUTOFF, PageRequest.of(0, 2)))
+                .thenReturn(List.of(1L, 2L), List.of(3L));
+
+        assertEquals(3, archiver.archive(CUTOFF));
+
+        InOrder inOrder = inOrder(historyPartitions, archivedTicketRepository, ticketRepository);
+        inOrder.verify(historyPartitions).ensureCovered(oldest, CUTOFF);
+        inOrder.verify(archivedTicketRepository).copyFromTickets(List.of(1L, 2L));
+        inOrder.verify(ticketRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        inOrder.verify(archivedTicketRepository).copyFromTickets(List.of(3L));
+        inOrder.verify(ticketRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void archive_ShouldDoNothingWhenNoTicketIsOldEnough() {
+        when(ticketRepository.findOldestExitTime()).thenReturn(Optional.empty());
+        when(ticketRepository.findIdsClosedBefore(CUTOFF, PageRequest.of(0, 2))).thenReturn(List.of());
+
+        assertEquals(0, archiver.archive(CUTOFF));
+
+        verify(historyPartitions).ensureCovered(null, CUTOFF);
+        verifyNoInteractions(archivedTicketRepository);
+        verify(ticketRepository, never()).deleteAllByIdInBatch(any());
+    }
+}
@@ -5,8 +5,14 @@ import com.dev.marchenko.domain.lot.ParkingLot;
 import com.dev.marchenko.domain.slot.ParkingSlot;
 import com.dev.marchenko.domain.slot.SlotType;
 import com.dev.marchenko.dto.*;
+import com.dev.marchenko.domain.vehicle.VehicleType;
 import com.dev.marchenko.mapper.ParkingMapper;
+import com.dev.marchenko.revenue.RevenueProjector;
 import com.dev.marchenko.service.AdminService;
+import com.dev.marchenko.service.RateCardService;
+import com.dev.marchenko.strategy.RateCard;
+import com.dev.marchenko.strategy.RateTable;
+import com.dev.marchenko.vehicle.VehicleRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +21,13 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -37,6 +50,15 @@ public class AdminControllerTest {
     @MockitoBean
     private ParkingMapper mapper;
 
+    @MockitoBean
+    private VehicleRegistry vehicleRegistry;
+
+    @MockitoBean
+    private RevenueProjector revenueProjector;
+
+    @MockitoBean
+    private RateCardService rateCardService;
+
     @Test
     void createLot_ShouldReturnCreated() throws Exception {
         ParkingLotRequest request = new ParkingLotRequest("Main Lot");
@@ -93,6 +115,51 @@ public class AdminControllerTest {
                 .andExpect(jsonPath("$.slotNumber").value("A1"));
     }
 
+    @Test
+    void addSlots_ShouldReturnCreated() throws Exception {
+        List<SlotRequest> requests = List.of(new SlotRequest("A1", SlotType.COMPACT), new SlotRequest("A2", SlotType.LARGE));
+
+        when(adminService.addSlots(eq(1L), any())).thenReturn(List.of(new ParkingSlot(), new ParkingSlot()));
+        when(mapper.toSlotResponse(any()))
+                .thenReturn(new SlotResponse(1L, "A1", SlotType.COMPACT.name(), true))
+                .thenReturn(new SlotResponse(2L, "A2", SlotType.LARGE.name(), true));
+
+        mockMvc.perform(post("/api/v1/admin/levels/1/slots/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].slotNumber").value("A2"));
+    }
+
+    @Test
+    void addSlots_ShouldRejectInvalidElement() throws Exception {
+        List<SlotRequest> requests = List.of(new SlotRequest("A1", SlotType.COMPACT), new SlotRequest("", null));
+
+        mockMvc.perform(post("/api/v1/admin/levels/1/slots/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("[1].type: Slot type is required")));
+        verify(adminService, never()).addSlots(any(), any());
+    }
+
+    @Test
+    void addSlots_ShouldRejectEmptyBatch() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/levels/1/slots/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void addSlot_ValidationFailed() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/levels/1/slots")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new SlotRequest("A1", null))))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void toggleSlot_ShouldReturnOk() throws Exception {
         SlotResponse response = new SlotResponse(1L, "A1", SlotType.COMPACT.name(), false);
@@ -116,4 +183,74 @@ public class AdminControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getVehicleCacheStats_ShouldReturnCounters() throws Exception {
+        when(vehicleRegistry.stats()).thenReturn(new VehicleCacheStatsResponse(3, 1000, 30, 5, 10, 1, 9, 0, 0.6667));
+
+        mockMvc.perform(get("/api/v1/admin/vehicle-cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").value(30))
+                .andExpect(jsonPath("$.misses").value(5))
+                .andExpect(jsonPath("$.filtered").value(10))
+                .andExpect(jsonPath("$.hitRate").value(0.6667));
+    }
+
+    @Test
+    void reconcileClosedRevenue_ShouldReturnTotals() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2026, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 2, 1, 0, 0);
+        RevenueTotalResponse cars = new RevenueTotalResponse(2, new BigDecimal("8.00"), new BigDecimal("6.00"));
+        when(revenueProjector.projectClosed(from, to)).thenReturn(new RevenueReportResponse(from, to, 3L, 2,
+                new BigDecimal("8.00"), new BigDecimal("6.00"), Map.of(VehicleType.CAR, cars), Map.of(1L, cars), Map.of(1L, cars)));
+
+        mockMvc.perform(get("/api/v1/admin/revenue/closed")
+                        .param("exitedFrom", "2026-01-01T00:00:00")
+                        .param("exitedTo", "2026-02-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tickets").value(2))
+                .andExpect(jsonPath("$.priced").value(8.00))
+                .andExpect(jsonPath("$.byVehicleType.CAR.recorded").value(6.00))
+                .andExpect(jsonPath("$.byLot.1.tickets").value(2));
+    }
+
+    @Test
+    void reloadRateCards_ShouldReturnNewVersion() throws Exception {
+        RateCard card = new RateCard(0, 60, null, List.of(
+                new RateCard.Band(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, new BigDecimal("3.00"), null)));
+        RateTable reloaded = RateTable.of(0L, List.of()).withRateCards(5L, Map.of(VehicleType.CAR, card));
+        when(rateCardService.reload(Map.of(VehicleType.CAR, card))).thenReturn(reloaded);
+
+        mockMvc.perform(put("/api/v1/admin/rate-cards")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(VehicleType.CAR, card))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(5))
+                .andExpect(jsonPath("$.rateCards.CAR.bands[0].hourlyRate").value(3.00));
+    }
+
+    @Test
+    void reloadRateCards_ShouldDefaultLeftOutMinutesLikeTheConfiguration() throws Exception {
+        RateCard card = new RateCard(0, 1, null, List.of(
+                new RateCard.Band(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, new BigDecimal("3.00"), null)));
+        when(rateCardService.reload(Map.of(VehicleType.CAR, card)))
+                .thenReturn(RateTable.of(0L, List.of()).withRateCards(5L, Map.of(VehicleType.CAR, card)));
+
+        mockMvc.perform(put("/api/v1/admin/rate-cards")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"CAR\":{\"bands\":[{\"from\":\"00:00\",\"to\":\"00:00\",\"hourlyRate\":3.00}]}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rateCards.CAR.freeMinutes").value(0))
+                .andExpect(jsonPath("$.rateCards.CAR.billingIncrementMinutes").value(1));
+    }
+
+    @Test
+    void reloadRateCards_ShouldReturnBadRequest_WhenCardIsInvalid() throws Exception {
+        when(rateCardService.reload(any())).thenThrow(new IllegalStateException("Invalid rate card: bands leave gaps"));
+
+        mockMvc.perform(put("/api/v1/admin/rate-cards")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"CAR\":{\"freeMinutes\":0,\"billingIncrementMinutes\":60,\"bands\":[]}}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,55 @@
+package com.dev.marchenko.controller;
+
+import com.dev.marchenko.service.AvailabilityFeedService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AvailabilityController.class)
+public class AvailabilityControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AvailabilityFeedService availabilityFeedService;
+
+    @Test
+    void getAvailability_ShouldReturnSnapshot() throws Exception {
+        DeferredResult<String> result = new DeferredResult<>();
+        result.setResult("{\"version\":7,\"lots\":[{\"lotId\":1,\"freeSlots\":{\"COMPACT\":3},\"levels\":[]}]}");
+        when(availabilityFeedService.poll(1L, 6L)).thenReturn(result);
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/parking/availability")
+                        .param("lotId", "1")
+                        .param("since", "6"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.version").value(7))
+                .andExpect(jsonPath("$.lots[0].freeSlots.COMPACT").value(3));
+    }
+
+    @Test
+    void streamAvailability_ShouldOpenEventStream() throws Exception {
+        when(availabilityFeedService.subscribe(null)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/parking/availability/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+    }
+}
@@ -0,0 +1,192 @@
+package com.dev.marchenko.controller;
+
+import com.dev.marchenko.allocation.FreeSlotCounters;
+import com.dev.marchenko.allocation.SlotAvailabilityIndex;
+import com.dev.marchenko.domain.lot.Level;
+import com.dev.marchenko.domain.lot.ParkingLot;
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.ticket.ParkingTicket;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.repository.*;
+import com.dev.marchenko.service.BaseIntegrationTest;
+import com.dev.marchenko.service.ParkingService;
+import com.dev.marchenko.session.ActiveSessionRegistry;
+import com.dev.marchenko.topology.TopologySnapshot;
+import com.dev.marchenko.vehicle.VehicleRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Counts the JDBC statements behind each ticket endpoint, so a lazy association touched while building
+ * a response shows up as a failing count instead of one extra query per ticket.
+ */
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "parking.allocation.mode=index",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class ParkingControllerStatementCountIT extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ParkingService parkingService;
+    @Autowired
+    private ParkingLotRepository lotRepository;
+    @Autowired
+    private LevelRepository levelRepository;
+    @Autowired
+    private SlotRepository slotRepository;
+    @Autowired
+    private TicketRepository ticketRepository;
+    @Autowired
+    private VehicleRepository vehicleRepository;
+    @Autowired
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+    @Autowired
+    private FreeSlotCounters freeSlotCounters;
+    @Autowired
+    private ActiveSessionRegistry activeSessionRegistry;
+    @Autowired
+    private VehicleRegistry vehicleRegistry;
+    @Autowired
+    private TopologySnapshot topologySnapshot;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        ticketRepository.deleteAllInBatch();
+        slotRepository.deleteAllInBatch();
+        levelRepository.deleteAllInBatch();
+        lotRepository.deleteAllInBatch();
+        vehicleRepository.deleteAllInBatch();
+
+        ParkingLot lot = lotRepository.save(new ParkingLot("Statement Lot"));
+        for (int floor = 1; floor <= 3; floor++) {
+            Level level = new Level();
+            level.setFloorNumber(floor);
+            level.setParkingLot(lot);
+            level = levelRepository.save(level);
+            for (int i = 1; i <= 2; i++) {
+                slotRepository.save(new ParkingSlot(floor + "-" + i, SlotType.COMPACT, level));
+            }
+        }
+
+        slotAvailabilityIndex.rebuild();
+        freeSlotCounters.rebuild();
+        activeSessionRegistry.rebuild();
+        vehicleRegistry.rebuild();
+        topologySnapshot.rebuild();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void checkIn_ShouldNotLoadTheLevelSeparately() throws Exception {
+        // the first ticket insert also fetches a block of ids from the sequence
+        parkingService.checkIn(null, "WARM-UP", VehicleType.CAR, false);
+
+        // vehicle insert-if-absent, slot lock, slot update, ticket insert
+        assertStatements(4, () -> mockMvc.perform(post("/api/v1/parking/check-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"licensePlate\": \"COUNT-1\", \"vehicleType\": \"CAR\", \"isHandicapped\": false}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.levelFloor").value(1)));
+    }
+
+    @Test
+    void checkOut_ShouldCloseTheTicketAndReleaseTheSlotWithoutReadingThem() throws Exception {
+        Long ticketId = parkTwoHoursAgo("COUNT-2");
+
+        // conditional ticket update, slot release
+        assertStatements(2, () -> mockMvc.perform(post("/api/v1/parking/check-out/" + ticketId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.licensePlate").value("COUNT-2"))
+                .andExpect(jsonPath("$.totalFee").value("$4.00")));
+    }
+
+    @Test
+    void checkOutByPlate_ShouldCloseTheTicketAndReleaseTheSlotWithoutReadingThem() throws Exception {
+        parkTwoHoursAgo("COUNT-3");
+
+        assertStatements(2, () -> mockMvc.perform(post("/api/v1/parking/check-out/plate/COUNT-3"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void checkOut_ShouldLoadTicketVehicleSlotAndLevelInOneQueryWhenTheSessionIsOutOfDate() throws Exception {
+        ParkingTicket ticket = parkingService.checkIn(null, "COUNT-4", VehicleType.CAR, false);
+        ticket.setEntryTime(LocalDateTime.now().minusHours(2));
+        ticketRepository.save(ticket);
+
+        // missed conditional update, ticket graph, ticket update, slot release
+        assertStatements(4, () -> mockMvc.perform(post("/api/v1/parking/check-out/" + ticket.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalFee").value("$4.00")));
+    }
+
+    @Test
+    void getActiveSessions_ShouldUseOneQueryForAnyNumberOfTickets() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            parkingService.checkIn(null, "LIST-" + i, VehicleType.CAR, false);
+        }
+
+        assertStatements(1, () -> mockMvc.perform(get("/api/v1/parking/sessions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(6))
+                .andExpect(jsonPath("$[5].levelFloor").value(3)));
+    }
+
+    @Test
+    void streamActiveSessions_ShouldUseOneQueryForAnyNumberOfTickets() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            parkingService.checkIn(null, "STREAM-" + i, VehicleType.CAR, false);
+        }
+
+        assertStatements(1, () -> {
+            MvcResult result = mockMvc.perform(get("/api/v1/parking/sessions/stream"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        });
+    }
+
+    private Long parkTwoHoursAgo(String licensePlate) {
+        ParkingTicket ticket = parkingService.checkIn(null, licensePlate, VehicleType.CAR, false);
+        ticket.setEntryTime(LocalDateTime.now().minusHours(2).truncatedTo(ChronoUnit.SECONDS));
+        Long ticketId = ticketRepository.save(ticket).getId();
+        activeSessionRegistry.rebuild();
+        return ticketId;
+    }
+
+    private void assertStatements(long expected, Request request) throws Exception {
+        statistics.clear();
+        request.perform();
+        assertEquals(expected, statistics.getPrepareStatementCount(), "JDBC statements executed");
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        void perform() throws Exception;
+    }
+}
@@ -1,29 +1,54 @@
 package com.dev.marchenko.controller;
 
+import com.dev.marchenko.domain.ticket.ClosedTicketView;
 import com.dev.marchenko.domain.ticket.ParkingTicket;
+import com.dev.marchenko.domain.ticket.TicketView;
 import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.dto.BatchItemResponse;
 import com.dev.marchenko.dto.CheckInRequest;
 import com.dev.marchenko.dto.CheckOutResponse;
+import com.dev.marchenko.dto.SessionFilter;
+import com.dev.marchenko.dto.TicketHistoryResponse;
 import com.dev.marchenko.dto.TicketResponse;
+import com.dev.marchenko.dto.VehicleLocationResponse;
+import com.dev.marchenko.exception.ActiveSessionNotFoundException;
+import com.dev.marchenko.session.ActiveSession;
 import com.dev.marchenko.mapper.ParkingMapper;
+import com.dev.marchenko.service.ParkingGate;
 import com.dev.marchenko.service.ParkingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.matchesPattern;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ParkingController.class)
@@ -38,12 +63,15 @@ public class ParkingControllerTest {
     @MockitoBean
     private ParkingMapper parkingMapper;
 
+    @MockitoBean
+    private ParkingGate parkingGate;
+
     @MockitoBean
     private ParkingService parkingService;
 
     @Test
     void checkIn_ShouldReturnTicket() throws Exception {
-        CheckInRequest request = new CheckInRequest("AA1111BB", VehicleType.CAR, false);
+        CheckInRequest request = new CheckInRequest("AA1111BB", VehicleType.CAR, false, null);
         ParkingTicket mockTicket = new ParkingTicket();
 
         TicketResponse response = TicketResponse.builder()
@@ -55,7 +83,7 @@ public class ParkingControllerTest {
                 .levelFloor(1)
                 .build();
 
-        when(parkingService.checkIn("AA1111BB", VehicleType.CAR, false)).thenReturn(mockTicket);
+        when(parkingGate.checkIn(null, "AA1111BB", VehicleType.CAR, false)).thenReturn(mockTicket);
         when(parkingMapper.toTicketResponse(mockTicket)).thenReturn(response);
 
         mockMvc.perform(post("/api/v1/parking/check-in")
@@ -69,7 +97,7 @@ public class ParkingControllerTest {
 
     @Test
     void checkIn_Handicapped_ShouldReturnTicket() throws Exception {
-        CheckInRequest request = new CheckInRequest("HH7777HH", VehicleType.CAR, true);
+        CheckInRequest request = new CheckInRequest("HH7777HH", VehicleType.CAR, true, null);
         ParkingTicket mockTicket = new ParkingTicket();
         TicketResponse response = TicketResponse.builder()
                 .ticketId(2L)
@@ -80,7 +108,7 @@ public class ParkingControllerTest {
                 .levelFloor(1)
                 .build();
 
-        when(parkingService.checkIn("HH7777HH", VehicleType.CAR, true)).thenReturn(mockTicket);
+        when(parkingGate.checkIn(null, "HH7777HH", VehicleType.CAR, true)).thenReturn(mockTicket);
         when(parkingMapper.toTicketResponse(any(ParkingTicket.class))).thenReturn(response);
 
         mockMvc.perform(post("/api/v1/parking/check-in")
@@ -105,7 +133,7 @@ public class ParkingControllerTest {
                 .totalFee("$20.50")
                 .build();
 
-        when(parkingService.checkOut(ticketId)).thenReturn(mockTicket);
+        when(parkingGate.checkOut(ticketId)).thenReturn(mockTicket);
         when(parkingMapper.toCheckOutResponse(mockTicket)).thenReturn(response);
 
         mockMvc.perform(post("/api/v1/parking/check-out/{ticketId}", ticketId))
@@ -118,28 +146,244 @@ public class ParkingControllerTest {
 
     @Test
     void getActiveSessions_ShouldReturnList() throws Exception {
-        ParkingTicket mockTicket = new ParkingTicket();
+        TicketView mockTicket = sessionView(1L);
         TicketResponse response = TicketResponse.builder()
                 .ticketId(1L)
                 .licensePlate("AA1111BB")
                 .build();
 
-        when(parkingService.getActiveSessions()).thenReturn(List.of(mockTicket));
-        when(parkingMapper.toTicketResponse(any(ParkingTicket.class))).thenReturn(response);
+        when(parkingService.getActiveSessions(SessionFilter.none(), null, 100)).thenReturn(List.of(mockTicket));
+        when(parkingMapper.toTicketResponse(mockTicket)).thenReturn(response);
 
         mockMvc.perform(get("/api/v1/parking/sessions"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].ticketId").value(1L))
-                .andExpect(jsonPath("$.length()").value(1));
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    void getActiveSessions_ShouldLinkNextPage_WhenPageIsFull() throws Exception {
+        TicketView first = sessionView(41L);
+        TicketView second = sessionView(42L);
+        SessionFilter filter = new SessionFilter(1L, null, VehicleType.CAR, LocalDateTime.of(2026, 1, 13, 8, 0), null);
+
+        when(parkingService.getActiveSessions(filter, 40L, 2)).thenReturn(List.of(first, second));
+        when(parkingMapper.toTicketResponse(any(TicketView.class))).thenReturn(TicketResponse.builder().build());
+
+        mockMvc.perform(get("/api/v1/parking/sessions?lotId=1&vehicleType=CAR&enteredFrom=2026-01-13T08:00:00&afterId=40&limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("afterId=42")))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("lotId=1")))
+                .andExpect(header().string(HttpHeaders.LINK, endsWith("; rel=\"next\"")));
+    }
+
+    @Test
+    void streamActiveSessions_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        TicketView first = sessionView(1L);
+        TicketView second = sessionView(2L);
+        doAnswer(invocation -> {
+            Consumer<TicketView> action = invocation.getArgument(1);
+            action.accept(first);
+            action.accept(second);
+            return null;
+        }).when(parkingService).streamActiveSessions(eq(SessionFilter.none()), any());
+        when(parkingMapper.toTicketResponse(first)).thenReturn(TicketResponse.builder().ticketId(1L).build());
+        when(parkingMapper.toTicketResponse(second)).thenReturn(TicketResponse.builder().ticketId(2L).build());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/parking/sessions/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(matchesPattern("(?s)\\{\"ticketId\":1.*}\n\\{\"ticketId\":2.*}\n")));
     }
 
     @Test
     void checkIn_ValidationFailed() throws Exception {
-        CheckInRequest invalidRequest = new CheckInRequest("", VehicleType.CAR, false);
+        CheckInRequest invalidRequest = new CheckInRequest("", VehicleType.CAR, false, null);
 
         mockMvc.perform(post("/api/v1/parking/check-in")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(invalidRequest)))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void checkInBatch_ShouldReturnPerItemResults() throws Exception {
+        List<CheckInRequest> requests = List.of(
+                new CheckInRequest("AA1111BB", VehicleType.CAR, false, null),
+                new CheckInRequest("BB2222CC", VehicleType.TRUCK, false, null)
+        );
+        TicketResponse ticket = TicketResponse.builder()
+                .ticketId(1L)
+                .licensePlate("AA1111BB")
+                .slotNumber("A-1")
+                .build();
+
+        when(parkingGate.checkInBatch(requests)).thenReturn(List.of(
+                BatchItemResponse.success(0, ticket),
+                BatchItemResponse.failure(1, "No available slots for TRUCK")
+        ));
+
+        mockMvc.perform(post("/api/v1/parking/check-in/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].result.slotNumber").value("A-1"))
+                .andExpect(jsonPath("$[0].error").doesNotExist())
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].error").value("No available slots for TRUCK"));
+    }
+
+    @Test
+    void checkInBatch_ShouldRejectNullItem() throws Exception {
+        mockMvc.perform(post("/api/v1/parking/check-in/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"licensePlate\":\"AA1111BB\",\"vehicleType\":\"CAR\"}, null]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("requests[1]: must not be null"));
+        verify(parkingGate, never()).checkInBatch(any());
+    }
+
+    @Test
+    void checkInBatch_ShouldRejectBatchOverMaxSize() throws Exception {
+        List<CheckInRequest> requests = Collections.nCopies(501, new CheckInRequest("AA1111BB", VehicleType.CAR, false, null));
+
+        mockMvc.perform(post("/api/v1/parking/check-in/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("A batch may hold at most 500 items"));
+        verify(parkingGate, never()).checkInBatch(any());
+    }
+
+    @Test
+    void checkInBatch_ShouldPassInvalidItemsToGate() throws Exception {
+        List<CheckInRequest> requests = List.of(new CheckInRequest("", null, false, null));
+        when(parkingGate.checkInBatch(requests)).thenReturn(List.of(
+                BatchItemResponse.failure(0, "licensePlate: must not be blank; vehicleType: must not be null")));
+
+        mockMvc.perform(post("/api/v1/parking/check-in/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].error").value(containsString("licensePlate")));
+    }
+
+    @Test
+    void checkOutBatch_ShouldReturnPerTicketResults() throws Exception {
+        CheckOutResponse closed = CheckOutResponse.builder()
+                .licensePlate("AA1111BB")
+                .durationMinutes(90)
+                .totalFee("$10.00")
+                .build();
+
+        when(parkingGate.checkOutBatch(List.of(1L, 2L))).thenReturn(List.of(
+                BatchItemResponse.success(0, closed),
+                BatchItemResponse.failure(1, "Ticket 2 is already closed")
+        ));
+
+        mockMvc.perform(post("/api/v1/parking/check-out/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].result.licensePlate").value("AA1111BB"))
+                .andExpect(jsonPath("$[0].result.totalFee").value("$10.00"))
+                .andExpect(jsonPath("$[1].error").value("Ticket 2 is already closed"));
+    }
+
+    @Test
+    void checkOutBatch_ShouldRejectDuplicateTicketIds() throws Exception {
+        mockMvc.perform(post("/api/v1/parking/check-out/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2, 1]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Ticket 1 appears more than once in the batch"));
+        verify(parkingGate, never()).checkOutBatch(any());
+    }
+
+    @Test
+    void checkOutBatch_ShouldRejectNullTicketId() throws Exception {
+        mockMvc.perform(post("/api/v1/parking/check-out/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, null]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("ticketIds[1]: must not be null"));
+        verify(parkingGate, never()).checkOutBatch(any());
+    }
+
+    @Test
+    void checkOutBatch_ShouldRejectBatchOverMaxSize() throws Exception {
+        List<Long> ticketIds = LongStream.rangeClosed(1, 501).boxed().toList();
+
+        mockMvc.perform(post("/api/v1/parking/check-out/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ticketIds)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("A batch may hold at most 500 items"));
+        verify(parkingGate, never()).checkOutBatch(any());
+    }
+
+    @Test
+    void checkOutByPlate_ShouldReturnReceipt() throws Exception {
+        ParkingTicket ticket = new ParkingTicket();
+        CheckOutResponse closed = CheckOutResponse.builder()
+                .licensePlate("AA1111BB")
+                .totalFee("$10.00")
+                .build();
+        when(parkingGate.checkOutByPlate("AA1111BB")).thenReturn(ticket);
+        when(parkingMapper.toCheckOutResponse(ticket)).thenReturn(closed);
+
+        mockMvc.perform(post("/api/v1/parking/check-out/plate/AA1111BB"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.licensePlate").value("AA1111BB"));
+    }
+
+    @Test
+    void checkOutByPlate_ShouldReturnNotFound_WhenNotParked() throws Exception {
+        when(parkingGate.checkOutByPlate("AA1111BB")).thenThrow(new ActiveSessionNotFoundException("AA1111BB"));
+
+        mockMvc.perform(post("/api/v1/parking/check-out/plate/AA1111BB"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Vehicle AA1111BB is not parked"));
+    }
+
+    @Test
+    void getTicketHistory_ShouldPassExitRange() throws Exception {
+        ClosedTicketView view = new ClosedTicketView(3L, "AA1111BB", LocalDateTime.of(2025, 11, 3, 8, 0),
+                LocalDateTime.of(2025, 11, 3, 10, 0), new BigDecimal("10.00"), 4L);
+        when(parkingService.getTicketHistory("AA1111BB", LocalDateTime.of(2025, 11, 1, 0, 0), null))
+                .thenReturn(List.of(view));
+        when(parkingMapper.toTicketHistoryResponse(view)).thenReturn(new TicketHistoryResponse(3L, "AA1111BB",
+                view.entryTime(), view.exitTime(), 120, "$10.00", 4L));
+
+        mockMvc.perform(get("/api/v1/parking/vehicles/AA1111BB/tickets").param("exitedFrom", "2025-11-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].ticketId").value(3))
+                .andExpect(jsonPath("$[0].exitTime").value("2025-11-03 10:00:00"))
+                .andExpect(jsonPath("$[0].durationMinutes").value(120))
+                .andExpect(jsonPath("$[0].rateCardVersion").value(4));
+    }
+
+    @Test
+    void locateVehicle_ShouldReturnSlot() throws Exception {
+        ActiveSession session = new ActiveSession(5L, 10L, 1_768_293_000L);
+        when(parkingService.locate("AA1111BB")).thenReturn(session);
+        when(parkingMapper.toVehicleLocationResponse("AA1111BB", session)).thenReturn(
+                new VehicleLocationResponse("AA1111BB", 5L, 1L, 2, "A-1", session.entryTime()));
+
+        mockMvc.perform(get("/api/v1/parking/vehicles/AA1111BB/location"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slotNumber").value("A-1"))
+                .andExpect(jsonPath("$.levelFloor").value(2));
+    }
+
+    private static TicketView sessionView(Long ticketId) {
+        return new TicketView(ticketId, "AA" + ticketId + "BB", VehicleType.CAR, LocalDateTime.of(2026, 1, 13, 8, 0), "A-" + ticketId, 1);
+    }
+}
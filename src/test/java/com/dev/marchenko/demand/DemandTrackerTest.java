@@ -0,0 +1,127 @@
+package com.dev.marchenko.demand;
+
+import com.dev.marchenko.allocation.FreeSlotCounters;
+import com.dev.marchenko.config.PricingProperties;
+import com.dev.marchenko.topology.TopologySnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DemandTrackerTest {
+
+    private static final long NOW = 1_767_225_600_000L;
+    // surge above 80% full, up to twice the fee, over ten one-minute buckets
+    private static final PricingProperties.Surge SURGE = new PricingProperties.Surge(
+            true, Duration.ofMinutes(10), 10, Duration.ofSeconds(30), 0.8, 2.0);
+
+    @Mock
+    private FreeSlotCounters freeSlotCounters;
+    @Mock
+    private TopologySnapshot topology;
+
+    private final AtomicLong clock = new AtomicLong(NOW);
+    private DemandTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(topology.slotCountInLot(1L)).thenReturn(100);
+        tracker = new DemandTracker(freeSlotCounters, topology, SURGE, clock::get);
+    }
+
+    @Test
+    void surgeMultiplier_ShouldNotSurgeUpToTheThreshold() {
+        when(freeSlotCounters.freeSlotsInLot(1L)).thenReturn(20);
+
+        assertEquals(DemandTracker.NO_SURGE, tracker.surgeMultiplier(1L));
+    }
+
+    @Test
+    void surgeMultiplier_ShouldRiseLinearlyToTheMaximumWhenTheLotIsFull() {
+        when(freeSlotCounters.freeSlotsInLot(1L)).thenReturn(10, 0);
+
+        assertEquals(1500, tracker.surgeMultiplier(1L));
+        clock.addAndGet(Duration.ofSeconds(30).toMillis());
+        assertEquals(2000, tracker.surgeMultiplier(1L));
+    }
+
+    @Test
+    void surgeMultiplier_ShouldRiseWithArrivalsThatOutpaceDepartures() {
+        when(freeSlotCounters.freeSlotsInLot(1L)).thenReturn(30);
+        for (int i = 0; i < 25; i++) {
+            tracker.arrived(1L);
+        }
+        for (int i = 0; i < 5; i++) {
+            tracker.departed(1L);
+        }
+
+        // 70% full and 20 more cars than left within the window
+        assertEquals(1500, tracker.surgeMultiplier(1L));
+    }
+
+    @Test
+    void surgeMultiplier_ShouldKeepThePeakOccupancyOfTheWindow() {
+        when(freeSlotCounters.freeSlotsInLot(1L)).thenReturn(5);
+        tracker.arrived(1L);
+        when(freeSlotCounters.freeSlotsInLot(1L)).thenReturn(60);
+        for (int i = 0; i < 55; i++) {
+            tracker.departed(1L);
+        }
+
+        assertEquals(1750, tracker.surgeMultiplier(1L));
+    }
+
+    @Test
+    void surgeMultiplier_ShouldForgetDemandThatLeftTheWindow() {
+        when(freeSlotCounters.freeSlotsInLot(1L)).thenReturn(5);
+        for (int i = 0; i < 20; i++) {
+            tracker.arrived(1L);
+        }
+        assertEquals(2000, tracker.surgeMultiplier(1L));
+
+        when(freeSlotCounters.freeSlotsInLot(1L)).thenReturn(40);
+        clock.addAndGet(Duration.ofMinutes(10).toMillis());
+
+        assertEquals(DemandTracker.NO_SURGE, tracker.surgeMultiplier(1L));
+    }
+
+    @Test
+    void surgeMultiplier_ShouldBeRecomputedAtMostOncePerInterval() {
+        when(freeSlotCounters.freeSlotsInLot(1L)).thenReturn(50, 0);
+
+        assertEquals(DemandTracker.NO_SURGE, tracker.surgeMultiplier(1L));
+        clock.addAndGet(Duration.ofSeconds(29).toMillis());
+        assertEquals(DemandTracker.NO_SURGE, tracker.surgeMultiplier(1L));
+        clock.addAndGet(Duration.ofSeconds(1).toMillis());
+        assertEquals(2000, tracker.surgeMultiplier(1L));
+    }
+
+    @Test
+    void surgeMultiplier_ShouldNotSurgeALotWithoutKnownSlots() {
+        assertEquals(DemandTracker.NO_SURGE, tracker.surgeMultiplier(2L));
+    }
+
+    @Test
+    void arrived_ShouldNotTrackDemandWhileSurgeIsOff() {
+        PricingProperties.Surge off = new PricingProperties.Surge(
+                false, Duration.ofMinutes(10), 10, Duration.ofSeconds(30), 0.8, 2.0);
+        DemandTracker disabled = new DemandTracker(freeSlotCounters, topology, off, clock::get);
+
+        disabled.arrived(1L);
+        disabled.departed(1L);
+
+        verify(freeSlotCounters, never()).freeSlotsInLot(any());
+    }
+}
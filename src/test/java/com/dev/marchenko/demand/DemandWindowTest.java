@@ -0,0 +1,92 @@
+package com.dev.marchenko.demand;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DemandWindowTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long NOW = 1_767_225_600_000L;
+
+    private final DemandWindow window = new DemandWindow(10, MINUTE);
+
+    @Test
+    void arrivals_ShouldCountTheBucketsInTheWindow() {
+        window.arrived(NOW, 0);
+        window.arrived(NOW + 3 * MINUTE, 0);
+        window.departed(NOW + 9 * MINUTE, 0);
+
+        assertEquals(2, window.arrivals(NOW + 9 * MINUTE));
+        assertEquals(1, window.departures(NOW + 9 * MINUTE));
+        assertEquals(1, window.arrivals(NOW + 10 * MINUTE));
+        assertEquals(0, window.arrivals(NOW + 13 * MINUTE));
+    }
+
+    @Test
+    void arrived_ShouldStartAReusedBucketOver() {
+        window.arrived(NOW, 0);
+        window.arrived(NOW, 0);
+
+        window.arrived(NOW + 10 * MINUTE, 0);
+
+        assertEquals(1, window.arrivals(NOW + 10 * MINUTE));
+    }
+
+    @Test
+    void arrived_ShouldDropAnUpdateForABucketThatWasAlreadyReused() {
+        window.arrived(NOW + 10 * MINUTE, 0);
+
+        window.arrived(NOW, 0);
+
+        assertEquals(1, window.arrivals(NOW + 10 * MINUTE));
+    }
+
+    @Test
+    void peakOccupancy_ShouldBeTheHighestInTheWindow() {
+        window.arrived(NOW, 950);
+        window.departed(NOW + MINUTE, 600);
+        window.arrived(NOW + 2 * MINUTE, 700);
+
+        assertEquals(950, window.peakOccupancy(NOW + 2 * MINUTE));
+        assertEquals(700, window.peakOccupancy(NOW + 10 * MINUTE));
+    }
+
+    @Test
+    void arrived_ShouldCountEveryArrivalFromConcurrentGates() throws InterruptedException {
+        int threads = 8;
+        int arrivalsPerThread = 50_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> gates = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int occupancy = t * 100;
+            Thread gate = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < arrivalsPerThread; i++) {
+                    window.arrived(NOW + (i % 2) * MINUTE, occupancy);
+                    window.departed(NOW, occupancy);
+                }
+            });
+            gate.start();
+            gates.add(gate);
+        }
+
+        start.countDown();
+        for (Thread gate : gates) {
+            gate.join();
+        }
+
+        assertEquals((long) threads * arrivalsPerThread, window.arrivals(NOW + MINUTE));
+        assertEquals((long) threads * arrivalsPerThread, window.departures(NOW + MINUTE));
+        assertEquals((threads - 1) * 100, window.peakOccupancy(NOW + MINUTE));
+    }
+}
@@ -0,0 +1,116 @@
+package com.dev.marchenko.demand;
+
+import com.dev.marchenko.allocation.FreeSlotCounters;
+import com.dev.marchenko.allocation.SlotAvailabilityIndex;
+import com.dev.marchenko.domain.lot.Level;
+import com.dev.marchenko.domain.lot.ParkingLot;
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.ticket.ParkingTicket;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.repository.*;
+import com.dev.marchenko.service.ParkingService;
+import com.dev.marchenko.session.ActiveSessionRegistry;
+import com.dev.marchenko.topology.TopologySnapshot;
+import com.dev.marchenko.vehicle.VehicleRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "parking.allocation.mode=index",
+        "parking.pricing.surge.enabled=true",
+        "parking.pricing.surge.recompute-interval=0s"
+})
+public class SurgePricingIT {
+
+    @Autowired
+    private ParkingService parkingService;
+    @Autowired
+    private ParkingLotRepository lotRepository;
+    @Autowired
+    private LevelRepository levelRepository;
+    @Autowired
+    private SlotRepository slotRepository;
+    @Autowired
+    private TicketRepository ticketRepository;
+    @Autowired
+    private VehicleRepository vehicleRepository;
+    @Autowired
+    private TopologySnapshot topology;
+    @Autowired
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+    @Autowired
+    private FreeSlotCounters freeSlotCounters;
+    @Autowired
+    private ActiveSessionRegistry activeSessionRegistry;
+    @Autowired
+    private VehicleRegistry vehicleRegistry;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long lotId;
+
+    @BeforeEach
+    void setUp() {
+        ticketRepository.deleteAllInBatch();
+        slotRepository.deleteAllInBatch();
+        levelRepository.deleteAllInBatch();
+        lotRepository.deleteAllInBatch();
+        vehicleRepository.deleteAllInBatch();
+
+        ParkingLot lot = lotRepository.save(new ParkingLot("Surge Lot"));
+        lotId = lot.getId();
+        Level level = new Level();
+        level.setFloorNumber(1);
+        level.setParkingLot(lot);
+        level = levelRepository.save(level);
+        for (int i = 1; i <= 4; i++) {
+            slotRepository.save(new ParkingSlot("S-" + i, SlotType.COMPACT, level));
+        }
+
+        topology.rebuild();
+        slotAvailabilityIndex.rebuild();
+        freeSlotCounters.rebuild();
+        activeSessionRegistry.rebuild();
+        vehicleRegistry.rebuild();
+    }
+
+    @Test
+    void checkOut_ShouldChargeTheBaseFeeWhileTheLotIsQuiet() {
+        ParkingTicket ticket = parkingService.checkIn(lotId, "SRG-1", VehicleType.CAR, false);
+        enteredTwoHoursAgo(ticket);
+
+        // two hours at 2.00
+        assertEquals(new BigDecimal("4.00"), parkingService.checkOut(ticket.getId()).getFee());
+    }
+
+    @Test
+    void checkOut_ShouldSurgeOnceTheLotHasFilledUp() {
+        List<ParkingTicket> tickets = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            tickets.add(parkingService.checkIn(lotId, "SRG-" + i, VehicleType.CAR, false));
+        }
+        enteredTwoHoursAgo(tickets.get(0));
+
+        assertEquals(new BigDecimal("8.00"), parkingService.checkOut(tickets.get(0).getId()).getFee());
+    }
+
+    private void enteredTwoHoursAgo(ParkingTicket ticket) {
+        jdbcTemplate.update("UPDATE parking_tickets SET entry_time = ? WHERE id = ?",
+                ticket.getEntryTime().minusHours(2), ticket.getId());
+        activeSessionRegistry.rebuild();
+    }
+}
@@ -0,0 +1,142 @@
+package com.dev.marchenko.journal;
+
+import com.dev.marchenko.allocation.FreeSlotCounters;
+import com.dev.marchenko.allocation.SlotAvailabilityIndex;
+import com.dev.marchenko.domain.lot.Level;
+import com.dev.marchenko.domain.lot.ParkingLot;
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.ticket.ParkingTicket;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.repository.*;
+import com.dev.marchenko.service.ParkingGate;
+import com.dev.marchenko.session.ActiveSessionRegistry;
+import com.dev.marchenko.vehicle.VehicleRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "parking.allocation.mode=index",
+        "parking.durability.mode=journal",
+        "parking.journal.dir=${java.io.tmpdir}/journal-it-${random.uuid}",
+        "parking.journal.apply-interval=1h"
+})
+public class JournaledParkingGateIT {
+
+    @Autowired
+    private ParkingGate parkingGate;
+    @Autowired
+    private JournaledParkingGate journaledGate;
+    @Autowired
+    private SessionJournal journal;
+    @Autowired
+    private JournalApplier applier;
+    @Autowired
+    private TicketIds ticketIds;
+    @Autowired
+    private ParkingLotRepository lotRepository;
+    @Autowired
+    private LevelRepository levelRepository;
+    @Autowired
+    private SlotRepository slotRepository;
+    @Autowired
+    private TicketRepository ticketRepository;
+    @Autowired
+    private VehicleRepository vehicleRepository;
+    @Autowired
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+    @Autowired
+    private FreeSlotCounters freeSlotCounters;
+    @Autowired
+    private ActiveSessionRegistry activeSessionRegistry;
+    @Autowired
+    private VehicleRegistry vehicleRegistry;
+
+    private Long slotId;
+
+    @BeforeEach
+    void setUp() {
+        journaledGate.flush();
+        ticketRepository.deleteAllInBatch();
+        slotRepository.deleteAllInBatch();
+        levelRepository.deleteAllInBatch();
+        lotRepository.deleteAllInBatch();
+        vehicleRepository.deleteAllInBatch();
+
+        ParkingLot lot = lotRepository.save(new ParkingLot("Journal Lot"));
+        Level level = new Level();
+        level.setFloorNumber(2);
+        level.setParkingLot(lot);
+        level = levelRepository.save(level);
+        slotId = slotRepository.save(new ParkingSlot("J-1", SlotType.COMPACT, level)).getId();
+
+        slotAvailabilityIndex.rebuild();
+        freeSlotCounters.rebuild();
+        activeSessionRegistry.rebuild();
+        vehicleRegistry.rebuild();
+    }
+
+    @Test
+    void gate_ShouldBeTheJournaledOne() {
+        assertSame(journaledGate, parkingGate);
+    }
+
+    @Test
+    void checkInAndCheckOut_ShouldReachTheDatabaseWhenTheJournalIsApplied() {
+        ParkingTicket ticket = parkingGate.checkIn(null, "JRN-1", VehicleType.CAR, false);
+
+        assertEquals(slotId, ticket.getSlot().getId());
+        assertEquals(2, ticket.getLevelNumber());
+        assertFalse(ticketRepository.existsById(ticket.getId()));
+
+        journaledGate.flush();
+
+        ParkingTicket stored = ticketRepository.findById(ticket.getId()).orElseThrow();
+        assertEquals("JRN-1", stored.getVehicle().getLicensePlate());
+        assertNull(stored.getExitTime());
+        assertFalse(slotRepository.findById(slotId).orElseThrow().isAvailable());
+
+        ParkingTicket closed = parkingGate.checkOutByPlate("JRN-1");
+        journaledGate.flush();
+
+        stored = ticketRepository.findById(ticket.getId()).orElseThrow();
+        assertNotNull(stored.getExitTime());
+        assertEquals(0, closed.getFee().compareTo(stored.getFee()));
+        assertTrue(slotRepository.findById(slotId).orElseThrow().isAvailable());
+        assertEquals(journal.writeOffset(), journal.appliedOffset());
+    }
+
+    @Test
+    void replay_ShouldApplyWhatWasJournaledBeforeARestartOnlyOnce() {
+        long ticketId = ticketIds.next();
+        LocalDateTime entryTime = LocalDateTime.now().minusHours(3);
+        List<JournalEntry> entries = List.of(
+                JournalEntry.checkIn(ticketId, "JRN-2", VehicleType.CAR, slotId, entryTime),
+                JournalEntry.checkOut(ticketId, "JRN-2", VehicleType.CAR, slotId, entryTime.plusHours(2), new BigDecimal("40.00"), 2L,
+                        1250L));
+        entries.forEach(journal::append);
+
+        journaledGate.replay();
+        applier.apply(entries);
+
+        ParkingTicket stored = ticketRepository.findById(ticketId).orElseThrow();
+        assertEquals(VehicleType.CAR, stored.getVehicle().getType());
+        assertEquals(0, new BigDecimal("40.00").compareTo(stored.getFee()));
+        assertEquals(2L, stored.getRateCardVersion());
+        assertEquals(1250L, stored.getSurgeMultiplier());
+        assertEquals(1, ticketRepository.count());
+        assertTrue(slotRepository.findById(slotId).orElseThrow().isAvailable());
+    }
+}
@@ -0,0 +1,347 @@
+package com.dev.marchenko.journal;
+
+import com.dev.marchenko.allocation.FreeSlotCounters;
+import com.dev.marchenko.allocation.SlotAvailabilityIndex;
+import com.dev.marchenko.demand.DemandTracker;
+import com.dev.marchenko.domain.lot.Level;
+import com.dev.marchenko.domain.lot.ParkingLot;
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.ticket.ParkingTicket;
+import com.dev.marchenko.domain.vehicle.Truck;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.dto.BatchItemResponse;
+import com.dev.marchenko.dto.CheckInRequest;
+import com.dev.marchenko.dto.CheckOutResponse;
+import com.dev.marchenko.dto.TicketResponse;
+import com.dev.marchenko.event.SlotAvailabilityChangedEvent;
+import com.dev.marchenko.exception.LicensePlateAlreadyRegisteredException;
+import com.dev.marchenko.exception.NoAvailableSlotException;
+import com.dev.marchenko.exception.TicketAlreadyClosedException;
+import com.dev.marchenko.exception.TicketNotFoundException;
+import com.dev.marchenko.exception.VehicleAlreadyParkedException;
+import com.dev.marchenko.mapper.ParkingMapper;
+import com.dev.marchenko.repository.ArchivedTicketRepository;
+import com.dev.marchenko.repository.ParkingLotRepository;
+import com.dev.marchenko.repository.SlotRepository;
+import com.dev.marchenko.repository.TicketRepository;
+import com.dev.marchenko.service.PricingService;
+import com.dev.marchenko.session.ActiveSessionRegistry;
+import com.dev.marchenko.strategy.RateTable;
+import com.dev.marchenko.topology.SlotNode;
+import com.dev.marchenko.topology.TopologySnapshot;
+import com.dev.marchenko.vehicle.VehicleRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JournaledParkingGateTest {
+
+    @Mock
+    private JournalApplier applier;
+    @Mock
+    private FreeSlotCounters freeSlotCounters;
+    @Mock
+    private TopologySnapshot topology;
+    @Mock
+    private PricingService pricingService;
+    @Mock
+    private RateTable rates;
+    @Mock
+    private DemandTracker demandTracker;
+    @Mock
+    private VehicleRegistry vehicleRegistry;
+    @Mock
+    private SlotRepository slotRepository;
+    @Mock
+    private TicketRepository ticketRepository;
+    @Mock
+    private ArchivedTicketRepository archivedTicketRepository;
+    @Mock
+    private ParkingLotRepository parkingLotRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ParkingMapper parkingMapper;
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @TempDir
+    Path directory;
+
+    private SessionJournal journal;
+    private SlotAvailabilityIndex slotIndex;
+    private ActiveSessionRegistry activeSessions;
+    private JournaledParkingGate gate;
+    private ParkingSlot slot;
+
+    @BeforeAll
+    static void setUpValidator() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        AtomicLong sequence = new AtomicLong(1);
+        journal = new SessionJournal(directory, DataSize.ofKilobytes(64));
+        slotIndex = new SlotAvailabilityIndex(slotRepository, "journal");
+        activeSessions = new ActiveSessionRegistry(ticketRepository);
+        gate = new JournaledParkingGate(journal, applier, new TicketIds(() -> sequence.getAndAdd(TicketIds.BLOCK_SIZE)),
+                slotIndex, freeSlotCounters, activeSessions, topology, pricingService, demandTracker, vehicleRegistry, slotRepository,
+                ticketRepository, archivedTicketRepository, parkingLotRepository, eventPublisher, parkingMapper, validator, 100);
+
+        ParkingLot lot = new ParkingLot("Journal Lot");
+        lot.setId(1L);
+        Level level = new Level();
+        level.setId(10L);
+        level.setFloorNumber(1);
+        level.setParkingLot(lot);
+        slot = new ParkingSlot("A-1", SlotType.COMPACT, level);
+        slot.setId(100L);
+        slotIndex.add(SlotSnapshot.of(slot));
+    }
+
+    @Test
+    void constructor_ShouldRequireTheAvailabilityIndex() {
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> new JournaledParkingGate(journal, applier,
+                new TicketIds(() -> 1L), null, freeSlotCounters, activeSessions, topology, pricingService, demandTracker,
+                vehicleRegistry, slotRepository, ticketRepository, archivedTicketRepository, parkingLotRepository,
+                eventPublisher, parkingMapper, validator, 100));
+
+        assertEquals("parking.durability.mode=journal requires parking.allocation.mode=index", e.getMessage());
+    }
+
+    @Test
+    void checkIn_ShouldJournalTheTicketWithoutWritingIt() {
+        when(freeSlotCounters.hasCapacity(isNull(), any())).thenReturn(true);
+        when(slotRepository.findById(100L)).thenReturn(Optional.of(slot));
+
+        ParkingTicket ticket = gate.checkIn(null, "AA1111BB", VehicleType.CAR, false);
+
+        assertEquals(1L, ticket.getId());
+        assertEquals(slot, ticket.getSlot());
+        assertEquals(1L, activeSessions.find("AA1111BB").orElseThrow().ticketId());
+        assertFalse(slotIndex.contains(100L));
+        List<SessionJournal.Record> records = journal.read(0L, 10);
+        assertEquals(1, records.size());
+        assertEquals(JournalEntry.checkIn(1L, "AA1111BB", VehicleType.CAR, 100L, ticket.getEntryTime()), records.get(0).entry());
+        verify(eventPublisher).publishEvent(any(SlotAvailabilityChangedEvent.class));
+        verify(demandTracker).arrived(1L);
+        verifyNoInteractions(ticketRepository, applier);
+    }
+
+    @Test
+    void checkIn_ShouldTakeSlotDetailsFromTheTopology() {
+        when(freeSlotCounters.hasCapacity(isNull(), any())).thenReturn(true);
+        when(topology.slot(100L)).thenReturn(Optional.of(new SlotNode(100L, "A-1", SlotType.COMPACT, 10L, 1L, 1)));
+
+        ParkingTicket ticket = gate.checkIn(null, "AA1111BB", VehicleType.CAR, false);
+
+        assertEquals("A-1", ticket.getSlot().getSlotNumber());
+        assertEquals(1, ticket.getLevelNumber());
+        assertEquals(SlotSnapshot.of(slot), SlotSnapshot.of(ticket.getSlot()));
+        verify(slotRepository, never()).findById(any());
+    }
+
+    @Test
+    void checkIn_ShouldRejectAPlateRegisteredAsAnotherTypeWhileItIsStillJournaled() {
+        when(freeSlotCounters.hasCapacity(isNull(), any())).thenReturn(true);
+        when(slotRepository.findById(100L)).thenReturn(Optional.of(slot));
+        gate.checkIn(null, "AA1111BB", VehicleType.CAR, false);
+
+        assertThrows(VehicleAlreadyParkedException.class, () -> gate.checkIn(null, "AA1111BB", VehicleType.CAR, false));
+        assertThrows(LicensePlateAlreadyRegisteredException.class, () -> gate.checkIn(null, "AA1111BB", VehicleType.TRUCK, false));
+        verify(vehicleRegistry, times(1)).find(any());
+    }
+
+    @Test
+    void checkIn_ShouldReleaseThePlateWhenNoSlotIsFree() {
+        when(vehicleRegistry.find("AA1111BB")).thenReturn(Optional.of(VehicleType.CAR));
+        when(freeSlotCounters.hasCapacity(isNull(), any())).thenReturn(false);
+
+        assertThrows(NoAvailableSlotException.class, () -> gate.checkIn(null, "AA1111BB", VehicleType.CAR, false));
+
+        assertTrue(activeSessions.reserve("AA1111BB"));
+        assertEquals(0L, journal.writeOffset());
+    }
+
+    @Test
+    void checkOut_ShouldJournalTheFeeOnceAndFreeTheSlot() {
+        when(freeSlotCounters.hasCapacity(isNull(), any())).thenReturn(true);
+        when(slotRepository.findById(100L)).thenReturn(Optional.of(slot));
+        when(pricingService.rates()).thenReturn(rates);
+        when(rates.surgeMultiplier(VehicleType.CAR, 1L)).thenReturn(1250L);
+        when(rates.calculate(eq(VehicleType.CAR), any(), any(), eq(1250L))).thenReturn(new BigDecimal("20.00"));
+        when(rates.version()).thenReturn(4L);
+        ParkingTicket ticket = gate.checkIn(null, "AA1111BB", VehicleType.CAR, false);
+
+        ParkingTicket closed = gate.checkOutByPlate("AA1111BB");
+
+        assertEquals(new BigDecimal("20.00"), closed.getFee());
+        assertEquals(4L, closed.getRateCardVersion());
+        assertEquals(1250L, closed.getSurgeMultiplier());
+        assertNotNull(closed.getExitTime());
+        verify(eventPublisher).publishEvent(new SlotAvailabilityChangedEvent(SlotSnapshot.of(slot), true));
+        verify(demandTracker).departed(1L);
+        assertTrue(activeSessions.find("AA1111BB").isEmpty());
+        assertEquals(JournalEntry.checkOut(ticket.getId(), "AA1111BB", VehicleType.CAR, 100L, closed.getExitTime(), closed.getFee(), 4L,
+                        1250L),
+                journal.read(0L, 10).get(1).entry());
+        assertThrows(TicketAlreadyClosedException.class, () -> gate.checkOut(ticket.getId()));
+    }
+
+    @Test
+    void checkOut_ShouldCloseATicketThatIsAlreadyInTheDatabase() {
+        ParkingTicket stored = new ParkingTicket();
+        stored.setId(7L);
+        stored.setVehicle(new Truck("TR0001"));
+        stored.setSlot(slot);
+        stored.setEntryTime(LocalDateTime.now().minusHours(1));
+        when(ticketRepository.findAllByExitTimeIsNull()).thenReturn(List.of(stored));
+        when(ticketRepository.findById(7L)).thenReturn(Optional.of(stored));
+        when(pricingService.rates()).thenReturn(rates);
+        when(rates.calculate(eq(VehicleType.TRUCK), any(), any(), anyLong())).thenReturn(new BigDecimal("35.00"));
+        activeSessions.rebuild();
+
+        ParkingTicket closed = gate.checkOut(7L);
+
+        assertEquals(new BigDecimal("35.00"), closed.getFee());
+        assertNull(stored.getExitTime());
+        assertEquals(JournalEntry.Type.CHECK_OUT, journal.read(0L, 10).get(0).entry().type());
+    }
+
+    @Test
+    void checkInBatch_ShouldJournalEachItemAndReportFailuresPerItem() {
+        when(freeSlotCounters.hasCapacity(isNull(), any())).thenReturn(true);
+        when(slotRepository.findById(100L)).thenReturn(Optional.of(slot));
+        TicketResponse response = TicketResponse.builder().ticketId(1L).build();
+        when(parkingMapper.toTicketResponse(any(ParkingTicket.class))).thenReturn(response);
+
+        List<BatchItemResponse<TicketResponse>> results = gate.checkInBatch(List.of(
+                new CheckInRequest("AA1111BB", VehicleType.CAR, false, null),
+                new CheckInRequest("AA1111BB", VehicleType.CAR, false, null),
+                new CheckInRequest("", VehicleType.CAR, false, null)));
+
+        assertEquals(BatchItemResponse.success(0, response), results.get(0));
+        assertEquals(BatchItemResponse.failure(1, new VehicleAlreadyParkedException("AA1111BB").getMessage()), results.get(1));
+        assertNotNull(results.get(2).error());
+        assertEquals(1, journal.read(0L, 10).size());
+        assertTrue(activeSessions.find("AA1111BB").isPresent());
+        verifyNoInteractions(ticketRepository);
+    }
+
+    @Test
+    void checkOutBatch_ShouldJournalEachCheckOutOnce() {
+        when(freeSlotCounters.hasCapacity(isNull(), any())).thenReturn(true);
+        when(slotRepository.findById(100L)).thenReturn(Optional.of(slot));
+        when(pricingService.rates()).thenReturn(rates);
+        when(rates.calculate(eq(VehicleType.CAR), any(), any(), anyLong())).thenReturn(new BigDecimal("20.00"));
+        CheckOutResponse response = CheckOutResponse.builder().licensePlate("AA1111BB").build();
+        when(parkingMapper.toCheckOutResponse(any(ParkingTicket.class))).thenReturn(response);
+        ParkingTicket ticket = gate.checkIn(null, "AA1111BB", VehicleType.CAR, false);
+        when(ticketRepository.findById(99L)).thenReturn(Optional.empty());
+
+        List<BatchItemResponse<CheckOutResponse>> results = gate.checkOutBatch(Arrays.asList(ticket.getId(), ticket.getId(), 99L, null));
+
+        assertEquals(BatchItemResponse.success(0, response), results.get(0));
+        assertEquals(BatchItemResponse.failure(1, new TicketAlreadyClosedException(ticket.getId()).getMessage()), results.get(1));
+        assertEquals(BatchItemResponse.failure(2, new TicketNotFoundException(99L).getMessage()), results.get(2));
+        assertEquals(BatchItemResponse.failure(3, new TicketNotFoundException(null).getMessage()), results.get(3));
+        assertEquals(2, journal.read(0L, 10).size());
+    }
+
+    @Test
+    void flush_ShouldApplyEntriesAndForgetPendingTickets() {
+        when(freeSlotCounters.hasCapacity(isNull(), any())).thenReturn(true);
+        when(slotRepository.findById(100L)).thenReturn(Optional.of(slot));
+        ParkingTicket ticket = gate.checkIn(null, "AA1111BB", VehicleType.CAR, false);
+
+        gate.flush();
+
+        verify(applier).apply(List.of(JournalEntry.checkIn(ticket.getId(), "AA1111BB", VehicleType.CAR, 100L, ticket.getEntryTime())));
+        verify(vehicleRegistry).registered("AA1111BB", VehicleType.CAR);
+        assertEquals(journal.writeOffset(), journal.appliedOffset());
+        when(ticketRepository.findById(ticket.getId())).thenReturn(Optional.empty());
+        assertThrows(TicketNotFoundException.class, () -> gate.checkOut(ticket.getId()));
+        verify(ticketRepository).findById(ticket.getId());
+    }
+
+    @Test
+    void flush_ShouldSetAsideEntriesRejectedByTheDatabase() throws IOException {
+        JournalEntry rejected = JournalEntry.checkIn(1L, "AA1111BB", VehicleType.CAR, 404L, LocalDateTime.now());
+        JournalEntry accepted = JournalEntry.checkIn(2L, "BB2222CC", VehicleType.CAR, 100L, LocalDateTime.now());
+        journal.append(rejected);
+        journal.append(accepted);
+        doThrow(new DataIntegrityViolationException("fk_ticket_slot")).when(applier).apply(argThat(entries -> entries.contains(rejected)));
+
+        gate.flush();
+
+        verify(applier).apply(List.of(accepted));
+        assertEquals(journal.writeOffset(), journal.appliedOffset());
+        assertEquals(1L, journal.stats().rejectedEntries());
+        assertEquals(List.of(rejected.toString()), Files.readAllLines(journal.rejectedFile()));
+    }
+
+    @Test
+    void flush_ShouldCloseTheSessionOfARejectedCheckIn() {
+        when(freeSlotCounters.hasCapacity(isNull(), any())).thenReturn(true);
+        when(topology.slot(100L)).thenReturn(Optional.of(new SlotNode(100L, "A-1", SlotType.COMPACT, 10L, 1L, 1)));
+        ParkingTicket ticket = gate.checkIn(null, "AA1111BB", VehicleType.CAR, false);
+        doThrow(new DataIntegrityViolationException("vehicles_pkey")).when(applier).apply(anyList());
+
+        gate.flush();
+
+        assertEquals(1L, journal.stats().rejectedEntries());
+        assertTrue(activeSessions.find("AA1111BB").isEmpty());
+        assertTrue(activeSessions.reserve("AA1111BB"));
+        verify(eventPublisher).publishEvent(new SlotAvailabilityChangedEvent(SlotSnapshot.of(slot), true));
+        verify(demandTracker).departed(1L);
+        verify(vehicleRegistry, never()).registered(any(), any());
+        assertThrows(TicketNotFoundException.class, () -> gate.checkOut(ticket.getId()));
+    }
+
+    @Test
+    void flush_ShouldKeepEntriesWhenTheDatabaseIsUnavailable() {
+        journal.append(JournalEntry.checkIn(1L, "AA1111BB", VehicleType.CAR, 100L, LocalDateTime.now()));
+        doThrow(new QueryTimeoutException("timeout")).when(applier).apply(anyList());
+
+        assertThrows(QueryTimeoutException.class, () -> gate.flush());
+
+        assertEquals(0L, journal.appliedOffset());
+    }
+}
@@ -0,0 +1,137 @@
+package com.dev.marchenko.journal;
+
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionJournalTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_000_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_ShouldReturnAppendedEntriesInOrder() {
+        SessionJournal journal = new SessionJournal(directory, DataSize.ofKilobytes(64));
+        JournalEntry checkIn = JournalEntry.checkIn(51L, "AA1111BB", VehicleType.CAR, 7L, NOW);
+        JournalEntry checkOut = JournalEntry.checkOut(51L, "AA1111BB", VehicleType.CAR, 7L, NOW.plusHours(2), new BigDecimal("40.00"), 3L,
+                1250L);
+
+        long first = journal.append(checkIn);
+        long second = journal.append(checkOut);
+
+        List<SessionJournal.Record> records = journal.read(0L, 10);
+        assertEquals(List.of(new SessionJournal.Record(checkIn, first), new SessionJournal.Record(checkOut, second)), records);
+        assertEquals(List.of(new SessionJournal.Record(checkOut, second)), journal.read(first, 10));
+        assertEquals(1, journal.read(0L, 1).size());
+    }
+
+    @Test
+    void readFrom_ShouldRejectAnUnknownFormatVersion() {
+        JournalEntry checkOut = JournalEntry.checkOut(51L, "AA1111BB", VehicleType.CAR, 7L, NOW, new BigDecimal("40.00"), 3L, 1250L);
+        ByteBuffer buffer = ByteBuffer.allocate(checkOut.size());
+        checkOut.writeTo(buffer);
+        buffer.put(0, (byte) (JournalEntry.FORMAT_VERSION + 1));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> JournalEntry.readFrom(buffer.flip()));
+
+        assertEquals("Unsupported journal entry format " + (JournalEntry.FORMAT_VERSION + 1), e.getMessage());
+    }
+
+    @Test
+    void append_ShouldRollOverAndMarkAppliedShouldDeleteAppliedSegments() throws IOException {
+        SessionJournal journal = new SessionJournal(directory, DataSize.ofBytes(256));
+        long end = 0;
+        for (int i = 0; i < 10; i++) {
+            end = journal.append(JournalEntry.checkIn(i, "PLATE-" + i, VehicleType.CAR, i, NOW));
+        }
+        assertTrue(segmentCount() > 1);
+
+        List<SessionJournal.Record> records = journal.read(0L, 100);
+        assertEquals(10, records.size());
+        assertEquals(9L, records.get(9).entry().ticketId());
+
+        journal.markApplied(end);
+
+        assertEquals(1, segmentCount());
+        assertTrue(journal.read(journal.appliedOffset(), 100).isEmpty());
+    }
+
+    @Test
+    void reject_ShouldKeepTheEntryAndCountItAcrossRestarts() throws IOException {
+        SessionJournal journal = new SessionJournal(directory, DataSize.ofKilobytes(64));
+        JournalEntry rejected = JournalEntry.checkIn(51L, "AA1111BB", VehicleType.CAR, 404L, NOW);
+
+        journal.reject(rejected);
+
+        assertEquals(List.of(rejected.toString()), Files.readAllLines(journal.rejectedFile()));
+        assertEquals(1L, journal.stats().rejectedEntries());
+        assertEquals(1L, new SessionJournal(directory, DataSize.ofKilobytes(64)).stats().rejectedEntries());
+    }
+
+    @Test
+    void open_ShouldResumeFromTheCheckpoint() {
+        SessionJournal journal = new SessionJournal(directory, DataSize.ofBytes(256));
+        long applied = 0;
+        for (int i = 0; i < 6; i++) {
+            long end = journal.append(JournalEntry.checkIn(i, "PLATE-" + i, VehicleType.TRUCK, i, NOW));
+            if (i == 3) {
+                applied = end;
+            }
+        }
+        journal.markApplied(applied);
+        journal.close();
+
+        SessionJournal reopened = new SessionJournal(directory, DataSize.ofBytes(256));
+
+        assertEquals(applied, reopened.appliedOffset());
+        assertEquals(journal.writeOffset(), reopened.writeOffset());
+        assertEquals(List.of(4L, 5L), reopened.read(reopened.appliedOffset(), 100).stream()
+                .map(record -> record.entry().ticketId())
+                .toList());
+    }
+
+    @Test
+    void open_ShouldDropATornEntryAndAppendInItsPlace() throws IOException {
+        SessionJournal journal = new SessionJournal(directory, DataSize.ofKilobytes(4));
+        long intact = journal.append(JournalEntry.checkIn(1L, "AA1111BB", VehicleType.CAR, 1L, NOW));
+        journal.append(JournalEntry.checkIn(2L, "BB2222CC", VehicleType.CAR, 2L, NOW));
+        journal.close();
+        try (RandomAccessFile file = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+            file.seek(intact + 20);
+            file.write(0x7F);
+        }
+
+        SessionJournal reopened = new SessionJournal(directory, DataSize.ofKilobytes(4));
+        assertEquals(intact, reopened.writeOffset());
+
+        reopened.append(JournalEntry.checkIn(3L, "CC3333DD", VehicleType.CAR, 3L, NOW));
+        assertEquals(List.of(1L, 3L), reopened.read(0L, 100).stream()
+                .map(record -> record.entry().ticketId())
+                .toList());
+    }
+
+    private long segmentCount() throws IOException {
+        return segments().size();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".log")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.dev.marchenko.repository;
+
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.service.BaseIntegrationTest;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks through EXPLAIN that the allocation, open-session, session-list and admin delete queries are served by
+ * the indexes from {@code 04-add-access-path-indexes.yaml} once the tables hold a realistic amount of ticket
+ * history.
+ * The locking allocation queries are explained in the exact SQL Hibernate generates for them.
+ */
+public class AccessPathIndexIT extends BaseIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private SlotRepository slotRepository;
+    @Autowired
+    private CapturingStatementInspector statements;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE parking_tickets, slots, levels, parking_lot, vehicles CASCADE");
+        jdbcTemplate.update("INSERT INTO parking_lot (id, name) VALUES (1000, 'Plan Lot')");
+        jdbcTemplate.update("INSERT INTO levels (id, floor_number, parking_lot_id) " +
+                "SELECT 1000 + f, f, 1000 FROM generate_series(1, 10) f");
+        jdbcTemplate.update("INSERT INTO slots (id, slot_number, type, available, level_id) " +
+                "SELECT 10000 + i, 'S' || i, (ARRAY['MOTORCYCLE', 'COMPACT', 'LARGE', 'HANDICAPPED'])[1 + i % 4], " +
+                "i % 50 = 0, 1001 + i % 10 FROM generate_series(1, 5000) i");
+        jdbcTemplate.update("INSERT INTO vehicles (license_plate, vehicle_type_id) " +
+                "SELECT 'PLAN-' || i, 'CAR' FROM generate_series(1, 20000) i");
+        jdbcTemplate.update("INSERT INTO parking_tickets (entry_time, exit_time, fee, vehicle_plate, slot_id) " +
+                "SELECT TIMESTAMP '2026-01-01' + i * INTERVAL '1 minute', " +
+                "CASE WHEN i % 1000 = 0 AND i <= 20000 THEN NULL ELSE TIMESTAMP '2026-01-01' + i * INTERVAL '2 minute' END, " +
+                "10.00, 'PLAN-' || (1 + i % 20000), 10001 + i % 5000 FROM generate_series(1, 100000) i");
+        jdbcTemplate.execute("ANALYZE parking_tickets");
+        jdbcTemplate.execute("ANALYZE slots");
+        jdbcTemplate.execute("ANALYZE levels");
+    }
+
+    @Test
+    void openTickets_ShouldUsePartialIndex() {
+        assertUsesIndex("SELECT t.id, t.vehicle_plate FROM parking_tickets t WHERE t.exit_time IS NULL",
+                "uk_tickets_open_vehicle");
+    }
+
+    @Test
+    void openTicketOfVehicle_ShouldUseIndex() {
+        assertUsesIndex("SELECT t.id FROM parking_tickets t WHERE t.vehicle_plate = 'PLAN-1000' AND t.exit_time IS NULL",
+                "uk_tickets_open_vehicle");
+    }
+
+    @Test
+    void openSessionsKeysetPage_ShouldUsePartialIdIndex() {
+        assertUsesIndex("SELECT t.id, v.license_plate, t.entry_time, s.slot_number, l.floor_number " +
+                        "FROM parking_tickets t JOIN vehicles v ON v.license_plate = t.vehicle_plate " +
+                        "JOIN slots s ON s.id = t.slot_id JOIN levels l ON l.id = s.level_id " +
+                        "WHERE t.exit_time IS NULL AND t.id > 0 ORDER BY t.id ASC FETCH FIRST 50 ROWS ONLY",
+                "idx_tickets_open_id");
+    }
+
+    @Test
+    void openTicketOnSlot_ShouldUseIndex() {
+        assertUsesIndex("SELECT t.id FROM parking_tickets t WHERE t.slot_id = 10042 AND t.exit_time IS NULL " +
+                "FETCH FIRST 1 ROWS ONLY", "idx_tickets_slot_exit");
+    }
+
+    @Test
+    void ticketsClosedInRange_ShouldUseIndex() {
+        assertUsesIndex("SELECT t.id FROM parking_tickets t WHERE t.exit_time >= TIMESTAMP '2026-01-02' " +
+                "AND t.exit_time < TIMESTAMP '2026-01-03'", "idx_tickets_exit_time");
+    }
+
+    @Test
+    void freeSlotCandidates_ShouldUseIndex() {
+        assertUsesIndex("SELECT s.id FROM slots s JOIN levels l ON l.id = s.level_id " +
+                        "WHERE s.available = true AND s.type = 'COMPACT' " +
+                        "ORDER BY l.parking_lot_id ASC, l.floor_number ASC, s.id ASC LIMIT 1 FOR UPDATE OF s SKIP LOCKED",
+                "idx_slots_free");
+    }
+
+    @Test
+    void rankedLockingAllocation_ShouldUseIndex() {
+        String sql = generatedSelect(() -> slotRepository.findFirstAvailable(null, List.of(SlotType.COMPACT, SlotType.LARGE)));
+
+        assertUsesIndex(sql, new Object[]{"COMPACT", "LARGE", "COMPACT", "LARGE", "LARGE"},
+                "idx_slots_free");
+    }
+
+    @Test
+    void rankedLockingAllocationInLot_ShouldUseIndex() {
+        String sql = generatedSelect(() -> slotRepository.findFirstAvailable(1000L, List.of(SlotType.COMPACT, SlotType.LARGE)));
+
+        assertUsesIndex(sql, new Object[]{1000L, "COMPACT", "LARGE", "COMPACT", "LARGE", "LARGE"},
+                "idx_slots_free");
+    }
+
+    @Test
+    void slotForUpdate_ShouldUsePrimaryKey() {
+        String sql = generatedSelect(() -> slotRepository.findByIdForUpdate(10042L));
+
+        assertUsesIndex(sql, new Object[]{10042L}, "slots_pkey");
+    }
+
+    // The one SELECT Hibernate sends for the repository call, with its parameter placeholders.
+    private String generatedSelect(Runnable query) {
+        statements.clear();
+        transactionTemplate.executeWithoutResult(status -> query.run());
+        List<String> selects = statements.captured().stream()
+                .filter(sql -> sql.stripLeading().toLowerCase().startsWith("select"))
+                .toList();
+        assertEquals(1, selects.size(), "Expected a single SELECT, got " + selects);
+        return selects.get(0);
+    }
+
+    private void assertUsesIndex(String sql, String... indexNames) {
+        assertUsesIndex(sql, new Object[0], indexNames);
+    }
+
+    private void assertUsesIndex(String sql, Object[] parameters, String... indexNames) {
+        assertEquals(parameters.length, sql.chars().filter(c -> c == '?').count(),
+                "Parameters do not match the placeholders of:\n" + sql);
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters);
+        String text = String.join("\n", plan);
+        assertTrue(Arrays.stream(indexNames).anyMatch(text::contains),
+                "Expected one of " + Arrays.toString(indexNames) + " in plan:\n" + text);
+        assertFalse(text.contains("Seq Scan on parking_tickets") || text.contains("Seq Scan on slots"),
+                "Unexpected sequential scan in plan:\n" + text);
+    }
+
+    static class CapturingStatementInspector implements StatementInspector {
+
+        private final List<String> captured = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            captured.add(sql);
+            return sql;
+        }
+
+        List<String> captured() {
+            return List.copyOf(captured);
+        }
+
+        void clear() {
+            captured.clear();
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        @Bean
+        CapturingStatementInspector capturingStatementInspector() {
+            return new CapturingStatementInspector();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspectorCustomizer(CapturingStatementInspector inspector) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+}
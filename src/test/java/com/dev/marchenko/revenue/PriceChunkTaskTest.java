@@ -0,0 +1,90 @@
+package com.dev.marchenko.revenue;
+
+import com.dev.marchenko.demand.DemandTracker;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.dto.RevenueReportResponse;
+import com.dev.marchenko.service.PricingService;
+import com.dev.marchenko.strategy.RateCard;
+import com.dev.marchenko.strategy.RateCardStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceChunkTaskTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 2, 10, 12, 0);
+
+    private final PricingService pricingService = new PricingService(List.of(
+            hourly("2.00", VehicleType.CAR, VehicleType.MOTORCYCLE),
+            hourly("3.00", VehicleType.TRUCK)));
+
+    @Test
+    void compute_ShouldAddUpToTheSumOfTheSingleFees() {
+        Random random = new Random(7);
+        TicketChunk chunk = new TicketChunk(50_000);
+        long[] expectedByType = new long[VehicleType.values().length];
+        long expectedLevelTwo = 0;
+        while (!chunk.isFull()) {
+            VehicleType type = VehicleType.values()[random.nextInt(3)];
+            LocalDateTime entry = NOW.minusMinutes(random.nextInt(10_000));
+            long level = random.nextInt(4) == 0 ? TicketChunk.NONE : 1 + random.nextInt(3);
+            long surge = random.nextBoolean() ? DemandTracker.NO_SURGE : 1250;
+            chunk.add(type, entry, NOW, TicketChunk.UNRECORDED, level == TicketChunk.NONE ? level : 1, level, surge);
+
+            long fee = pricingService.rates().calculateCents(type, entry, NOW, surge);
+            expectedByType[type.ordinal()] += fee;
+            expectedLevelTwo += level == 2 ? fee : 0;
+        }
+
+        RevenueReportResponse report = ForkJoinPool.commonPool()
+                .invoke(new PriceChunkTask(pricingService.rates(), chunk, 1024))
+                .toResponse(null, NOW, 0L);
+
+        assertEquals(50_000, report.tickets());
+        for (VehicleType type : VehicleType.values()) {
+            assertEquals(BigDecimal.valueOf(expectedByType[type.ordinal()], 2), report.byVehicleType().get(type).priced());
+        }
+        assertEquals(BigDecimal.valueOf(expectedLevelTwo, 2), report.byLevel().get(2L).priced());
+        assertEquals(List.of(1L), List.copyOf(report.byLot().keySet()));
+        assertEquals(BigDecimal.valueOf(0, 2), report.recorded());
+    }
+
+    @Test
+    void compute_ShouldPriceTicketsWithTheSurgeTheyWereCharged() {
+        TicketChunk chunk = new TicketChunk(2);
+        chunk.add(VehicleType.CAR, NOW.minusHours(2), NOW, 600, 1, 1, 1500);
+        chunk.add(VehicleType.TRUCK, NOW.minusHours(1), NOW, 300, 1, 1, DemandTracker.NO_SURGE);
+
+        RevenueReportResponse report = ForkJoinPool.commonPool()
+                .invoke(new PriceChunkTask(pricingService.rates(), chunk, 1024))
+                .toResponse(null, NOW, 0L);
+
+        assertEquals(new BigDecimal("9.00"), report.priced());
+        assertEquals(report.recorded(), report.priced());
+    }
+
+    @Test
+    void clear_ShouldLetAChunkBeRefilled() {
+        TicketChunk chunk = new TicketChunk(2);
+        chunk.add(VehicleType.CAR, NOW.minusHours(1), NOW, 150, 1, 1, DemandTracker.NO_SURGE);
+        chunk.add(VehicleType.CAR, NOW.minusHours(1), NOW, 150, 1, 1, DemandTracker.NO_SURGE);
+        assertTrue(chunk.isFull());
+
+        chunk.clear();
+
+        assertEquals(0, chunk.size());
+        assertNull(chunk.entries[1]);
+    }
+
+    private static RateCardStrategy hourly(String rate, VehicleType... types) {
+        return new RateCardStrategy(new RateCard(0, 60, null,
+                List.of(new RateCard.Band(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, new BigDecimal(rate), null))), List.of(types));
+    }
+}
@@ -0,0 +1,104 @@
+package com.dev.marchenko.revenue;
+
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.dto.RevenueReportResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "parking.revenue.chunk-size=2",
+        "parking.revenue.chunks-in-flight=2",
+        "parking.revenue.parallelism=2"
+})
+public class RevenueProjectorIT {
+
+    @Autowired
+    private RevenueProjector revenueProjector;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM parking_ticket_history");
+        jdbcTemplate.update("DELETE FROM parking_tickets");
+        jdbcTemplate.update("DELETE FROM slots");
+        jdbcTemplate.update("DELETE FROM levels");
+        jdbcTemplate.update("DELETE FROM parking_lot");
+        jdbcTemplate.update("DELETE FROM vehicles");
+        jdbcTemplate.update("INSERT INTO parking_lot (id, name) VALUES (3000, 'Revenue Lot')");
+        jdbcTemplate.update("INSERT INTO levels (id, floor_number, parking_lot_id) VALUES (3000, 1, 3000), (3001, 2, 3000)");
+        jdbcTemplate.update("INSERT INTO slots (id, slot_number, type, available, level_id) VALUES " +
+                "(30001, 'A-1', 'COMPACT', false, 3000), (30002, 'B-1', 'LARGE', false, 3001), " +
+                "(30003, 'A-2', 'COMPACT', true, 3000)");
+        jdbcTemplate.update("INSERT INTO vehicles (license_plate, vehicle_type_id) VALUES " +
+                "('REV-CAR', 'CAR'), ('REV-TRUCK', 'TRUCK'), ('REV-LATE', 'CAR')");
+
+        insertTicket(1, "REV-CAR", 30001, "2026-02-10 09:30:00", null, null);
+        insertTicket(2, "REV-TRUCK", 30002, "2026-02-10 11:00:00", null, null);
+        insertTicket(3, "REV-LATE", 30003, "2026-02-10 13:00:00", null, null);
+        insertTicket(4, "REV-CAR", 30003, "2026-02-01 08:00:00", "2026-02-01 10:00:00", "5.00");
+        insertTicket(5, "REV-CAR", 30003, "2025-12-01 08:00:00", "2025-12-01 10:00:00", "4.00");
+        // archived, and its slot has been removed since
+        jdbcTemplate.update("INSERT INTO parking_ticket_history (id, entry_time, exit_time, fee, vehicle_plate, slot_id) " +
+                "VALUES (6, TIMESTAMP '2026-01-20 08:00:00', TIMESTAMP '2026-01-20 09:00:00', 3.00, 'REV-TRUCK', 99999)");
+    }
+
+    @Test
+    void projectOpen_ShouldPriceOpenSessionsAsIfTheyLeftNow() {
+        RevenueReportResponse report = revenueProjector.projectOpen(LocalDateTime.of(2026, 2, 10, 12, 30));
+
+        assertEquals(2, report.tickets());
+        assertEquals(new BigDecimal("12.00"), report.priced());
+        assertEquals(new BigDecimal("6.00"), report.byVehicleType().get(VehicleType.CAR).priced());
+        assertEquals(new BigDecimal("6.00"), report.byVehicleType().get(VehicleType.TRUCK).priced());
+        assertEquals(new BigDecimal("12.00"), report.byLot().get(3000L).priced());
+        assertEquals(new BigDecimal("6.00"), report.byLevel().get(3001L).priced());
+    }
+
+    @Test
+    void projectClosed_ShouldRepriceTicketsClosedInTheRangeIncludingArchivedOnes() {
+        RevenueReportResponse report = revenueProjector.projectClosed(
+                LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 3, 1, 0, 0));
+
+        assertEquals(2, report.tickets());
+        assertEquals(new BigDecimal("7.00"), report.priced());
+        assertEquals(new BigDecimal("8.00"), report.recorded());
+        assertEquals(new BigDecimal("4.00"), report.byVehicleType().get(VehicleType.CAR).priced());
+        assertEquals(new BigDecimal("5.00"), report.byVehicleType().get(VehicleType.CAR).recorded());
+        assertEquals(new BigDecimal("3.00"), report.byVehicleType().get(VehicleType.TRUCK).priced());
+        assertEquals(List.of(3000L), List.copyOf(report.byLevel().keySet()));
+        assertEquals(1, report.byLot().get(3000L).tickets());
+    }
+
+    @Test
+    void projectClosed_ShouldRepriceTicketsWithTheSurgeTheyWereCharged() {
+        jdbcTemplate.update("UPDATE parking_tickets SET surge_multiplier = 1250 WHERE id = 4");
+        jdbcTemplate.update("UPDATE parking_ticket_history SET surge_multiplier = 1500 WHERE id = 6");
+
+        RevenueReportResponse report = revenueProjector.projectClosed(
+                LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 3, 1, 0, 0));
+
+        assertEquals(new BigDecimal("5.00"), report.byVehicleType().get(VehicleType.CAR).priced());
+        assertEquals(new BigDecimal("5.00"), report.byVehicleType().get(VehicleType.CAR).recorded());
+        assertEquals(new BigDecimal("4.50"), report.byVehicleType().get(VehicleType.TRUCK).priced());
+    }
+
+    private void insertTicket(long id, String plate, long slotId, String entryTime, String exitTime, String fee) {
+        jdbcTemplate.update("INSERT INTO parking_tickets (id, entry_time, exit_time, fee, vehicle_plate, slot_id) " +
+                        "VALUES (?, CAST(? AS timestamp), CAST(? AS timestamp), ?, ?, ?)",
+                id, entryTime, exitTime, fee != null ? new BigDecimal(fee) : null, plate, slotId);
+    }
+}
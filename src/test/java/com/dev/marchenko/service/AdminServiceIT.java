@@ -8,13 +8,16 @@ import com.dev.marchenko.domain.ticket.ParkingTicket;
 import com.dev.marchenko.domain.vehicle.Car;
 import com.dev.marchenko.dto.LevelRequest;
 import com.dev.marchenko.dto.ParkingLotRequest;
+import com.dev.marchenko.dto.SlotRequest;
 import com.dev.marchenko.exception.ResourceNotFoundException;
 import com.dev.marchenko.repository.*;
+import com.dev.marchenko.topology.TopologySnapshot;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -41,6 +44,10 @@ public class AdminServiceIT {
     private VehicleRepository vehicleRepository;
     @Autowired
     private EntityManager entityManager;
+    @Autowired
+    private TopologySnapshot topology;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     private Long lotId;
     private Long levelId;
@@ -122,6 +129,21 @@ public class AdminServiceIT {
         assertThrows(IllegalStateException.class, () -> adminService.removeSlot(slotId));
     }
 
+    // As if another instance deleted them after this one last loaded the topology.
+    @Test
+    void writes_ShouldNotFindWhatWasDeletedSinceTheTopologyWasLoaded() {
+        topology.reloadLot(lotId);
+        assertTrue(topology.slot(slotId).isPresent());
+        jdbcTemplate.update("DELETE FROM slots WHERE id = ?", slotId);
+        jdbcTemplate.update("DELETE FROM levels WHERE id = ?", levelId);
+        jdbcTemplate.update("DELETE FROM parking_lot WHERE id = ?", lotId);
+
+        assertThrows(ResourceNotFoundException.class, () -> adminService.removeSlot(slotId));
+        assertThrows(ResourceNotFoundException.class,
+                () -> adminService.addSlot(levelId, new SlotRequest("A-101", SlotType.COMPACT)));
+        assertThrows(ResourceNotFoundException.class, () -> adminService.addLevel(lotId, new LevelRequest(2)));
+    }
+
     @Test
     void updateSlotAvailability_ShouldUpdateStatus() {
         adminService.updateSlotAvailability(slotId, false);
@@ -139,8 +161,7 @@ public class AdminServiceIT {
     }
 
     private void occupySlot(Long sId) {
-        Car car = new Car("TEST-CAR");
-        vehicleRepository.save(car);
+        Car car = vehicleRepository.save(new Car("TEST-CAR"));
 
         ParkingTicket ticket = new ParkingTicket();
         ticket.setVehicle(car);
@@ -3,22 +3,30 @@ package com.dev.marchenko.service;
 import com.dev.marchenko.domain.lot.Level;
 import com.dev.marchenko.domain.lot.ParkingLot;
 import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
 import com.dev.marchenko.domain.slot.SlotType;
 import com.dev.marchenko.dto.LevelRequest;
 import com.dev.marchenko.dto.ParkingLotRequest;
 import com.dev.marchenko.dto.SlotRequest;
+import com.dev.marchenko.event.SlotAvailabilityChangedEvent;
+import com.dev.marchenko.event.SlotRemovedEvent;
+import com.dev.marchenko.event.TopologyChangedEvent;
 import com.dev.marchenko.exception.ResourceNotFoundException;
 import com.dev.marchenko.factory.SlotFactory;
 import com.dev.marchenko.repository.LevelRepository;
 import com.dev.marchenko.repository.ParkingLotRepository;
 import com.dev.marchenko.repository.SlotRepository;
 import com.dev.marchenko.repository.TicketRepository;
+import com.dev.marchenko.topology.LevelNode;
+import com.dev.marchenko.topology.SlotNode;
+import com.dev.marchenko.topology.TopologySnapshot;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -41,6 +49,10 @@ public class AdminServiceTest {
     private SlotFactory slotFactory;
     @Mock
     private TicketRepository ticketRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private TopologySnapshot topology;
 
     @InjectMocks
     private AdminService adminService;
@@ -86,7 +98,8 @@ public class AdminServiceTest {
         @Test
         void addLevel_Success() {
             ParkingLot lot = new ParkingLot();
-            when(lotRepository.findById(1L)).thenReturn(Optional.of(lot));
+            when(lotRepository.existsById(1L)).thenReturn(true);
+            when(lotRepository.getReferenceById(1L)).thenReturn(lot);
             when(levelRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
             Level level = adminService.addLevel(1L, new LevelRequest(2));
@@ -95,6 +108,15 @@ public class AdminServiceTest {
             assertEquals(lot, level.getParkingLot());
         }
 
+        @Test
+        void addLevel_ShouldCheckTheDatabaseForALotKnownToTheTopology() {
+            when(lotRepository.existsById(1L)).thenReturn(false);
+
+            assertThrows(ResourceNotFoundException.class, () -> adminService.addLevel(1L, new LevelRequest(2)));
+            verify(lotRepository, never()).getReferenceById(any());
+            verify(levelRepository, never()).save(any());
+        }
+
         @Test
         void removeLevel_Occupied() {
             Level level = new Level();
@@ -127,6 +149,71 @@ public class AdminServiceTest {
             verify(slotRepository).save(any());
         }
 
+        @Test
+        void addSlots_ShouldSaveAllSlotsInOneCall() {
+            Level level = new Level();
+            level.setSlots(new ArrayList<>());
+            List<SlotRequest> requests = List.of(
+                    new SlotRequest("B-1", SlotType.COMPACT),
+                    new SlotRequest("B-2", SlotType.LARGE));
+
+            when(levelRepository.findById(1L)).thenReturn(Optional.of(level));
+            when(slotFactory.createSlot(anyString(), any(), any()))
+                    .thenAnswer(invocation -> new ParkingSlot(invocation.getArgument(0), invocation.getArgument(1), level));
+            when(slotRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+            List<ParkingSlot> result = adminService.addSlots(1L, requests);
+
+            assertEquals(2, result.size());
+            assertTrue(result.stream().allMatch(slot -> slot.getLevel() == level));
+            verify(slotRepository).saveAll(anyList());
+            verify(slotRepository, never()).save(any());
+            verify(eventPublisher, times(2)).publishEvent(any(SlotAvailabilityChangedEvent.class));
+        }
+
+        @Test
+        void addSlot_ShouldOnlyReferenceALevelKnownToTheTopology() {
+            Level level = new Level();
+            level.setId(1L);
+            when(topology.level(1L)).thenReturn(Optional.of(new LevelNode(1L, 7L, 3)));
+            when(levelRepository.existsById(1L)).thenReturn(true);
+            when(levelRepository.getReferenceById(1L)).thenReturn(level);
+            when(slotFactory.createSlot(anyString(), any(), any()))
+                    .thenAnswer(invocation -> new ParkingSlot(invocation.getArgument(0), invocation.getArgument(1), level));
+            when(slotRepository.save(any())).thenAnswer(invocation -> {
+                ParkingSlot saved = invocation.getArgument(0);
+                saved.setId(42L);
+                return saved;
+            });
+
+            adminService.addSlot(1L, new SlotRequest("C-1", SlotType.LARGE));
+
+            verify(levelRepository, never()).findById(any());
+            verify(eventPublisher).publishEvent(new SlotAvailabilityChangedEvent(
+                    new SlotSnapshot(42L, 7L, 1L, 3, SlotType.LARGE), true));
+            verify(eventPublisher).publishEvent(new TopologyChangedEvent(7L));
+        }
+
+        @Test
+        void addSlot_ShouldRejectALevelDeletedSinceTheTopologyWasLoaded() {
+            when(topology.level(1L)).thenReturn(Optional.of(new LevelNode(1L, 7L, 3)));
+            when(levelRepository.existsById(1L)).thenReturn(false);
+            when(levelRepository.findById(1L)).thenReturn(Optional.empty());
+
+            assertThrows(ResourceNotFoundException.class, () -> adminService.addSlot(1L, new SlotRequest("C-1", SlotType.LARGE)));
+            verify(levelRepository, never()).getReferenceById(any());
+            verify(slotRepository, never()).save(any());
+        }
+
+        @Test
+        void addSlots_LevelNotFound() {
+            when(levelRepository.findById(1L)).thenReturn(Optional.empty());
+
+            assertThrows(ResourceNotFoundException.class,
+                    () -> adminService.addSlots(1L, List.of(new SlotRequest("B-1", SlotType.COMPACT))));
+            verify(slotRepository, never()).saveAll(anyList());
+        }
+
         @Test
         void removeSlot_Success() {
             when(slotRepository.existsById(1L)).thenReturn(true);
@@ -135,6 +222,26 @@ public class AdminServiceTest {
             adminService.removeSlot(1L);
 
             verify(slotRepository).deleteById(1L);
+            verify(eventPublisher).publishEvent(new SlotRemovedEvent(1L));
+        }
+
+        @Test
+        void removeSlot_ShouldTakeTheLotOfASlotFromTheTopology() {
+            when(slotRepository.existsById(1L)).thenReturn(true);
+            when(topology.slot(1L)).thenReturn(Optional.of(new SlotNode(1L, "A-1", SlotType.COMPACT, 10L, 7L, 1)));
+
+            adminService.removeSlot(1L);
+
+            verify(slotRepository).deleteById(1L);
+            verify(eventPublisher).publishEvent(new TopologyChangedEvent(7L));
+        }
+
+        @Test
+        void removeSlot_ShouldNotFindASlotDeletedSinceTheTopologyWasLoaded() {
+            when(slotRepository.existsById(1L)).thenReturn(false);
+
+            assertThrows(ResourceNotFoundException.class, () -> adminService.removeSlot(1L));
+            verify(slotRepository, never()).deleteById(any());
         }
 
         @Test
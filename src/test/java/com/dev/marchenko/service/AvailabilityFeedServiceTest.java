@@ -0,0 +1,111 @@
+package com.dev.marchenko.service;
+
+import com.dev.marchenko.allocation.FreeSlotCounters;
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.repository.SlotRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AvailabilityFeedServiceTest {
+
+    private static final SlotSnapshot LOT1_COMPACT = new SlotSnapshot(1L, 1L, 10L, 1, SlotType.COMPACT);
+    private static final SlotSnapshot LOT1_LARGE = new SlotSnapshot(2L, 1L, 11L, 2, SlotType.LARGE);
+    private static final SlotSnapshot LOT2_COMPACT = new SlotSnapshot(3L, 2L, 20L, 1, SlotType.COMPACT);
+
+    @Mock
+    private SlotRepository slotRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private FreeSlotCounters counters;
+    private AvailabilityFeedService feed;
+
+    @BeforeEach
+    void setUp() {
+        when(slotRepository.findAllSnapshots()).thenReturn(List.of(LOT1_COMPACT, LOT1_LARGE, LOT2_COMPACT));
+        when(slotRepository.findAllAvailableSnapshots()).thenReturn(List.of(LOT1_COMPACT, LOT1_LARGE, LOT2_COMPACT));
+        counters = spy(new FreeSlotCounters(slotRepository));
+        counters.rebuild();
+        feed = new AvailabilityFeedService(counters, objectMapper, Duration.ofMinutes(1), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void current_ShouldGroupLevelsByLot() throws Exception {
+        JsonNode snapshot = objectMapper.readTree(feed.current(null));
+
+        assertEquals(2, snapshot.get("lots").size());
+        JsonNode lot1 = snapshot.get("lots").get(0);
+        assertEquals(1, lot1.get("lotId").asLong());
+        assertEquals(1, lot1.get("freeSlots").get("COMPACT").asInt());
+        assertEquals(1, lot1.get("freeSlots").get("LARGE").asInt());
+        assertEquals(2, lot1.get("levels").size());
+    }
+
+    @Test
+    void current_ShouldFilterByLot() throws Exception {
+        JsonNode snapshot = objectMapper.readTree(feed.current(2L));
+
+        assertEquals(1, snapshot.get("lots").size());
+        assertEquals(2, snapshot.get("lots").get(0).get("lotId").asLong());
+        assertEquals(0, objectMapper.readTree(feed.current(99L)).get("lots").size());
+    }
+
+    @Test
+    void publish_ShouldCoalesceChangesIntoOneSnapshot() throws Exception {
+        feed.current(null);
+        counters.markTaken(1L);
+        counters.markTaken(2L);
+        counters.markTaken(3L);
+
+        feed.publish();
+        feed.publish();
+
+        JsonNode snapshot = objectMapper.readTree(feed.current(null));
+        assertEquals(counters.getVersion(), snapshot.get("version").asLong());
+        assertEquals(0, snapshot.get("lots").get(0).get("freeSlots").get("COMPACT").asInt());
+        verify(counters, times(2)).levels();
+    }
+
+    @Test
+    void poll_ShouldAnswerImmediately_WhenCallerIsBehind() {
+        DeferredResult<String> result = feed.poll(null, -1L);
+
+        assertTrue(result.hasResult());
+    }
+
+    @Test
+    void poll_ShouldWaitForNextSnapshot() throws Exception {
+        long version = objectMapper.readTree(feed.current(1L)).get("version").asLong();
+
+        DeferredResult<String> result = feed.poll(1L, version);
+        assertFalse(result.hasResult());
+
+        counters.markTaken(1L);
+        feed.publish();
+
+        assertTrue(result.hasResult());
+        JsonNode snapshot = objectMapper.readTree((String) result.getResult());
+        assertTrue(snapshot.get("version").asLong() > version);
+        assertEquals(0, snapshot.get("lots").get(0).get("freeSlots").get("COMPACT").asInt());
+    }
+
+    @Test
+    void subscribe_ShouldRegisterSubscriber() {
+        feed.subscribe(null);
+
+        assertEquals(1, feed.subscriberCount());
+    }
+}
@@ -1,21 +1,41 @@
 package com.dev.marchenko.service;
 
+import com.dev.marchenko.allocation.ConditionalUpdateSlotAllocator;
+import com.dev.marchenko.allocation.FreeSlotCounters;
+import com.dev.marchenko.allocation.LockingSlotAllocator;
+import com.dev.marchenko.allocation.SlotAllocator;
+import com.dev.marchenko.allocation.SlotAvailabilityIndex;
 import com.dev.marchenko.domain.lot.Level;
 import com.dev.marchenko.domain.lot.ParkingLot;
 import com.dev.marchenko.domain.slot.ParkingSlot;
 import com.dev.marchenko.domain.slot.SlotType;
 import com.dev.marchenko.domain.ticket.ParkingTicket;
+import com.dev.marchenko.domain.ticket.TicketView;
 import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.dto.SessionFilter;
 import com.dev.marchenko.exception.NoAvailableSlotException;
+import com.dev.marchenko.exception.TicketAlreadyClosedException;
 import com.dev.marchenko.exception.VehicleAlreadyParkedException;
 import com.dev.marchenko.repository.*;
+import com.dev.marchenko.session.ActiveSessionRegistry;
+import com.dev.marchenko.vehicle.VehicleRegistry;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.sql.DataSource;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -24,6 +44,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@TestPropertySource(properties = "parking.allocation.mode=index")
 public class ParkingServiceIT extends BaseIntegrationTest {
 
     @Autowired
@@ -40,6 +61,18 @@ public class ParkingServiceIT extends BaseIntegrationTest {
     private VehicleRepository vehicleRepository;
     @Autowired
     private EntityManager entityManager;
+    @Autowired
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+    @Autowired
+    private FreeSlotCounters freeSlotCounters;
+    @Autowired
+    private ActiveSessionRegistry activeSessionRegistry;
+    @Autowired
+    private VehicleRegistry vehicleRegistry;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private DataSource dataSource;
 
     private Long compactSlotId;
 
@@ -79,11 +112,15 @@ public class ParkingServiceIT extends BaseIntegrationTest {
         handiSlot.setLevel(level);
         slotRepository.save(handiSlot);
 
+        slotAvailabilityIndex.rebuild();
+        freeSlotCounters.rebuild();
+        activeSessionRegistry.rebuild();
+        vehicleRegistry.rebuild();
     }
 
     @Test
     void checkIn_ShouldUpdateDatabaseState() {
-        parkingService.checkIn("REAL-001", VehicleType.CAR, false);
+        parkingService.checkIn(null, "REAL-001", VehicleType.CAR, false);
 
         ParkingSlot savedSlot = slotRepository.findById(compactSlotId).orElseThrow();
         assertFalse(savedSlot.isAvailable(), "The database slot must be occupied.");
@@ -111,7 +148,7 @@ public class ParkingServiceIT extends BaseIntegrationTest {
             executor.execute(() -> {
                 try {
                     startLatch.await();
-                    parkingService.checkIn(plate, VehicleType.CAR, false);
+                    parkingService.checkIn(null, plate, VehicleType.CAR, false);
                     successCount.incrementAndGet();
                 } catch (NoAvailableSlotException e) {
                     errorCount.incrementAndGet();
@@ -133,15 +170,36 @@ public class ParkingServiceIT extends BaseIntegrationTest {
 
     @Test
     void checkIn_ShouldThrowIfAlreadyInDb() {
-        parkingService.checkIn("DUP-111", VehicleType.CAR, false);
+        parkingService.checkIn(null, "DUP-111", VehicleType.CAR, false);
 
         assertThrows(VehicleAlreadyParkedException.class,
-                () -> parkingService.checkIn("DUP-111", VehicleType.CAR, false));
+                () -> parkingService.checkIn(null, "DUP-111", VehicleType.CAR, false));
+    }
+
+    @Test
+    void checkIn_ShouldThrowIfParkedThroughAnotherInstance() {
+        parkingService.checkIn(null, "DUP-222", VehicleType.CAR, false);
+        activeSessionRegistry.evict(activeSessionRegistry.find("DUP-222").orElseThrow());
+
+        assertThrows(VehicleAlreadyParkedException.class,
+                () -> parkingService.checkIn(null, "DUP-222", VehicleType.CAR, false));
+        assertEquals(1, ticketRepository.findAllByExitTimeIsNull().size());
+    }
+
+    @Test
+    void checkIn_ShouldAcceptVehicleCheckedOutThroughAnotherInstance() {
+        ParkingTicket first = parkingService.checkIn(null, "DUP-333", VehicleType.CAR, false);
+        new JdbcTemplate(dataSource).update("UPDATE parking_tickets SET exit_time = entry_time WHERE id = ?", first.getId());
+
+        ParkingTicket second = parkingService.checkIn(null, "DUP-333", VehicleType.CAR, false);
+
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals(second.getId(), activeSessionRegistry.find("DUP-333").orElseThrow().ticketId());
     }
 
     @Test
     void checkOut_ShouldReleaseSlotAndCalculateFee() {
-        ParkingTicket ticket = parkingService.checkIn("L-123", VehicleType.CAR, false);
+        ParkingTicket ticket = parkingService.checkIn(null, "L-123", VehicleType.CAR, false);
         Long ticketId = ticket.getId();
 
         ticket.setEntryTime(LocalDateTime.now().minusHours(2));
@@ -161,7 +219,7 @@ public class ParkingServiceIT extends BaseIntegrationTest {
 
     @Test
     void checkIn_HandicappedShouldGetSpecialSlot() {
-        ParkingTicket response = parkingService.checkIn("HANDI-1", VehicleType.CAR, true);
+        ParkingTicket response = parkingService.checkIn(null, "HANDI-1", VehicleType.CAR, true);
         assertEquals("H-1", response.getSlot().getSlotNumber());
 
         ParkingSlot slotInDb = slotRepository.findAll().stream()
@@ -172,9 +230,9 @@ public class ParkingServiceIT extends BaseIntegrationTest {
 
     @Test
     void checkIn_HandicappedShouldFallbackToRegularSlotIfHandiFull() {
-        parkingService.checkIn("HANDI-1", VehicleType.CAR, true);
+        parkingService.checkIn(null, "HANDI-1", VehicleType.CAR, true);
 
-        ParkingTicket response = parkingService.checkIn("HANDI-2", VehicleType.CAR, true);
+        ParkingTicket response = parkingService.checkIn(null, "HANDI-2", VehicleType.CAR, true);
 
         String slotNum = response.getSlot().getSlotNumber();
         assertTrue(slotNum.startsWith("C") || slotNum.startsWith("L"),
@@ -183,7 +241,7 @@ public class ParkingServiceIT extends BaseIntegrationTest {
 
     @Test
     void checkOut_ShouldCalculateCorrectFeeForTwoHours() {
-        ParkingTicket ticket = parkingService.checkIn("FEE-123", VehicleType.CAR, false);
+        ParkingTicket ticket = parkingService.checkIn(null, "FEE-123", VehicleType.CAR, false);
 
         ticket.setEntryTime(LocalDateTime.now().minusHours(2));
         ticketRepository.saveAndFlush(ticket);
@@ -197,10 +255,84 @@ public class ParkingServiceIT extends BaseIntegrationTest {
                 "The cost for 2 hours (at 2.00/hour) should be 4.00");
     }
 
+    @Test
+    void checkOut_ConcurrencyTest_ShouldCloseTicketOnlyOnce() throws InterruptedException {
+        ParkingTicket ticket = parkingService.checkIn(null, "EXIT-1", VehicleType.CAR, false);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch endLatch = new CountDownLatch(threads);
+        AtomicInteger closed = new AtomicInteger();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    startLatch.await();
+                    parkingService.checkOut(ticket.getId());
+                    closed.incrementAndGet();
+                } catch (Throwable e) {
+                    failures.add(e);
+                } finally {
+                    endLatch.countDown();
+                }
+            });
+        }
+
+        startLatch.countDown();
+        assertTrue(endLatch.await(10, TimeUnit.SECONDS), "The test did not complete on time.");
+        executor.shutdown();
+
+        assertEquals(1, closed.get(), "Exactly one exit gate should close the ticket");
+        assertEquals(threads - 1, failures.size(), () -> "Unexpected failures: " + failures);
+        assertTrue(failures.stream().allMatch(TicketAlreadyClosedException.class::isInstance),
+                () -> "Only TicketAlreadyClosedException expected, got: " + failures);
+        ParkingTicket stored = ticketRepository.findById(ticket.getId()).orElseThrow();
+        assertNotNull(stored.getExitTime());
+        assertEquals(0, new BigDecimal("2.00").compareTo(stored.getFee()));
+        assertTrue(slotRepository.findById(ticket.getSlot().getId()).orElseThrow().isAvailable());
+    }
+
+    @Test
+    void getActiveSessions_ShouldPageByTicketIdAndFilter() {
+        ParkingTicket car = parkingService.checkIn(null, "PAGE-1", VehicleType.CAR, false);
+        ParkingTicket truck = parkingService.checkIn(null, "PAGE-2", VehicleType.TRUCK, false);
+        ParkingTicket moto = parkingService.checkIn(null, "PAGE-3", VehicleType.MOTORCYCLE, true);
+
+        List<TicketView> firstPage = parkingService.getActiveSessions(SessionFilter.none(), null, 2);
+        List<TicketView> secondPage = parkingService.getActiveSessions(SessionFilter.none(), firstPage.get(1).ticketId(), 2);
+
+        assertEquals(List.of(car.getId(), truck.getId()), firstPage.stream().map(TicketView::ticketId).toList());
+        assertEquals(List.of(moto.getId()), secondPage.stream().map(TicketView::ticketId).toList());
+        assertEquals(VehicleType.MOTORCYCLE, secondPage.get(0).vehicleType());
+
+        SessionFilter trucks = new SessionFilter(car.getSlot().getLevel().getParkingLot().getId(), null, VehicleType.TRUCK,
+                LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1));
+        assertEquals(List.of(truck.getId()), parkingService.getActiveSessions(trucks, null, 10).stream()
+                .map(TicketView::ticketId).toList());
+
+        SessionFilter future = new SessionFilter(null, null, null, LocalDateTime.now().plusHours(1), null);
+        assertTrue(parkingService.getActiveSessions(future, null, 10).isEmpty());
+    }
+
+    @Test
+    void streamActiveSessions_ShouldVisitEveryMatchingSession() {
+        parkingService.checkIn(null, "STREAM-1", VehicleType.CAR, false);
+        parkingService.checkIn(null, "STREAM-2", VehicleType.TRUCK, false);
+        List<String> plates = new ArrayList<>();
+
+        parkingService.streamActiveSessions(new SessionFilter(null, null, VehicleType.CAR, null, null),
+                ticket -> plates.add(ticket.licensePlate() + "@" + ticket.levelFloor()));
+
+        assertEquals(List.of("STREAM-1@1"), plates);
+    }
+
     @Test
     void checkIn_ConcurrencyTest_ShouldAllowOnlyOneVehicle() throws InterruptedException {
         ticketRepository.deleteAllInBatch();
         vehicleRepository.deleteAllInBatch();
+        vehicleRegistry.rebuild();
 
         slotRepository.findAll().stream()
                 .filter(s -> !s.getSlotNumber().equals("C-1"))
@@ -218,7 +350,7 @@ public class ParkingServiceIT extends BaseIntegrationTest {
             executor.execute(() -> {
                 try {
                     startLatch.await();
-                    parkingService.checkIn(uniquePlate, VehicleType.CAR, false);
+                    parkingService.checkIn(null, uniquePlate, VehicleType.CAR, false);
                     success.incrementAndGet();
                 } catch (Exception e) {
                     failure.incrementAndGet();
@@ -237,4 +369,70 @@ public class ParkingServiceIT extends BaseIntegrationTest {
 
         executor.shutdown();
     }
-}
\ No newline at end of file
+
+    @Test
+    void allocationModes_ShouldClaimEverySlotExactlyOnceUnderConcurrency() throws InterruptedException {
+        int slotCount = 40;
+        int threads = 8;
+        Level level = levelRepository.findAll().get(0);
+        slotRepository.deleteAllInBatch();
+        for (int i = 0; i < slotCount; i++) {
+            ParkingSlot slot = new ParkingSlot();
+            slot.setSlotNumber("B-" + i);
+            slot.setType(SlotType.COMPACT);
+            slot.setAvailable(true);
+            slot.setLevel(level);
+            slotRepository.save(slot);
+        }
+
+        assertEveryAllocationSucceeds(new LockingSlotAllocator(slotRepository), threads, slotCount);
+        assertEveryAllocationSucceeds(new ConditionalUpdateSlotAllocator(slotRepository, dataSource, 5), threads, slotCount);
+    }
+
+    // Every thread makes its share of the allocations at once; all of them must get a slot of their own.
+    private void assertEveryAllocationSucceeds(SlotAllocator allocator, int threads, int slotCount) throws InterruptedException {
+        slotRepository.findAll().forEach(slot -> {
+            slot.setAvailable(true);
+            slotRepository.save(slot);
+        });
+
+        Set<Long> claimed = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch doneLatch = new CountDownLatch(threads);
+
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    startLatch.await();
+                    for (int n = 0; n < slotCount / threads; n++) {
+                        Long slotId = transactionTemplate.execute(status ->
+                                allocator.allocate(null, VehicleType.CAR, false).getId());
+                        if (!claimed.add(slotId)) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    failures.add(e);
+                } finally {
+                    doneLatch.countDown();
+                }
+            });
+        }
+
+        startLatch.countDown();
+        assertTrue(doneLatch.await(40, TimeUnit.SECONDS), "The burst did not complete on time.");
+        executor.shutdown();
+
+        assertEquals(List.of(), List.copyOf(failures), "Every allocation should succeed");
+        assertEquals(0, duplicates.get(), "A slot must never be handed out twice");
+        assertEquals(slotCount, claimed.size(), "Every slot should be claimed exactly once");
+        assertTrue(slotRepository.findAll().stream().noneMatch(ParkingSlot::isAvailable));
+        assertThrows(NoAvailableSlotException.class, () -> transactionTemplate.execute(status ->
+                allocator.allocate(null, VehicleType.CAR, false)));
+    }
+}
@@ -1,30 +1,68 @@
 package com.dev.marchenko.service;
 
+import com.dev.marchenko.allocation.FreeSlotCounters;
+import com.dev.marchenko.allocation.SlotAllocator;
+import com.dev.marchenko.demand.DemandTracker;
 import com.dev.marchenko.domain.lot.Level;
 import com.dev.marchenko.domain.slot.ParkingSlot;
 import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.domain.ticket.ClosedTicketView;
 import com.dev.marchenko.domain.ticket.ParkingTicket;
+import com.dev.marchenko.domain.ticket.TicketView;
 import com.dev.marchenko.domain.vehicle.*;
+import com.dev.marchenko.dto.BatchItemResponse;
+import com.dev.marchenko.dto.CheckInRequest;
+import com.dev.marchenko.dto.CheckOutResponse;
+import com.dev.marchenko.dto.SessionFilter;
+import com.dev.marchenko.dto.TicketResponse;
+import com.dev.marchenko.event.SlotAvailabilityChangedEvent;
 import com.dev.marchenko.exception.*;
+import com.dev.marchenko.mapper.ParkingMapper;
+import com.dev.marchenko.repository.ArchivedTicketRepository;
+import com.dev.marchenko.repository.ParkingLotRepository;
 import com.dev.marchenko.repository.SlotRepository;
 import com.dev.marchenko.repository.TicketRepository;
-import com.dev.marchenko.repository.VehicleRepository;
+import com.dev.marchenko.session.ActiveSession;
+import com.dev.marchenko.session.ActiveSessionRegistry;
+import com.dev.marchenko.strategy.RateTable;
+import com.dev.marchenko.topology.SlotNode;
+import com.dev.marchenko.topology.TopologySnapshot;
+import com.dev.marchenko.vehicle.VehicleRegistry;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,13 +70,35 @@ import static org.mockito.Mockito.when;
 public class ParkingServiceTest {
 
     @Mock
-    private VehicleRepository vehicleRepository;
+    private VehicleRegistry vehicleRegistry;
+    @Mock
+    private ParkingLotRepository parkingLotRepository;
     @Mock
     private SlotRepository slotRepository;
     @Mock
     private TicketRepository ticketRepository;
     @Mock
+    private ArchivedTicketRepository archivedTicketRepository;
+    @Mock
     private PricingService pricingService;
+    @Mock
+    private RateTable rates;
+    @Mock
+    private SlotAllocator slotAllocator;
+    @Mock
+    private FreeSlotCounters freeSlotCounters;
+    @Mock
+    private DemandTracker demandTracker;
+    @Mock
+    private ActiveSessionRegistry activeSessions;
+    @Mock
+    private TopologySnapshot topology;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ParkingMapper parkingMapper;
+    @Mock
+    private Validator validator;
 
     @InjectMocks
     private ParkingService parkingService;
@@ -51,11 +111,13 @@ public class ParkingServiceTest {
         plate = "ABC-123";
         mockLevel = new Level();
         mockLevel.setFloorNumber(1);
-        org.mockito.Mockito.lenient().when(slotRepository.saveAndFlush(any()))
-                .thenAnswer(invocation -> invocation.getArgument(0));
-
-        org.mockito.Mockito.lenient().when(ticketRepository.save(any()))
+        org.mockito.Mockito.lenient().when(ticketRepository.saveAndFlush(any()))
                 .thenAnswer(invocation -> invocation.getArgument(0));
+        org.mockito.Mockito.lenient().when(freeSlotCounters.hasCapacity(any(), any())).thenReturn(true);
+        org.mockito.Mockito.lenient().when(activeSessions.reserve(any())).thenReturn(true);
+        org.mockito.Mockito.lenient().when(pricingService.rates()).thenReturn(rates);
+        org.mockito.Mockito.lenient().when(rates.version()).thenReturn(3L);
+        org.mockito.Mockito.lenient().when(rates.surgeMultiplier(any(), any())).thenReturn(DemandTracker.NO_SURGE);
     }
 
     @Nested
@@ -64,91 +126,210 @@ public class ParkingServiceTest {
         @Test
         void checkIn_Success_NewVehicle() {
             ParkingSlot slot = createMockSlot("A1", SlotType.MOTORCYCLE);
-            when(vehicleRepository.findById(plate)).thenReturn(Optional.empty());
-            when(vehicleRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
-            when(ticketRepository.existsByVehicleAndExitTimeIsNull(any())).thenReturn(false);
-            when(slotRepository.findFirstByAvailableTrueAndTypeOrderByLevelFloorNumberAsc(SlotType.MOTORCYCLE))
-                    .thenReturn(Optional.of(slot));
-            when(ticketRepository.save(any())).thenAnswer(inv -> {
+            when(vehicleRegistry.register(plate, VehicleType.MOTORCYCLE)).thenReturn(VehicleType.MOTORCYCLE);
+            when(vehicleRegistry.reference(plate, VehicleType.MOTORCYCLE)).thenReturn(new Motorcycle(plate));
+            when(slotAllocator.allocate(null, VehicleType.MOTORCYCLE, false)).thenReturn(slot);
+            when(ticketRepository.saveAndFlush(any())).thenAnswer(inv -> {
                 ParkingTicket t = inv.getArgument(0);
                 t.setId(1L);
                 return t;
             });
 
-            ParkingTicket result = parkingService.checkIn(plate, VehicleType.MOTORCYCLE, false);
+            ParkingTicket result = parkingService.checkIn(null, plate, VehicleType.MOTORCYCLE, false);
 
             assertNotNull(result);
             assertEquals(plate, result.getVehicle().getLicensePlate());
-            assertFalse(slot.isAvailable());
-            verify(slotRepository).saveAndFlush(slot);
+            assertEquals(slot, result.getSlot());
+            verify(activeSessions).open(result);
+            verify(eventPublisher).publishEvent(argThat((Object e) ->
+                    e instanceof SlotAvailabilityChangedEvent changed && !changed.available()));
         }
 
         @Test
-        void checkIn_PrioritySelection() {
-            ParkingSlot compactSlot = createMockSlot("C1", SlotType.COMPACT);
-            when(vehicleRepository.findById(plate)).thenReturn(Optional.of(new Motorcycle(plate)));
-            when(ticketRepository.existsByVehicleAndExitTimeIsNull(any())).thenReturn(false);
-
-            when(slotRepository.findFirstByAvailableTrueAndTypeOrderByLevelFloorNumberAsc(SlotType.MOTORCYCLE))
-                    .thenReturn(Optional.empty());
-            when(slotRepository.findFirstByAvailableTrueAndTypeOrderByLevelFloorNumberAsc(SlotType.COMPACT))
-                    .thenReturn(Optional.of(compactSlot));
+        void checkIn_Throws_TypeMismatch() {
+            when(vehicleRegistry.register(plate, VehicleType.TRUCK)).thenReturn(VehicleType.CAR);
 
-            when(ticketRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+            assertThrows(LicensePlateAlreadyRegisteredException.class,
+                    () -> parkingService.checkIn(null, plate, VehicleType.TRUCK, false));
+            verify(activeSessions, never()).reserve(any());
+        }
 
-            parkingService.checkIn(plate, VehicleType.MOTORCYCLE, false);
+        @Test
+        void checkIn_Throws_AlreadyParked() {
+            when(vehicleRegistry.register(plate, VehicleType.CAR)).thenReturn(VehicleType.CAR);
+            when(activeSessions.reserve(plate)).thenReturn(false);
 
-            verify(slotRepository).findFirstByAvailableTrueAndTypeOrderByLevelFloorNumberAsc(SlotType.MOTORCYCLE);
-            verify(slotRepository).findFirstByAvailableTrueAndTypeOrderByLevelFloorNumberAsc(SlotType.COMPACT);
-            assertFalse(compactSlot.isAvailable());
+            assertThrows(VehicleAlreadyParkedException.class,
+                    () -> parkingService.checkIn(null, plate, VehicleType.CAR, false));
+            verify(slotAllocator, never()).allocate(any(), any(), anyBoolean());
         }
 
         @Test
-        void checkIn_Throws_TypeMismatch() {
-            Vehicle existingCar = new Car(plate);
-            when(vehicleRepository.findById(plate)).thenReturn(Optional.of(existingCar));
-
-            assertThrows(LicensePlateAlreadyRegisteredException.class,
-                    () -> parkingService.checkIn(plate, VehicleType.TRUCK, false));
+        void checkIn_ShouldEvictSessionClosedThroughAnotherInstance() {
+            ActiveSession stale = new ActiveSession(7L, 11L, 1_700_000_000L);
+            ParkingSlot slot = createMockSlot("A1", SlotType.COMPACT);
+            when(vehicleRegistry.register(plate, VehicleType.CAR)).thenReturn(VehicleType.CAR);
+            when(vehicleRegistry.reference(plate, VehicleType.CAR)).thenReturn(new Car(plate));
+            when(activeSessions.reserve(plate)).thenReturn(false, true);
+            when(activeSessions.find(plate)).thenReturn(Optional.of(stale));
+            when(ticketRepository.existsByIdAndExitTimeIsNull(7L)).thenReturn(false);
+            when(slotAllocator.allocate(null, VehicleType.CAR, false)).thenReturn(slot);
+
+            assertEquals(slot, parkingService.checkIn(null, plate, VehicleType.CAR, false).getSlot());
+            verify(activeSessions).evict(plate, stale);
         }
 
         @Test
-        void checkIn_Throws_AlreadyParked() {
-            Vehicle vehicle = new Car(plate);
-            when(vehicleRepository.findById(plate)).thenReturn(Optional.of(vehicle));
-            when(ticketRepository.existsByVehicleAndExitTimeIsNull(vehicle)).thenReturn(true);
+        void checkIn_Throws_AlreadyParkedThroughAnotherInstance() {
+            ParkingSlot slot = createMockSlot("A1", SlotType.COMPACT);
+            when(vehicleRegistry.register(plate, VehicleType.CAR)).thenReturn(VehicleType.CAR);
+            when(slotAllocator.allocate(null, VehicleType.CAR, false)).thenReturn(slot);
+            when(ticketRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate",
+                    new ConstraintViolationException("duplicate", null, "uk_tickets_open_vehicle")));
 
             assertThrows(VehicleAlreadyParkedException.class,
-                    () -> parkingService.checkIn(plate, VehicleType.CAR, false));
+                    () -> parkingService.checkIn(null, plate, VehicleType.CAR, false));
         }
 
         @Test
         void checkIn_Throws_NoAvailableSlots() {
-            when(vehicleRepository.findById(plate)).thenReturn(Optional.of(new Truck(plate)));
-            when(ticketRepository.existsByVehicleAndExitTimeIsNull(any())).thenReturn(false);
-            when(slotRepository.findFirstByAvailableTrueAndTypeOrderByLevelFloorNumberAsc(any()))
-                    .thenReturn(Optional.empty());
+            when(vehicleRegistry.register(plate, VehicleType.TRUCK)).thenReturn(VehicleType.TRUCK);
+            when(slotAllocator.allocate(null, VehicleType.TRUCK, false))
+                    .thenThrow(new NoAvailableSlotException(VehicleType.TRUCK.name()));
+
+            assertThrows(NoAvailableSlotException.class,
+                    () -> parkingService.checkIn(null, plate, VehicleType.TRUCK, false));
+        }
+
+        @Test
+        void checkIn_ShouldRejectFullLotWithoutAllocating() {
+            when(vehicleRegistry.register(plate, VehicleType.CAR)).thenReturn(VehicleType.CAR);
+            when(slotAllocator.allocatesFromLocalState()).thenReturn(true);
+            when(freeSlotCounters.hasCapacity(1L, List.of(SlotType.COMPACT, SlotType.LARGE))).thenReturn(false);
+            when(parkingLotRepository.existsById(1L)).thenReturn(true);
 
             assertThrows(NoAvailableSlotException.class,
-                    () -> parkingService.checkIn(plate, VehicleType.TRUCK, false));
+                    () -> parkingService.checkIn(1L, plate, VehicleType.CAR, false));
+            verify(slotAllocator, never()).allocate(any(), any(), anyBoolean());
         }
 
         @Test
-        void checkIn_Handicapped_Priority_Success() {
-            ParkingSlot handiSlot = createMockSlot("H1", SlotType.HANDICAPPED);
-            when(vehicleRepository.findById(plate)).thenReturn(Optional.empty());
-            when(vehicleRepository.save(any())).thenAnswer(i -> i.getArgument(0));
-            when(ticketRepository.existsByVehicleAndExitTimeIsNull(any())).thenReturn(false);
+        void checkIn_ShouldLeaveFullLotToAllocatorOutsideIndexMode() {
+            ParkingSlot slot = createMockSlot("A1", SlotType.COMPACT);
+            when(vehicleRegistry.register(plate, VehicleType.CAR)).thenReturn(VehicleType.CAR);
+            when(vehicleRegistry.reference(plate, VehicleType.CAR)).thenReturn(new Car(plate));
+            when(slotAllocator.allocate(1L, VehicleType.CAR, false)).thenReturn(slot);
+
+            assertEquals(slot, parkingService.checkIn(1L, plate, VehicleType.CAR, false).getSlot());
+            verify(freeSlotCounters, never()).hasCapacity(any(), any());
+        }
+
+        @Test
+        void checkIn_Throws_UnknownLot() {
+            when(vehicleRegistry.register(plate, VehicleType.TRUCK)).thenReturn(VehicleType.TRUCK);
+            when(slotAllocator.allocate(42L, VehicleType.TRUCK, false))
+                    .thenThrow(new NoAvailableSlotException(VehicleType.TRUCK.name()));
+            when(parkingLotRepository.existsById(42L)).thenReturn(false);
+
+            assertThrows(ResourceNotFoundException.class,
+                    () -> parkingService.checkIn(42L, plate, VehicleType.TRUCK, false));
+        }
+    }
 
-            when(slotRepository.findFirstByAvailableTrueAndTypeOrderByLevelFloorNumberAsc(SlotType.HANDICAPPED))
-                    .thenReturn(Optional.of(handiSlot));
-            when(ticketRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+    @Nested
+    class BatchCheckInTests {
 
-            ParkingTicket response = parkingService.checkIn(plate, VehicleType.CAR, true);
+        @Test
+        @SuppressWarnings("unchecked")
+        void checkInBatch_ShouldReportPerItemErrorsWithoutFailingBatch() {
+            ParkingSlot slot = createMockSlot("A1", SlotType.COMPACT);
+            when(ticketRepository.findOpenPlates(any())).thenReturn(List.of());
+            when(vehicleRegistry.register("NEW-1", VehicleType.CAR)).thenReturn(VehicleType.CAR);
+            when(vehicleRegistry.register("PARKED-1", VehicleType.CAR)).thenReturn(VehicleType.CAR);
+            when(vehicleRegistry.register("TRUCK-1", VehicleType.CAR)).thenReturn(VehicleType.TRUCK);
+            when(vehicleRegistry.register("MOTO-1", VehicleType.MOTORCYCLE)).thenReturn(VehicleType.MOTORCYCLE);
+            when(vehicleRegistry.reference("NEW-1", VehicleType.CAR)).thenReturn(new Car("NEW-1"));
+            when(activeSessions.reserve("PARKED-1")).thenReturn(false);
+            when(slotAllocator.allocate(null, VehicleType.CAR, false)).thenReturn(slot);
+            when(slotAllocator.allocate(null, VehicleType.MOTORCYCLE, false))
+                    .thenThrow(new NoAvailableSlotException(VehicleType.MOTORCYCLE.name()));
+            when(parkingMapper.toTicketResponse(any(ParkingTicket.class))).thenReturn(TicketResponse.builder().slotNumber("A1").build());
+
+            List<BatchItemResponse<TicketResponse>> results = parkingService.checkInBatch(List.of(
+                    new CheckInRequest("NEW-1", VehicleType.CAR, false, null),
+                    new CheckInRequest("PARKED-1", VehicleType.CAR, false, null),
+                    new CheckInRequest("TRUCK-1", VehicleType.CAR, false, null),
+                    new CheckInRequest("MOTO-1", VehicleType.MOTORCYCLE, false, null)
+            ));
+
+            assertEquals(4, results.size());
+            assertEquals("A1", results.get(0).result().slotNumber());
+            assertNull(results.get(0).error());
+            assertEquals("Vehicle PARKED-1 is already parked", results.get(1).error());
+            assertTrue(results.get(2).error().contains("different vehicle type"));
+            assertEquals("No available slots for MOTORCYCLE", results.get(3).error());
+            verify(activeSessions).cancel("MOTO-1");
+            verify(vehicleRegistry, never()).registered(any(), any());
+
+            ArgumentCaptor<Iterable<ParkingTicket>> tickets = ArgumentCaptor.forClass(Iterable.class);
+            verify(ticketRepository).saveAll(tickets.capture());
+            assertEquals(List.of("NEW-1"), StreamSupport.stream(tickets.getValue().spliterator(), false)
+                    .map(ticket -> ticket.getVehicle().getLicensePlate())
+                    .toList());
+            verify(ticketRepository, never()).save(any());
+        }
 
+        @Test
+        void checkInBatch_ShouldRejectSamePlateTwiceInOneBatch() {
+            when(vehicleRegistry.register(plate, VehicleType.CAR)).thenReturn(VehicleType.CAR);
+            when(vehicleRegistry.reference(plate, VehicleType.CAR)).thenReturn(new Car(plate));
+            when(activeSessions.reserve(plate)).thenReturn(true, false);
+            when(slotAllocator.allocate(null, VehicleType.CAR, false)).thenReturn(createMockSlot("A1", SlotType.COMPACT));
+
+            List<BatchItemResponse<TicketResponse>> results = parkingService.checkInBatch(List.of(
+                    new CheckInRequest(plate, VehicleType.CAR, false, null),
+                    new CheckInRequest(plate, VehicleType.CAR, false, null)
+            ));
+
+            assertNull(results.get(0).error());
+            assertEquals("Vehicle " + plate + " is already parked", results.get(1).error());
+            verify(slotAllocator).allocate(null, VehicleType.CAR, false);
+        }
 
-            assertEquals(SlotType.HANDICAPPED.name(), response.getSlot().getSlotNumber().startsWith("H") ? SlotType.HANDICAPPED.name() : "");
-            verify(slotRepository).findFirstByAvailableTrueAndTypeOrderByLevelFloorNumberAsc(SlotType.HANDICAPPED);
+        @Test
+        void checkInBatch_ShouldReportNullItemPerItem() {
+            when(vehicleRegistry.register(plate, VehicleType.CAR)).thenReturn(VehicleType.CAR);
+            when(vehicleRegistry.reference(plate, VehicleType.CAR)).thenReturn(new Car(plate));
+            when(activeSessions.reserve(plate)).thenReturn(true);
+            when(slotAllocator.allocate(null, VehicleType.CAR, false)).thenReturn(createMockSlot("A1", SlotType.COMPACT));
+
+            List<BatchItemResponse<TicketResponse>> results = parkingService.checkInBatch(Arrays.asList(
+                    null,
+                    new CheckInRequest(plate, VehicleType.CAR, false, null)
+            ));
+
+            assertEquals("request: must not be null", results.get(0).error());
+            assertNull(results.get(1).error());
+            verify(ticketRepository).findOpenPlates(Set.of(plate));
+        }
+
+        @Test
+        void checkInBatch_ShouldRejectVehicleParkedThroughAnotherInstance() {
+            when(ticketRepository.findOpenPlates(any())).thenReturn(List.of("ELSEWHERE-1"));
+            when(vehicleRegistry.register("ELSEWHERE-1", VehicleType.CAR)).thenReturn(VehicleType.CAR);
+            when(vehicleRegistry.register(plate, VehicleType.CAR)).thenReturn(VehicleType.CAR);
+            when(vehicleRegistry.reference(plate, VehicleType.CAR)).thenReturn(new Car(plate));
+            when(slotAllocator.allocate(null, VehicleType.CAR, false)).thenReturn(createMockSlot("A1", SlotType.COMPACT));
+
+            List<BatchItemResponse<TicketResponse>> results = parkingService.checkInBatch(List.of(
+                    new CheckInRequest("ELSEWHERE-1", VehicleType.CAR, false, null),
+                    new CheckInRequest(plate, VehicleType.CAR, false, null)
+            ));
+
+            assertEquals("Vehicle ELSEWHERE-1 is already parked", results.get(0).error());
+            assertNull(results.get(1).error());
+            verify(activeSessions, never()).reserve("ELSEWHERE-1");
+            verify(slotAllocator, times(1)).allocate(null, VehicleType.CAR, false);
         }
     }
 
@@ -158,6 +339,7 @@ public class ParkingServiceTest {
         @Test
         void checkOut_Success() {
             ParkingSlot slot = createMockSlot("B1", SlotType.LARGE);
+            slot.setId(5L);
             slot.setAvailable(false);
 
             ParkingTicket ticket = new ParkingTicket();
@@ -165,15 +347,84 @@ public class ParkingServiceTest {
             ticket.setVehicle(new Truck(plate));
             ticket.setEntryTime(LocalDateTime.now().minusHours(2));
 
-            when(ticketRepository.save(any(ParkingTicket.class))).thenAnswer(i -> i.getArgument(0));
             when(ticketRepository.findById(1L)).thenReturn(Optional.of(ticket));
-            when(pricingService.calculate(any(), any(), any())).thenReturn(new BigDecimal("50.0"));
+            when(rates.calculate(any(), any(), any(), anyLong())).thenReturn(new BigDecimal("50.0"));
+            when(ticketRepository.close(any(), eq(ticket.getEntryTime()), any(), eq(new BigDecimal("50.0")), eq(3L),
+                    eq(DemandTracker.NO_SURGE))).thenReturn(1);
 
             ParkingTicket result = parkingService.checkOut(1L);
 
             assertTrue(slot.isAvailable());
             assertNotNull(result);
             assertEquals(new BigDecimal("50.0"), result.getFee());
+            assertEquals(3L, result.getRateCardVersion());
+            assertEquals(DemandTracker.NO_SURGE, result.getSurgeMultiplier());
+            verify(activeSessions).close(plate);
+            verify(eventPublisher).publishEvent(argThat((Object e) ->
+                    e instanceof SlotAvailabilityChangedEvent changed && changed.available()));
+        }
+
+        @Test
+        void checkOut_ShouldCloseTheTicketOfAnOpenSessionWithoutReadingIt() {
+            LocalDateTime entryTime = LocalDateTime.now().minusHours(3).truncatedTo(ChronoUnit.SECONDS);
+            when(activeSessions.findByTicket(7L)).thenReturn(Optional.of(
+                    new ActiveSession(7L, 11L, entryTime.toEpochSecond(ZoneOffset.UTC))));
+            when(activeSessions.plateOf(7L)).thenReturn(Optional.of(plate));
+            when(vehicleRegistry.find(plate)).thenReturn(Optional.of(VehicleType.CAR));
+            when(topology.slot(11L)).thenReturn(Optional.of(new SlotNode(11L, "C-1", SlotType.COMPACT, 3L, 1L, 2)));
+            when(rates.surgeMultiplier(VehicleType.CAR, 1L)).thenReturn(1500L);
+            when(rates.calculate(eq(VehicleType.CAR), eq(entryTime), any(), eq(1500L))).thenReturn(new BigDecimal("6.00"));
+            when(ticketRepository.close(eq(7L), eq(entryTime), any(), eq(new BigDecimal("6.00")), eq(3L), eq(1500L)))
+                    .thenReturn(1);
+
+            ParkingTicket result = parkingService.checkOut(7L);
+
+            assertEquals(7L, result.getId());
+            assertEquals(plate, result.getVehicle().getLicensePlate());
+            assertEquals(new BigDecimal("6.00"), result.getFee());
+            assertEquals(1500L, result.getSurgeMultiplier());
+            assertNotNull(result.getExitTime());
+            assertTrue(result.getSlot().isAvailable());
+            verify(ticketRepository, never()).findById(any());
+            verify(slotRepository).releaseAll(List.of(11L));
+            verify(activeSessions).close(plate);
+            verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof SlotAvailabilityChangedEvent changed
+                    && changed.available() && changed.slot().lotId().equals(1L) && changed.slot().type() == SlotType.COMPACT));
+            verify(demandTracker).departed(1L);
+        }
+
+        @Test
+        void checkOut_ShouldPriceFromTheStoredTicketWhenTheSessionIsOutOfDate() {
+            ParkingTicket ticket = createOpenTicket(7L, new Car(plate), 11L);
+            LocalDateTime staleEntryTime = ticket.getEntryTime().plusMinutes(30).truncatedTo(ChronoUnit.SECONDS);
+            when(activeSessions.findByTicket(7L)).thenReturn(Optional.of(
+                    new ActiveSession(7L, 11L, staleEntryTime.toEpochSecond(ZoneOffset.UTC))));
+            when(activeSessions.plateOf(7L)).thenReturn(Optional.of(plate));
+            when(vehicleRegistry.find(plate)).thenReturn(Optional.of(VehicleType.CAR));
+            when(topology.slot(11L)).thenReturn(Optional.of(new SlotNode(11L, "S11", SlotType.COMPACT, 3L, 1L, 1)));
+            when(ticketRepository.findById(7L)).thenReturn(Optional.of(ticket));
+            when(rates.calculate(any(), any(), any(), anyLong())).thenReturn(new BigDecimal("2.00"));
+            when(ticketRepository.close(eq(7L), eq(staleEntryTime), any(), any(), eq(3L), anyLong())).thenReturn(0);
+            when(ticketRepository.close(eq(7L), eq(ticket.getEntryTime()), any(), any(), eq(3L), anyLong())).thenReturn(1);
+
+            ParkingTicket result = parkingService.checkOut(7L);
+
+            assertSame(ticket, result);
+            assertNotNull(result.getExitTime());
+            verify(slotRepository, times(1)).releaseAll(List.of(11L));
+        }
+
+        @Test
+        void checkOut_Throws_AlreadyClosed_WhenAConcurrentCheckOutWon() {
+            ParkingTicket ticket = createOpenTicket(7L, new Car(plate), 11L);
+            when(ticketRepository.findById(7L)).thenReturn(Optional.of(ticket));
+            when(rates.calculate(any(), any(), any(), anyLong())).thenReturn(new BigDecimal("2.00"));
+            when(ticketRepository.close(any(), any(), any(), any(), anyLong(), anyLong())).thenReturn(0);
+
+            assertThrows(TicketAlreadyClosedException.class, () -> parkingService.checkOut(7L));
+            verify(slotRepository, never()).releaseAll(any());
+            verify(activeSessions, never()).close(any());
+            verify(eventPublisher, never()).publishEvent(any());
         }
 
         @Test
@@ -183,6 +434,14 @@ public class ParkingServiceTest {
             assertThrows(TicketNotFoundException.class, () -> parkingService.checkOut(1L));
         }
 
+        @Test
+        void checkOut_Throws_AlreadyClosed_WhenTicketWasArchived() {
+            when(ticketRepository.findById(9L)).thenReturn(Optional.empty());
+            when(archivedTicketRepository.existsById(9L)).thenReturn(true);
+
+            assertThrows(TicketAlreadyClosedException.class, () -> parkingService.checkOut(9L));
+        }
+
         @Test
         void checkOut_Throws_AlreadyClosed() {
             ParkingTicket closedTicket = new ParkingTicket();
@@ -191,49 +450,146 @@ public class ParkingServiceTest {
 
             assertThrows(TicketAlreadyClosedException.class, () -> parkingService.checkOut(1L));
         }
+
+        @Test
+        void checkOutByPlate_ShouldCloseTicketOfActiveSession() {
+            ParkingTicket ticket = createOpenTicket(7L, new Car(plate), 11L);
+            when(activeSessions.find(plate)).thenReturn(Optional.of(ActiveSession.of(ticket)));
+            when(ticketRepository.findById(7L)).thenReturn(Optional.of(ticket));
+            when(rates.calculate(any(), any(), any(), anyLong())).thenReturn(new BigDecimal("10.00"));
+            when(ticketRepository.close(any(), any(), any(), any(), anyLong(), anyLong())).thenReturn(1);
+
+            ParkingTicket result = parkingService.checkOutByPlate(plate);
+
+            assertNotNull(result.getExitTime());
+            assertTrue(result.getSlot().isAvailable());
+            verify(activeSessions).close(plate);
+        }
+
+        @Test
+        void checkOutByPlate_Throws_NotParked() {
+            when(activeSessions.find(plate)).thenReturn(Optional.empty());
+
+            assertThrows(ActiveSessionNotFoundException.class, () -> parkingService.checkOutByPlate(plate));
+            verify(ticketRepository, never()).findById(any());
+        }
     }
 
-    @Test
-    void getActiveSessions_Success() {
-        when(ticketRepository.findAllByExitTimeIsNull()).thenReturn(List.of(new ParkingTicket()));
+    @Nested
+    class BatchCheckOutTests {
+
+        @Test
+        void checkOutBatch_ShouldCloseTicketsWithOneUpdatePerFeeAndReportErrors() {
+            ParkingTicket car1 = createOpenTicket(1L, new Car("CAR-1"), 11L);
+            ParkingTicket car2 = createOpenTicket(2L, new Car("CAR-2"), 12L);
+            ParkingTicket closed = createOpenTicket(3L, new Car("CAR-3"), 13L);
+            closed.setExitTime(LocalDateTime.now().minusMinutes(5));
+            when(ticketRepository.findAllByIdForUpdate(any())).thenReturn(List.of(car1, car2, closed));
+            when(rates.calculate(any(), any(), any(), anyLong())).thenReturn(new BigDecimal("10.00"));
+            when(parkingMapper.toCheckOutResponse(any())).thenAnswer(invocation -> {
+                ParkingTicket ticket = invocation.getArgument(0);
+                return CheckOutResponse.builder()
+                        .licensePlate(ticket.getVehicle().getLicensePlate())
+                        .totalFee(ticket.getFee().toPlainString())
+                        .build();
+            });
+
+            List<BatchItemResponse<CheckOutResponse>> results = parkingService.checkOutBatch(List.of(1L, 2L, 3L, 4L, 1L));
+
+            assertEquals(5, results.size());
+            assertEquals("CAR-1", results.get(0).result().licensePlate());
+            assertEquals("10.00", results.get(1).result().totalFee());
+            assertEquals("Ticket 3 is already closed", results.get(2).error());
+            assertEquals("Parking ticket with ID 4 not found.", results.get(3).error());
+            assertEquals("Ticket 1 is already closed", results.get(4).error());
+
+            verify(ticketRepository).closeAll(eq(List.of(1L, 2L)), any(), eq(new BigDecimal("10.00")), eq(3L),
+                    eq(DemandTracker.NO_SURGE));
+            verify(slotRepository).releaseAll(List.of(11L, 12L));
+            verify(ticketRepository, never()).save(any());
+            verify(slotRepository, never()).save(any());
+            assertTrue(car1.getSlot().isAvailable());
+            assertEquals(0, car1.getExitTime().getNano());
+            verify(rates, times(2)).calculate(any(), any(), eq(car1.getExitTime()), anyLong());
+        }
+
+        @Test
+        void checkOutBatch_ShouldUpdateTicketsChargedTheSameFeeUnderDifferentSurgesSeparately() {
+            ParkingTicket car1 = createOpenTicket(1L, new Car("CAR-1"), 11L);
+            ParkingTicket car2 = createOpenTicket(2L, new Car("CAR-2"), 12L);
+            when(ticketRepository.findAllByIdForUpdate(any())).thenReturn(List.of(car1, car2));
+            when(rates.surgeMultiplier(any(), any())).thenReturn(DemandTracker.NO_SURGE, 1500L);
+            when(rates.calculate(any(), any(), any(), anyLong())).thenReturn(new BigDecimal("10.00"));
+
+            parkingService.checkOutBatch(List.of(1L, 2L));
+
+            verify(ticketRepository).closeAll(eq(List.of(1L)), any(), eq(new BigDecimal("10.00")), eq(3L),
+                    eq(DemandTracker.NO_SURGE));
+            verify(ticketRepository).closeAll(eq(List.of(2L)), any(), eq(new BigDecimal("10.00")), eq(3L), eq(1500L));
+            assertEquals(DemandTracker.NO_SURGE, car1.getSurgeMultiplier());
+            assertEquals(1500L, car2.getSurgeMultiplier());
+        }
+
+        @Test
+        void checkOutBatch_ShouldReportArchivedTicketsAsClosed() {
+            when(ticketRepository.findAllByIdForUpdate(any())).thenReturn(List.of());
+            when(archivedTicketRepository.findArchivedIds(any())).thenReturn(List.of(8L));
+
+            List<BatchItemResponse<CheckOutResponse>> results = parkingService.checkOutBatch(List.of(8L, 9L));
+
+            assertEquals("Ticket 8 is already closed", results.get(0).error());
+            assertEquals("Parking ticket with ID 9 not found.", results.get(1).error());
+        }
+
+        @Test
+        void checkOutBatch_ShouldSkipUpdatesWhenNothingToClose() {
+            when(ticketRepository.findAllByIdForUpdate(any())).thenReturn(List.of());
 
-        List<ParkingTicket> sessions = parkingService.getActiveSessions();
+            List<BatchItemResponse<CheckOutResponse>> results = parkingService.checkOutBatch(List.of(7L));
 
-        assertEquals(1, sessions.size());
-        verify(ticketRepository).findAllByExitTimeIsNull();
+            assertEquals("Parking ticket with ID 7 not found.", results.get(0).error());
+            verify(ticketRepository, never()).closeAll(any(), any(), any(), anyLong(), anyLong());
+            verify(slotRepository, never()).releaseAll(any());
+        }
     }
 
     @Test
-    void checkIn_Handicapped_Fallback_To_RegularSlot() {
-        ParkingSlot regularSlot = createMockSlot("C1", SlotType.COMPACT);
-        when(vehicleRepository.findById(plate)).thenReturn(Optional.of(new Car(plate)));
-        when(ticketRepository.existsByVehicleAndExitTimeIsNull(any())).thenReturn(false);
-
-        when(slotRepository.findFirstByAvailableTrueAndTypeOrderByLevelFloorNumberAsc(SlotType.HANDICAPPED))
-                .thenReturn(Optional.empty());
-        when(slotRepository.findFirstByAvailableTrueAndTypeOrderByLevelFloorNumberAsc(SlotType.COMPACT))
-                .thenReturn(Optional.of(regularSlot));
-        when(ticketRepository.save(any())).thenAnswer(i -> i.getArgument(0));
-
-        ParkingTicket response = parkingService.checkIn(plate, VehicleType.CAR, true);
-
-        assertNotNull(response);
-        assertEquals("C1", response.getSlot().getSlotNumber());
-        assertFalse(regularSlot.isAvailable());
+    void getActiveSessions_ShouldPassFilterAndCursor() {
+        TicketView ticket = new TicketView(41L, plate, VehicleType.TRUCK, LocalDateTime.now(), "T-1", 1);
+        SessionFilter filter = new SessionFilter(1L, null, VehicleType.TRUCK, null, null);
+        when(ticketRepository.findOpenSessions(eq(40L), eq(1L), eq(null), eq(List.of(Truck.class)), eq(null), eq(null),
+                eq(PageRequest.of(0, 20)))).thenReturn(List.of(ticket));
+
+        List<TicketView> sessions = parkingService.getActiveSessions(filter, 40L, 20);
+
+        assertEquals(List.of(ticket), sessions);
     }
 
     @Test
-    void checkIn_RegularVehicle_Cannot_Occupy_HandicappedSlot() {
-        when(vehicleRepository.findById(plate)).thenReturn(Optional.of(new Car(plate)));
-        when(ticketRepository.existsByVehicleAndExitTimeIsNull(any())).thenReturn(false);
-
-        when(slotRepository.findFirstByAvailableTrueAndTypeOrderByLevelFloorNumberAsc(SlotType.COMPACT))
-                .thenReturn(Optional.empty());
-        when(slotRepository.findFirstByAvailableTrueAndTypeOrderByLevelFloorNumberAsc(SlotType.LARGE))
-                .thenReturn(Optional.empty());
+    void streamActiveSessions_ShouldVisitEveryTicketAndCloseTheStream() {
+        TicketView first = new TicketView(1L, "AA1111BB", VehicleType.CAR, LocalDateTime.now(), "A-1", 1);
+        TicketView second = new TicketView(2L, "AA2222BB", VehicleType.CAR, LocalDateTime.now(), "A-2", 1);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(ticketRepository.streamOpenSessions(eq(0L), any(), any(), any(), any(), any()))
+                .thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+        List<TicketView> received = new ArrayList<>();
+
+        parkingService.streamActiveSessions(SessionFilter.none(), received::add);
+
+        assertEquals(List.of(first, second), received);
+        assertTrue(closed.get());
+    }
 
-        assertThrows(NoAvailableSlotException.class,
-                () -> parkingService.checkIn(plate, VehicleType.CAR, false));
+    @Test
+    void getTicketHistory_ShouldMergeHotAndArchivedTicketsMostRecentFirst() {
+        LocalDateTime now = LocalDateTime.now();
+        ClosedTicketView recent = new ClosedTicketView(30L, plate, now.minusHours(2), now.minusHours(1), new BigDecimal("4.00"), 1L);
+        ClosedTicketView older = new ClosedTicketView(20L, plate, now.minusDays(3), now.minusDays(2), new BigDecimal("6.00"), 1L);
+        ClosedTicketView oldest = new ClosedTicketView(10L, plate, now.minusDays(40), now.minusDays(39), new BigDecimal("8.00"), 1L);
+        when(ticketRepository.findClosedTickets(plate, null, null)).thenReturn(List.of(recent));
+        when(archivedTicketRepository.findHistory(plate, null, null)).thenReturn(List.of(oldest, older));
+
+        assertEquals(List.of(recent, older, oldest), parkingService.getTicketHistory(plate, null, null));
     }
 
     private ParkingSlot createMockSlot(String number, SlotType type) {
@@ -244,4 +600,16 @@ public class ParkingServiceTest {
         slot.setLevel(mockLevel);
         return slot;
     }
-}
\ No newline at end of file
+
+    private ParkingTicket createOpenTicket(Long id, Vehicle vehicle, Long slotId) {
+        ParkingSlot slot = createMockSlot("S" + slotId, SlotType.COMPACT);
+        slot.setId(slotId);
+        slot.setAvailable(false);
+        ParkingTicket ticket = new ParkingTicket();
+        ticket.setId(id);
+        ticket.setVehicle(vehicle);
+        ticket.setSlot(slot);
+        ticket.setEntryTime(LocalDateTime.now().minusHours(1));
+        return ticket;
+    }
+}
@@ -2,19 +2,28 @@ package com.dev.marchenko.service;
 
 import com.dev.marchenko.domain.vehicle.VehicleType;
 import com.dev.marchenko.strategy.PricingStrategy;
+import com.dev.marchenko.strategy.RateCard;
+import com.dev.marchenko.strategy.RateCardStrategy;
+import com.dev.marchenko.strategy.RateTable;
+import com.dev.marchenko.strategy.Stays;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.lang.management.ManagementFactory;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -35,12 +44,12 @@ public class PricingServiceTest {
     void calculate_ShouldCallStrategy() {
         LocalDateTime entry = LocalDateTime.now().minusHours(2);
         LocalDateTime exit = LocalDateTime.now();
-        when(strategy.calculateFee(anyLong())).thenReturn(new BigDecimal("20.00"));
+        when(strategy.calculateFeeCents(entry, exit)).thenReturn(2000L);
 
         BigDecimal fee = pricingService.calculate(VehicleType.CAR, entry, exit);
 
         assertEquals(new BigDecimal("20.00"), fee);
-        verify(strategy).calculateFee(anyLong());
+        verify(strategy).calculateFeeCents(entry, exit);
     }
 
     @Test
@@ -57,10 +66,91 @@ public class PricingServiceTest {
     void calculate_ShouldPassCorrectMinutesToStrategy() {
         LocalDateTime entry = LocalDateTime.of(2024, 1, 1, 10, 0);
         LocalDateTime exit = LocalDateTime.of(2024, 1, 1, 11, 30);
+        when(strategy.calculateFeeCents(entry, exit)).thenCallRealMethod();
 
         pricingService.calculate(VehicleType.CAR, entry, exit);
 
-        verify(strategy).calculateFee(90L);
+        verify(strategy).calculateFeeCents(90L);
+    }
+
+    @Test
+    void minutesBetween_ShouldCountWholeMinutesLikeDuration() {
+        LocalDateTime entry = LocalDateTime.of(2024, 3, 30, 23, 59, 59, 900_000_000);
+        for (long nanos = 0; nanos < 3 * 86_400_000_000_000L; nanos += 7_777_777_777L) {
+            LocalDateTime exit = entry.plusNanos(nanos);
+
+            assertEquals(Duration.between(entry, exit).toMinutes(), Stays.minutesBetween(entry, exit));
+        }
+    }
+
+    @Test
+    void calculateCents_ShouldNotAllocate() {
+        PricingService realPricing = new PricingService(List.of(
+                new RateCardStrategy(new RateCard(0, 60, null, List.of(
+                        new RateCard.Band(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, new BigDecimal("2.00"), null))),
+                        List.of(VehicleType.CAR)),
+                new RateCardStrategy(new RateCard(15, 15, new BigDecimal("40.00"), List.of(
+                        new RateCard.Band(LocalTime.of(7, 0), LocalTime.of(19, 0), new BigDecimal("4.50"), null),
+                        new RateCard.Band(LocalTime.of(19, 0), LocalTime.of(7, 0), new BigDecimal("1.50"), new BigDecimal("6.00")))),
+                        List.of(VehicleType.TRUCK))));
+        LocalDateTime entry = LocalDateTime.of(2024, 1, 1, 10, 0);
+        LocalDateTime[] exits = new LocalDateTime[64];
+        for (int i = 0; i < exits.length; i++) {
+            exits[i] = entry.plusMinutes(i * 347L);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // the least allocated in a few rounds, so a recompilation during one round does not count
+        long total = 0;
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < 8; round++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < 200_000; i++) {
+                total += realPricing.calculateCents(i % 2 == 0 ? VehicleType.CAR : VehicleType.TRUCK, entry, exits[i & 63]);
+            }
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+
+        assertTrue(total > 0);
+        assertTrue(allocated < 1_000, "allocated " + allocated + " bytes for 200000 fees");
+    }
+
+    @Test
+    void publish_ShouldSwapInTheNewerVersion() {
+        LocalDateTime entry = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+        pricingService.publish(2L, Map.of(VehicleType.CAR, flat("3.00")));
+
+        assertEquals(2L, pricingService.rates().version());
+        assertEquals(new BigDecimal("6.00"), pricingService.calculate(VehicleType.CAR, entry, entry.plusHours(2)));
+    }
+
+    @Test
+    void publish_ShouldIgnoreVersionsThatAreNotNewer() {
+        LocalDateTime entry = LocalDateTime.of(2024, 1, 1, 10, 0);
+        pricingService.publish(2L, Map.of(VehicleType.CAR, flat("3.00")));
+
+        pricingService.publish(1L, Map.of(VehicleType.CAR, flat("9.00")));
+        pricingService.publish(2L, Map.of(VehicleType.CAR, flat("9.00")));
+
+        assertEquals(2L, pricingService.rates().version());
+        assertEquals(new BigDecimal("6.00"), pricingService.calculate(VehicleType.CAR, entry, entry.plusHours(2)));
+    }
+
+    @Test
+    void publish_ShouldKeepCurrentRates_WhenCardIsInvalid() {
+        RateTable before = pricingService.rates();
+        RateCard invalid = new RateCard(0, 60, null, List.of(
+                new RateCard.Band(LocalTime.of(7, 0), LocalTime.of(19, 0), new BigDecimal("3.00"), null)));
+
+        assertThrows(IllegalArgumentException.class, () -> pricingService.publish(2L, Map.of(VehicleType.CAR, invalid)));
+        assertSame(before, pricingService.rates());
+    }
+
+    private static RateCard flat(String hourlyRate) {
+        return new RateCard(0, 60, null, List.of(
+                new RateCard.Band(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, new BigDecimal(hourlyRate), null)));
     }
 
     @Test
@@ -0,0 +1,130 @@
+package com.dev.marchenko.service;
+
+import com.dev.marchenko.domain.pricing.RateCardVersion;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.repository.RateCardVersionRepository;
+import com.dev.marchenko.strategy.RateCard;
+import com.dev.marchenko.strategy.RateTable;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "parking.pricing.refresh-interval=1h")
+public class RateCardServiceIT {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2026, 3, 2, 10, 0);
+
+    @Autowired
+    private RateCardService rateCardService;
+    @Autowired
+    private PricingService pricingService;
+    @Autowired
+    private RateCardVersionRepository rateCardVersionRepository;
+
+    @Test
+    void registerConfigured_ShouldStoreDeployedCardsOnlyWhenTheyChange() {
+        long versions = rateCardVersionRepository.count();
+
+        rateCardService.registerConfigured();
+
+        assertEquals(versions, rateCardVersionRepository.count());
+        assertTrue(rateCardVersionRepository.findFirstBySourceOrderByIdDesc(RateCardVersion.Source.CONFIG).isPresent());
+        assertTrue(rateCardService.current().version() > 0);
+    }
+
+    @Test
+    void reload_ShouldPublishMergedCardsAsNewVersion() {
+        RateTable before = rateCardService.current();
+        BigDecimal carFee = before.calculate(VehicleType.CAR, ENTRY, ENTRY.plusHours(2));
+
+        RateTable reloaded = rateCardService.reload(Map.of(VehicleType.TRUCK, flat("7.00")));
+
+        assertTrue(reloaded.version() > before.version());
+        assertSame(reloaded, pricingService.rates());
+        assertEquals(new BigDecimal("14.00"), pricingService.calculate(VehicleType.TRUCK, ENTRY, ENTRY.plusHours(2)));
+        assertEquals(carFee, pricingService.calculate(VehicleType.CAR, ENTRY, ENTRY.plusHours(2)));
+        RateCardVersion stored = rateCardVersionRepository.findFirstByOrderByIdDesc().orElseThrow();
+        assertEquals(reloaded.version(), stored.getId());
+        assertEquals(RateCardVersion.Source.ADMIN, stored.getSource());
+    }
+
+    @Test
+    void reload_ShouldMergeOnTopOfAVersionStoredByAnotherInstance() {
+        long other = storeFromAnotherInstance("4.00");
+
+        RateTable reloaded = rateCardService.reload(Map.of(VehicleType.TRUCK, flat("7.00")));
+
+        assertEquals(other + 1, reloaded.version());
+        assertEquals(new BigDecimal("8.00"), reloaded.calculate(VehicleType.CAR, ENTRY, ENTRY.plusHours(2)));
+        assertEquals(new BigDecimal("14.00"), reloaded.calculate(VehicleType.TRUCK, ENTRY, ENTRY.plusHours(2)));
+        assertTrue(rateCardVersionRepository.findById(other + 1).orElseThrow().getRateCards().contains("\"CAR\""));
+    }
+
+    @Test
+    void reload_ShouldStoreCardsWithManyBands() {
+        List<RateCard.Band> bands = new ArrayList<>();
+        for (int minute = 0; minute < 24 * 60; minute += 5) {
+            bands.add(new RateCard.Band(LocalTime.MIN.plusMinutes(minute), LocalTime.MIN.plusMinutes(minute + 5),
+                    new BigDecimal(minute < 12 * 60 ? "2.00" : "3.00"), null));
+        }
+
+        RateTable reloaded = rateCardService.reload(Map.of(VehicleType.CAR, new RateCard(0, 60, null, bands)));
+
+        String stored = rateCardVersionRepository.findById(reloaded.version()).orElseThrow().getRateCards();
+        assertTrue(stored.length() > 8000, "stored " + stored.length() + " characters");
+        // 10:00 to 13:00: two hours at 2.00 and one at 3.00
+        assertEquals(new BigDecimal("7.00"), reloaded.calculate(VehicleType.CAR, ENTRY, ENTRY.plusHours(3)));
+    }
+
+    @Test
+    void reload_ShouldRejectInvalidCardsWithoutStoringThem() {
+        RateTable before = rateCardService.current();
+        long versions = rateCardVersionRepository.count();
+        RateCard gap = new RateCard(0, 60, null, List.of(
+                new RateCard.Band(LocalTime.of(7, 0), LocalTime.of(19, 0), new BigDecimal("3.00"), null)));
+
+        assertThrows(IllegalStateException.class, () -> rateCardService.reload(Map.of(VehicleType.CAR, gap)));
+
+        assertSame(before, pricingService.rates());
+        assertEquals(versions, rateCardVersionRepository.count());
+    }
+
+    @Test
+    void refresh_ShouldPublishVersionsStoredByAnotherInstance() {
+        long version = storeFromAnotherInstance("4.00");
+
+        rateCardService.refresh();
+
+        assertEquals(version, pricingService.rates().version());
+        assertEquals(new BigDecimal("8.00"), pricingService.calculate(VehicleType.CAR, ENTRY, ENTRY.plusHours(2)));
+    }
+
+    // A flat hourly car card, stored the way another instance would without this one publishing it.
+    private long storeFromAnotherInstance(String hourlyRate) {
+        RateCardVersion other = new RateCardVersion();
+        other.setId(rateCardVersionRepository.findFirstByOrderByIdDesc().orElseThrow().getId() + 1);
+        other.setSource(RateCardVersion.Source.ADMIN);
+        other.setRateCards("{\"CAR\":{\"freeMinutes\":0,\"billingIncrementMinutes\":60,\"dailyMaximum\":null,"
+                + "\"bands\":[{\"from\":\"00:00:00\",\"to\":\"00:00:00\",\"hourlyRate\":" + hourlyRate + ",\"cap\":null}]}}");
+        other.setCreatedAt(LocalDateTime.of(2026, 3, 2, 9, 0));
+        return rateCardVersionRepository.save(other).getId();
+    }
+
+    private static RateCard flat(String hourlyRate) {
+        return new RateCard(0, 60, null, List.of(
+                new RateCard.Band(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, new BigDecimal(hourlyRate), null)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.dev.marchenko.service;
+
+import com.dev.marchenko.domain.lot.Level;
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.dto.LevelRequest;
+import com.dev.marchenko.dto.ParkingLotRequest;
+import com.dev.marchenko.dto.SlotRequest;
+import com.dev.marchenko.repository.SlotRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Inserts a few JDBC batches worth of slots through {@link AdminService#addSlots} and checks that every slot got
+ * an id and a row, in far fewer statements than slots. Implemented once per database, so the pooled sequences are
+ * exercised on H2 and on PostgreSQL. Timings live in the JMH {@code SlotBatchInsertBenchmark}.
+ */
+interface SlotBatchInsertChecks {
+
+    // Three batches of the configured 50, the last one partial.
+    int SLOTS = 120;
+
+    @Test
+    default void addSlots_ShouldAssignIdsAndPersistEverySlot(@Autowired AdminService adminService,
+                                                              @Autowired SlotRepository slotRepository,
+                                                              @Autowired EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Long lotId = adminService.createLot(new ParkingLotRequest("Batch Lot " + System.nanoTime())).getId();
+        Level level = adminService.addLevel(lotId, new LevelRequest(1));
+        try {
+            statistics.clear();
+            List<ParkingSlot> slots = adminService.addSlots(level.getId(), requests());
+            long statements = statistics.getPrepareStatementCount();
+
+            List<Long> ids = slots.stream().map(ParkingSlot::getId).toList();
+            assertTrue(ids.stream().allMatch(Objects::nonNull), "Every slot should have an id");
+            assertEquals(SLOTS, ids.stream().distinct().count());
+            assertEquals(SLOTS, slotRepository.findAllById(ids).size());
+            assertTrue(statements * 5 < SLOTS, statements + " statements for " + SLOTS + " slots");
+        } finally {
+            adminService.removeLot(lotId);
+        }
+    }
+
+    private static List<SlotRequest> requests() {
+        return IntStream.rangeClosed(1, SLOTS)
+                .mapToObj(i -> new SlotRequest("B-" + i, SlotType.COMPACT))
+                .toList();
+    }
+}
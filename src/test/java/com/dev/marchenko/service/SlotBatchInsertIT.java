@@ -0,0 +1,12 @@
+package com.dev.marchenko.service;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+public class SlotBatchInsertIT extends BaseIntegrationTest implements SlotBatchInsertChecks {
+}
@@ -0,0 +1,142 @@
+package com.dev.marchenko.session;
+
+import com.dev.marchenko.domain.lot.Level;
+import com.dev.marchenko.domain.lot.ParkingLot;
+import com.dev.marchenko.domain.slot.ParkingSlot;
+import com.dev.marchenko.domain.ticket.ParkingTicket;
+import com.dev.marchenko.domain.vehicle.Car;
+import com.dev.marchenko.repository.TicketRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ActiveSessionRegistryTest {
+
+    private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(2026, 1, 13, 8, 30, 15);
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @InjectMocks
+    private ActiveSessionRegistry registry;
+
+    @Test
+    void rebuild_ShouldLoadOpenTickets() {
+        when(ticketRepository.findAllByExitTimeIsNull()).thenReturn(List.of(ticket(1L, "AA1111BB")));
+
+        registry.rebuild();
+
+        ActiveSession session = registry.find("AA1111BB").orElseThrow();
+        assertEquals(1L, session.ticketId());
+        assertEquals(10L, session.slotId());
+        assertEquals(ENTRY_TIME, session.entryTime());
+        assertFalse(registry.reserve("AA1111BB"));
+    }
+
+    @Test
+    void reserve_ShouldAllowOnlyOneSessionPerPlate() {
+        assertTrue(registry.reserve("AA1111BB"));
+        assertFalse(registry.reserve("AA1111BB"));
+        assertTrue(registry.find("AA1111BB").isEmpty(), "A pending check-in is not a parked vehicle yet");
+
+        registry.cancel("AA1111BB");
+
+        assertTrue(registry.reserve("AA1111BB"));
+    }
+
+    @Test
+    void openAndClose_ShouldTrackSession() {
+        ParkingTicket ticket = ticket(3L, "AA1111BB");
+        registry.reserve("AA1111BB");
+
+        registry.open(ticket);
+        assertEquals(3L, registry.find("AA1111BB").orElseThrow().ticketId());
+
+        registry.close("AA1111BB");
+        assertTrue(registry.find("AA1111BB").isEmpty());
+        assertTrue(registry.reserve("AA1111BB"));
+    }
+
+    @Test
+    void findByTicket_ShouldFollowOpenAndClose() {
+        registry.open(ticket(3L, "AA1111BB"));
+        registry.open(ticket(4L, "AA1111BB"));
+
+        assertTrue(registry.findByTicket(3L).isEmpty(), "A replaced session is no longer open");
+        assertEquals(4L, registry.findByTicket(4L).orElseThrow().ticketId());
+        assertEquals("AA1111BB", registry.plateOf(4L).orElseThrow());
+
+        registry.close("AA1111BB");
+
+        assertTrue(registry.findByTicket(4L).isEmpty());
+        assertTrue(registry.plateOf(4L).isEmpty());
+    }
+
+    @Test
+    void evict_ShouldOnlyDropTheGivenSession() {
+        registry.open(ticket(3L, "AA1111BB"));
+        ActiveSession stale = registry.find("AA1111BB").orElseThrow();
+        registry.open(ticket(4L, "AA1111BB"));
+
+        registry.evict("AA1111BB", stale);
+        assertEquals(4L, registry.find("AA1111BB").orElseThrow().ticketId());
+
+        registry.evict("AA1111BB", registry.find("AA1111BB").orElseThrow());
+        assertTrue(registry.find("AA1111BB").isEmpty());
+        assertTrue(registry.findByTicket(4L).isEmpty());
+    }
+
+    @Test
+    void cancel_ShouldNotDropOpenSession() {
+        registry.open(ticket(3L, "AA1111BB"));
+
+        registry.cancel("AA1111BB");
+
+        assertTrue(registry.find("AA1111BB").isPresent());
+    }
+
+    @Test
+    void find_ShouldDistinguishPlatesThatDifferOnlyInCaseOrLength() {
+        registry.open(ticket(1L, "ab-12"));
+        registry.open(ticket(2L, "AB-12"));
+        registry.open(ticket(3L, "0AB-12"));
+        registry.open(ticket(4L, "VERY-LONG-PLATE-1"));
+        registry.open(ticket(5L, "AB 12"));
+
+        assertEquals(1L, registry.find("ab-12").orElseThrow().ticketId());
+        assertEquals(2L, registry.find("AB-12").orElseThrow().ticketId());
+        assertEquals(3L, registry.find("0AB-12").orElseThrow().ticketId());
+        assertEquals(4L, registry.find("VERY-LONG-PLATE-1").orElseThrow().ticketId());
+        assertEquals(5L, registry.find("AB 12").orElseThrow().ticketId());
+        assertTrue(registry.find("AB-120").isEmpty());
+        assertEquals("ab-12", registry.plateOf(1L).orElseThrow());
+        assertEquals("VERY-LONG-PLATE-1", registry.plateOf(4L).orElseThrow());
+    }
+
+    private ParkingTicket ticket(Long id, String plate) {
+        ParkingLot lot = new ParkingLot("Lot");
+        lot.setId(5L);
+        Level level = new Level();
+        level.setFloorNumber(2);
+        level.setParkingLot(lot);
+        ParkingSlot slot = new ParkingSlot();
+        slot.setId(10L);
+        slot.setSlotNumber("A-1");
+        slot.setLevel(level);
+        ParkingTicket ticket = new ParkingTicket();
+        ticket.setId(id);
+        ticket.setVehicle(new Car(plate));
+        ticket.setSlot(slot);
+        ticket.setEntryTime(ENTRY_TIME);
+        return ticket;
+    }
+}
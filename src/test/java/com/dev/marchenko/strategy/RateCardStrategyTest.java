@@ -0,0 +1,147 @@
+package com.dev.marchenko.strategy;
+
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateCardStrategyTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    // 3.00/h by day, 1.00/h by night capped at 5.00 a night, at most 25.00 per 24 hours, first 15 minutes free
+    private static final RateCard DAY_AND_NIGHT = new RateCard(15, 1, new BigDecimal("25.00"), List.of(
+            band("07:00", "19:00", "3.00", null),
+            band("19:00", "07:00", "1.00", "5.00")));
+
+    private final RateCardStrategy strategy = new RateCardStrategy(DAY_AND_NIGHT, List.of(VehicleType.CAR));
+
+    @Test
+    void calculateFeeCents_ShouldChargeEachBandAtItsOwnRate() {
+        assertEquals(400, fee(MONDAY.plusHours(17).plusMinutes(45), MONDAY.plusHours(20)));
+    }
+
+    @Test
+    void calculateFeeCents_ShouldCapABandOccurrence() {
+        assertEquals(500, fee(MONDAY.plusHours(18).plusMinutes(45), MONDAY.plusDays(1).plusHours(7)));
+    }
+
+    @Test
+    void calculateFeeCents_ShouldNotChargeTheFreeMinutes() {
+        assertEquals(0, fee(MONDAY.plusHours(10), MONDAY.plusHours(10).plusMinutes(15)));
+        assertEquals(5, fee(MONDAY.plusHours(10), MONDAY.plusHours(10).plusMinutes(16)));
+    }
+
+    @Test
+    void calculateFeeCents_ShouldChargeEveryFullDayAtMostTheDailyMaximum() {
+        // a day costs 12h x 3.00 + 5.00 = 41.00, capped at 25.00
+        assertEquals(30 * 2500, fee(MONDAY.plusHours(8).plusMinutes(45), MONDAY.plusDays(30).plusHours(9)));
+    }
+
+    @Test
+    void calculateFeeCents_ShouldChargeEveryStartedHourAndAtLeastOneForAFlatCard() {
+        RateCardStrategy flat = new RateCardStrategy(new RateCard(0, 60, null,
+                List.of(band("00:00", "00:00", "2.00", null))), List.of(VehicleType.CAR));
+
+        for (long minutes = 0; minutes < 5000; minutes += 7) {
+            assertEquals(200 * Math.max(1, (minutes + 59) / 60),
+                    flat.calculateFeeCents(MONDAY.plusMinutes(333), MONDAY.plusMinutes(333 + minutes)), "minutes: " + minutes);
+        }
+        assertEquals(200L * 24 * 365, flat.calculateFeeCents(60L * 24 * 365));
+        assertEquals(new BigDecimal("4.00"), flat.calculateFee(61));
+    }
+
+    @Test
+    void constructor_ShouldRejectRatesWithFractionsOfACent() {
+        assertThrows(ArithmeticException.class, () -> new RateCardStrategy(new RateCard(0, 60, null,
+                List.of(band("00:00", "00:00", "2.005", null))), List.of(VehicleType.CAR)));
+    }
+
+    @Test
+    void calculateFeeCents_ShouldMatchPricingMinuteByMinute() {
+        RateCard card = new RateCard(10, 15, new BigDecimal("30.00"), List.of(
+                band("06:30", "09:00", "4.00", null),
+                band("09:00", "16:00", "2.50", "12.00"),
+                band("16:00", "18:30", "4.00", null),
+                band("18:30", "06:30", "1.20", "4.00")));
+        RateCardStrategy compiled = new RateCardStrategy(card, List.of(VehicleType.TRUCK));
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime entry = MONDAY.plusMinutes(random.nextInt(7 * 24 * 60)).plusSeconds(random.nextInt(60));
+            LocalDateTime exit = entry.plusSeconds(random.nextInt(4 * 24 * 3600));
+
+            assertEquals(minuteByMinute(card, entry, exit), compiled.calculateFeeCents(entry, exit),
+                    "stay from " + entry + " to " + exit);
+        }
+    }
+
+    @Test
+    void constructor_ShouldRejectBandsThatDoNotCoverTheDay() {
+        List<VehicleType> types = List.of(VehicleType.CAR);
+
+        assertThrows(IllegalArgumentException.class, () -> new RateCardStrategy(new RateCard(0, 1, null,
+                List.of(band("07:00", "18:00", "3.00", null), band("19:00", "07:00", "1.00", null))), types));
+        assertThrows(IllegalArgumentException.class, () -> new RateCardStrategy(new RateCard(0, 1, null,
+                List.of(band("07:00", "20:00", "3.00", null), band("19:00", "07:00", "1.00", null))), types));
+        assertThrows(IllegalArgumentException.class, () -> new RateCardStrategy(new RateCard(0, 0, null,
+                List.of(band("00:00", "00:00", "3.00", null))), types));
+    }
+
+    private long fee(LocalDateTime entry, LocalDateTime exit) {
+        return strategy.calculateFeeCents(entry, exit);
+    }
+
+    // The rate card rules applied one minute at a time.
+    private static long minuteByMinute(RateCard card, LocalDateTime entry, LocalDateTime exit) {
+        long minutes = Stays.minutesBetween(entry, exit);
+        if (card.freeMinutes() > 0 && minutes <= card.freeMinutes()) {
+            return 0;
+        }
+        long increment = card.billingIncrementMinutes();
+        long billed = Math.max(1, (minutes - card.freeMinutes() + increment - 1) / increment) * increment;
+        LocalDateTime start = entry.withSecond(0).withNano(0).plusMinutes(card.freeMinutes());
+        long dailyMaximum = card.dailyMaximum().movePointRight(2).longValueExact() * 60;
+
+        long total = 0;
+        for (long period = 0; period < billed; period += 24 * 60) {
+            long periodCharge = 0;
+            long occurrenceCharge = 0;
+            RateCard.Band occurrence = null;
+            for (long minute = period; minute < Math.min(billed, period + 24 * 60); minute++) {
+                LocalTime time = start.plusMinutes(minute).toLocalTime();
+                RateCard.Band band = card.bands().stream().filter(candidate -> covers(candidate, time)).findFirst().orElseThrow();
+                if (band != occurrence || time.equals(band.from())) {
+                    periodCharge += capped(occurrence, occurrenceCharge);
+                    occurrence = band;
+                    occurrenceCharge = 0;
+                }
+                occurrenceCharge += band.hourlyRate().movePointRight(2).longValueExact();
+            }
+            periodCharge += capped(occurrence, occurrenceCharge);
+            total += Math.min(dailyMaximum, periodCharge);
+        }
+        return (total + 59) / 60;
+    }
+
+    private static boolean covers(RateCard.Band band, LocalTime time) {
+        return band.from().isBefore(band.to())
+                ? !time.isBefore(band.from()) && time.isBefore(band.to())
+                : !time.isBefore(band.from()) || time.isBefore(band.to());
+    }
+
+    private static long capped(RateCard.Band band, long charge) {
+        return band == null || band.cap() == null ? charge : Math.min(band.cap().movePointRight(2).longValueExact() * 60, charge);
+    }
+
+    private static RateCard.Band band(String from, String to, String hourlyRate, String cap) {
+        return new RateCard.Band(LocalTime.parse(from), LocalTime.parse(to), new BigDecimal(hourlyRate),
+                cap != null ? new BigDecimal(cap) : null);
+    }
+}
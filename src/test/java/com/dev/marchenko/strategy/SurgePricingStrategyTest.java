@@ -0,0 +1,79 @@
+package com.dev.marchenko.strategy;
+
+import com.dev.marchenko.demand.DemandTracker;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SurgePricingStrategyTest {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Mock
+    private DemandTracker demandTracker;
+
+    @Test
+    void calculateCents_ShouldRoundHalfACentOfTheRecordedSurgeUp() {
+        RateTable rates = RateTable.of(1L, List.of(new SurgePricingStrategy(flat("0.02"), demandTracker)));
+
+        // 2 cents x 1.125 = 2.25, 4 cents x 1.125 = 4.5
+        assertEquals(2, rates.calculateCents(VehicleType.CAR, ENTRY, ENTRY.plusHours(1), 1125L));
+        assertEquals(5, rates.calculateCents(VehicleType.CAR, ENTRY, ENTRY.plusHours(2), 1125L));
+        verify(demandTracker, never()).surgeMultiplier(any());
+    }
+
+    @Test
+    void calculateFeeCents_ShouldChargeTheBaseFeeWithoutALot() {
+        RateTable rates = RateTable.of(1L, List.of(new SurgePricingStrategy(flat("2.00"), demandTracker)));
+
+        assertEquals(400, rates.calculateCents(VehicleType.CAR, ENTRY, ENTRY.plusHours(2)));
+        verify(demandTracker, never()).surgeMultiplier(any());
+    }
+
+    @Test
+    void withRateCards_ShouldKeepPricingByDemand() {
+        when(demandTracker.surgeMultiplier(1L)).thenReturn(1500L);
+        RateTable rates = RateTable.of(1L, List.of(new SurgePricingStrategy(flat("2.00"), demandTracker)));
+        RateCard card = card("4.00");
+
+        RateTable reloaded = rates.withRateCards(2L, Map.of(VehicleType.CAR, card));
+
+        assertEquals(1500L, reloaded.surgeMultiplier(VehicleType.CAR, 1L));
+        assertEquals(1200, reloaded.calculateCents(VehicleType.CAR, ENTRY, ENTRY.plusHours(2), 1500L));
+        assertEquals(Map.of(VehicleType.CAR, card), reloaded.rateCards());
+    }
+
+    @Test
+    void surgeMultiplier_ShouldBeNoSurgeWithoutALotOrForStrategiesNotPricedByDemand() {
+        RateTable rates = RateTable.of(1L, List.of(new SurgePricingStrategy(flat("2.00"), demandTracker),
+                new RateCardStrategy(card("3.00"), List.of(VehicleType.TRUCK))));
+
+        assertEquals(DemandTracker.NO_SURGE, rates.surgeMultiplier(VehicleType.CAR, null));
+        assertEquals(DemandTracker.NO_SURGE, rates.surgeMultiplier(VehicleType.TRUCK, 1L));
+        verify(demandTracker, never()).surgeMultiplier(any());
+    }
+
+    private static RateCardStrategy flat(String hourlyRate) {
+        return new RateCardStrategy(card(hourlyRate), List.of(VehicleType.CAR));
+    }
+
+    private static RateCard card(String hourlyRate) {
+        return new RateCard(0, 60, null, List.of(
+                new RateCard.Band(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, new BigDecimal(hourlyRate), null)));
+    }
+}
@@ -0,0 +1,101 @@
+package com.dev.marchenko.topology;
+
+import com.dev.marchenko.domain.slot.SlotSnapshot;
+import com.dev.marchenko.domain.slot.SlotType;
+import com.dev.marchenko.event.TopologyChangedEvent;
+import com.dev.marchenko.repository.LevelRepository;
+import com.dev.marchenko.repository.ParkingLotRepository;
+import com.dev.marchenko.repository.SlotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TopologySnapshotTest {
+
+    private static final LotNode LOT1 = new LotNode(1L, "North");
+    private static final LotNode LOT2 = new LotNode(2L, "South");
+    private static final LevelNode LOT1_FLOOR1 = new LevelNode(10L, 1L, 1);
+    private static final LevelNode LOT2_FLOOR3 = new LevelNode(20L, 2L, 3);
+    private static final SlotNode LOT1_A1 = new SlotNode(100L, "A-1", SlotType.COMPACT, 10L, 1L, 1);
+    private static final SlotNode LOT2_B1 = new SlotNode(200L, "B-1", SlotType.LARGE, 20L, 2L, 3);
+
+    @Mock
+    private ParkingLotRepository lotRepository;
+    @Mock
+    private LevelRepository levelRepository;
+    @Mock
+    private SlotRepository slotRepository;
+
+    @InjectMocks
+    private TopologySnapshot topology;
+
+    @BeforeEach
+    void setUp() {
+        when(lotRepository.findAllNodes()).thenReturn(List.of(LOT1, LOT2));
+        when(levelRepository.findAllNodes()).thenReturn(List.of(LOT1_FLOOR1, LOT2_FLOOR3));
+        when(slotRepository.findAllNodes()).thenReturn(List.of(LOT1_A1, LOT2_B1));
+        topology.rebuild();
+    }
+
+    @Test
+    void rebuild_ShouldResolveSlotsLevelsAndLots() {
+        assertEquals(1L, topology.version());
+        assertEquals("A-1", topology.slot(100L).orElseThrow().slotNumber());
+        assertEquals(3, topology.slot(200L).orElseThrow().floorNumber());
+        assertEquals(new SlotSnapshot(200L, 2L, 20L, 3, SlotType.LARGE), topology.slot(200L).orElseThrow().toSnapshot());
+        assertEquals(LOT1_FLOOR1, topology.level(10L).orElseThrow());
+        assertEquals("South", topology.lot(2L).orElseThrow().name());
+        assertTrue(topology.slot(999L).isEmpty());
+        assertTrue(topology.slot(null).isEmpty());
+    }
+
+    @Test
+    void reloadLot_ShouldReplaceOnlyThatLotInANewVersion() {
+        Topology before = topology.current();
+        SlotNode added = new SlotNode(101L, "A-2", SlotType.HANDICAPPED, 10L, 1L, 1);
+        when(lotRepository.findNodeById(1L)).thenReturn(Optional.of(LOT1));
+        when(levelRepository.findNodesByLotId(1L)).thenReturn(List.of(LOT1_FLOOR1));
+        when(slotRepository.findNodesByLotId(1L)).thenReturn(List.of(LOT1_A1, added));
+
+        topology.onTopologyChanged(new TopologyChangedEvent(1L));
+
+        assertEquals(2L, topology.version());
+        assertEquals(added, topology.slot(101L).orElseThrow());
+        assertEquals(LOT2_B1, topology.slot(200L).orElseThrow());
+        assertTrue(before.slot(101L).isEmpty());
+        assertEquals(2, before.slotCount());
+        verify(slotRepository, times(1)).findAllNodes();
+    }
+
+    @Test
+    void reloadLot_ShouldDropARemovedLotWithItsLevelsAndSlots() {
+        when(lotRepository.findNodeById(2L)).thenReturn(Optional.empty());
+
+        topology.reloadLot(2L);
+
+        assertTrue(topology.lot(2L).isEmpty());
+        assertTrue(topology.level(20L).isEmpty());
+        assertTrue(topology.slot(200L).isEmpty());
+        assertEquals(1, topology.current().slotCount());
+    }
+
+    @Test
+    void onTopologyChanged_ShouldRebuildEverythingWithoutALot() {
+        when(slotRepository.findAllNodes()).thenReturn(List.of(LOT1_A1));
+
+        topology.onTopologyChanged(new TopologyChangedEvent(null));
+
+        assertEquals(2L, topology.version());
+        assertTrue(topology.slot(200L).isEmpty());
+    }
+}
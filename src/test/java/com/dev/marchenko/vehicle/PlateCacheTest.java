@@ -0,0 +1,68 @@
+package com.dev.marchenko.vehicle;
+
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlateCacheTest {
+
+    @Test
+    void put_ShouldEvictTheLeastRecentlyUsedPlate() {
+        PlateCache cache = new PlateCache(2);
+        cache.put("AA1111BB", VehicleType.CAR);
+        cache.put("BB2222CC", VehicleType.TRUCK);
+        cache.get("AA1111BB");
+
+        cache.put("CC3333DD", VehicleType.MOTORCYCLE);
+
+        assertEquals(VehicleType.CAR, cache.get("AA1111BB"));
+        assertNull(cache.get("BB2222CC"));
+        assertEquals(VehicleType.MOTORCYCLE, cache.get("CC3333DD"));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+    }
+
+    @Test
+    void put_ShouldNeverHoldMoreThanItsCapacity() {
+        PlateCache cache = new PlateCache(1000);
+        for (int i = 0; i < 5000; i++) {
+            cache.put("PLATE-" + i, VehicleType.CAR);
+        }
+
+        assertEquals(1000, cache.capacity());
+        assertTrue(cache.size() <= cache.capacity());
+        assertEquals(5000 - cache.size(), cache.evictions());
+        assertEquals(VehicleType.CAR, cache.get("PLATE-4999"));
+    }
+
+    @Test
+    void get_ShouldDistinguishPlatesThatDifferOnlyInCaseOrLength() {
+        PlateCache cache = new PlateCache(16);
+        cache.put("ab-12", VehicleType.CAR);
+        cache.put("0AB-12", VehicleType.TRUCK);
+        cache.put("AB 12", VehicleType.MOTORCYCLE);
+
+        assertEquals(VehicleType.CAR, cache.get("ab-12"));
+        assertNull(cache.get("AB-12"));
+        assertEquals(VehicleType.TRUCK, cache.get("0AB-12"));
+        assertEquals(VehicleType.MOTORCYCLE, cache.get("AB 12"));
+        assertNull(cache.get("AB-120"));
+    }
+
+    @Test
+    void plateKeys_ShouldPackShortPlatesIntoLongs() {
+        assertInstanceOf(Long.class, PlateKeys.of("AA1111BB"));
+        assertInstanceOf(String.class, PlateKeys.of("AA 1111 BB"));
+        assertInstanceOf(String.class, PlateKeys.of("AA1111BB-LONG"));
+    }
+
+    @Test
+    void plateKeys_ShouldTurnKeysBackIntoPlates() {
+        for (String plate : List.of("AA1111BB", "ab-12", "0AB-12", "zZ-90-zZ-9", "AA 1111 BB", "AA1111BB-LONG")) {
+            assertEquals(plate, PlateKeys.plate(PlateKeys.of(plate)));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.dev.marchenko.vehicle;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlateFilterTest {
+
+    @Test
+    void mightContain_ShouldKnowEveryAddedPlate() {
+        PlateFilter filter = new PlateFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("AA" + i + "BB");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("AA" + i + "BB"));
+        }
+    }
+
+    @Test
+    void mightContain_ShouldStayNearTheConfiguredFalsePositiveRate() {
+        PlateFilter filter = new PlateFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("AA" + i + "BB");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("CC" + i + "DD")) {
+                falsePositives++;
+            }
+        }
+
+        assertEquals(7, filter.hashCount());
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+}
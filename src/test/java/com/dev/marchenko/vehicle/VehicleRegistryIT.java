@@ -0,0 +1,73 @@
+package com.dev.marchenko.vehicle;
+
+import com.dev.marchenko.domain.vehicle.Truck;
+import com.dev.marchenko.domain.vehicle.Vehicle;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.repository.TicketRepository;
+import com.dev.marchenko.repository.VehicleRepository;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class VehicleRegistryIT {
+
+    @Autowired
+    private VehicleRegistry vehicleRegistry;
+    @Autowired
+    private VehicleRepository vehicleRepository;
+    @Autowired
+    private TicketRepository ticketRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        ticketRepository.deleteAllInBatch();
+        vehicleRepository.deleteAllInBatch();
+        vehicleRepository.save(new Truck("KNOWN-1"));
+        vehicleRegistry.rebuild();
+    }
+
+    @Test
+    void register_ShouldInsertOnlyPlatesThatAreNotRegisteredYet() {
+        VehicleType registered = transactionTemplate.execute(status -> vehicleRegistry.register("FRESH-1", VehicleType.CAR));
+        VehicleType existing = transactionTemplate.execute(status -> vehicleRegistry.register("KNOWN-1", VehicleType.CAR));
+
+        assertEquals(VehicleType.CAR, registered);
+        assertEquals(VehicleType.TRUCK, existing);
+        assertEquals(VehicleType.CAR, vehicleRepository.findById("FRESH-1").orElseThrow().getType());
+        assertEquals(VehicleType.TRUCK, vehicleRepository.findById("KNOWN-1").orElseThrow().getType());
+        assertEquals(2, vehicleRepository.count());
+    }
+
+    @Test
+    void register_ShouldNotCacheAPlateWhoseRegistrationRolledBack() {
+        transactionTemplate.executeWithoutResult(status -> {
+            vehicleRegistry.register("ROLLED-1", VehicleType.CAR);
+            status.setRollbackOnly();
+        });
+
+        assertFalse(vehicleRepository.existsById("ROLLED-1"));
+        assertEquals(VehicleType.TRUCK,
+                transactionTemplate.execute(status -> vehicleRegistry.register("ROLLED-1", VehicleType.TRUCK)));
+    }
+
+    @Test
+    void reference_ShouldAnswerTheTypeWithoutLoadingTheVehicle() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Vehicle vehicle = vehicleRegistry.reference("KNOWN-1", VehicleType.TRUCK);
+
+            assertEquals(VehicleType.TRUCK, vehicle.getType());
+            assertEquals("KNOWN-1", vehicle.getLicensePlate());
+            assertFalse(Hibernate.isInitialized(vehicle));
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package com.dev.marchenko.vehicle;
+
+import com.dev.marchenko.domain.vehicle.Car;
+import com.dev.marchenko.domain.vehicle.Truck;
+import com.dev.marchenko.domain.vehicle.VehicleType;
+import com.dev.marchenko.dto.VehicleCacheStatsResponse;
+import com.dev.marchenko.repository.VehicleRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class VehicleRegistryTest {
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private VehicleRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString(1)).thenReturn("REGULAR-1");
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        registry = new VehicleRegistry(vehicleRepository, entityManager, jdbcTemplate, true, 100, 1000, 0.01);
+        registry.rebuild();
+    }
+
+    @Test
+    void register_ShouldInsertANewPlateWithoutLookingItUp() {
+        when(vehicleRepository.insertIfAbsentOnConflict("NEW-1", "CAR")).thenReturn(1);
+
+        assertEquals(VehicleType.CAR, registry.register("NEW-1", VehicleType.CAR));
+        assertEquals(VehicleType.CAR, registry.register("NEW-1", VehicleType.CAR));
+
+        verify(vehicleRepository, never()).findById(any());
+        verify(vehicleRepository, times(1)).insertIfAbsentOnConflict(any(), any());
+        VehicleCacheStatsResponse stats = registry.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.filtered());
+        assertEquals(1, stats.registrations());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    void register_ShouldLookUpAPlateTheFilterKnowsOnceAndCacheIt() {
+        when(vehicleRepository.findById("REGULAR-1")).thenReturn(Optional.of(new Truck("REGULAR-1")));
+
+        assertEquals(VehicleType.TRUCK, registry.register("REGULAR-1", VehicleType.CAR));
+        assertEquals(VehicleType.TRUCK, registry.register("REGULAR-1", VehicleType.CAR));
+
+        verify(vehicleRepository, times(1)).findById("REGULAR-1");
+        verify(vehicleRepository, never()).insertIfAbsentOnConflict(any(), any());
+        assertEquals(1, registry.stats().misses());
+        assertEquals(0.5, registry.stats().hitRate());
+    }
+
+    @Test
+    void register_ShouldFallBackToALookupWhenThePlateWasRegisteredSinceTheFilterWasLoaded() {
+        when(vehicleRepository.insertIfAbsentOnConflict("ELSEWHERE-1", "CAR")).thenReturn(0);
+        when(vehicleRepository.findById("ELSEWHERE-1")).thenReturn(Optional.of(new Car("ELSEWHERE-1")));
+
+        assertEquals(VehicleType.CAR, registry.register("ELSEWHERE-1", VehicleType.CAR));
+
+        assertEquals(0, registry.stats().registrations());
+        assertEquals(VehicleType.CAR, registry.find("ELSEWHERE-1").orElseThrow());
+        assertEquals(1, registry.stats().hits());
+    }
+
+    @Test
+    void register_ShouldUseMergeOutsidePostgres() {
+        VehicleRegistry h2 = new VehicleRegistry(vehicleRepository, entityManager, jdbcTemplate, false, 100, 1000, 0.01);
+        when(vehicleRepository.insertIfAbsentMerge("NEW-2", "MOTORCYCLE")).thenReturn(1);
+
+        assertEquals(VehicleType.MOTORCYCLE, h2.register("NEW-2", VehicleType.MOTORCYCLE));
+
+        verify(vehicleRepository, never()).insertIfAbsentOnConflict(any(), any());
+    }
+
+    @Test
+    void find_ShouldCountFalsePositivesOfTheFilter() {
+        registry.registered("GONE-1", VehicleType.CAR);
+        registry.rebuild();
+        when(vehicleRepository.findById("REGULAR-1")).thenReturn(Optional.empty());
+
+        assertTrue(registry.find("REGULAR-1").isEmpty());
+        assertTrue(registry.find("GONE-1").isEmpty());
+
+        assertEquals(1, registry.stats().falsePositives());
+        assertEquals(1, registry.stats().filtered());
+        assertEquals(0, registry.stats().size());
+    }
+}